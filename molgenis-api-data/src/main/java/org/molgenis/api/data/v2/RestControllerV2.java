@@ -19,6 +19,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 import static org.springframework.web.servlet.support.ServletUriComponentsBuilder.fromCurrentServletMapping;
 
+import com.google.common.util.concurrent.Striped;
 import io.micrometer.core.annotation.Timed;
 import java.io.IOException;
 import java.io.StringWriter;
@@ -35,6 +36,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Stream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -109,6 +111,9 @@ public class RestControllerV2 {
 
   static final int MAX_ENTITIES = 1000;
 
+  /** Number of locks shared by the entity types that are updated in batch */
+  private static final int NR_ENTITY_TYPE_LOCK_STRIPES = 64;
+
   static final String API_VERSION = "v2";
   static final String BASE_URI = ApiNamespace.API_PATH + '/' + API_VERSION;
   public static final String TIME_PARAM_NAME = "_t";
@@ -119,6 +124,7 @@ public class RestControllerV2 {
   private final PermissionSystemService permissionSystemService;
   private final RepositoryCopier repoCopier;
   private final LocalizationService localizationService;
+  private final Striped<Lock> entityTypeLocks = Striped.lock(NR_ENTITY_TYPE_LOCK_STRIPES);
 
   static MolgenisDataAccessException createMolgenisDataAccessExceptionReadOnlyAttribute(
       String entityTypeId, String attributeName) {
@@ -324,7 +330,7 @@ public class RestControllerV2 {
    */
   @SuppressWarnings("java:S2259") // getEntities is guaranteed to be not empty
   @Transactional
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   @PostMapping(value = "/{entityTypeId}", produces = APPLICATION_JSON_VALUE)
   public EntityCollectionBatchCreateResponseBodyV2 createEntities(
       @PathVariable("entityTypeId") String entityTypeId,
@@ -388,7 +394,7 @@ public class RestControllerV2 {
    */
   @Deprecated
   @Transactional
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   @PostMapping(value = "copy/{entityTypeId}", produces = APPLICATION_JSON_VALUE)
   public String copyEntity(
       @PathVariable("entityTypeId") String entityTypeId,
@@ -451,7 +457,8 @@ public class RestControllerV2 {
   }
 
   /**
-   * Try to update multiple entities in one transaction. If one fails all fails.
+   * Try to update multiple entities in one transaction. If one fails all fails. Batch updates of
+   * the same entity type are executed one at a time.
    *
    * @param entityTypeId name of the entity where the entities are going to be added.
    * @param request EntityCollectionCreateRequestV2
@@ -459,14 +466,16 @@ public class RestControllerV2 {
    */
   @SuppressWarnings("java:S2259") // getEntities is guaranteed to be not empty
   @Transactional
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   @PutMapping("/{entityTypeId}")
-  public synchronized void updateEntities(
+  public void updateEntities(
       @PathVariable("entityTypeId") String entityTypeId,
       @RequestBody @Valid EntityCollectionBatchRequestV2 request,
       HttpServletResponse response) {
     final EntityType meta = dataService.getEntityType(entityTypeId);
 
+    Lock lock = entityTypeLocks.get(entityTypeId);
+    lock.lock();
     try {
       List<Entity> entities =
           request.getEntities().stream()
@@ -483,6 +492,8 @@ public class RestControllerV2 {
     } catch (Exception e) {
       response.setStatus(HttpServletResponse.SC_NO_CONTENT);
       throw e;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -506,6 +517,9 @@ public class RestControllerV2 {
   }
 
   /**
+   * Updates one attribute of multiple entities. Batch updates of the same entity type are executed
+   * one at a time.
+   *
    * @param entityTypeId The name of the entity to update
    * @param attributeName The name of the attribute to update
    * @param request EntityCollectionBatchRequestV2
@@ -513,16 +527,18 @@ public class RestControllerV2 {
    */
   @SuppressWarnings("java:S2259") // getEntities is guaranteed to be not empty
   @Transactional
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   @PutMapping("/{entityTypeId}/{attributeName}")
   @ResponseStatus(OK)
-  public synchronized void updateAttribute(
+  public void updateAttribute(
       @PathVariable("entityTypeId") String entityTypeId,
       @PathVariable("attributeName") String attributeName,
       @RequestBody @Valid EntityCollectionBatchRequestV2 request,
       HttpServletResponse response) {
     final EntityType meta = dataService.getEntityType(entityTypeId);
 
+    Lock lock = entityTypeLocks.get(entityTypeId);
+    lock.lock();
     try {
       Attribute attr = meta.getAttribute(attributeName);
       if (attr == null) {
@@ -564,6 +580,8 @@ public class RestControllerV2 {
     } catch (Exception e) {
       response.setStatus(HttpServletResponse.SC_NO_CONTENT);
       throw e;
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -0,0 +1,35 @@
+package org.molgenis.api.data.v3;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Base64;
+import java.util.List;
+import org.molgenis.util.ListEscapeUtils;
+
+/** Encodes and decodes the opaque continuation tokens used for cursor (keyset) pagination. */
+class Cursors {
+  private Cursors() {}
+
+  /**
+   * @param values string representations of the sort attribute values of the last entity of a page
+   * @return continuation token of the next page
+   */
+  static String encode(List<String> values) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(ListEscapeUtils.toString(values).getBytes(UTF_8));
+  }
+
+  /**
+   * @param cursor continuation token
+   * @return string representations of the sort attribute values of the last entity of a page
+   * @throws InvalidCursorException if the cursor is not a valid continuation token
+   */
+  static List<String> decode(String cursor) {
+    try {
+      return ListEscapeUtils.toList(new String(Base64.getUrlDecoder().decode(cursor), UTF_8));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.molgenis.api.data.v3;
 import java.util.Map;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.molgenis.api.data.v3.model.TotalMode;
 import org.molgenis.api.model.Query;
 import org.molgenis.api.model.Selection;
 import org.molgenis.api.model.Sort;
@@ -58,6 +59,7 @@ interface DataServiceV3 {
    * @param sort entities sort criteria
    * @param size maximum number of entities to return
    * @param number page number
+   * @param totalMode whether the total number of entities is counted, estimated or omitted
    * @return entities, never null
    * @throws UnknownRepositoryException if no repository exists for the given entity type identifier
    */
@@ -68,7 +70,35 @@ interface DataServiceV3 {
       Selection expand,
       Sort sort,
       int size,
-      int number);
+      int number,
+      TotalMode totalMode);
+
+  /**
+   * Retrieves the page of entities matching a query that follows the page identified by a cursor.
+   * Pages are selected by seeking past the sort values of the last entity of the previous page
+   * (keyset pagination), so the cost of retrieving a page does not depend on its depth.
+   *
+   * @param entityTypeId entity type identifier
+   * @param query query specifying which entities to find, or null
+   * @param filter selection describing the filter attributes
+   * @param expand selection describing the expansion attributes
+   * @param sort entities sort criteria
+   * @param size maximum number of entities to return
+   * @param cursor continuation token returned with the previous page, or null for the first page
+   * @return entities and the continuation token of the next page if there is one, never null
+   * @throws UnknownRepositoryException if no repository exists for the given entity type identifier
+   * @throws UnsupportedCursorSortAttributeException if a sort attribute is not suitable for cursor
+   *     pagination
+   * @throws InvalidCursorException if the cursor is not a valid continuation token for the sort
+   */
+  Entities findAllAfter(
+      String entityTypeId,
+      @Nullable @CheckForNull Query query,
+      Selection filter,
+      Selection expand,
+      Sort sort,
+      int size,
+      @Nullable @CheckForNull String cursor);
 
   /**
    * Update one entity.
@@ -5,6 +5,7 @@ import static java.util.stream.Collectors.toList;
 import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +14,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.molgenis.api.data.QueryMapper;
 import org.molgenis.api.data.SortMapper;
+import org.molgenis.api.data.v3.model.TotalMode;
 import org.molgenis.api.model.Query;
 import org.molgenis.api.model.Selection;
 import org.molgenis.api.model.Sort;
@@ -23,6 +25,7 @@ import org.molgenis.data.Repository;
 import org.molgenis.data.UnknownAttributeException;
 import org.molgenis.data.UnknownEntityException;
 import org.molgenis.data.UnknownRepositoryException;
+import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.MetadataAccessException;
 import org.molgenis.data.meta.model.Attribute;
@@ -33,6 +36,7 @@ import org.molgenis.data.util.EntityUtils;
 import org.molgenis.data.validation.EntityErrors;
 import org.molgenis.data.validation.EntityValidator;
 import org.molgenis.data.validation.RepositoryConstraintViolationException;
+import org.molgenis.util.UnexpectedEnumException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -152,7 +156,7 @@ class DataServiceV3Impl implements DataServiceV3 {
     Entities result;
     if (!refEntityIds.isEmpty()) {
       q.in(refEntityType.getIdAttribute().getName(), refEntityIds);
-      result = getEntities(filter, expand, sort, size, number, refRepository, q);
+      result = getEntities(filter, expand, sort, size, number, TotalMode.EXACT, refRepository, q);
     } else {
       result = Entities.builder().setEntities(Collections.emptyList()).setTotal(0).build();
     }
@@ -168,12 +172,13 @@ class DataServiceV3Impl implements DataServiceV3 {
       Selection expand,
       Sort sort,
       int size,
-      int number) {
+      int number,
+      TotalMode totalMode) {
     Repository<Entity> repository = getRepository(entityTypeId, OperationType.READ);
     org.molgenis.data.Query<Entity> findQuery =
         query != null ? queryMapper.map(query, repository) : new QueryImpl<>(repository);
 
-    return getEntities(filter, expand, sort, size, number, repository, findQuery);
+    return getEntities(filter, expand, sort, size, number, totalMode, repository, findQuery);
   }
 
   private Entities getEntities(
@@ -182,6 +187,7 @@ class DataServiceV3Impl implements DataServiceV3 {
       Sort sort,
       int size,
       int number,
+      TotalMode totalMode,
       Repository<Entity> repository,
       org.molgenis.data.Query<Entity> query) {
     EntityType entityType = repository.getEntityType();
@@ -195,12 +201,173 @@ class DataServiceV3Impl implements DataServiceV3 {
     findQuery.sort(sortMapper.map(sort, entityType));
     List<Entity> entities = repository.findAll(findQuery).collect(toList());
 
+    int offset = number * size;
+    if (entities.size() < size && (!entities.isEmpty() || offset == 0)) {
+      // last page: the total follows from the page, no need to count
+      return Entities.builder().setEntities(entities).setTotal(offset + entities.size()).build();
+    }
+
     org.molgenis.data.Query<Entity> countQuery = new QueryImpl<>(query);
     countQuery.offset(0);
     countQuery.pageSize(Integer.MAX_VALUE);
-    int count = Math.toIntExact(repository.count(countQuery));
 
-    return Entities.builder().setEntities(entities).setTotal(count).build();
+    Entities.Builder builder = Entities.builder().setEntities(entities);
+    switch (totalMode) {
+      case EXACT:
+        builder.setTotal(Math.toIntExact(repository.count(countQuery)));
+        break;
+      case ESTIMATED:
+        // an estimate might be lower than the number of entities retrieved so far
+        long estimate = Math.max(repository.estimateCount(countQuery), offset + entities.size());
+        builder.setTotal((int) Math.min(estimate, Integer.MAX_VALUE)).setTotalEstimated(true);
+        break;
+      case NONE:
+        break;
+      default:
+        throw new UnexpectedEnumException(totalMode);
+    }
+    return builder.build();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public Entities findAllAfter(
+      String entityTypeId,
+      @Nullable @CheckForNull Query query,
+      Selection filter,
+      Selection expand,
+      Sort sort,
+      int size,
+      @Nullable @CheckForNull String cursor) {
+    Repository<Entity> repository = getRepository(entityTypeId, OperationType.READ);
+    EntityType entityType = repository.getEntityType();
+    org.molgenis.data.Query<Entity> molgenisQuery =
+        query != null ? queryMapper.map(query, repository) : new QueryImpl<>(repository);
+
+    org.molgenis.data.Sort cursorSort = getCursorSort(sortMapper.map(sort, entityType), entityType);
+    List<Attribute> sortAttributes = new ArrayList<>();
+    cursorSort.forEach(order -> sortAttributes.add(entityType.getAttribute(order.getAttr())));
+
+    // the cursor of the next page is created from the sort values of the last entity
+    Fetch fetch = fetchMapper.toFetch(entityType, filter, expand);
+    if (fetch != null) {
+      sortAttributes.stream()
+          .filter(sortAttribute -> !fetch.hasField(sortAttribute))
+          .forEach(sortAttribute -> fetch.field(sortAttribute.getName()));
+    }
+
+    QueryImpl<Entity> findQuery = new QueryImpl<>();
+    if (!molgenisQuery.getRules().isEmpty()) {
+      findQuery.nest();
+      molgenisQuery.getRules().forEach(findQuery::addRule);
+      findQuery.unnest();
+    }
+    if (cursor != null && !cursor.isEmpty()) {
+      if (!findQuery.getRules().isEmpty()) {
+        findQuery.and();
+      }
+      addSeekRules(findQuery, cursorSort, sortAttributes, cursor);
+    }
+    findQuery.fetch(fetch);
+    // retrieve one additional entity to determine whether a next page exists
+    findQuery.pageSize(size + 1);
+    findQuery.sort(cursorSort);
+    List<Entity> entities = repository.findAll(findQuery).collect(toList());
+
+    String nextCursor = null;
+    if (entities.size() > size) {
+      entities = entities.subList(0, size);
+      Entity lastEntity = entities.get(size - 1);
+      nextCursor =
+          Cursors.encode(
+              sortAttributes.stream()
+                  .map(sortAttribute -> toCursorValue(lastEntity, sortAttribute))
+                  .collect(toList()));
+    }
+    return Entities.builder().setEntities(entities).setNextCursor(nextCursor).build();
+  }
+
+  /**
+   * Returns the sort extended with the id attribute so that it defines a unique order of entities.
+   *
+   * @throws UnsupportedCursorSortAttributeException if a sort attribute is not suitable for cursor
+   *     pagination
+   */
+  private org.molgenis.data.Sort getCursorSort(org.molgenis.data.Sort sort, EntityType entityType) {
+    Attribute idAttribute = entityType.getIdAttribute();
+    org.molgenis.data.Sort cursorSort = new org.molgenis.data.Sort();
+    for (org.molgenis.data.Sort.Order order : sort) {
+      Attribute attribute = entityType.getAttribute(order.getAttr());
+      if (!isCursorSortAttribute(attribute, idAttribute)) {
+        throw new UnsupportedCursorSortAttributeException(attribute);
+      }
+      cursorSort.on(order.getAttr(), order.getDirection());
+      if (attribute.equals(idAttribute)) {
+        return cursorSort;
+      }
+    }
+    return cursorSort.on(idAttribute.getName());
+  }
+
+  private static boolean isCursorSortAttribute(Attribute attribute, Attribute idAttribute) {
+    return attribute.getExpression() == null
+        && !EntityTypeUtils.isReferenceType(attribute)
+        && attribute.getDataType() != AttributeType.COMPOUND
+        && (!attribute.isNillable() || attribute.equals(idAttribute));
+  }
+
+  /**
+   * Adds rules that select the entities positioned after the entity identified by the cursor, e.g.
+   * for sort (a ASC, id ASC): (a > a0) OR (a = a0 AND id > id0).
+   */
+  private static void addSeekRules(
+      QueryImpl<Entity> query,
+      org.molgenis.data.Sort sort,
+      List<Attribute> sortAttributes,
+      String cursor) {
+    List<String> cursorValues = Cursors.decode(cursor);
+    if (cursorValues.size() != sortAttributes.size()) {
+      throw new InvalidCursorException(cursor);
+    }
+    List<Object> values = new ArrayList<>(cursorValues.size());
+    try {
+      for (int i = 0; i < cursorValues.size(); i++) {
+        values.add(EntityUtils.getTypedValue(cursorValues.get(i), sortAttributes.get(i)));
+      }
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException(cursor, e);
+    }
+
+    List<org.molgenis.data.Sort.Order> orders = new ArrayList<>();
+    sort.forEach(orders::add);
+
+    query.nest();
+    for (int i = 0; i < orders.size(); i++) {
+      if (i > 0) {
+        query.or();
+      }
+      query.nest();
+      for (int j = 0; j < i; j++) {
+        query.eq(orders.get(j).getAttr(), values.get(j)).and();
+      }
+      org.molgenis.data.Sort.Order order = orders.get(i);
+      if (order.getDirection() == org.molgenis.data.Sort.Direction.DESC) {
+        query.lt(order.getAttr(), values.get(i));
+      } else {
+        query.gt(order.getAttr(), values.get(i));
+      }
+      query.unnest();
+    }
+    query.unnest();
+  }
+
+  private static String toCursorValue(Entity entity, Attribute attribute) {
+    Object value = entity.get(attribute.getName());
+    if (value == null) {
+      throw new IllegalStateException(
+          String.format("Sort attribute [%s] value is null", attribute.getName()));
+    }
+    return value.toString();
   }
 
   @Transactional
@@ -2,20 +2,32 @@ package org.molgenis.api.data.v3;
 
 import com.google.auto.value.AutoValue;
 import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.molgenis.data.Entity;
 
 @AutoValue
 abstract class Entities {
   abstract List<Entity> getEntities();
 
-  abstract int getTotal();
+  /** @return total number of entities, or null if the total was not counted */
+  abstract @Nullable @CheckForNull Integer getTotal();
+
+  /** @return whether the total number of entities is an estimate */
+  abstract boolean isTotalEstimated();
+
+  /**
+   * @return continuation token of the next page when paging with a cursor, or null if there is no
+   *     next page
+   */
+  abstract @Nullable @CheckForNull String getNextCursor();
 
   public static Entities create(List<Entity> newEntities, int newTotal) {
     return builder().setEntities(newEntities).setTotal(newTotal).build();
   }
 
   public static Builder builder() {
-    return new AutoValue_Entities.Builder();
+    return new AutoValue_Entities.Builder().setTotalEstimated(false);
   }
 
   @SuppressWarnings(
@@ -25,7 +37,11 @@ abstract class Entities {
 
     public abstract Builder setEntities(List<Entity> newEntities);
 
-    public abstract Builder setTotal(int newTotal);
+    public abstract Builder setTotal(Integer newTotal);
+
+    public abstract Builder setTotalEstimated(boolean newTotalEstimated);
+
+    public abstract Builder setNextCursor(String newNextCursor);
 
     public abstract Entities build();
   }
@@ -63,12 +63,14 @@ abstract class EntityCollection {
 
     abstract int getPageSize();
 
+    abstract boolean isTotalEstimated();
+
     static Page create(int newOffset, int newTotal, int newPageSize) {
       return builder().setOffset(newOffset).setTotal(newTotal).setPageSize(newPageSize).build();
     }
 
     static Builder builder() {
-      return new AutoValue_EntityCollection_Page.Builder();
+      return new AutoValue_EntityCollection_Page.Builder().setTotalEstimated(false);
     }
 
     @SuppressWarnings(
@@ -82,6 +84,8 @@ abstract class EntityCollection {
 
       abstract Builder setPageSize(int newPageSize);
 
+      abstract Builder setTotalEstimated(boolean newTotalEstimated);
+
       abstract Page build();
     }
   }
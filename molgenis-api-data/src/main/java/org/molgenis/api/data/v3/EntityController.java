@@ -153,6 +153,10 @@ public class EntityController extends ApiController {
   @Transactional(readOnly = true)
   @GetMapping("/{entityTypeId}")
   public EntitiesResponse getEntities(@Valid ReadEntitiesRequest entitiesRequest) {
+    if (entitiesRequest.getCursor().isPresent()) {
+      return getEntitiesAfter(entitiesRequest);
+    }
+
     String entityTypeId = entitiesRequest.getEntityTypeId();
     Selection filter = entitiesRequest.getFilter();
     Selection expand = entitiesRequest.getExpand();
@@ -162,20 +166,55 @@ public class EntityController extends ApiController {
 
     Entities entities =
         dataServiceV3.findAll(
-            entityTypeId, entitiesRequest.getQ().orElse(null), filter, expand, sort, size, page);
+            entityTypeId,
+            entitiesRequest.getQ().orElse(null),
+            filter,
+            expand,
+            sort,
+            size,
+            page,
+            entitiesRequest.getTotal());
+
+    EntityCollection.Builder builder =
+        EntityCollection.builder()
+            .setEntityTypeId(entityTypeId)
+            .setEntities(entities.getEntities());
+    Integer total = entities.getTotal();
+    if (total != null) {
+      builder.setPage(
+          Page.builder()
+              .setOffset(size * page)
+              .setPageSize(size)
+              .setTotal(total)
+              .setTotalEstimated(entities.isTotalEstimated())
+              .build());
+    }
+    EntityCollection entityCollection = builder.build();
+
+    return entityMapper.map(entityCollection, filter, expand, size, page, entities.getTotal());
+  }
+
+  private EntitiesResponse getEntitiesAfter(ReadEntitiesRequest entitiesRequest) {
+    String entityTypeId = entitiesRequest.getEntityTypeId();
+    Selection filter = entitiesRequest.getFilter();
+    Selection expand = entitiesRequest.getExpand();
+
+    Entities entities =
+        dataServiceV3.findAllAfter(
+            entityTypeId,
+            entitiesRequest.getQ().orElse(null),
+            filter,
+            expand,
+            entitiesRequest.getSort(),
+            entitiesRequest.getSize(),
+            entitiesRequest.getCursor().orElse(null));
 
     EntityCollection entityCollection =
         EntityCollection.builder()
             .setEntityTypeId(entityTypeId)
             .setEntities(entities.getEntities())
-            .setPage(
-                Page.builder()
-                    .setOffset(size * page)
-                    .setPageSize(size)
-                    .setTotal(entities.getTotal())
-                    .build())
             .build();
 
-    return entityMapper.map(entityCollection, filter, expand, size, page, entities.getTotal());
+    return entityMapper.map(entityCollection, filter, expand, entities.getNextCursor());
   }
 }
@@ -1,5 +1,7 @@
 package org.molgenis.api.data.v3;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.molgenis.api.data.v3.model.EntitiesResponse;
 import org.molgenis.api.data.v3.model.EntityResponse;
 import org.molgenis.api.model.Selection;
@@ -14,5 +16,11 @@ public interface EntityMapper {
       Selection expand,
       int size,
       int number,
-      int total);
+      @Nullable @CheckForNull Integer total);
+
+  EntitiesResponse map(
+      EntityCollection entityCollection,
+      Selection filter,
+      Selection expand,
+      @Nullable @CheckForNull String nextCursor);
 }
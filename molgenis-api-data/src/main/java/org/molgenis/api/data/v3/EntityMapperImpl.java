@@ -43,20 +43,40 @@ public class EntityMapperImpl implements EntityMapper {
       Selection expand,
       int size,
       int number,
-      int total) {
+      @Nullable @CheckForNull Integer total) {
     EntitiesResponse.Builder builder = mapRecursive(entityCollection, filter, expand, 0);
 
-    LinksResponse linksResponse = LinksUtils.createLinksResponse(number, size, total);
+    LinksResponse linksResponse;
+    if (total != null) {
+      linksResponse = LinksUtils.createLinksResponse(number, size, total);
+    } else {
+      linksResponse = LinksUtils.createLinksResponse(number, entityCollection.getSize() == size);
+    }
 
     setPageResponse(entityCollection, builder);
 
     return builder.setLinks(linksResponse).build();
   }
 
+  @Override
+  public EntitiesResponse map(
+      EntityCollection entityCollection,
+      Selection filter,
+      Selection expand,
+      @Nullable @CheckForNull String nextCursor) {
+    EntitiesResponse.Builder builder = mapRecursive(entityCollection, filter, expand, 0);
+
+    LinksResponse linksResponse = LinksUtils.createCursorLinksResponse(nextCursor);
+
+    return builder.setLinks(linksResponse).build();
+  }
+
   private void setPageResponse(EntityCollection entityCollection, Builder builder) {
     Page page = entityCollection.getPage();
     if (page != null) {
-      builder.setPage(getPageResponse(page.getPageSize(), page.getOffset(), page.getTotal()));
+      builder.setPage(
+          getPageResponse(
+              page.getPageSize(), page.getOffset(), page.getTotal(), page.isTotalEstimated()));
     }
   }
 
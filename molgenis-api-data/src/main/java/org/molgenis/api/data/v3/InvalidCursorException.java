@@ -0,0 +1,30 @@
+package org.molgenis.api.data.v3;
+
+import org.molgenis.util.exception.BadRequestException;
+
+@SuppressWarnings("java:S110")
+public class InvalidCursorException extends BadRequestException {
+  private static final String ERROR_CODE = "DAPI03";
+
+  private final String cursor;
+
+  InvalidCursorException(String cursor) {
+    super(ERROR_CODE);
+    this.cursor = cursor;
+  }
+
+  InvalidCursorException(String cursor, Throwable cause) {
+    super(ERROR_CODE, cause);
+    this.cursor = cursor;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("cursor:%s", cursor);
+  }
+
+  @Override
+  protected Object[] getLocalizedMessageArguments() {
+    return new Object[] {cursor};
+  }
+}
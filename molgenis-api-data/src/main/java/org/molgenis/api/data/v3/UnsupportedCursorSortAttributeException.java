@@ -0,0 +1,26 @@
+package org.molgenis.api.data.v3;
+
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.util.exception.BadRequestException;
+
+@SuppressWarnings("java:S110")
+public class UnsupportedCursorSortAttributeException extends BadRequestException {
+  private static final String ERROR_CODE = "DAPI04";
+
+  private final String attributeName;
+
+  UnsupportedCursorSortAttributeException(Attribute attribute) {
+    super(ERROR_CODE);
+    this.attributeName = attribute.getName();
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("attribute:%s", attributeName);
+  }
+
+  @Override
+  protected Object[] getLocalizedMessageArguments() {
+    return new Object[] {attributeName};
+  }
+}
@@ -22,6 +22,15 @@ public class ReadEntitiesRequest extends AbstractReadRequest {
 
   private Query q;
 
+  /**
+   * Continuation token of the page to retrieve when paging with a cursor. An empty value requests
+   * the first page.
+   */
+  private String cursor;
+
+  /** Determines whether the total is counted, estimated or omitted. */
+  private TotalMode total = TotalMode.EXACT;
+
   public int getPage() {
     return page;
   }
@@ -53,4 +62,20 @@ public class ReadEntitiesRequest extends AbstractReadRequest {
   public void setQ(Query q) {
     this.q = q;
   }
+
+  public Optional<String> getCursor() {
+    return Optional.ofNullable(cursor);
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
+
+  public TotalMode getTotal() {
+    return total;
+  }
+
+  public void setTotal(TotalMode total) {
+    this.total = total;
+  }
 }
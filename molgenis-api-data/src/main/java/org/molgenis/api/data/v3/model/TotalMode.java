@@ -0,0 +1,11 @@
+package org.molgenis.api.data.v3.model;
+
+/** Determines how the total number of entities matching a query is computed. */
+public enum TotalMode {
+  /** Count all entities matching the query */
+  EXACT,
+  /** Estimate the number of entities matching the query, e.g. based on database statistics */
+  ESTIMATED,
+  /** Do not compute the total number of entities matching the query */
+  NONE
+}
@@ -1,6 +1,7 @@
 package org.molgenis.api.data.v2;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
@@ -9,8 +10,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
@@ -67,6 +70,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterAll;
@@ -132,6 +139,7 @@ import org.springframework.http.converter.json.GsonHttpMessageConverter;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
@@ -1054,6 +1062,54 @@ class RestControllerV2Test extends AbstractMolgenisSpringTest {
         .andExpect(jsonPath(FIRST_ERROR_MESSAGE, is("Message (entity 5)")));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void testUpdateEntitiesConcurrentlyForDifferentEntityTypes() throws Exception {
+    EntityType refEntityType = dataService.getEntityType(REF_ENTITY_NAME);
+    when(entityManager.create(refEntityType, POPULATE))
+        .thenAnswer(invocation -> new DynamicEntity(refEntityType));
+
+    CountDownLatch entitiesUpdateStarted = new CountDownLatch(1);
+    CountDownLatch refEntitiesUpdated = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              entitiesUpdateStarted.countDown();
+              assertTrue(refEntitiesUpdated.await(10, SECONDS));
+              return null;
+            })
+        .when(dataService)
+        .update(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
+    doAnswer(
+            invocation -> {
+              refEntitiesUpdated.countDown();
+              return null;
+            })
+        .when(dataService)
+        .update(eq(REF_ENTITY_NAME), (Stream<Entity>) any(Stream.class));
+
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<ResultActions> entitiesUpdate =
+          executorService.submit(
+              () ->
+                  mockMvc.perform(
+                      put(HREF_ENTITY_COLLECTION)
+                          .content("{entities:[{id:'p1', name:'Witte Piet'}]}")
+                          .contentType(APPLICATION_JSON)));
+      assertTrue(entitiesUpdateStarted.await(10, SECONDS));
+
+      mockMvc
+          .perform(
+              put(BASE_URI + '/' + REF_ENTITY_NAME)
+                  .content("{entities:[{id:'ref0'}]}")
+                  .contentType(APPLICATION_JSON))
+          .andExpect(status().isOk());
+      entitiesUpdate.get(10, SECONDS).andExpect(status().isOk());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
   @Test
   void testUpdateEntitiesNoEntities() throws Exception {
     mockMvc
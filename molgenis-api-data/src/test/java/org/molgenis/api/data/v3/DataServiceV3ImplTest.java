@@ -2,6 +2,7 @@ package org.molgenis.api.data.v3;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -9,8 +10,10 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
 import static org.molgenis.data.meta.AttributeType.MREF;
 import static org.molgenis.data.meta.AttributeType.STRING;
 
@@ -25,6 +28,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.molgenis.api.data.QueryMapper;
 import org.molgenis.api.data.SortMapper;
+import org.molgenis.api.data.v3.model.TotalMode;
 import org.molgenis.api.model.Order.Direction;
 import org.molgenis.api.model.Query;
 import org.molgenis.api.model.Query.Operator;
@@ -240,7 +244,7 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
     org.molgenis.data.Query<Entity> findQuery = new QueryImpl<>(findAllQuery);
     findQuery.fetch(fetch);
     findQuery.offset(10);
-    findQuery.pageSize(10);
+    findQuery.pageSize(2);
     findQuery.sort(dataSort);
 
     org.molgenis.data.Query<Entity> countQuery = new QueryImpl<>(findAllQuery);
@@ -254,12 +258,127 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
 
     when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
 
-    Entities actual = dataServiceV3Impl.findAll(entityTypeId, q, filter, expand, sort, 10, 1);
+    Entities actual =
+        dataServiceV3Impl.findAll(entityTypeId, q, filter, expand, sort, 2, 5, TotalMode.EXACT);
 
     assertEquals(
         actual, Entities.builder().setEntities(asList(entity1, entity2)).setTotal(100).build());
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllLastPage() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    EntityType entityType = mock(EntityType.class);
+
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+
+    Entity entity1 = mock(Entity.class);
+    Entity entity2 = mock(Entity.class);
+
+    Fetch fetch = new Fetch().field("id");
+
+    org.molgenis.data.Query<Entity> findQuery = new QueryImpl<>(repository);
+    findQuery.fetch(fetch);
+    findQuery.offset(10);
+    findQuery.pageSize(10);
+
+    when(fetchMapper.toFetch(entityType, filter, expand)).thenReturn(fetch);
+    when(repository.findAll(findQuery)).thenReturn(Stream.of(entity1, entity2));
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+
+    Entities actual =
+        dataServiceV3Impl.findAll(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 10, 1, TotalMode.EXACT);
+
+    assertEquals(
+        Entities.builder().setEntities(asList(entity1, entity2)).setTotal(12).build(), actual);
+    verify(repository, never()).count(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllTotalEstimated() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    EntityType entityType = mock(EntityType.class);
+
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+
+    Entity entity1 = mock(Entity.class);
+    Entity entity2 = mock(Entity.class);
+
+    Fetch fetch = new Fetch().field("id");
+
+    org.molgenis.data.Query<Entity> findQuery = new QueryImpl<>(repository);
+    findQuery.fetch(fetch);
+    findQuery.offset(2);
+    findQuery.pageSize(2);
+
+    org.molgenis.data.Query<Entity> countQuery = new QueryImpl<>(repository);
+    countQuery.offset(0);
+    countQuery.pageSize(Integer.MAX_VALUE);
+
+    when(fetchMapper.toFetch(entityType, filter, expand)).thenReturn(fetch);
+    when(repository.findAll(findQuery)).thenReturn(Stream.of(entity1, entity2));
+    when(repository.estimateCount(countQuery)).thenReturn(3L);
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+
+    Entities actual =
+        dataServiceV3Impl.findAll(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 2, 1, TotalMode.ESTIMATED);
+
+    assertEquals(
+        Entities.builder()
+            .setEntities(asList(entity1, entity2))
+            .setTotal(4)
+            .setTotalEstimated(true)
+            .build(),
+        actual);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllTotalNone() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    EntityType entityType = mock(EntityType.class);
+
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+
+    Entity entity1 = mock(Entity.class);
+    Entity entity2 = mock(Entity.class);
+
+    Fetch fetch = new Fetch().field("id");
+
+    org.molgenis.data.Query<Entity> findQuery = new QueryImpl<>(repository);
+    findQuery.fetch(fetch);
+    findQuery.offset(2);
+    findQuery.pageSize(2);
+
+    when(fetchMapper.toFetch(entityType, filter, expand)).thenReturn(fetch);
+    when(repository.findAll(findQuery)).thenReturn(Stream.of(entity1, entity2));
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+
+    Entities actual =
+        dataServiceV3Impl.findAll(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 2, 1, TotalMode.NONE);
+
+    assertEquals(Entities.builder().setEntities(asList(entity1, entity2)).build(), actual);
+    verify(repository, never()).count(any());
+    verify(repository, never()).estimateCount(any());
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testFindField() {
@@ -316,7 +435,7 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
     findQuery.in("id", Arrays.asList("entity1", "entity2", "entity3"));
     findQuery.fetch(fetch);
     findQuery.offset(10);
-    findQuery.pageSize(10);
+    findQuery.pageSize(2);
     findQuery.sort(dataSort);
 
     org.molgenis.data.Query<Entity> countQuery = new QueryImpl<>(findAllQuery);
@@ -334,7 +453,7 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
 
     Entities actual =
         dataServiceV3Impl.findSubresources(
-            entityTypeId, entityId, fieldId, q, filter, expand, sort, 10, 1);
+            entityTypeId, entityId, fieldId, q, filter, expand, sort, 2, 5);
 
     assertEquals(
         actual, Entities.builder().setEntities(asList(entity1, entity2)).setTotal(100).build());
@@ -398,7 +517,7 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
     findQuery.in("id", Arrays.asList("entity1", "entity2", "entity3"));
     findQuery.fetch(fetch);
     findQuery.offset(10);
-    findQuery.pageSize(10);
+    findQuery.pageSize(2);
     findQuery.sort(dataSort);
 
     org.molgenis.data.Query<Entity> countQuery = new QueryImpl<>();
@@ -417,7 +536,7 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
 
     Entities actual =
         dataServiceV3Impl.findSubresources(
-            entityTypeId, entityId, fieldId, q, filter, expand, sort, 10, 1);
+            entityTypeId, entityId, fieldId, q, filter, expand, sort, 2, 5);
 
     assertEquals(
         actual, Entities.builder().setEntities(asList(entity1, entity2)).setTotal(100).build());
@@ -645,7 +764,146 @@ class DataServiceV3ImplTest extends AbstractMockitoTest {
 
     assertThrows(
         UnknownRepositoryException.class,
-        () -> dataServiceV3Impl.findAll(entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 1, 1));
+        () ->
+            dataServiceV3Impl.findAll(
+                entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 1, 1, TotalMode.EXACT));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllAfterFirstPage() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getName()).thenReturn("id");
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAttribute("id")).thenReturn(idAttribute);
+
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+    when(sortMapper.map(Sort.EMPTY_SORT, entityType)).thenReturn(new org.molgenis.data.Sort());
+
+    Entity entity1 = mock(Entity.class);
+    Entity entity2 = mock(Entity.class);
+    when(entity2.get("id")).thenReturn("entity2");
+    Entity entity3 = mock(Entity.class);
+
+    org.molgenis.data.Query<Entity> findQuery = new QueryImpl<>();
+    findQuery.pageSize(3);
+    findQuery.sort(new org.molgenis.data.Sort("id"));
+    when(repository.findAll(findQuery)).thenReturn(Stream.of(entity1, entity2, entity3));
+
+    Entities actual =
+        dataServiceV3Impl.findAllAfter(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 2, null);
+
+    assertEquals(
+        Entities.builder()
+            .setEntities(asList(entity1, entity2))
+            .setNextCursor(Cursors.encode(singletonList("entity2")))
+            .build(),
+        actual);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllAfterCursor() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getName()).thenReturn("id");
+    when(idAttribute.getDataType()).thenReturn(STRING);
+    Attribute intAttribute = mock(Attribute.class);
+    when(intAttribute.getDataType()).thenReturn(INT);
+    when(intAttribute.isNillable()).thenReturn(false);
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAttribute("id")).thenReturn(idAttribute);
+    when(entityType.getAttribute("int")).thenReturn(intAttribute);
+
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+    Sort sort = Sort.create("int", Direction.DESC);
+    when(sortMapper.map(sort, entityType))
+        .thenReturn(new org.molgenis.data.Sort("int", org.molgenis.data.Sort.Direction.DESC));
+
+    Entity entity1 = mock(Entity.class);
+
+    QueryImpl<Entity> findQuery = new QueryImpl<>();
+    findQuery.nest();
+    findQuery.nest().lt("int", 3).unnest().or();
+    findQuery.nest().eq("int", 3).and().gt("id", "entity0").unnest();
+    findQuery.unnest();
+    findQuery.pageSize(3);
+    findQuery.sort(
+        new org.molgenis.data.Sort("int", org.molgenis.data.Sort.Direction.DESC).on("id"));
+    when(repository.findAll(findQuery)).thenReturn(Stream.of(entity1));
+
+    String cursor = Cursors.encode(asList("3", "entity0"));
+    Entities actual =
+        dataServiceV3Impl.findAllAfter(entityTypeId, null, filter, expand, sort, 2, cursor);
+
+    assertEquals(Entities.builder().setEntities(singletonList(entity1)).build(), actual);
+  }
+
+  @Test
+  void testFindAllAfterInvalidCursor() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getName()).thenReturn("id");
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAttribute("id")).thenReturn(idAttribute);
+
+    @SuppressWarnings("unchecked")
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+    when(sortMapper.map(Sort.EMPTY_SORT, entityType)).thenReturn(new org.molgenis.data.Sort());
+
+    String cursor = Cursors.encode(asList("3", "entity0"));
+    assertThrows(
+        InvalidCursorException.class,
+        () ->
+            dataServiceV3Impl.findAllAfter(
+                entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 2, cursor));
+  }
+
+  @Test
+  void testFindAllAfterUnsupportedSortAttribute() {
+    String entityTypeId = "MyEntityType";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.EMPTY_SELECTION;
+
+    Attribute idAttribute = mock(Attribute.class);
+    Attribute stringAttribute = mock(Attribute.class);
+    when(stringAttribute.getName()).thenReturn("string");
+    when(stringAttribute.getDataType()).thenReturn(STRING);
+    when(stringAttribute.isNillable()).thenReturn(true);
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAttribute("string")).thenReturn(stringAttribute);
+
+    @SuppressWarnings("unchecked")
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(metaDataService.getRepository(entityTypeId)).thenReturn(Optional.of(repository));
+    Sort sort = Sort.create("string", Direction.ASC);
+    when(sortMapper.map(sort, entityType)).thenReturn(new org.molgenis.data.Sort("string"));
+
+    assertThrows(
+        UnsupportedCursorSortAttributeException.class,
+        () -> dataServiceV3Impl.findAllAfter(entityTypeId, null, filter, expand, sort, 2, null));
   }
 
   @Test
@@ -20,6 +20,7 @@ import org.molgenis.api.data.v3.model.EntityResponse;
 import org.molgenis.api.data.v3.model.ReadEntitiesRequest;
 import org.molgenis.api.data.v3.model.ReadEntityRequest;
 import org.molgenis.api.data.v3.model.ReadSubresourceRequest;
+import org.molgenis.api.data.v3.model.TotalMode;
 import org.molgenis.api.model.Order.Direction;
 import org.molgenis.api.model.Query;
 import org.molgenis.api.model.Query.Operator;
@@ -104,7 +105,7 @@ class EntityControllerTest extends AbstractMockitoTest {
     entityRequest.setPage(2);
 
     Entities entities = Entities.create(emptyList(), 30);
-    when(dataServiceV3.findAll(entityTypeId, query, filter, expand, sort, 10, 2))
+    when(dataServiceV3.findAll(entityTypeId, query, filter, expand, sort, 10, 2, TotalMode.EXACT))
         .thenReturn(entities);
 
     EntityCollection entityCollection =
@@ -121,6 +122,105 @@ class EntityControllerTest extends AbstractMockitoTest {
     assertEquals(entitiesResponse, entityController.getEntities(entityRequest));
   }
 
+  @Test
+  void testGetEntitiesTotalEstimated() {
+    String entityTypeId = "MyEntityTypeId";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.FULL_SELECTION;
+
+    ReadEntitiesRequest entityRequest = new ReadEntitiesRequest();
+    entityRequest.setEntityTypeId(entityTypeId);
+    entityRequest.setFilter(filter);
+    entityRequest.setExpand(expand);
+    entityRequest.setSize(10);
+    entityRequest.setPage(2);
+    entityRequest.setTotal(TotalMode.ESTIMATED);
+
+    Entities entities =
+        Entities.builder().setEntities(emptyList()).setTotal(30).setTotalEstimated(true).build();
+    when(dataServiceV3.findAll(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 10, 2, TotalMode.ESTIMATED))
+        .thenReturn(entities);
+
+    EntityCollection entityCollection =
+        EntityCollection.builder()
+            .setEntityTypeId(entityTypeId)
+            .setEntities(emptyList())
+            .setPage(
+                Page.builder()
+                    .setOffset(20)
+                    .setPageSize(10)
+                    .setTotal(30)
+                    .setTotalEstimated(true)
+                    .build())
+            .build();
+
+    EntitiesResponse entitiesResponse = mock(EntitiesResponse.class);
+    when(entityMapper.map(entityCollection, filter, expand, 10, 2, 30))
+        .thenReturn(entitiesResponse);
+
+    assertEquals(entitiesResponse, entityController.getEntities(entityRequest));
+  }
+
+  @Test
+  void testGetEntitiesTotalNone() {
+    String entityTypeId = "MyEntityTypeId";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.FULL_SELECTION;
+
+    ReadEntitiesRequest entityRequest = new ReadEntitiesRequest();
+    entityRequest.setEntityTypeId(entityTypeId);
+    entityRequest.setFilter(filter);
+    entityRequest.setExpand(expand);
+    entityRequest.setSize(10);
+    entityRequest.setPage(2);
+    entityRequest.setTotal(TotalMode.NONE);
+
+    Entities entities = Entities.builder().setEntities(emptyList()).build();
+    when(dataServiceV3.findAll(
+            entityTypeId, null, filter, expand, Sort.EMPTY_SORT, 10, 2, TotalMode.NONE))
+        .thenReturn(entities);
+
+    EntityCollection entityCollection =
+        EntityCollection.builder().setEntityTypeId(entityTypeId).setEntities(emptyList()).build();
+
+    EntitiesResponse entitiesResponse = mock(EntitiesResponse.class);
+    when(entityMapper.map(entityCollection, filter, expand, 10, 2, null))
+        .thenReturn(entitiesResponse);
+
+    assertEquals(entitiesResponse, entityController.getEntities(entityRequest));
+  }
+
+  @Test
+  void testGetEntitiesCursor() {
+    String entityTypeId = "MyEntityTypeId";
+    Selection filter = Selection.FULL_SELECTION;
+    Selection expand = Selection.FULL_SELECTION;
+    Sort sort = Sort.create("field", Direction.ASC);
+
+    ReadEntitiesRequest entityRequest = new ReadEntitiesRequest();
+    entityRequest.setEntityTypeId(entityTypeId);
+    entityRequest.setSort(sort);
+    entityRequest.setFilter(filter);
+    entityRequest.setExpand(expand);
+    entityRequest.setSize(10);
+    entityRequest.setCursor("cursor");
+
+    Entities entities =
+        Entities.builder().setEntities(emptyList()).setNextCursor("nextCursor").build();
+    when(dataServiceV3.findAllAfter(entityTypeId, null, filter, expand, sort, 10, "cursor"))
+        .thenReturn(entities);
+
+    EntityCollection entityCollection =
+        EntityCollection.builder().setEntityTypeId(entityTypeId).setEntities(emptyList()).build();
+
+    EntitiesResponse entitiesResponse = mock(EntitiesResponse.class);
+    when(entityMapper.map(entityCollection, filter, expand, "nextCursor"))
+        .thenReturn(entitiesResponse);
+
+    assertEquals(entitiesResponse, entityController.getEntities(entityRequest));
+  }
+
   @Test
   void testGetField() {
     String entityTypeId = "MyEntityTypeId";
@@ -0,0 +1,27 @@
+package org.molgenis.api.data.v3;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.molgenis.util.exception.ExceptionMessageTest;
+
+class InvalidCursorExceptionTest extends ExceptionMessageTest {
+  @BeforeEach
+  void setUp() {
+    messageSource.addMolgenisNamespaces("api-data");
+  }
+
+  @ParameterizedTest
+  @MethodSource("languageMessageProvider")
+  @Override
+  protected void testGetLocalizedMessage(String lang, String message) {
+    assertExceptionMessageEquals(new InvalidCursorException("abc"), lang, message);
+  }
+
+  static Object[][] languageMessageProvider() {
+    Object[] enParams = {
+      "en", "Invalid cursor 'abc', use the cursor of the next link of the previous page."
+    };
+    return new Object[][] {enParams};
+  }
+}
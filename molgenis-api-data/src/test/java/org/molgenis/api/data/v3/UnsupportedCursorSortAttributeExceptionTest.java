@@ -0,0 +1,34 @@
+package org.molgenis.api.data.v3;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.util.exception.ExceptionMessageTest;
+
+class UnsupportedCursorSortAttributeExceptionTest extends ExceptionMessageTest {
+  @BeforeEach
+  void setUp() {
+    messageSource.addMolgenisNamespaces("api-data");
+  }
+
+  @ParameterizedTest
+  @MethodSource("languageMessageProvider")
+  @Override
+  protected void testGetLocalizedMessage(String lang, String message) {
+    Attribute attr = mock(Attribute.class);
+    when(attr.getName()).thenReturn("myString");
+    assertExceptionMessageEquals(new UnsupportedCursorSortAttributeException(attr), lang, message);
+  }
+
+  static Object[][] languageMessageProvider() {
+    Object[] enParams = {
+      "en",
+      "Attribute 'myString' cannot be used to sort entities when paging with a cursor, only required non-reference attributes are supported."
+    };
+    return new Object[][] {enParams};
+  }
+}
@@ -3,6 +3,8 @@ package org.molgenis.api.model.response;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.auto.value.AutoValue;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.molgenis.api.support.PageUtils;
 import org.molgenis.util.AutoGson;
 
@@ -18,14 +20,24 @@ public abstract class PageResponse {
   public abstract int getTotalPages();
   /** Returns the number of the current page. */
   public abstract int getNumber();
+  /** Returns true if the total number of elements is an estimate, null if it is exact. */
+  @Nullable
+  @CheckForNull
+  public abstract Boolean getTotalElementsEstimated();
 
   public static PageResponse create(int newSize, int newTotalElements, int newNumber) {
+    return create(newSize, newTotalElements, newNumber, false);
+  }
+
+  public static PageResponse create(
+      int newSize, int newTotalElements, int newNumber, boolean newTotalElementsEstimated) {
     int totalPages = PageUtils.getTotalPages(newSize, newTotalElements);
     return builder()
         .setSize(newSize)
         .setTotalElements(newTotalElements)
         .setTotalPages(totalPages)
         .setNumber(newNumber)
+        .setTotalElementsEstimated(newTotalElementsEstimated ? Boolean.TRUE : null)
         .build();
   }
 
@@ -44,6 +56,8 @@ public abstract class PageResponse {
 
     public abstract Builder setNumber(int newNumber);
 
+    public abstract Builder setTotalElementsEstimated(Boolean newTotalElementsEstimated);
+
     abstract PageResponse autoBuild();
 
     public PageResponse build() {
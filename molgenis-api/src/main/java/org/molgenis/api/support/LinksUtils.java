@@ -18,6 +18,39 @@ public class LinksUtils {
     return builder.build();
   }
 
+  /**
+   * Creates links for a page of which the total number of elements is unknown.
+   *
+   * @param number page number
+   * @param hasNext whether a next page might exist
+   */
+  public static LinksResponse createLinksResponse(int number, boolean hasNext) {
+    Builder builder = LinksResponse.builder().setSelf(createEntitiesResponseUri());
+    if (number > 0) {
+      builder.setPrevious(createEntitiesResponseUri(number - 1));
+    }
+    if (hasNext) {
+      builder.setNext(createEntitiesResponseUri(number + 1));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates links for a page retrieved with a cursor.
+   *
+   * @param nextCursor continuation token of the next page, or null if there is no next page
+   */
+  public static LinksResponse createCursorLinksResponse(@Nullable @CheckForNull String nextCursor) {
+    Builder builder = LinksResponse.builder().setSelf(createEntitiesResponseUri());
+    if (nextCursor != null) {
+      UriComponentsBuilder uriBuilder =
+          MolgenisServletUriComponentsBuilder.fromCurrentRequestDecodedQuery();
+      uriBuilder.replaceQueryParam(PageUtils.CURSOR_QUERY_PARAMETER_NAME, nextCursor);
+      builder.setNext(uriBuilder.build().toUri());
+    }
+    return builder.build();
+  }
+
   private static Optional<URI> createPreviousUri(int number, int size, int totalElements) {
     Optional<URI> optionalPreviousUri;
     if (number == 0) {
@@ -4,6 +4,7 @@ import org.molgenis.api.model.response.PageResponse;
 
 public class PageUtils {
   public static final String PAGE_QUERY_PARAMETER_NAME = "page";
+  public static final String CURSOR_QUERY_PARAMETER_NAME = "cursor";
 
   private PageUtils() {}
 
@@ -12,6 +13,12 @@ public class PageUtils {
     return PageResponse.create(pageSize, total, newNumber);
   }
 
+  public static PageResponse getPageResponse(
+      int pageSize, int offset, int total, boolean totalEstimated) {
+    int newNumber = offset / pageSize;
+    return PageResponse.create(pageSize, total, newNumber, totalEstimated);
+  }
+
   public static int getTotalPages(int pageSize, int totalElements) {
     return pageSize > 0 ? (int) Math.ceil(totalElements / (double) pageSize) : 0;
   }
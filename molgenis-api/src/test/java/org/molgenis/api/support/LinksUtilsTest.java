@@ -82,4 +82,43 @@ class LinksUtilsTest extends AbstractMockitoTest {
         LinksResponse.builder().setSelf(new URI("http://localhost?page=100")).build();
     assertEquals(linksResponse, LinksUtils.createLinksResponse(100, 10, 0));
   }
+
+  @Test
+  void createLinksResponseUnknownTotal() throws URISyntaxException {
+    request.setQueryString("page=1");
+    LinksResponse linksResponse =
+        LinksResponse.builder()
+            .setPrevious(new URI("http://localhost?page=0"))
+            .setSelf(new URI("http://localhost?page=1"))
+            .setNext(new URI("http://localhost?page=2"))
+            .build();
+    assertEquals(linksResponse, LinksUtils.createLinksResponse(1, true));
+  }
+
+  @Test
+  void createLinksResponseUnknownTotalLastPage() throws URISyntaxException {
+    request.setQueryString("page=0");
+    LinksResponse linksResponse =
+        LinksResponse.builder().setSelf(new URI("http://localhost?page=0")).build();
+    assertEquals(linksResponse, LinksUtils.createLinksResponse(0, false));
+  }
+
+  @Test
+  void createCursorLinksResponse() throws URISyntaxException {
+    request.setQueryString("cursor=abc");
+    LinksResponse linksResponse =
+        LinksResponse.builder()
+            .setSelf(new URI("http://localhost?cursor=abc"))
+            .setNext(new URI("http://localhost?cursor=def"))
+            .build();
+    assertEquals(linksResponse, LinksUtils.createCursorLinksResponse("def"));
+  }
+
+  @Test
+  void createCursorLinksResponseLastPage() throws URISyntaxException {
+    request.setQueryString("cursor=abc");
+    LinksResponse linksResponse =
+        LinksResponse.builder().setSelf(new URI("http://localhost?cursor=abc")).build();
+    assertEquals(linksResponse, LinksUtils.createCursorLinksResponse(null));
+  }
 }
@@ -30,6 +30,19 @@ class PageUtilsTest {
     assertEquals(pageResponse, PageUtils.getPageResponse(10, 0, 89));
   }
 
+  @Test
+  void getPageResponseTotalEstimated() {
+    PageResponse pageResponse =
+        PageResponse.builder()
+            .setSize(10)
+            .setNumber(1)
+            .setTotalPages(9)
+            .setTotalElements(90)
+            .setTotalElementsEstimated(true)
+            .build();
+    assertEquals(pageResponse, PageUtils.getPageResponse(10, 10, 90, true));
+  }
+
   @Test
   void testGetTotalPages() {
     assertEquals(2, PageUtils.getTotalPages(5, 10));
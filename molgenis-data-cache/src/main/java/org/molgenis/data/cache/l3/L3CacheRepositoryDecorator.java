@@ -2,6 +2,8 @@ package org.molgenis.data.cache.l3;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.containsOperator;
 import static org.molgenis.data.RepositoryCapability.CACHEABLE;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -45,7 +47,8 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
   /**
    * Retrieves a {@link List} of identifiers from the {@link L3Cache} if the {@link Repository} is
    * cacheable and the {@link Query} is limited (i.e. contains a pageSize) between 0 and
-   * MAX_PAGE_SIZE
+   * MAX_PAGE_SIZE. Queries with a permission filter are not cached, because permission changes do
+   * not evict cache entries.
    *
    * @param query The {@link Query}
    * @return A stream of {@link Entity}
@@ -55,7 +58,7 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
     if (transactionInformation.isRepositoryCompletelyClean(getEntityType())) {
       // FIXME page size for metadata is always 0, and batching is done by the postgres repository
       // FIXME Only superusers are able to use the L3 cache for metadata
-      if (cacheable && query.getPageSize() > 0 && query.getPageSize() <= MAX_PAGE_SIZE) {
+      if (isCacheable(query) && query.getPageSize() > 0 && query.getPageSize() <= MAX_PAGE_SIZE) {
         List<Object> ids = l3Cache.get(delegate(), query);
         return delegate().findAll(ids.stream(), query.getFetch());
       }
@@ -74,7 +77,7 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
    */
   @Override
   public Entity findOne(Query<Entity> query) {
-    if (transactionInformation.isRepositoryCompletelyClean(getEntityType()) && cacheable) {
+    if (transactionInformation.isRepositoryCompletelyClean(getEntityType()) && isCacheable(query)) {
       // pageSize is irrelevant for findOne, would be a waste to cache them in different entries
       // sort may affect which of the results is the first result, so cannot ignore that.
       QueryImpl<Entity> cacheKey = new QueryImpl<>(query).setPageSize(1);
@@ -86,4 +89,8 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
     }
     return delegate().findOne(query);
   }
+
+  private boolean isCacheable(Query<Entity> query) {
+    return cacheable && !containsOperator(query, PERMITTED);
+  }
 }
@@ -49,6 +49,12 @@ public class CsvRepositoryCollection extends FileRepositoryCollection {
     // no operation
   }
 
+  /** Repositories read the file with their own iterators, so they can be read concurrently. */
+  @Override
+  public boolean isConcurrentReadSupported() {
+    return true;
+  }
+
   @Override
   public Iterable<String> getEntityTypeIds() {
     return entityTypeIds;
@@ -1,13 +1,18 @@
 package org.molgenis.data.elasticsearch;
 
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static org.molgenis.data.util.EntityTypeUtils.createFetchForReindexing;
 
-import com.google.common.collect.Iterators;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.apache.lucene.search.Explanation;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
@@ -28,6 +33,8 @@ import org.molgenis.data.elasticsearch.generator.model.Index;
 import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
 import org.molgenis.data.elasticsearch.generator.model.Mapping;
 import org.molgenis.data.elasticsearch.generator.model.Sort;
+import org.molgenis.data.elasticsearch.generator.model.SortDirection;
+import org.molgenis.data.elasticsearch.generator.model.SortOrder;
 import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.SearchService;
 import org.molgenis.data.meta.AttributeType;
@@ -54,12 +61,14 @@ public class ElasticsearchService implements SearchService, IndexService {
     this.dataService = requireNonNull(dataService);
   }
 
+  /** Creates a new index version with an alias that other index operations use. */
   @Override
   public void createIndex(EntityType entityType) {
-    Index index = contentGenerators.createIndex(entityType);
+    Index alias = contentGenerators.createIndex(entityType);
+    Index index = contentGenerators.createIndexVersion(entityType);
     IndexSettings indexSettings = IndexSettings.create();
     Mapping mapping = contentGenerators.createMapping(entityType);
-    clientFacade.createIndex(index, indexSettings, Stream.of(mapping));
+    clientFacade.createIndex(index, alias, indexSettings, Stream.of(mapping));
   }
 
   @Override
@@ -71,22 +80,52 @@ public class ElasticsearchService implements SearchService, IndexService {
   @Override
   public void deleteIndex(EntityType entityType) {
     Index index = contentGenerators.createIndex(entityType);
-    clientFacade.deleteIndex(index);
+    clientFacade.deleteIndexes(clientFacade.getIndexes(index));
   }
 
+  /**
+   * Builds a new index version next to the current index, which keeps serving requests. Refreshes
+   * and replicas are disabled while loading the new index version. Afterwards the alias is swapped
+   * to the new index version and the old index is removed in one atomic operation.
+   */
   @Override
   public void rebuildIndex(Repository<? extends Entity> repository) {
     EntityType entityType = repository.getEntityType();
-
-    if (hasIndex(entityType)) {
-      deleteIndex(entityType);
+    Index alias = contentGenerators.createIndex(entityType);
+    Index index = contentGenerators.createIndexVersion(entityType);
+    IndexSettings indexSettings = IndexSettings.create();
+    IndexSettings bulkIndexSettings =
+        indexSettings
+            .toBuilder()
+            .setNumberOfReplicas(0)
+            .setRefreshInterval(IndexSettings.REFRESH_INTERVAL_DISABLED)
+            .build();
+    Mapping mapping = contentGenerators.createMapping(entityType);
+    clientFacade.createIndex(index, null, bulkIndexSettings, Stream.of(mapping));
+
+    try {
+      repository.forEachBatched(
+          createFetchForReindexing(entityType),
+          entities -> index(index, entities.stream()),
+          BATCH_SIZE);
+      clientFacade.updateIndexSettings(index, indexSettings);
+      clientFacade.refreshIndex(index);
+
+      List<Index> oldIndexes =
+          clientFacade.indexesExist(alias) ? clientFacade.getIndexes(alias) : emptyList();
+      clientFacade.swapIndexes(alias, index, oldIndexes);
+    } catch (RuntimeException e) {
+      deleteIndexVersion(index, e);
+      throw e;
     }
+  }
 
-    createIndex(entityType);
-    repository.forEachBatched(
-        createFetchForReindexing(entityType),
-        entities -> index(entityType, entities.stream()),
-        BATCH_SIZE);
+  private void deleteIndexVersion(Index index, RuntimeException cause) {
+    try {
+      clientFacade.deleteIndex(index);
+    } catch (RuntimeException e) {
+      cause.addSuppressed(e);
+    }
   }
 
   @Override
@@ -118,30 +157,33 @@ public class ElasticsearchService implements SearchService, IndexService {
     QueryBuilder query = contentGenerators.createQuery(q, entityType);
     Sort sort = q.getSort() != null ? contentGenerators.createSorts(q.getSort(), entityType) : null;
     Index index = contentGenerators.createIndex(entityType);
-    Stream<SearchHit> searchHits = Stream.empty();
-
-    boolean done = false;
-    int currentOffset;
-    int i = 0;
-    while (!done) {
-      int batchSize = pageSize < MAX_BATCH_SIZE && pageSize != 0 ? pageSize : MAX_BATCH_SIZE;
-      currentOffset = offset + (i * MAX_BATCH_SIZE);
-
-      SearchHits currentSearchHits =
-          clientFacade.search(query, currentOffset, batchSize, sort, index);
-      searchHits = Streams.concat(searchHits, currentSearchHits.getHits().stream());
 
-      if (currentSearchHits.getHits().size() < MAX_BATCH_SIZE) {
-        done = true;
-      }
-
-      if (pageSize != 0) pageSize -= MAX_BATCH_SIZE;
-      i++;
+    Stream<SearchHit> searchHits;
+    if (pageSize != 0 && pageSize <= MAX_BATCH_SIZE) {
+      searchHits = clientFacade.search(query, offset, pageSize, sort, index).getHits().stream();
+    } else {
+      Sort searchAfterSort = createSearchAfterSort(sort);
+      searchHits =
+          Streams.stream(new SearchAfterIterator(query, offset, pageSize, searchAfterSort, index));
     }
-
     return toEntityIds(entityType, searchHits.map(SearchHit::getId));
   }
 
+  /**
+   * Returns the sort extended with the unique document identifier as tiebreaker. Unsorted searches
+   * are sorted on relevance.
+   */
+  private static Sort createSearchAfterSort(@Nullable Sort sort) {
+    List<SortOrder> sortOrders = new ArrayList<>();
+    if (sort != null) {
+      sortOrders.addAll(sort.getOrders());
+    } else {
+      sortOrders.add(SortOrder.create(SortOrder.FIELD_SCORE, SortDirection.DESC));
+    }
+    sortOrders.add(SortOrder.create(SortOrder.FIELD_UID, SortDirection.ASC));
+    return Sort.create(sortOrders);
+  }
+
   private static Stream<Object> toEntityIds(
       EntityType entityType, Stream<String> documentIdStream) {
     return documentIdStream.map(
@@ -205,6 +247,10 @@ public class ElasticsearchService implements SearchService, IndexService {
   @Override
   public long index(EntityType entityType, Stream<? extends Entity> entities) {
     Index index = contentGenerators.createIndex(entityType);
+    return index(index, entities);
+  }
+
+  private long index(Index index, Stream<? extends Entity> entities) {
     Stream<DocumentAction> documentActionStream =
         entities.map(entity -> this.toDocumentAction(index, entity));
 
@@ -237,13 +283,76 @@ public class ElasticsearchService implements SearchService, IndexService {
 
   @Override
   public void deleteAll(EntityType entityType, Stream<Object> entityIds) {
-    entityIds.forEach(entityId -> deleteById(entityType, entityId));
+    Index index = contentGenerators.createIndex(entityType);
+    clientFacade.processDocumentActions(
+        entityIds.map(entityId -> toDeleteDocumentAction(index, entityId)));
+  }
+
+  private DocumentAction toDeleteDocumentAction(Index index, Object entityId) {
+    Document document = contentGenerators.createDocument(entityId);
+    return DocumentAction.create(index, document, DocumentAction.Operation.DELETE);
   }
 
   @Override
   public void delete(EntityType entityType, Stream<? extends Entity> entities) {
-    Stream<Object> entityIds = entities.map(Entity::getIdValue);
-    Iterators.partition(entityIds.iterator(), BATCH_SIZE)
-        .forEachRemaining(batchEntityIds -> deleteAll(entityType, batchEntityIds.stream()));
+    deleteAll(entityType, entities.map(Entity::getIdValue));
+  }
+
+  /**
+   * Lazily retrieves search hits in batches of {@link #MAX_BATCH_SIZE}. The first batch starts at
+   * the query offset, each next batch continues after the sort values of the last retrieved hit so
+   * that the cost per batch does not grow with the depth of the result.
+   */
+  private class SearchAfterIterator extends AbstractIterator<SearchHit> {
+    private final QueryBuilder query;
+    private final int offset;
+    private final Sort sort;
+    private final Index index;
+    private long remaining;
+    private Iterator<SearchHit> batchIterator;
+    private boolean lastBatch;
+    private List<Object> searchAfter;
+
+    SearchAfterIterator(QueryBuilder query, int offset, int pageSize, Sort sort, Index index) {
+      this.query = query;
+      this.offset = offset;
+      this.sort = sort;
+      this.index = index;
+      this.remaining = pageSize != 0 ? pageSize : Long.MAX_VALUE;
+      this.batchIterator = emptyIterator();
+    }
+
+    @Override
+    protected SearchHit computeNext() {
+      if (remaining == 0) {
+        return endOfData();
+      }
+      if (!batchIterator.hasNext()) {
+        if (lastBatch) {
+          return endOfData();
+        }
+        batchIterator = searchNextBatch();
+        if (!batchIterator.hasNext()) {
+          return endOfData();
+        }
+      }
+      SearchHit searchHit = batchIterator.next();
+      searchAfter = searchHit.getSortValues();
+      remaining--;
+      return searchHit;
+    }
+
+    private Iterator<SearchHit> searchNextBatch() {
+      int batchSize = (int) Math.min(remaining, MAX_BATCH_SIZE);
+      SearchHits searchHits;
+      if (searchAfter == null) {
+        searchHits = clientFacade.search(query, offset, batchSize, sort, index);
+      } else {
+        searchHits = clientFacade.searchAfter(query, searchAfter, batchSize, sort, index);
+      }
+      List<SearchHit> hits = searchHits.getHits();
+      lastBatch = hits.size() < batchSize;
+      return hits.iterator();
+    }
   }
 }
@@ -1,39 +1,164 @@
 package org.molgenis.data.elasticsearch.client;
 
+import static java.util.Arrays.stream;
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Creates Elasticsearch bulk processors that log bulk updates. */
+/**
+ * Creates Elasticsearch bulk processors that log bulk updates, count failed document actions and
+ * record bulk metrics. Bulks that are rejected because the cluster is overloaded are retried with
+ * exponential backoff. When all concurrent bulk requests are in flight, adding a document action
+ * blocks until a bulk request completes.
+ */
 class BulkProcessorFactory {
   private static final Logger LOG = LoggerFactory.getLogger(BulkProcessorFactory.class);
 
-  BulkProcessor create(Client client) {
-    return BulkProcessor.builder(
-            client,
-            new BulkProcessor.Listener() {
-              @Override
-              public void beforeBulk(long executionId, BulkRequest request) {
-                LOG.trace(
-                    "Going to execute new bulk composed of {} actions", request.numberOfActions());
-              }
-
-              @Override
-              public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
-                if (response.hasFailures()) {
-                  LOG.error("Error executing bulk: {}", response.buildFailureMessage());
-                }
-                LOG.trace("Executed bulk composed of {} actions", request.numberOfActions());
-              }
-
-              @Override
-              public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
-                LOG.warn("Error executing bulk", failure);
-              }
-            })
+  static final int DEFAULT_BULK_ACTIONS = 1000;
+  static final int DEFAULT_BULK_SIZE_MB = 5;
+  static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+  static final int DEFAULT_BACKOFF_INITIAL_DELAY_MS = 50;
+  static final int DEFAULT_BACKOFF_MAX_RETRIES = 8;
+
+  private final int bulkActions;
+  private final int bulkSizeMb;
+  private final int concurrentRequests;
+  private final int backoffInitialDelayMs;
+  private final int backoffMaxRetries;
+  private final Timer bulkTimer;
+  private final Counter succeededDocumentsCounter;
+  private final Counter failedDocumentsCounter;
+
+  BulkProcessorFactory() {
+    this(
+        DEFAULT_BULK_ACTIONS,
+        DEFAULT_BULK_SIZE_MB,
+        DEFAULT_CONCURRENT_REQUESTS,
+        DEFAULT_BACKOFF_INITIAL_DELAY_MS,
+        DEFAULT_BACKOFF_MAX_RETRIES,
+        Metrics.globalRegistry);
+  }
+
+  /**
+   * @param bulkActions number of document actions after which a bulk request is executed
+   * @param bulkSizeMb size in megabytes after which a bulk request is executed
+   * @param concurrentRequests number of bulk requests that can execute while new document actions
+   *     are accumulated, 0 executes bulk requests synchronously
+   * @param backoffInitialDelayMs delay before the first retry of a rejected bulk request
+   * @param backoffMaxRetries maximum number of retries of a rejected bulk request
+   * @param meterRegistry registry for the bulk metrics
+   */
+  BulkProcessorFactory(
+      int bulkActions,
+      int bulkSizeMb,
+      int concurrentRequests,
+      int backoffInitialDelayMs,
+      int backoffMaxRetries,
+      MeterRegistry meterRegistry) {
+    if (bulkActions <= 0) {
+      throw new IllegalArgumentException("bulkActions must be greater than zero");
+    }
+    if (bulkSizeMb <= 0) {
+      throw new IllegalArgumentException("bulkSizeMb must be greater than zero");
+    }
+    if (concurrentRequests < 0) {
+      throw new IllegalArgumentException("concurrentRequests must not be negative");
+    }
+    this.bulkActions = bulkActions;
+    this.bulkSizeMb = bulkSizeMb;
+    this.concurrentRequests = concurrentRequests;
+    this.backoffInitialDelayMs = backoffInitialDelayMs;
+    this.backoffMaxRetries = backoffMaxRetries;
+
+    requireNonNull(meterRegistry);
+    this.bulkTimer =
+        Timer.builder("elasticsearch.bulk")
+            .description("Duration of Elasticsearch bulk requests")
+            .register(meterRegistry);
+    this.succeededDocumentsCounter =
+        Counter.builder("elasticsearch.bulk.documents")
+            .description("Number of document actions processed in Elasticsearch bulk requests")
+            .tag("result", "success")
+            .register(meterRegistry);
+    this.failedDocumentsCounter =
+        Counter.builder("elasticsearch.bulk.documents")
+            .description("Number of document actions processed in Elasticsearch bulk requests")
+            .tag("result", "failure")
+            .register(meterRegistry);
+  }
+
+  BulkProcessor create(Client client, BulkResult bulkResult) {
+    return BulkProcessor.builder(client, new BulkListener(bulkResult))
+        .setBulkActions(bulkActions)
+        .setBulkSize(new ByteSizeValue(bulkSizeMb, ByteSizeUnit.MB))
+        .setConcurrentRequests(concurrentRequests)
+        .setBackoffPolicy(
+            BackoffPolicy.exponentialBackoff(
+                TimeValue.timeValueMillis(backoffInitialDelayMs), backoffMaxRetries))
         .build();
   }
+
+  private class BulkListener implements BulkProcessor.Listener {
+    private final BulkResult bulkResult;
+    private final Map<Long, Long> startTimes;
+
+    BulkListener(BulkResult bulkResult) {
+      this.bulkResult = requireNonNull(bulkResult);
+      this.startTimes = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {
+      startTimes.put(executionId, System.nanoTime());
+      LOG.trace("Going to execute new bulk composed of {} actions", request.numberOfActions());
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      recordDuration(executionId);
+      long failureCount = stream(response.getItems()).filter(BulkItemResponse::isFailed).count();
+      long successCount = request.numberOfActions() - failureCount;
+      bulkResult.addSuccesses(successCount);
+      succeededDocumentsCounter.increment(successCount);
+      if (failureCount > 0) {
+        String failureMessage = response.buildFailureMessage();
+        LOG.error("Error executing bulk: {}", failureMessage);
+        bulkResult.addFailures(failureCount, failureMessage);
+        failedDocumentsCounter.increment(failureCount);
+      }
+      LOG.trace("Executed bulk composed of {} actions", request.numberOfActions());
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      recordDuration(executionId);
+      LOG.warn("Error executing bulk", failure);
+      bulkResult.addFailures(request.numberOfActions(), failure.getMessage());
+      failedDocumentsCounter.increment(request.numberOfActions());
+    }
+
+    private void recordDuration(long executionId) {
+      Long startTime = startTimes.remove(executionId);
+      if (startTime != null) {
+        bulkTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
 }
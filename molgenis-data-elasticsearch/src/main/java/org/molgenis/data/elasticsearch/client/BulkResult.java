@@ -0,0 +1,37 @@
+package org.molgenis.data.elasticsearch.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/** Counts the succeeded and failed document actions of a bulk processor. */
+class BulkResult {
+  private final AtomicLong successCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicReference<String> failureMessage = new AtomicReference<>();
+
+  void addSuccesses(long count) {
+    successCount.addAndGet(count);
+  }
+
+  void addFailures(long count, String message) {
+    failureCount.addAndGet(count);
+    failureMessage.compareAndSet(null, message);
+  }
+
+  long getSuccessCount() {
+    return successCount.get();
+  }
+
+  long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /** Returns the message of the first failed bulk, or null if no bulk failed. */
+  @Nullable
+  @CheckForNull
+  String getFailureMessage() {
+    return failureMessage.get();
+  }
+}
@@ -1,6 +1,7 @@
 package org.molgenis.data.elasticsearch.client;
 
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
@@ -16,20 +17,30 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.lucene.search.Explanation;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.ShardOperationFailedException;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequestBuilder;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
+import org.elasticsearch.action.admin.indices.get.GetIndexRequestBuilder;
+import org.elasticsearch.action.admin.indices.get.GetIndexResponse;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequestBuilder;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.delete.DeleteResponse;
@@ -43,6 +54,7 @@ import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
@@ -80,20 +92,43 @@ public class ClientFacade implements Closeable {
   private final BulkProcessorFactory bulkProcessorFactory;
 
   public ClientFacade(Client client) {
+    this(client, new BulkProcessorFactory());
+  }
+
+  ClientFacade(Client client, BulkProcessorFactory bulkProcessorFactory) {
     this.client = requireNonNull(client);
     this.settingsBuilder = new SettingsContentBuilder();
     this.mappingSourceBuilder = new MappingContentBuilder();
     this.sortContentBuilder = new SortContentBuilder();
-    this.bulkProcessorFactory = new BulkProcessorFactory();
+    this.bulkProcessorFactory = requireNonNull(bulkProcessorFactory);
   }
 
   public void createIndex(Index index, IndexSettings indexSettings, Stream<Mapping> mappingStream) {
+    createIndex(index, null, indexSettings, mappingStream);
+  }
+
+  /**
+   * Creates an index.
+   *
+   * @param index index to create
+   * @param alias optional alias for the created index
+   * @param indexSettings index settings
+   * @param mappingStream index mappings
+   */
+  public void createIndex(
+      Index index,
+      @Nullable @CheckForNull Index alias,
+      IndexSettings indexSettings,
+      Stream<Mapping> mappingStream) {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Creating index '{}' ...", index.getName());
     }
 
     CreateIndexRequestBuilder createIndexRequest =
         createIndexRequest(index, indexSettings, mappingStream);
+    if (alias != null) {
+      createIndexRequest.addAlias(new Alias(alias.getName()));
+    }
 
     CreateIndexResponse createIndexResponse;
     try {
@@ -135,6 +170,113 @@ public class ClientFacade implements Closeable {
     return createIndexRequest;
   }
 
+  /** Updates the dynamic settings of an index: the number of replicas and the refresh interval. */
+  public void updateIndexSettings(Index index, IndexSettings indexSettings) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Updating settings of index '{}' ...", index.getName());
+    }
+
+    Settings settings =
+        Settings.builder()
+            .put("index.number_of_replicas", indexSettings.getNumberOfReplicas())
+            .put("index.refresh_interval", indexSettings.getRefreshInterval())
+            .build();
+    UpdateSettingsRequestBuilder updateSettingsRequest =
+        client.admin().indices().prepareUpdateSettings(index.getName()).setSettings(settings);
+
+    UpdateSettingsResponse updateSettingsResponse;
+    try {
+      updateSettingsResponse = updateSettingsRequest.get();
+    } catch (ResourceNotFoundException e) {
+      LOG.debug("", e);
+      throw new UnknownIndexException(index.getName());
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(format("Error updating settings of index '%s'.", index.getName()));
+    }
+
+    if (!updateSettingsResponse.isAcknowledged()) {
+      throw new IndexException(format("Error updating settings of index '%s'.", index.getName()));
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Updated settings of index '{}'.", index.getName());
+    }
+  }
+
+  /**
+   * Returns the indexes with the given name: the index itself or the indexes the alias points to.
+   */
+  public List<Index> getIndexes(Index index) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Retrieving index(es) '{}' ...", index.getName());
+    }
+
+    GetIndexRequestBuilder getIndexRequest =
+        client.admin().indices().prepareGetIndex().setIndices(index.getName());
+
+    GetIndexResponse getIndexResponse;
+    try {
+      getIndexResponse = getIndexRequest.get();
+    } catch (ResourceNotFoundException e) {
+      LOG.debug("", e);
+      throw new UnknownIndexException(index.getName());
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(format("Error retrieving index(es) '%s'.", index.getName()));
+    }
+
+    List<Index> indexes =
+        stream(getIndexResponse.getIndices()).map(Index::create).collect(toList());
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Retrieved index(es) '{}' for '{}'.", toString(indexes), index.getName());
+    }
+    return indexes;
+  }
+
+  /**
+   * Atomically points the alias to the given index and removes the old indexes. An old index can
+   * have the same name as the alias.
+   *
+   * @param alias alias to point to the index
+   * @param index index to add the alias to
+   * @param oldIndexes indexes to remove
+   */
+  public void swapIndexes(Index alias, Index index, List<Index> oldIndexes) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace(
+          "Swapping alias '{}' to index '{}' from index(es) '{}' ...",
+          alias.getName(),
+          index.getName(),
+          toString(oldIndexes));
+    }
+
+    IndicesAliasesRequestBuilder aliasesRequest = client.admin().indices().prepareAliases();
+    oldIndexes.forEach(
+        oldIndex ->
+            aliasesRequest.addAliasAction(AliasActions.removeIndex().index(oldIndex.getName())));
+    aliasesRequest.addAliasAction(AliasActions.add().index(index.getName()).alias(alias.getName()));
+
+    IndicesAliasesResponse aliasesResponse;
+    try {
+      aliasesResponse = aliasesRequest.get();
+    } catch (ResourceNotFoundException e) {
+      LOG.debug("", e);
+      throw new UnknownIndexException(index.getName());
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(
+          format("Error swapping alias '%s' to index '%s'.", alias.getName(), index.getName()));
+    }
+
+    if (!aliasesResponse.isAcknowledged()) {
+      throw new IndexException(
+          format("Error swapping alias '%s' to index '%s'.", alias.getName(), index.getName()));
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Swapped alias '{}' to index '{}'.", alias.getName(), index.getName());
+    }
+  }
+
   public boolean indexesExist(Index index) {
     return indexesExist(singletonList(index));
   }
@@ -168,7 +310,7 @@ public class ClientFacade implements Closeable {
     deleteIndexes(singletonList(index));
   }
 
-  private void deleteIndexes(List<Index> indexes) {
+  public void deleteIndexes(List<Index> indexes) {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Deleting index(es) '{}' ...", toString(indexes));
     }
@@ -200,6 +342,10 @@ public class ClientFacade implements Closeable {
     refreshIndexes(singletonList(Index.create("_all")));
   }
 
+  public void refreshIndex(Index index) {
+    refreshIndexes(singletonList(index));
+  }
+
   private void refreshIndexes(List<Index> indexes) {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Refreshing index(es) '{}' ...", toString(indexes));
@@ -310,8 +456,29 @@ public class ClientFacade implements Closeable {
     return search(query, from, size, sort, singletonList(index));
   }
 
+  /**
+   * Searches the documents that come after the given sort values. The sort must end with a unique
+   * tiebreaker field so that no documents are skipped or returned twice.
+   *
+   * @param searchAfter sort values of the last document of the previous search
+   */
+  public SearchHits searchAfter(
+      QueryBuilder query, List<Object> searchAfter, int size, Sort sort, Index index) {
+    return search(query, 0, size, sort, searchAfter, singletonList(index));
+  }
+
   private SearchHits search(
       QueryBuilder query, int from, int size, Sort sort, List<Index> indexes) {
+    return search(query, from, size, sort, null, indexes);
+  }
+
+  private SearchHits search(
+      QueryBuilder query,
+      int from,
+      int size,
+      Sort sort,
+      @Nullable List<Object> searchAfter,
+      List<Index> indexes) {
     if (size > 10000) {
       throw new MolgenisQueryException(
           String.format(
@@ -340,6 +507,9 @@ public class ClientFacade implements Closeable {
 
     SearchRequestBuilder searchRequest =
         createSearchRequest(query, from, size, sort, null, indexes);
+    if (searchAfter != null) {
+      searchRequest.searchAfter(searchAfter.toArray());
+    }
 
     SearchResponse searchResponse;
     try {
@@ -423,12 +593,17 @@ public class ClientFacade implements Closeable {
   private SearchHits createSearchResponse(SearchResponse searchResponse) {
     org.elasticsearch.search.SearchHits searchHits = searchResponse.getHits();
     List<SearchHit> searchHitList =
-        stream(searchHits.getHits())
-            .map(hit -> SearchHit.create(hit.getId(), hit.getIndex()))
-            .collect(toList());
+        stream(searchHits.getHits()).map(ClientFacade::createSearchHit).collect(toList());
     return SearchHits.create(searchHits.getTotalHits(), searchHitList);
   }
 
+  private static SearchHit createSearchHit(org.elasticsearch.search.SearchHit hit) {
+    Object[] sortValues = hit.getSortValues();
+    return sortValues.length > 0
+        ? SearchHit.create(hit.getId(), hit.getIndex(), asList(sortValues))
+        : SearchHit.create(hit.getId(), hit.getIndex());
+  }
+
   public Aggregations aggregate(
       List<AggregationBuilder> aggregations, QueryBuilder query, Index index) {
     return aggregate(aggregations, query, singletonList(index));
@@ -612,9 +787,16 @@ public class ClientFacade implements Closeable {
     }
   }
 
+  /**
+   * Processes document actions in bulk requests.
+   *
+   * @throws IndexException if one or more document actions failed after retrying rejected bulk
+   *     requests
+   */
   public void processDocumentActions(Stream<DocumentAction> documentActions) {
     LOG.trace("Processing document actions ...");
-    BulkProcessor bulkProcessor = bulkProcessorFactory.create(client);
+    BulkResult bulkResult = new BulkResult();
+    BulkProcessor bulkProcessor = bulkProcessorFactory.create(client, bulkResult);
     try {
       documentActions.forEachOrdered(
           documentAction -> {
@@ -623,8 +805,18 @@ public class ClientFacade implements Closeable {
           });
     } finally {
       waitForCompletion(bulkProcessor);
-      LOG.debug("Processed document actions.");
     }
+
+    long failureCount = bulkResult.getFailureCount();
+    if (failureCount > 0) {
+      throw new IndexException(
+          format(
+              "Failed to process %d of %d document actions: %s",
+              failureCount,
+              failureCount + bulkResult.getSuccessCount(),
+              bulkResult.getFailureMessage()));
+    }
+    LOG.debug("Processed {} document actions.", bulkResult.getSuccessCount());
   }
 
   private DocWriteRequest toDocWriteRequest(DocumentAction documentAction) {
@@ -3,6 +3,7 @@ package org.molgenis.data.elasticsearch.client;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.net.InetSocketAddress;
 import java.util.List;
 import org.molgenis.data.index.IndexConfig;
@@ -30,16 +31,41 @@ public class ElasticsearchConfig {
   @Value("${elasticsearch.transport.addresses:127.0.0.1:9300}")
   private List<String> transportAddresses;
 
+  @Value("${elasticsearch.bulk.actions:1000}")
+  private int bulkActions;
+
+  @Value("${elasticsearch.bulk.size.mb:5}")
+  private int bulkSizeMb;
+
+  @Value("${elasticsearch.bulk.concurrent.requests:1}")
+  private int bulkConcurrentRequests;
+
+  @Value("${elasticsearch.bulk.backoff.initial.delay.ms:50}")
+  private int bulkBackoffInitialDelayMs;
+
+  @Value("${elasticsearch.bulk.backoff.retries:8}")
+  private int bulkBackoffRetries;
+
   final RetryTemplate retryTemplate;
+  private final MeterRegistry meterRegistry;
 
   @Autowired
-  public ElasticsearchConfig(RetryTemplate retryTemplate) {
+  public ElasticsearchConfig(RetryTemplate retryTemplate, MeterRegistry meterRegistry) {
     this.retryTemplate = retryTemplate;
+    this.meterRegistry = meterRegistry;
   }
 
   @Bean(destroyMethod = "close")
   public ClientFacade elasticsearchClientFacade() throws InterruptedException {
-    return new ClientFacade(clientFactory().createClient());
+    BulkProcessorFactory bulkProcessorFactory =
+        new BulkProcessorFactory(
+            bulkActions,
+            bulkSizeMb,
+            bulkConcurrentRequests,
+            bulkBackoffInitialDelayMs,
+            bulkBackoffRetries,
+            meterRegistry);
+    return new ClientFacade(clientFactory().createClient(), bulkProcessorFactory);
   }
 
   @Bean
@@ -49,6 +49,7 @@ class SettingsContentBuilder {
 
     contentBuilder.field("number_of_shards", indexSettings.getNumberOfShards());
     contentBuilder.field("number_of_replicas", indexSettings.getNumberOfReplicas());
+    contentBuilder.field("refresh_interval", indexSettings.getRefreshInterval());
     createMapperSettings(contentBuilder);
     createMappingSettings(contentBuilder);
     createAnalysisSettings(contentBuilder);
@@ -20,6 +20,9 @@ class SortContentBuilder {
   private SortBuilder createSort(SortOrder sortOrder) {
     String field = sortOrder.getField();
     org.elasticsearch.search.sort.SortOrder order = toSortOrder(sortOrder.getDirection());
+    if (field.equals(SortOrder.FIELD_SCORE)) {
+      return SortBuilders.scoreSort().order(order);
+    }
     return SortBuilders.fieldSort(field).order(order).sortMode(SortMode.MIN);
   }
 
@@ -1,6 +1,9 @@
 package org.molgenis.data.elasticsearch.client.model;
 
 import com.google.auto.value.AutoValue;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 @AutoValue
 @SuppressWarnings("java:S1610") // Abstract classes without fields should be converted to interfaces
@@ -9,10 +12,19 @@ public abstract class SearchHit {
 
   public abstract String getIndex();
 
+  /** Returns the sort values of this hit, or null if the search was not sorted. */
+  @Nullable
+  @CheckForNull
+  public abstract List<Object> getSortValues();
+
   public static SearchHit create(String newId, String newIndex) {
     return builder().setId(newId).setIndex(newIndex).build();
   }
 
+  public static SearchHit create(String newId, String newIndex, List<Object> newSortValues) {
+    return builder().setId(newId).setIndex(newIndex).setSortValues(newSortValues).build();
+  }
+
   public static Builder builder() {
     return new AutoValue_SearchHit.Builder();
   }
@@ -23,6 +35,8 @@ public abstract class SearchHit {
 
     public abstract Builder setIndex(String newIndex);
 
+    public abstract Builder setSortValues(List<Object> newSortValues);
+
     public abstract SearchHit build();
   }
 }
@@ -38,6 +38,10 @@ public class ContentGenerators {
     return indexGenerator.createIndex(entityType);
   }
 
+  public Index createIndexVersion(EntityType entityType) {
+    return indexGenerator.createIndexVersion(entityType);
+  }
+
   public Mapping createMapping(EntityType entityType) {
     return mappingGenerator.createMapping(entityType);
   }
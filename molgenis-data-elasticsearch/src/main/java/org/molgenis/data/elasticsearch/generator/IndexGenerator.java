@@ -9,6 +9,8 @@ import org.springframework.stereotype.Component;
 /** Generates Elasticsearch index metadata from entity types. */
 @Component
 class IndexGenerator {
+  private static final char VERSION_SEPARATOR = '-';
+
   private final DocumentIdGenerator documentIdGenerator;
 
   IndexGenerator(DocumentIdGenerator documentIdGenerator) {
@@ -19,4 +21,14 @@ class IndexGenerator {
     String indexName = documentIdGenerator.generateId(entityType);
     return Index.create(indexName);
   }
+
+  /**
+   * Creates a new version of the physical index for the given entity type. The index returned by
+   * {@link #createIndex(EntityType)} is an alias for the current version. Generated ids do not
+   * contain the version separator, so index versions and aliases do not clash.
+   */
+  Index createIndexVersion(EntityType entityType) {
+    String indexName = documentIdGenerator.generateId(entityType);
+    return Index.create(indexName + VERSION_SEPARATOR + System.currentTimeMillis());
+  }
 }
@@ -5,6 +5,11 @@ import com.google.auto.value.AutoValue;
 @AutoValue
 @SuppressWarnings("java:S1610") // Abstract classes without fields should be converted to interfaces
 public abstract class SortOrder {
+  /** Sorts on document relevance */
+  public static final String FIELD_SCORE = "_score";
+  /** Sorts on unique document identifier */
+  public static final String FIELD_UID = "_uid";
+
   public abstract String getField();
 
   public abstract SortDirection getDirection();
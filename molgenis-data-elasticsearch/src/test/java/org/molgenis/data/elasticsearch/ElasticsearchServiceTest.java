@@ -1,27 +1,49 @@
 package org.molgenis.data.elasticsearch;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.elasticsearch.ElasticsearchService.MAX_BATCH_SIZE;
 
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.Repository;
 import org.molgenis.data.elasticsearch.client.ClientFacade;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
 import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.ContentGenerators;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
+import org.molgenis.data.elasticsearch.generator.model.Mapping;
+import org.molgenis.data.elasticsearch.generator.model.Sort;
+import org.molgenis.data.elasticsearch.generator.model.SortDirection;
+import org.molgenis.data.elasticsearch.generator.model.SortOrder;
+import org.molgenis.data.index.exception.IndexException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.test.AbstractMockitoTest;
@@ -49,23 +71,31 @@ class ElasticsearchServiceTest extends AbstractMockitoTest {
     QueryImpl<Entity> query = mock(QueryImpl.class);
     when(query.getPageSize()).thenReturn(0);
     when(query.getOffset()).thenReturn(0);
-
-    SearchHits searchHitsBatch = mock(SearchHits.class);
-    when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
-
-    SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-    when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[5000]));
-
-    when(clientFacade.search(any(), eq(0), eq(10000), any(), any())).thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(10000), anyInt(), any(), any())).thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(20000), anyInt(), any(), any()))
+    mockIdAttribute();
+
+    SearchHits searchHitsBatch = createSearchHits(0, 10000);
+    SearchHits nextSearchHitsBatch = createSearchHits(10000, 10000);
+    SearchHits finalSearchHitsBatch = createSearchHits(20000, 5000);
+    Sort sort =
+        Sort.create(
+            asList(
+                SortOrder.create(SortOrder.FIELD_SCORE, SortDirection.DESC),
+                SortOrder.create(SortOrder.FIELD_UID, SortDirection.ASC)));
+
+    when(clientFacade.search(any(), eq(0), eq(MAX_BATCH_SIZE), eq(sort), any()))
+        .thenReturn(searchHitsBatch);
+    when(clientFacade.searchAfter(any(), eq(singletonList(9999)), eq(MAX_BATCH_SIZE), any(), any()))
+        .thenReturn(nextSearchHitsBatch);
+    when(clientFacade.searchAfter(
+            any(), eq(singletonList(19999)), eq(MAX_BATCH_SIZE), any(), any()))
         .thenReturn(finalSearchHitsBatch);
 
-    elasticsearchService.search(entityType, query);
+    Stream<Object> entityIds = elasticsearchService.search(entityType, query);
+    verifyNoInteractions(clientFacade);
+    assertEquals(25000, entityIds.count());
 
-    verify(clientFacade, times(1)).search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(10000), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(20000), eq(MAX_BATCH_SIZE), any(), any());
+    verify(clientFacade, times(1)).search(any(), eq(0), eq(MAX_BATCH_SIZE), eq(sort), any());
+    verify(clientFacade, times(2)).searchAfter(any(), any(), eq(MAX_BATCH_SIZE), any(), any());
     verifyNoMoreInteractions(clientFacade);
   }
 
@@ -93,22 +123,107 @@ class ElasticsearchServiceTest extends AbstractMockitoTest {
     QueryImpl<Entity> query = mock(QueryImpl.class);
     when(query.getPageSize()).thenReturn(10001);
     when(query.getOffset()).thenReturn(5000);
+    mockIdAttribute();
 
-    SearchHits searchHitsBatch = mock(SearchHits.class);
-    when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
-
-    SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-    when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[1]));
+    SearchHits searchHitsBatch = createSearchHits(5000, 10000);
+    SearchHits finalSearchHitsBatch = createSearchHits(15000, 1);
 
     when(clientFacade.search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any()))
         .thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(15000), eq(1), any(), any()))
+    when(clientFacade.searchAfter(any(), eq(singletonList(14999)), eq(1), any(), any()))
         .thenReturn(finalSearchHitsBatch);
 
-    elasticsearchService.search(entityType, query);
+    assertEquals(10001, elasticsearchService.search(entityType, query).count());
 
     verify(clientFacade, times(1)).search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(15000), eq(1), any(), any());
+    verify(clientFacade, times(1)).searchAfter(any(), any(), eq(1), any(), any());
     verifyNoMoreInteractions(clientFacade);
   }
+
+  @Test
+  void testCreateIndex() {
+    Index alias = Index.create("alias");
+    Index index = Index.create("alias-1");
+    Mapping mapping = mock(Mapping.class);
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createIndexVersion(entityType)).thenReturn(index);
+    when(contentGenerators.createMapping(entityType)).thenReturn(mapping);
+
+    elasticsearchService.createIndex(entityType);
+
+    verify(clientFacade).createIndex(eq(index), eq(alias), eq(IndexSettings.create()), any());
+  }
+
+  @Test
+  void testDeleteIndex() {
+    Index alias = Index.create("alias");
+    List<Index> indexes = singletonList(Index.create("alias-1"));
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(clientFacade.getIndexes(alias)).thenReturn(indexes);
+
+    elasticsearchService.deleteIndex(entityType);
+
+    verify(clientFacade).deleteIndexes(indexes);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testRebuildIndex() {
+    Index alias = Index.create("alias");
+    Index oldIndex = Index.create("alias-1");
+    Index index = Index.create("alias-2");
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createIndexVersion(entityType)).thenReturn(index);
+    when(clientFacade.indexesExist(alias)).thenReturn(true);
+    when(clientFacade.getIndexes(alias)).thenReturn(singletonList(oldIndex));
+
+    elasticsearchService.rebuildIndex(repository);
+
+    IndexSettings bulkIndexSettings =
+        IndexSettings.builder()
+            .setRefreshInterval(IndexSettings.REFRESH_INTERVAL_DISABLED)
+            .setNumberOfReplicas(0)
+            .build();
+    InOrder inOrder = inOrder(clientFacade, repository);
+    inOrder.verify(clientFacade).createIndex(eq(index), isNull(), eq(bulkIndexSettings), any());
+    inOrder.verify(repository).forEachBatched(any(), any(), eq(1000));
+    inOrder.verify(clientFacade).updateIndexSettings(index, IndexSettings.create());
+    inOrder.verify(clientFacade).refreshIndex(index);
+    inOrder.verify(clientFacade).swapIndexes(alias, index, singletonList(oldIndex));
+    verify(clientFacade, never()).deleteIndex(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testRebuildIndexFailure() {
+    Index alias = Index.create("alias");
+    Index index = Index.create("alias-2");
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createIndexVersion(entityType)).thenReturn(index);
+    IndexException indexException = new IndexException("error");
+    doThrow(indexException).when(repository).forEachBatched(any(), any(), eq(1000));
+
+    assertThrows(IndexException.class, () -> elasticsearchService.rebuildIndex(repository));
+
+    verify(clientFacade).deleteIndex(index);
+    verify(clientFacade, never()).swapIndexes(any(), any(), any());
+  }
+
+  private void mockIdAttribute() {
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getDataType()).thenReturn(AttributeType.STRING);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+  }
+
+  private static SearchHits createSearchHits(int from, int size) {
+    List<SearchHit> searchHits =
+        IntStream.range(from, from + size)
+            .mapToObj(i -> SearchHit.create(String.valueOf(i), "index", singletonList(i)))
+            .collect(toList());
+    return SearchHits.create(size, searchHits);
+  }
 }
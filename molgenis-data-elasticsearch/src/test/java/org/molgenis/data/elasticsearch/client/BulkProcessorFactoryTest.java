@@ -0,0 +1,29 @@
+package org.molgenis.data.elasticsearch.client;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class BulkProcessorFactoryTest {
+  @Test
+  void testBulkActionsInvalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BulkProcessorFactory(0, 5, 1, 50, 8, new SimpleMeterRegistry()));
+  }
+
+  @Test
+  void testBulkSizeInvalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BulkProcessorFactory(1000, 0, 1, 50, 8, new SimpleMeterRegistry()));
+  }
+
+  @Test
+  void testConcurrentRequestsInvalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BulkProcessorFactory(1000, 5, -1, 50, 8, new SimpleMeterRegistry()));
+  }
+}
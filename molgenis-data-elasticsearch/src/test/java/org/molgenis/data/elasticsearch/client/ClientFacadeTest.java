@@ -5,13 +5,16 @@ import static ch.qos.logback.classic.Level.ERROR;
 import static ch.qos.logback.classic.Level.TRACE;
 import static ch.qos.logback.classic.Level.WARN;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -20,17 +23,25 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequestBuilder;
+import org.elasticsearch.action.admin.indices.get.GetIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequestBuilder;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.explain.ExplainRequestBuilder;
@@ -58,6 +69,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
 import org.molgenis.data.elasticsearch.generator.model.Document;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
 import org.molgenis.data.elasticsearch.generator.model.FieldMapping;
 import org.molgenis.data.elasticsearch.generator.model.Index;
 import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
@@ -266,6 +278,76 @@ class ClientFacadeTest {
     verify(mockAppender).doAppend(matcher(DEBUG, "Created index 'indexname'."));
   }
 
+  @Test
+  void testCreateIndexWithAlias() {
+    Index index = Index.create("indexname-1");
+    Index alias = Index.create("indexname");
+    IndexSettings indexSettings = IndexSettings.create(1, 1);
+    FieldMapping idField = FieldMapping.create("id", MappingType.TEXT, emptyList());
+    Mapping mapping = Mapping.create("type", ImmutableList.of(idField));
+
+    when(indicesAdminClient.prepareCreate("indexname-1")).thenReturn(createIndexRequestBuilder);
+    when(createIndexRequestBuilder.get()).thenReturn(createIndexResponse);
+    when(createIndexResponse.isAcknowledged()).thenReturn(true);
+    when(createIndexResponse.isShardsAcked()).thenReturn(true);
+
+    clientFacade.createIndex(index, alias, indexSettings, Stream.of(mapping));
+
+    verify(createIndexRequestBuilder).addAlias(argThat(a -> a.name().equals("indexname")));
+  }
+
+  @Test
+  void testUpdateIndexSettingsNotAcknowledged() {
+    Index index = Index.create("index");
+    UpdateSettingsRequestBuilder updateSettingsRequestBuilder =
+        mock(UpdateSettingsRequestBuilder.class);
+    UpdateSettingsResponse updateSettingsResponse = mock(UpdateSettingsResponse.class);
+
+    when(indicesAdminClient.prepareUpdateSettings("index"))
+        .thenReturn(updateSettingsRequestBuilder);
+    when(updateSettingsRequestBuilder.setSettings(any(Settings.class)))
+        .thenReturn(updateSettingsRequestBuilder);
+    when(updateSettingsRequestBuilder.get()).thenReturn(updateSettingsResponse);
+    when(updateSettingsResponse.isAcknowledged()).thenReturn(false);
+
+    Exception exception =
+        assertThrows(
+            IndexException.class,
+            () -> clientFacade.updateIndexSettings(index, IndexSettings.create()));
+    assertThat(exception.getMessage())
+        .containsPattern("Error updating settings of index 'index'\\.");
+  }
+
+  @Test
+  void testGetIndexesNotFound() {
+    Index index = Index.create("index");
+    GetIndexRequestBuilder getIndexRequestBuilder = mock(GetIndexRequestBuilder.class);
+
+    when(indicesAdminClient.prepareGetIndex()).thenReturn(getIndexRequestBuilder);
+    when(getIndexRequestBuilder.setIndices("index")).thenReturn(getIndexRequestBuilder);
+    when(getIndexRequestBuilder.get()).thenThrow(new ResourceNotFoundException("exception"));
+
+    assertThrows(UnknownIndexException.class, () -> clientFacade.getIndexes(index));
+  }
+
+  @Test
+  void testSwapIndexesThrowsException() {
+    Index alias = Index.create("index");
+    Index index = Index.create("index-2");
+    IndicesAliasesRequestBuilder aliasesRequestBuilder = mock(IndicesAliasesRequestBuilder.class);
+
+    when(indicesAdminClient.prepareAliases()).thenReturn(aliasesRequestBuilder);
+    when(aliasesRequestBuilder.get()).thenThrow(new ElasticsearchException("exception"));
+
+    Exception exception =
+        assertThrows(
+            IndexException.class,
+            () -> clientFacade.swapIndexes(alias, index, singletonList(Index.create("index-1"))));
+    assertThat(exception.getMessage())
+        .containsPattern("Error swapping alias 'index' to index 'index-2'\\.");
+    verify(aliasesRequestBuilder, times(2)).addAliasAction(any(AliasActions.class));
+  }
+
   @Test
   void testIndexesExistThrowsException() {
     Index index = Index.create("index");
@@ -642,6 +724,35 @@ class ClientFacadeTest {
     assertThat(exception.getMessage()).containsPattern("Index 'index' not found\\.");
   }
 
+  @Test
+  void testProcessDocumentActionsFailedDocuments() throws Exception {
+    BulkProcessor bulkProcessor = mock(BulkProcessor.class);
+    when(bulkProcessor.awaitClose(Long.MAX_VALUE, TimeUnit.NANOSECONDS)).thenReturn(true);
+    BulkProcessorFactory bulkProcessorFactory = mock(BulkProcessorFactory.class);
+    when(bulkProcessorFactory.create(eq(client), any(BulkResult.class)))
+        .thenAnswer(
+            invocation -> {
+              BulkResult bulkResult = invocation.getArgument(1);
+              bulkResult.addSuccesses(1);
+              bulkResult.addFailures(2, "failure");
+              return bulkProcessor;
+            });
+    ClientFacade bulkClientFacade = new ClientFacade(client, bulkProcessorFactory);
+
+    Index index = Index.create("index");
+    when(document.getId()).thenReturn("id");
+    DocumentAction documentAction =
+        DocumentAction.create(index, document, DocumentAction.Operation.DELETE);
+
+    Exception exception =
+        assertThrows(
+            IndexException.class,
+            () -> bulkClientFacade.processDocumentActions(Stream.of(documentAction)));
+    assertThat(exception.getMessage())
+        .isEqualTo("Failed to process 2 of 3 document actions: failure");
+    verify(bulkProcessor).add(any(DocWriteRequest.class));
+  }
+
   @Test
   void testCloseThrowsException() throws Exception {
     doThrow(new ElasticsearchException("exception")).when(client).close();
@@ -35,6 +35,14 @@ class SortContentBuilderTest {
     assertSortsEqual(sorts, singletonList(JSON_SORT_DESC));
   }
 
+  @Test
+  void createSortsScore() {
+    List<SortBuilder> sorts =
+        sortContentBuilder.createSorts(
+            Sort.create(singletonList(SortOrder.create(SortOrder.FIELD_SCORE, DESC))));
+    assertSortsEqual(sorts, singletonList(JSON_SORT_SCORE));
+  }
+
   private void assertSortsEqual(List<SortBuilder> sorts, List<String> contentStrings) {
     assertEquals(contentStrings, sorts.stream().map(SortBuilder::toString).collect(toList()));
   }
@@ -53,4 +61,6 @@ class SortContentBuilderTest {
           + "    \"mode\" : \"min\"\n"
           + "  }\n"
           + "}";
+  private static final String JSON_SORT_SCORE =
+      "{\n" + "  \"_score\" : {\n" + "    \"order\" : \"desc\"\n" + "  }\n" + "}";
 }
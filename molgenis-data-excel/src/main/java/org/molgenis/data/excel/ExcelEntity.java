@@ -6,6 +6,7 @@ import java.util.Map;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.molgenis.data.Entity;
+import org.molgenis.data.file.processor.AbstractCellProcessor;
 import org.molgenis.data.file.processor.CellProcessor;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.DynamicEntity;
@@ -17,6 +18,7 @@ import org.molgenis.data.support.DynamicEntity;
  */
 public class ExcelEntity extends DynamicEntity {
   private final transient Row row;
+  private final transient List<String> values;
   private final Map<String, Integer> colNamesMap;
   private final List<CellProcessor> cellProcessors;
 
@@ -33,6 +35,28 @@ public class ExcelEntity extends DynamicEntity {
     if (colNamesMap == null) throw new IllegalArgumentException("column names map is null");
 
     this.row = row;
+    this.values = null;
+    this.colNamesMap = colNamesMap;
+    this.cellProcessors = cellProcessors;
+  }
+
+  /**
+   * Creates an entity from the values of a row that was read without POI cells.
+   *
+   * @param values unprocessed cell values indexed by column, null for empty cells
+   */
+  ExcelEntity(
+      List<String> values,
+      Map<String, Integer> colNamesMap,
+      List<CellProcessor> cellProcessors,
+      EntityType entityType) {
+    super(entityType);
+
+    if (values == null) throw new IllegalArgumentException("values is null");
+    if (colNamesMap == null) throw new IllegalArgumentException("column names map is null");
+
+    this.row = null;
+    this.values = values;
     this.colNamesMap = colNamesMap;
     this.cellProcessors = cellProcessors;
   }
@@ -54,12 +78,7 @@ public class ExcelEntity extends DynamicEntity {
     } else {
       Integer col = colNamesMap.get(attributeName);
       if (col != null) {
-        Cell cell = row.getCell(col);
-        if (cell != null) {
-          value = ExcelUtils.toValue(cell, cellProcessors);
-        } else {
-          value = null;
-        }
+        value = getValue(col);
       } else {
         value = null;
       }
@@ -69,6 +88,21 @@ public class ExcelEntity extends DynamicEntity {
     return value;
   }
 
+  private String getValue(int col) {
+    String value;
+    if (row != null) {
+      Cell cell = row.getCell(col);
+      value = cell != null ? ExcelUtils.toValue(cell, cellProcessors) : null;
+    } else {
+      String cellValue = col < values.size() ? values.get(col) : null;
+      value =
+          cellValue != null
+              ? AbstractCellProcessor.processCell(cellValue, false, cellProcessors)
+              : null;
+    }
+    return value;
+  }
+
   @Override
   public void set(String attributeName, Object value) {
     if (cachedValueMap == null) {
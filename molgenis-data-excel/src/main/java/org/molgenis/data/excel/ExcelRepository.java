@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -21,6 +22,7 @@ import org.apache.poi.ss.util.CellReference;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.RepositoryCapability;
+import org.molgenis.data.excel.XlsxSheet.XlsxRow;
 import org.molgenis.data.file.processor.AbstractCellProcessor;
 import org.molgenis.data.file.processor.CellProcessor;
 import org.molgenis.data.meta.model.AttributeFactory;
@@ -36,9 +38,14 @@ import org.molgenis.data.support.AbstractRepository;
  * <p>All attributes will be of the string type. The cell values are converted to string.
  *
  * <p>The url of this Repository is defined as excel://${filename}/${sheetname}
+ *
+ * <p>Repositories of XLSX files opened by {@link ExcelRepositoryCollection} stream their rows from
+ * the file instead of reading them from a POI {@link Sheet}, see {@link XlsxSheet}.
  */
 public class ExcelRepository extends AbstractRepository {
   private final Sheet sheet;
+  private final XlsxSheet xlsxSheet;
+  private final String sheetName;
   private final EntityTypeFactory entityTypeFactory;
   private final AttributeFactory attrMetaFactory;
 
@@ -60,29 +67,62 @@ public class ExcelRepository extends AbstractRepository {
       AttributeFactory attrMetaFactory,
       List<CellProcessor> cellProcessors) {
     this.sheet = requireNonNull(sheet);
+    this.xlsxSheet = null;
+    this.sheetName = sheet.getSheetName();
     if (sheet.getNumMergedRegions() > 0) {
       throw new MolgenisDataException(
-          format(
-              "Sheet [%s] contains merged regions which is not supported", sheet.getSheetName()));
+          format("Sheet [%s] contains merged regions which is not supported", sheetName));
     }
     this.entityTypeFactory = requireNonNull(entityTypeFactory);
     this.attrMetaFactory = requireNonNull(attrMetaFactory);
     this.cellProcessors = cellProcessors;
   }
 
+  ExcelRepository(
+      XlsxSheet xlsxSheet,
+      EntityTypeFactory entityTypeFactory,
+      AttributeFactory attrMetaFactory,
+      List<CellProcessor> cellProcessors) {
+    this.sheet = null;
+    this.xlsxSheet = requireNonNull(xlsxSheet);
+    this.sheetName = xlsxSheet.getSheetName();
+    this.entityTypeFactory = requireNonNull(entityTypeFactory);
+    this.attrMetaFactory = requireNonNull(attrMetaFactory);
+    this.cellProcessors = cellProcessors;
+  }
+
   public int getNrRows() {
-    return sheet.getLastRowNum() + 1; // getLastRowNum is 0-based
+    checkMergedCells();
+    // getLastRowNum is 0-based
+    return (sheet != null ? sheet.getLastRowNum() : xlsxSheet.getLastRowNum()) + 1;
   }
 
   @Override
   public Iterator<Entity> iterator() {
-    final Iterator<Row> it = sheet.iterator();
+    if (sheet != null) {
+      return iterator(
+          sheet.iterator(),
+          this::toColNamesMap,
+          row -> new ExcelEntity(row, colNamesMap, cellProcessors, getEntityType()));
+    } else {
+      checkMergedCells();
+      return iterator(
+          xlsxSheet.iterator(),
+          this::toColNamesMap,
+          row -> new ExcelEntity(row.getValues(), colNamesMap, cellProcessors, getEntityType()));
+    }
+  }
+
+  private <R> Iterator<Entity> iterator(
+      Iterator<R> it,
+      Function<R, Map<String, Integer>> headerRowMapper,
+      Function<R, ExcelEntity> rowMapper) {
     if (!it.hasNext()) return Collections.<Entity>emptyList().iterator();
 
     // create column header index once and reuse
-    Row headerRow = it.next();
+    R headerRow = it.next();
     if (colNamesMap == null) {
-      colNamesMap = toColNamesMap(headerRow);
+      colNamesMap = headerRowMapper.apply(headerRow);
     }
 
     if (!it.hasNext()) return Collections.<Entity>emptyList().iterator();
@@ -113,10 +153,9 @@ public class ExcelRepository extends AbstractRepository {
       }
 
       private void getAndUpdateNext() {
-        // iterator skips empty lines.
-        if (it.hasNext() && next == null) {
-          ExcelEntity entity =
-              new ExcelEntity(it.next(), colNamesMap, cellProcessors, getEntityType());
+        // iterator skips empty lines, in a loop because sheets can contain many empty lines
+        while (next == null && it.hasNext()) {
+          ExcelEntity entity = rowMapper.apply(it.next());
 
           // check if there is any column containing a value
           for (String name : entity.getAttributeNames()) {
@@ -125,10 +164,6 @@ public class ExcelRepository extends AbstractRepository {
               break;
             }
           }
-          // next line not empty?
-          if (next == null) {
-            getAndUpdateNext();
-          }
         }
       }
     };
@@ -141,14 +176,21 @@ public class ExcelRepository extends AbstractRepository {
 
   public EntityType getEntityType() {
     if (entityType == null) {
-      String sheetName = sheet.getSheetName();
+      checkMergedCells();
       EntityType newEntityType = entityTypeFactory.create(sheetName).setLabel(sheetName);
 
       if (colNamesMap == null) {
-        Iterator<Row> it = sheet.iterator();
-        if (it.hasNext()) {
-          // First row contains the headers
-          colNamesMap = toColNamesMap(it.next());
+        // First row contains the headers
+        if (sheet != null) {
+          Iterator<Row> it = sheet.iterator();
+          if (it.hasNext()) {
+            colNamesMap = toColNamesMap(it.next());
+          }
+        } else {
+          XlsxRow headerRow = xlsxSheet.getFirstRow();
+          if (headerRow != null) {
+            colNamesMap = toColNamesMap(headerRow);
+          }
         }
       }
 
@@ -163,6 +205,17 @@ public class ExcelRepository extends AbstractRepository {
     return entityType;
   }
 
+  /**
+   * XLSX sheets are checked for merged regions on first use, so that creating a repository does not
+   * read the sheet.
+   */
+  private void checkMergedCells() {
+    if (xlsxSheet != null && xlsxSheet.hasMergedCells()) {
+      throw new MolgenisDataException(
+          format("Sheet [%s] contains merged regions which is not supported", sheetName));
+    }
+  }
+
   private Map<String, Integer> toColNamesMap(Row headerRow) {
     if (headerRow == null) return null;
 
@@ -191,6 +244,25 @@ public class ExcelRepository extends AbstractRepository {
     return columnIdx;
   }
 
+  private Map<String, Integer> toColNamesMap(XlsxRow headerRow) {
+    Map<String, Integer> columnIdx = new LinkedHashMap<>();
+    int i = 0;
+    for (String value : headerRow.getValues()) {
+      if (value != null) {
+        String header = AbstractCellProcessor.processCell(value, true, cellProcessors);
+        if (header != null) {
+          if (columnIdx.containsKey(header)) {
+            throw new MolgenisDataException(
+                format(
+                    "Duplicate column header '%s' in sheet '%s' not allowed", header, sheetName));
+          }
+          columnIdx.put(header, i++);
+        }
+      }
+    }
+    return columnIdx;
+  }
+
   @Override
   public Set<RepositoryCapability> getCapabilities() {
     return Collections.emptySet();
@@ -200,4 +272,12 @@ public class ExcelRepository extends AbstractRepository {
   public long count() {
     return Iterables.size(this);
   }
+
+  /** Closes the files of XLSX sheet iterators that were not exhausted. */
+  @Override
+  public void close() {
+    if (xlsxSheet != null) {
+      xlsxSheet.close();
+    }
+  }
 }
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
@@ -25,12 +26,16 @@ import org.springframework.beans.factory.annotation.Autowired;
  *
  * <p>A sheet is exposed as a {@link org.molgenis.data.Repository} with the sheetname as the
  * Repository name
+ *
+ * <p>XLSX files are streamed sheet by sheet, so that memory usage is bounded by the row width
+ * instead of the file size. Other files and input streams are loaded as POI {@link Workbook}.
  */
 public class ExcelRepositoryCollection extends FileRepositoryCollection {
 
   private static final String REPOSITORY_COLLECTION_NAME = "EXCEL";
 
   private final Workbook workbook;
+  private final XlsxWorkbook xlsxWorkbook;
 
   private EntityTypeFactory entityTypeFactory;
   private AttributeFactory attributeFactory;
@@ -40,13 +45,23 @@ public class ExcelRepositoryCollection extends FileRepositoryCollection {
   }
 
   public ExcelRepositoryCollection(File file, CellProcessor... cellProcessors) throws IOException {
-    this(new FileInputStream(file), cellProcessors);
+    super(ExcelFileExtensions.getExcel(), cellProcessors);
+    if (FileMagic.valueOf(file) == FileMagic.OOXML) {
+      workbook = null;
+      xlsxWorkbook = new XlsxWorkbook(file);
+    } else {
+      try (InputStream in = new FileInputStream(file)) {
+        workbook = WorkbookFactory.create(in);
+      }
+      xlsxWorkbook = null;
+    }
   }
 
   public ExcelRepositoryCollection(InputStream in, CellProcessor... cellProcessors)
       throws IOException {
     super(ExcelFileExtensions.getExcel(), cellProcessors);
     workbook = WorkbookFactory.create(in);
+    xlsxWorkbook = null;
   }
 
   @Override
@@ -68,6 +83,11 @@ public class ExcelRepositoryCollection extends FileRepositoryCollection {
 
   @Override
   public Repository<Entity> getRepository(String name) {
+    if (xlsxWorkbook != null) {
+      XlsxSheet xlsxSheet = xlsxWorkbook.getSheet(name);
+      return xlsxSheet != null ? createRepository(xlsxSheet) : null;
+    }
+
     Sheet poiSheet = workbook.getSheet(name);
     if (poiSheet == null) {
       return null;
@@ -77,14 +97,18 @@ public class ExcelRepositoryCollection extends FileRepositoryCollection {
   }
 
   public int getNumberOfSheets() {
-    return workbook.getNumberOfSheets();
+    return xlsxWorkbook != null ? xlsxWorkbook.getNumberOfSheets() : workbook.getNumberOfSheets();
   }
 
   public String getSheetName(int i) {
-    return workbook.getSheetName(i);
+    return xlsxWorkbook != null ? xlsxWorkbook.getSheetName(i) : workbook.getSheetName(i);
   }
 
   public ExcelRepository getSheet(int i) {
+    if (xlsxWorkbook != null) {
+      return createRepository(xlsxWorkbook.getSheetAt(i));
+    }
+
     Sheet poiSheet = workbook.getSheetAt(i);
     if (poiSheet == null) {
       return null;
@@ -93,6 +117,10 @@ public class ExcelRepositoryCollection extends FileRepositoryCollection {
     return new ExcelRepository(poiSheet, entityTypeFactory, attributeFactory, cellProcessors);
   }
 
+  private ExcelRepository createRepository(XlsxSheet xlsxSheet) {
+    return new ExcelRepository(xlsxSheet, entityTypeFactory, attributeFactory, cellProcessors);
+  }
+
   @Override
   public String getName() {
     return REPOSITORY_COLLECTION_NAME;
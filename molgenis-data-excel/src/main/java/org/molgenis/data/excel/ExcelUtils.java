@@ -5,10 +5,12 @@ import static java.time.ZoneOffset.UTC;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.DateUtil;
@@ -54,13 +56,7 @@ public class ExcelUtils {
             LocaleUtil.resetUserTimeZone();
           }
         } else {
-          // excel stores integer values as double values
-          // read an integer if the double value equals the
-          // integer value
-          double x = cell.getNumericCellValue();
-          if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x))
-            value = String.valueOf((long) x);
-          else value = String.valueOf(x);
+          value = toValue(cell.getNumericCellValue());
         }
         break;
       case BOOLEAN:
@@ -96,13 +92,7 @@ public class ExcelUtils {
                 LocaleUtil.resetUserTimeZone();
               }
             } else {
-              // excel stores integer values as double values
-              // read an integer if the double value equals the
-              // integer value
-              double x = cellValue.getNumberValue();
-              if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x))
-                value = String.valueOf((long) x);
-              else value = String.valueOf(x);
+              value = toValue(cellValue.getNumberValue());
             }
             break;
           case STRING:
@@ -123,6 +113,16 @@ public class ExcelUtils {
     return AbstractCellProcessor.processCell(value, false, cellProcessors);
   }
 
+  // excel stores integer values as double values, read an integer if the double value equals the
+  // integer value
+  static String toValue(double x) {
+    if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x)) {
+      return String.valueOf((long) x);
+    } else {
+      return String.valueOf(x);
+    }
+  }
+
   public static void renameSheet(String newSheetname, File file, int index) {
     try (FileInputStream fis = new FileInputStream(file);
         Workbook workbook = WorkbookFactory.create(fis)) {
@@ -136,6 +136,13 @@ public class ExcelUtils {
 
   public static int getNumberOfSheets(File file) {
     if (!isExcelFile(file.getName())) return -1;
+    try {
+      if (FileMagic.valueOf(file) == FileMagic.OOXML) {
+        return new XlsxWorkbook(file).getNumberOfSheets();
+      }
+    } catch (IOException e) {
+      throw new MolgenisDataException(e);
+    }
     try (FileInputStream fis = new FileInputStream(file);
         Workbook workbook = WorkbookFactory.create(fis)) {
       return workbook.getNumberOfSheets();
@@ -156,7 +163,7 @@ public class ExcelUtils {
    * @param javaDate Parsed Date representing start of day in UTC
    * @return Formatted {@link LocalDateTime} string of the java.util.Date
    */
-  private static String formatUTCDateAsLocalDateTime(Date javaDate) {
+  static String formatUTCDateAsLocalDateTime(Date javaDate) {
     // Now back from start of day in UTC to LocalDateTime to express that we don't know the
     // timezone.
     LocalDateTime localDateTime = javaDate.toInstant().atZone(UTC).toLocalDateTime();
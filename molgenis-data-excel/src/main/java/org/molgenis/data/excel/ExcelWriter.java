@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.WritableFactory;
 import org.molgenis.data.file.processor.CellProcessor;
@@ -20,10 +20,14 @@ import org.molgenis.data.support.AbstractWritable.AttributeWriteMode;
 
 /** Creates new Excel sheets */
 public class ExcelWriter implements WritableFactory {
+  /** number of rows kept in memory per sheet when writing .xlsx files */
+  private static final int ROWS_IN_MEMORY = 1000;
+
   private final Workbook workbook;
   private final OutputStream os;
   private final AttributeFactory attrMetaFactory;
   private List<CellProcessor> cellProcessors;
+  private boolean discarded;
 
   public enum FileFormat {
     XLS,
@@ -38,7 +42,9 @@ public class ExcelWriter implements WritableFactory {
     this.os = requireNonNull(os);
     this.attrMetaFactory = requireNonNull(attrMetaFactory);
     this.workbook =
-        requireNonNull(format) == FileFormat.XLS ? new HSSFWorkbook() : new XSSFWorkbook();
+        requireNonNull(format) == FileFormat.XLS
+            ? new HSSFWorkbook()
+            : new SXSSFWorkbook(ROWS_IN_MEMORY);
   }
 
   public void addCellProcessor(CellProcessor cellProcessor) {
@@ -53,14 +59,31 @@ public class ExcelWriter implements WritableFactory {
     return new ExcelSheetWriter(poiSheet, attributes, attributeWriteMode, cellProcessors);
   }
 
+  /**
+   * Discards the written sheets: closing this writer releases its resources without writing the
+   * workbook to or closing the output stream.
+   */
+  public void discard() {
+    discarded = true;
+  }
+
   @Override
   public void close() throws IOException {
     try {
-      workbook.write(os);
+      if (!discarded) {
+        workbook.write(os);
+      }
     } catch (IOException e) {
       throw new MolgenisDataException("Exception writing to excel file", e);
+    } finally {
+      if (workbook instanceof SXSSFWorkbook) {
+        ((SXSSFWorkbook) workbook).dispose();
+      }
+      workbook.close();
+    }
+    if (!discarded) {
+      os.close();
     }
-    os.close();
   }
 
   @Override
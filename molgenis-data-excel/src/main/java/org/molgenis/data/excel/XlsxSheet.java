@@ -0,0 +1,378 @@
+package org.molgenis.data.excel;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import com.google.common.collect.AbstractIterator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.molgenis.data.MolgenisDataException;
+
+/**
+ * Sheet of a {@link XlsxWorkbook} that is read with a pull parser every time its rows are iterated,
+ * so that only the current row is held in memory. Cell values are converted to strings like {@link
+ * ExcelUtils} converts POI cells, except that formula cells have the value that was cached when the
+ * file was saved instead of being evaluated.
+ *
+ * <p>Merged cells are listed after the rows. They are detected by scanning the element names of the
+ * sheet without parsing the rows, see {@link #hasMergedCells()}.
+ */
+class XlsxSheet {
+  private static final int BUFFER_SIZE = 8192;
+  private static final byte[] SHEET_DATA_TAG = "sheetData".getBytes(US_ASCII);
+  private static final byte[] SHEET_DATA_END_TAG = "/sheetData".getBytes(US_ASCII);
+  private static final byte[] MERGE_CELL_TAG = "mergeCell".getBytes(US_ASCII);
+
+  private final XlsxWorkbook workbook;
+  private final String sheetName;
+  private final String relationshipId;
+  private final Set<RowIterator> openRowIterators = ConcurrentHashMap.newKeySet();
+
+  /** Last row number, only known after reading the whole sheet, read on first use */
+  private boolean scanned;
+
+  private int lastRowNum;
+  private Boolean mergedCells;
+
+  XlsxSheet(XlsxWorkbook workbook, String sheetName, String relationshipId) {
+    this.workbook = workbook;
+    this.sheetName = sheetName;
+    this.relationshipId = relationshipId;
+  }
+
+  String getSheetName() {
+    return sheetName;
+  }
+
+  /** Returns the 0-based index of the last row, like {@link org.apache.poi.ss.usermodel.Sheet}. */
+  int getLastRowNum() {
+    scan();
+    return lastRowNum;
+  }
+
+  /** Returns whether the sheet contains merged cells, scans the sheet on first use. */
+  synchronized boolean hasMergedCells() {
+    if (mergedCells == null) {
+      OPCPackage opcPackage = null;
+      InputStream inputStream = null;
+      try {
+        opcPackage = workbook.open();
+        inputStream = new XSSFReader(opcPackage).getSheet(relationshipId);
+        mergedCells = containsMergeCellTag(inputStream);
+      } catch (IOException | OpenXML4JException e) {
+        throw new MolgenisDataException(e);
+      } finally {
+        closeQuietly(opcPackage, inputStream);
+      }
+    }
+    return mergedCells;
+  }
+
+  /**
+   * Returns whether the sheet XML contains a mergeCell element after the end of the sheetData
+   * element. Only element names are read: '<' always starts markup, cell values escape it.
+   */
+  static boolean containsMergeCellTag(InputStream inputStream) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    byte[] tagName = new byte[Math.max(SHEET_DATA_END_TAG.length, MERGE_CELL_TAG.length)];
+    int tagNameLength = -1; // not within a tag name
+    boolean sheetDataEnded = false;
+    int nrBytes;
+    while ((nrBytes = inputStream.read(buffer)) != -1) {
+      for (int i = 0; i < nrBytes; i++) {
+        byte b = buffer[i];
+        if (b == '<') {
+          tagNameLength = 0;
+        } else if (tagNameLength >= 0) {
+          if (b == ':') {
+            // skip the namespace prefix, but keep the slash of an end tag
+            tagNameLength = tagNameLength > 0 && tagName[0] == '/' ? 1 : 0;
+          } else if (isTagNameEnd(b) && !(b == '/' && tagNameLength == 0)) {
+            if (!sheetDataEnded) {
+              sheetDataEnded =
+                  isTagName(tagName, tagNameLength, SHEET_DATA_END_TAG)
+                      || (b == '/' && isTagName(tagName, tagNameLength, SHEET_DATA_TAG));
+            } else if (isTagName(tagName, tagNameLength, MERGE_CELL_TAG)) {
+              return true;
+            }
+            tagNameLength = -1;
+          } else {
+            if (tagNameLength < tagName.length) {
+              tagName[tagNameLength] = b;
+            }
+            tagNameLength++;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isTagNameEnd(byte b) {
+    return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+
+  private static boolean isTagName(byte[] tagName, int tagNameLength, byte[] expectedTagName) {
+    if (tagNameLength != expectedTagName.length) {
+      return false;
+    }
+    for (int i = 0; i < tagNameLength; i++) {
+      if (tagName[i] != expectedTagName[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the first row or null if the sheet has no rows. */
+  XlsxRow getFirstRow() {
+    try (RowIterator rowIterator = new RowIterator()) {
+      return rowIterator.hasNext() ? rowIterator.next() : null;
+    }
+  }
+
+  /**
+   * Returns an iterator over the rows of the sheet. The file is closed when the iterator is
+   * exhausted or when the sheet is closed.
+   */
+  RowIterator iterator() {
+    return new RowIterator();
+  }
+
+  /** Closes the files of iterators that were not exhausted. */
+  void close() {
+    openRowIterators.forEach(RowIterator::close);
+  }
+
+  private synchronized void scan() {
+    if (scanned) {
+      return;
+    }
+    try (RowIterator rowIterator = new RowIterator()) {
+      while (rowIterator.hasNext()) {
+        rowIterator.next();
+      }
+    }
+  }
+
+  /** Stores the last row number that was read by an iterator that read the whole sheet. */
+  private synchronized void setScanned(int lastRowNum) {
+    this.lastRowNum = lastRowNum;
+    this.scanned = true;
+  }
+
+  /** Row of which the values are indexed by column, values of absent cells are null. */
+  static class XlsxRow {
+    private final int rowNum;
+    private final List<String> values;
+
+    XlsxRow(int rowNum, List<String> values) {
+      this.rowNum = rowNum;
+      this.values = Collections.unmodifiableList(values);
+    }
+
+    /** Returns the 0-based row index. */
+    int getRowNum() {
+      return rowNum;
+    }
+
+    List<String> getValues() {
+      return values;
+    }
+  }
+
+  class RowIterator extends AbstractIterator<XlsxRow> implements Closeable {
+    private final OPCPackage opcPackage;
+    private final InputStream inputStream;
+    private final XMLStreamReader reader;
+    private int rowNum = -1;
+    private boolean closed;
+
+    private RowIterator() {
+      OPCPackage newOpcPackage = null;
+      InputStream newInputStream = null;
+      try {
+        newOpcPackage = workbook.open();
+        newInputStream = new XSSFReader(newOpcPackage).getSheet(relationshipId);
+        reader = StaxHelper.newXMLInputFactory().createXMLStreamReader(newInputStream);
+      } catch (IOException | OpenXML4JException | XMLStreamException e) {
+        closeQuietly(newOpcPackage, newInputStream);
+        throw new MolgenisDataException(e);
+      }
+      this.opcPackage = newOpcPackage;
+      this.inputStream = newInputStream;
+      openRowIterators.add(this);
+    }
+
+    @Override
+    protected XlsxRow computeNext() {
+      if (closed) {
+        return endOfData();
+      }
+      try {
+        while (reader.hasNext()) {
+          int event = reader.next();
+          if (event == START_ELEMENT && "row".equals(reader.getLocalName())) {
+            return readRow();
+          } else if (event == END_ELEMENT && "sheetData".equals(reader.getLocalName())) {
+            setScanned(Math.max(rowNum, 0));
+            break;
+          }
+        }
+      } catch (XMLStreamException e) {
+        close();
+        throw new MolgenisDataException(e);
+      }
+      close();
+      return endOfData();
+    }
+
+    private XlsxRow readRow() throws XMLStreamException {
+      String rowReference = reader.getAttributeValue(null, "r");
+      rowNum = rowReference != null ? Integer.parseInt(rowReference) - 1 : rowNum + 1;
+
+      List<String> values = new ArrayList<>();
+      int column = -1;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == START_ELEMENT && "c".equals(reader.getLocalName())) {
+          String cellReference = reader.getAttributeValue(null, "r");
+          column = cellReference != null ? new CellReference(cellReference).getCol() : column + 1;
+          String value = readCell();
+          if (value != null) {
+            while (values.size() <= column) {
+              values.add(null);
+            }
+            values.set(column, value);
+          }
+        } else if (event == END_ELEMENT && "row".equals(reader.getLocalName())) {
+          break;
+        }
+      }
+      return new XlsxRow(rowNum, values);
+    }
+
+    private String readCell() throws XMLStreamException {
+      String type = reader.getAttributeValue(null, "t");
+      String style = reader.getAttributeValue(null, "s");
+      String rawValue = null;
+      StringBuilder inlineString = null;
+      boolean phoneticRun = false;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == START_ELEMENT) {
+          switch (reader.getLocalName()) {
+            case "v":
+              rawValue = reader.getElementText();
+              break;
+            case "t":
+              String text = reader.getElementText();
+              if (!phoneticRun) {
+                inlineString =
+                    inlineString != null ? inlineString.append(text) : new StringBuilder(text);
+              }
+              break;
+            case "rPh":
+              phoneticRun = true;
+              break;
+            default:
+              break;
+          }
+        } else if (event == END_ELEMENT) {
+          String localName = reader.getLocalName();
+          if ("rPh".equals(localName)) {
+            phoneticRun = false;
+          } else if ("c".equals(localName)) {
+            break;
+          }
+        }
+      }
+      return toValue(type, style, rawValue, inlineString);
+    }
+
+    private String toValue(String type, String style, String rawValue, StringBuilder inlineString) {
+      String value;
+      switch (type != null ? type : "n") {
+        case "s":
+          value = rawValue != null ? workbook.getSharedString(Integer.parseInt(rawValue)) : null;
+          break;
+        case "inlineStr":
+          value = inlineString != null ? inlineString.toString() : null;
+          break;
+        case "str":
+        case "d":
+          value = rawValue;
+          break;
+        case "b":
+          value = rawValue != null ? String.valueOf("1".equals(rawValue)) : null;
+          break;
+        case "n":
+          if (rawValue == null || rawValue.isEmpty()) {
+            value = null;
+          } else {
+            double x = Double.parseDouble(rawValue);
+            int styleIndex = style != null ? Integer.parseInt(style) : 0;
+            if (DateUtil.isValidExcelDate(x) && workbook.isDateFormatted(styleIndex)) {
+              // Excel dates are LocalDateTime, stored without timezone, interpret them as UTC
+              value =
+                  ExcelUtils.formatUTCDateAsLocalDateTime(
+                      DateUtil.getJavaDate(x, workbook.isDate1904(), LocaleUtil.TIMEZONE_UTC));
+            } else {
+              value = ExcelUtils.toValue(x);
+            }
+          }
+          break;
+        case "e":
+          throw new MolgenisDataException("unsupported cell type: ERROR");
+        default:
+          throw new MolgenisDataException("unsupported cell type: " + type);
+      }
+      return value;
+    }
+
+    /** Closes the file, iteration ends after the iterator is closed. */
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          throw new MolgenisDataException(e);
+        } finally {
+          closeQuietly(opcPackage, inputStream);
+          openRowIterators.remove(this);
+        }
+      }
+    }
+  }
+
+  private static void closeQuietly(OPCPackage opcPackage, InputStream inputStream) {
+    if (inputStream != null) {
+      try {
+        inputStream.close();
+      } catch (IOException e) {
+        // the package is reverted regardless
+      }
+    }
+    if (opcPackage != null) {
+      opcPackage.revert();
+    }
+  }
+}
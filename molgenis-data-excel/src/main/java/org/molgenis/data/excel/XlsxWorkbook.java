@@ -0,0 +1,202 @@
+package org.molgenis.data.excel;
+
+import static java.lang.String.format;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.molgenis.data.MolgenisDataException;
+import org.xml.sax.SAXException;
+
+/**
+ * XLSX workbook of which the sheets are streamed from the file instead of loaded in memory, see
+ * {@link XlsxSheet}. Only the sheet names, the shared strings table and the cell styles are kept in
+ * memory.
+ */
+class XlsxWorkbook {
+  private static final String RELATIONSHIP_ID = "id";
+
+  private final File file;
+  private final List<XlsxSheet> sheets;
+  private boolean date1904;
+
+  /** Read on first use, volatile so that reading cells does not need a lock once it is read */
+  private volatile SharedStringsAndStyles sharedStringsAndStyles;
+
+  XlsxWorkbook(File file) throws IOException {
+    this.file = file;
+    this.sheets = new ArrayList<>();
+    OPCPackage opcPackage = open();
+    try {
+      readWorkbook(new XSSFReader(opcPackage));
+    } catch (OpenXML4JException | XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      opcPackage.revert();
+    }
+  }
+
+  /**
+   * Opens the file for reading, the caller must release the returned package with {@link
+   * OPCPackage#revert()}.
+   */
+  OPCPackage open() throws IOException {
+    try {
+      return OPCPackage.open(file, PackageAccess.READ);
+    } catch (OpenXML4JException e) {
+      throw new IOException(e);
+    }
+  }
+
+  int getNumberOfSheets() {
+    return sheets.size();
+  }
+
+  String getSheetName(int index) {
+    return getSheetAt(index).getSheetName();
+  }
+
+  /** Returns the sheet at the given index, throws an exception if the index is out of range. */
+  XlsxSheet getSheetAt(int index) {
+    if (index < 0 || index >= sheets.size()) {
+      throw new IllegalArgumentException(
+          format("Sheet index (%d) is out of range (0..%d)", index, sheets.size() - 1));
+    }
+    return sheets.get(index);
+  }
+
+  /** Returns the sheet with the given case-insensitive name or null if no such sheet exists. */
+  XlsxSheet getSheet(String sheetName) {
+    for (XlsxSheet sheet : sheets) {
+      if (sheet.getSheetName().equalsIgnoreCase(sheetName)) {
+        return sheet;
+      }
+    }
+    return null;
+  }
+
+  boolean isDate1904() {
+    return date1904;
+  }
+
+  /** Returns the shared string with the given index, reads the shared strings on first use. */
+  String getSharedString(int index) {
+    return getSharedStringsAndStyles().sharedStrings.getEntryAt(index);
+  }
+
+  /** Returns whether cells with the given style index contain dates. */
+  boolean isDateFormatted(int styleIndex) {
+    boolean[] dateFormattedStyles = getSharedStringsAndStyles().dateFormattedStyles;
+    return styleIndex >= 0
+        && styleIndex < dateFormattedStyles.length
+        && dateFormattedStyles[styleIndex];
+  }
+
+  private SharedStringsAndStyles getSharedStringsAndStyles() {
+    SharedStringsAndStyles result = sharedStringsAndStyles;
+    if (result == null) {
+      synchronized (this) {
+        result = sharedStringsAndStyles;
+        if (result == null) {
+          result = loadSharedStringsAndStyles();
+          sharedStringsAndStyles = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private SharedStringsAndStyles loadSharedStringsAndStyles() {
+    OPCPackage opcPackage = null;
+    try {
+      opcPackage = open();
+      XSSFReader xssfReader = new XSSFReader(opcPackage);
+      StylesTable stylesTable = xssfReader.getStylesTable();
+      int numCellStyles = stylesTable != null ? stylesTable.getNumCellStyles() : 0;
+      boolean[] dateFormattedStyles = new boolean[numCellStyles];
+      for (int i = 0; i < numCellStyles; i++) {
+        XSSFCellStyle cellStyle = stylesTable.getStyleAt(i);
+        dateFormattedStyles[i] =
+            cellStyle != null
+                && DateUtil.isADateFormat(
+                    cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+      }
+      // phonetic runs are excluded, like POI does for string cell values
+      ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+      return new SharedStringsAndStyles(sharedStrings, dateFormattedStyles);
+    } catch (IOException | OpenXML4JException | SAXException e) {
+      throw new MolgenisDataException(e);
+    } finally {
+      if (opcPackage != null) {
+        opcPackage.revert();
+      }
+    }
+  }
+
+  private void readWorkbook(XSSFReader xssfReader)
+      throws IOException, OpenXML4JException, XMLStreamException {
+    try (InputStream inputStream = xssfReader.getWorkbookData()) {
+      XMLStreamReader reader = StaxHelper.newXMLInputFactory().createXMLStreamReader(inputStream);
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+              case "workbookPr":
+                String date1904Value = reader.getAttributeValue(null, "date1904");
+                date1904 = "1".equals(date1904Value) || "true".equals(date1904Value);
+                break;
+              case "sheet":
+                String sheetName = reader.getAttributeValue(null, "name");
+                String relationshipId = getRelationshipId(reader);
+                sheets.add(new XlsxSheet(this, sheetName, relationshipId));
+                break;
+              default:
+                break;
+            }
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  private static class SharedStringsAndStyles {
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final boolean[] dateFormattedStyles;
+
+    SharedStringsAndStyles(
+        ReadOnlySharedStringsTable sharedStrings, boolean[] dateFormattedStyles) {
+      this.sharedStrings = sharedStrings;
+      this.dateFormattedStyles = dateFormattedStyles;
+    }
+  }
+
+  /** Returns the relationship id, its namespace differs between transitional and strict XLSX. */
+  private static String getRelationshipId(XMLStreamReader reader) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String namespace = reader.getAttributeNamespace(i);
+      if (RELATIONSHIP_ID.equals(reader.getAttributeLocalName(i))
+          && namespace != null
+          && !namespace.isEmpty()) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    throw new MolgenisDataException(
+        format("Sheet '%s' has no relationship id", reader.getAttributeValue(null, "name")));
+  }
+}
@@ -1,5 +1,6 @@
 package org.molgenis.data.excel;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityTypeFactory;
 import org.molgenis.test.AbstractMockitoTest;
+import org.molgenis.util.ResourceUtils;
 
 class ExcelRepositoryCollectionTest extends AbstractMockitoTest {
   @Mock private EntityTypeFactory entityTypeFactory;
@@ -49,6 +51,43 @@ class ExcelRepositoryCollectionTest extends AbstractMockitoTest {
     assertThrows(IllegalArgumentException.class, () -> excelRepositoryCollection.getSheet(123));
   }
 
+  @Test
+  void testGetRepositoryXlsxFile() throws IOException {
+    ExcelRepositoryCollection xlsxRepositoryCollection = createXlsxFileRepositoryCollection();
+    assertNotNull(xlsxRepositoryCollection.getRepository("attributes"));
+  }
+
+  @Test
+  void testGetRepositoryXlsxFileNotExists() throws IOException {
+    ExcelRepositoryCollection xlsxRepositoryCollection = createXlsxFileRepositoryCollection();
+    assertNull(xlsxRepositoryCollection.getRepository("blaat"));
+  }
+
+  @Test
+  void testGetSheetXlsxFile() throws IOException {
+    ExcelRepositoryCollection xlsxRepositoryCollection = createXlsxFileRepositoryCollection();
+    assertEquals(
+        excelRepositoryCollection.getNumberOfSheets(),
+        xlsxRepositoryCollection.getNumberOfSheets());
+    assertEquals(
+        excelRepositoryCollection.getSheetName(0), xlsxRepositoryCollection.getSheetName(0));
+    assertNotNull(xlsxRepositoryCollection.getSheet(0));
+  }
+
+  @Test
+  void testGetSheetXlsxFileNotExists() throws IOException {
+    ExcelRepositoryCollection xlsxRepositoryCollection = createXlsxFileRepositoryCollection();
+    assertThrows(IllegalArgumentException.class, () -> xlsxRepositoryCollection.getSheet(123));
+  }
+
+  private ExcelRepositoryCollection createXlsxFileRepositoryCollection() throws IOException {
+    ExcelRepositoryCollection xlsxRepositoryCollection =
+        new ExcelRepositoryCollection(ResourceUtils.getFile(getClass(), "/test.xlsx"));
+    xlsxRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    xlsxRepositoryCollection.setAttributeFactory(attributeFactory);
+    return xlsxRepositoryCollection;
+  }
+
   @AfterEach
   void tearDownAfterEach() throws IOException {
     inputStream.close();
@@ -1,5 +1,8 @@
 package org.molgenis.data.excel;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Streams.stream;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -12,12 +15,23 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.meta.AttributeType.STRING;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,10 +40,13 @@ import org.mockito.quality.Strictness;
 import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Repository;
 import org.molgenis.data.file.processor.CellProcessor;
+import org.molgenis.data.file.processor.TrimProcessor;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityTypeFactory;
+import org.molgenis.util.ResourceUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -237,4 +254,160 @@ class ExcelRepositoryTest extends AbstractMolgenisSpringTest {
     assertEquals("2.4", row4.get("col2"));
     assertFalse(it.hasNext());
   }
+
+  @Test
+  void iteratorXlsxFile() throws IOException {
+    File file = ResourceUtils.getFile(getClass(), "/test.xlsx");
+    ExcelRepositoryCollection streamingCollection = new ExcelRepositoryCollection(file);
+    streamingCollection.setEntityTypeFactory(entityTypeFactory);
+    streamingCollection.setAttributeFactory(attrMetaFactory);
+    try (InputStream inputStream = new FileInputStream(file)) {
+      ExcelRepositoryCollection collection =
+          new ExcelRepositoryCollection(inputStream, new TrimProcessor());
+      collection.setEntityTypeFactory(entityTypeFactory);
+      collection.setAttributeFactory(attrMetaFactory);
+
+      assertEquals(
+          newArrayList(collection.getEntityTypeIds()),
+          newArrayList(streamingCollection.getEntityTypeIds()));
+      for (String sheetName : collection.getEntityTypeIds()) {
+        ExcelRepository repository = (ExcelRepository) collection.getRepository(sheetName);
+        ExcelRepository streamingRepository =
+            (ExcelRepository) streamingCollection.getRepository(sheetName);
+        assertEquals(repository.getNrRows(), streamingRepository.getNrRows());
+        assertEquals(getAttributeNames(repository), getAttributeNames(streamingRepository));
+        assertEquals(toStrings(repository), toStrings(streamingRepository));
+      }
+    }
+  }
+
+  @Test
+  void iteratorXlsxFileDuplicateSheetHeader() throws IOException {
+    File file = ResourceUtils.getFile(getClass(), "/duplicate-sheet-header.xlsx");
+    ExcelRepositoryCollection excelRepositoryCollection = new ExcelRepositoryCollection(file);
+    excelRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    excelRepositoryCollection.setAttributeFactory(attrMetaFactory);
+    Repository<Entity> excelRepository = excelRepositoryCollection.getRepository("attributes");
+    Exception exception = assertThrows(MolgenisDataException.class, excelRepository::iterator);
+    assertThat(exception.getMessage())
+        .containsPattern("Duplicate column header 'entity' in sheet 'attributes' not allowed");
+  }
+
+  @Test
+  void iteratorXlsxFileHeaderCaseSensitive() throws IOException {
+    File file = ResourceUtils.getFile(getClass(), "/case-sensitivity.xlsx");
+    ExcelRepositoryCollection excelRepositoryCollection = new ExcelRepositoryCollection(file);
+    excelRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    excelRepositoryCollection.setAttributeFactory(attrMetaFactory);
+    Entity entity = excelRepositoryCollection.getRepository("case-sensitivity").iterator().next();
+    assertEquals("Value #0", entity.get("Header"));
+    assertNull(entity.get("hEADER"));
+  }
+
+  @Test
+  void iteratorXlsxFileCellTypes() throws IOException {
+    File file = File.createTempFile("unittest_", ".xlsx");
+    file.deleteOnExit();
+    try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+      CellStyle dateStyle = workbook.createCellStyle();
+      dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yy"));
+      XSSFSheet sheet = workbook.createSheet("types");
+      Row headerRow = sheet.createRow(0);
+      headerRow.createCell(0).setCellValue("string");
+      headerRow.createCell(1).setCellValue("int");
+      headerRow.createCell(2).setCellValue("decimal");
+      headerRow.createCell(3).setCellValue("bool");
+      headerRow.createCell(4).setCellValue("date");
+      headerRow.createCell(5).setCellValue("formula");
+      Row row = sheet.createRow(2);
+      row.createCell(0).setCellValue(" value ");
+      row.createCell(1).setCellValue(123);
+      row.createCell(2).setCellValue(1.5);
+      row.createCell(3).setCellValue(true);
+      Cell dateCell = row.createCell(4);
+      dateCell.setCellValue(43739.5); // 2019-10-01 12:00
+      dateCell.setCellStyle(dateStyle);
+      row.createCell(5).setCellFormula("B3*2");
+      workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+      try (OutputStream outputStream = new FileOutputStream(file)) {
+        workbook.write(outputStream);
+      }
+    }
+
+    ExcelRepositoryCollection excelRepositoryCollection = new ExcelRepositoryCollection(file);
+    excelRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    excelRepositoryCollection.setAttributeFactory(attrMetaFactory);
+    ExcelRepository excelRepository = excelRepositoryCollection.getSheet(0);
+    assertEquals(3, excelRepository.getNrRows());
+
+    Iterator<Entity> it = excelRepository.iterator();
+    Entity entity = it.next();
+    assertEquals("value", entity.get("string"));
+    assertEquals("123", entity.get("int"));
+    assertEquals("1.5", entity.get("decimal"));
+    assertEquals("true", entity.get("bool"));
+    assertEquals("2019-10-01T12:00", entity.get("date"));
+    assertEquals("246", entity.get("formula"));
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  void iteratorXlsxFileMergedCells() throws IOException {
+    File file = File.createTempFile("unittest_", ".xlsx");
+    file.deleteOnExit();
+    try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+      XSSFSheet sheet = workbook.createSheet("merged");
+      sheet.createRow(0).createCell(0).setCellValue("col1");
+      sheet.createRow(1).createCell(0).setCellValue("val1");
+      sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 1));
+      try (OutputStream outputStream = new FileOutputStream(file)) {
+        workbook.write(outputStream);
+      }
+    }
+
+    ExcelRepositoryCollection excelRepositoryCollection = new ExcelRepositoryCollection(file);
+    excelRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    excelRepositoryCollection.setAttributeFactory(attrMetaFactory);
+    ExcelRepository excelRepository = excelRepositoryCollection.getSheet(0);
+
+    Exception exception = assertThrows(MolgenisDataException.class, excelRepository::getEntityType);
+    assertThat(exception.getMessage())
+        .isEqualTo("Sheet [merged] contains merged regions which is not supported");
+    assertThrows(MolgenisDataException.class, excelRepository::iterator);
+  }
+
+  @Test
+  void closeXlsxFile() throws IOException {
+    File file = File.createTempFile("unittest_", ".xlsx");
+    file.deleteOnExit();
+    try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+      XSSFSheet sheet = workbook.createSheet("rows");
+      for (int i = 0; i < 3; i++) {
+        sheet.createRow(i).createCell(0).setCellValue("val" + i);
+      }
+      try (OutputStream outputStream = new FileOutputStream(file)) {
+        workbook.write(outputStream);
+      }
+    }
+
+    ExcelRepositoryCollection excelRepositoryCollection = new ExcelRepositoryCollection(file);
+    excelRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    excelRepositoryCollection.setAttributeFactory(attrMetaFactory);
+    ExcelRepository excelRepository = excelRepositoryCollection.getSheet(0);
+
+    Iterator<Entity> it = excelRepository.iterator();
+    assertEquals("val1", it.next().get("val0"));
+    excelRepository.close();
+    assertFalse(it.hasNext());
+  }
+
+  private static List<String> getAttributeNames(ExcelRepository repository) {
+    return stream(repository.getEntityType().getAttributes())
+        .map(Attribute::getName)
+        .collect(toList());
+  }
+
+  private static List<String> toStrings(ExcelRepository repository) {
+    return stream(repository).map(Entity::toString).collect(toList());
+  }
 }
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
@@ -116,6 +117,16 @@ class ExcelWriterTest extends AbstractMolgenisSpringTest {
     verify(os).close();
   }
 
+  @Test
+  void discard() throws IOException {
+    OutputStream os = mock(OutputStream.class);
+    ExcelWriter excelWriter = new ExcelWriter(os, attrMetaFactory, FileFormat.XLSX);
+    excelWriter.createWritable("sheet", Arrays.asList("col1", "col2"));
+    excelWriter.discard();
+    excelWriter.close();
+    verifyNoInteractions(os);
+  }
+
   @Test
   void createSheet() throws IOException {
     OutputStream os = mock(OutputStream.class);
@@ -0,0 +1,39 @@
+package org.molgenis.data.excel;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class XlsxSheetTest {
+  static Stream<Arguments> containsMergeCellTagProvider() {
+    return Stream.of(
+        Arguments.of("<worksheet><sheetData><row r=\"1\"/></sheetData></worksheet>", false),
+        Arguments.of(
+            "<worksheet><sheetData/><mergeCells count=\"1\"><mergeCell ref=\"A1:B1\"/>"
+                + "</mergeCells></worksheet>",
+            true),
+        Arguments.of(
+            "<x:worksheet><x:sheetData><x:row/></x:sheetData>"
+                + "<x:mergeCells><x:mergeCell ref=\"A1:B1\"/></x:mergeCells></x:worksheet>",
+            true),
+        Arguments.of(
+            "<worksheet><sheetData><row><c t=\"inlineStr\"><is><t>&lt;/sheetData>&lt;mergeCell/>"
+                + "</t></is></c></row></sheetData></worksheet>",
+            false),
+        Arguments.of("<worksheet><mergeCell/><sheetData></sheetData></worksheet>", false));
+  }
+
+  @ParameterizedTest
+  @MethodSource("containsMergeCellTagProvider")
+  void testContainsMergeCellTag(String sheetXml, boolean containsMergeCellTag) throws IOException {
+    assertEquals(
+        containsMergeCellTag,
+        XlsxSheet.containsMergeCellTag(new ByteArrayInputStream(sheetXml.getBytes(UTF_8))));
+  }
+}
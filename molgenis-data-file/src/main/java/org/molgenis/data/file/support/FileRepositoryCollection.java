@@ -31,4 +31,9 @@ public abstract class FileRepositoryCollection extends AbstractRepositoryCollect
   public Set<String> getFileNameExtensions() {
     return fileNameExtensions;
   }
+
+  /** Returns whether repositories of this collection can be iterated concurrently. */
+  public boolean isConcurrentReadSupported() {
+    return false;
+  }
 }
@@ -0,0 +1,97 @@
+package org.molgenis.data.i18n;
+
+import static com.google.common.collect.Streams.stream;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.molgenis.data.i18n.model.L10nString;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.util.i18n.LanguageService;
+
+/**
+ * Immutable in-memory copy of all {@link L10nString} messages for the languages that are present in
+ * the {@link L10nString} entity type.
+ */
+class LocalizationBundle {
+  /** maps namespace to message ID to language code to message */
+  private final Map<String, Map<String, Map<String, String>>> namespaces;
+  /** maps message ID to language code to message of the first namespace that contains it */
+  private final Map<String, Map<String, String>> messages;
+
+  private LocalizationBundle(
+      Map<String, Map<String, Map<String, String>>> namespaces,
+      Map<String, Map<String, String>> messages) {
+    this.namespaces = namespaces;
+    this.messages = messages;
+  }
+
+  static LocalizationBundle create(Stream<L10nString> l10nStrings) {
+    List<String> languageCodes = null;
+    Map<String, Map<String, Map<String, String>>> namespaces = new HashMap<>();
+    Map<String, Map<String, String>> messages = new HashMap<>();
+    for (L10nString l10nString : (Iterable<L10nString>) l10nStrings::iterator) {
+      if (languageCodes == null) {
+        languageCodes = getLanguageCodes(l10nString.getEntityType());
+      }
+      Map<String, String> languageMessages = getLanguageMessages(l10nString, languageCodes);
+      namespaces
+          .computeIfAbsent(l10nString.getNamespace(), namespace -> new HashMap<>())
+          .putIfAbsent(l10nString.getMessageID(), languageMessages);
+      messages.putIfAbsent(l10nString.getMessageID(), languageMessages);
+    }
+
+    ImmutableMap.Builder<String, Map<String, Map<String, String>>> immutableNamespaces =
+        ImmutableMap.builder();
+    namespaces.forEach(
+        (namespace, namespaceMessages) ->
+            immutableNamespaces.put(namespace, ImmutableMap.copyOf(namespaceMessages)));
+    return new LocalizationBundle(immutableNamespaces.build(), ImmutableMap.copyOf(messages));
+  }
+
+  /** Returns the message for the given message ID and locale or null if it does not exist. */
+  String getMessage(String messageId, Locale locale) {
+    Map<String, String> languageMessages = messages.get(messageId);
+    return languageMessages != null ? languageMessages.get(locale.getLanguage()) : null;
+  }
+
+  /** Returns the messages of the namespace that are specified for the given locale. */
+  Map<String, String> getMessages(String namespace, Locale locale) {
+    Map<String, Map<String, String>> namespaceMessages =
+        namespaces.getOrDefault(namespace, emptyMap());
+    ImmutableMap.Builder<String, String> localeMessages = ImmutableMap.builder();
+    namespaceMessages.forEach(
+        (messageId, languageMessages) -> {
+          String message = languageMessages.get(locale.getLanguage());
+          if (message != null) {
+            localeMessages.put(messageId, message);
+          }
+        });
+    return localeMessages.build();
+  }
+
+  private static List<String> getLanguageCodes(EntityType l10nStringEntityType) {
+    return stream(l10nStringEntityType.getAtomicAttributes())
+        .map(Attribute::getName)
+        .filter(LanguageService::hasLanguageCode)
+        .collect(toList());
+  }
+
+  private static Map<String, String> getLanguageMessages(
+      L10nString l10nString, List<String> languageCodes) {
+    ImmutableMap.Builder<String, String> languageMessages = ImmutableMap.builder();
+    for (String languageCode : languageCodes) {
+      String message = l10nString.getString(languageCode);
+      if (message != null) {
+        languageMessages.put(languageCode, message);
+      }
+    }
+    return languageMessages.build();
+  }
+}
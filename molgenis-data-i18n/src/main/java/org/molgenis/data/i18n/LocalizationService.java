@@ -1,5 +1,6 @@
 package org.molgenis.data.i18n;
 
+import static java.util.Collections.disjoint;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
@@ -7,8 +8,11 @@ import static java.util.stream.Collectors.toMap;
 import static org.molgenis.data.i18n.model.L10nStringMetadata.L10N_STRING;
 import static org.molgenis.data.i18n.model.L10nStringMetadata.MSGID;
 import static org.molgenis.data.i18n.model.L10nStringMetadata.NAMESPACE;
+import static org.molgenis.data.i18n.model.LanguageMetadata.LANGUAGE;
 
 import com.google.common.collect.Sets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -16,10 +20,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import org.molgenis.data.DataService;
 import org.molgenis.data.i18n.model.L10nString;
 import org.molgenis.data.i18n.model.L10nStringFactory;
+import org.molgenis.data.transaction.InvalidatableSnapshot;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionListener;
+import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.i18n.MessageResolution;
 import org.molgenis.security.core.runas.RunAsSystem;
 import org.slf4j.Logger;
@@ -30,15 +39,49 @@ import org.springframework.transaction.annotation.Transactional;
  * Reads and writes messages to and from the {@link L10nString} entity.
  *
  * <p>The values returned are exactly how they are stored in the entity columns.
+ *
+ * <p>Messages are resolved from an in-memory {@link LocalizationBundle} of all messages. The bundle
+ * is reloaded on first use after a transaction that changed messages or languages is cleaned up.
+ * Transactions that changed messages or languages resolve messages from the data source, so that
+ * they see their own changes.
  */
-public class LocalizationService implements MessageResolution {
+public class LocalizationService implements MessageResolution, TransactionListener {
   private static final Logger LOG = LoggerFactory.getLogger(LocalizationService.class);
+  /** Entity types of which changes invalidate the localization bundle */
+  private static final Set<String> BUNDLE_ENTITY_TYPE_IDS = Set.of(L10N_STRING, LANGUAGE);
+
   private final DataService dataService;
   private final L10nStringFactory l10nStringFactory;
+  private final TransactionInformation transactionInformation;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  /** ids of committed transactions that invalidate the bundle once they are cleaned up */
+  private final Set<String> invalidatingTransactionIds;
+
+  private final InvalidatableSnapshot<LocalizationBundle> bundle;
 
-  LocalizationService(DataService dataService, L10nStringFactory l10nStringFactory) {
+  LocalizationService(
+      DataService dataService,
+      L10nStringFactory l10nStringFactory,
+      TransactionManager transactionManager,
+      TransactionInformation transactionInformation,
+      MeterRegistry meterRegistry) {
     this.dataService = requireNonNull(dataService);
     this.l10nStringFactory = requireNonNull(l10nStringFactory);
+    this.transactionInformation = requireNonNull(transactionInformation);
+    this.hitCounter = createCounter(meterRegistry, "hit");
+    this.missCounter = createCounter(meterRegistry, "miss");
+    this.invalidatingTransactionIds = ConcurrentHashMap.newKeySet();
+    this.bundle = new InvalidatableSnapshot<>();
+    requireNonNull(transactionManager).addTransactionListener(this);
+  }
+
+  private static Counter createCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("cache.gets")
+        .tag("cache", "l10n")
+        .tag("result", result)
+        .description("Number of messages resolved from the localization bundle")
+        .register(meterRegistry);
   }
 
   /**
@@ -51,10 +94,20 @@ public class LocalizationService implements MessageResolution {
   @Override
   @RunAsSystem
   public String resolveCodeWithoutArguments(String code, Locale locale) {
-    return Optional.ofNullable(
-            dataService.query(L10N_STRING, L10nString.class).eq(MSGID, code).findOne())
-        .map(l10nString -> l10nString.getString(locale))
-        .orElse(null);
+    if (isBundleAffected()) {
+      return Optional.ofNullable(
+              dataService.query(L10N_STRING, L10nString.class).eq(MSGID, code).findOne())
+          .map(l10nString -> l10nString.getString(locale))
+          .orElse(null);
+    }
+
+    String message = getBundle().getMessage(code, locale);
+    if (message != null) {
+      hitCounter.increment();
+    } else {
+      missCounter.increment();
+    }
+    return message;
   }
 
   /**
@@ -68,6 +121,9 @@ public class LocalizationService implements MessageResolution {
    */
   @RunAsSystem
   public Map<String, String> getMessages(String namespace, Locale locale) {
+    if (!isBundleAffected()) {
+      return getBundle().getMessages(namespace, locale);
+    }
     return getL10nStrings(namespace).stream()
         .filter(e -> e.getString(locale) != null)
         .collect(toMap(L10nString::getMessageID, e -> e.getString(locale)));
@@ -132,4 +188,36 @@ public class LocalizationService implements MessageResolution {
     dataService.update(L10N_STRING, toUpdate.stream());
     dataService.add(L10N_STRING, toAdd.stream());
   }
+
+  @Override
+  public void afterCommitTransaction(String transactionId) {
+    if (isBundleAffected()) {
+      invalidatingTransactionIds.add(transactionId);
+    }
+  }
+
+  @Override
+  public void doCleanupAfterCompletion(String transactionId) {
+    if (invalidatingTransactionIds.remove(transactionId)) {
+      bundle.invalidate();
+      LOG.debug("Invalidated localization bundle");
+    }
+  }
+
+  /** Returns whether the current transaction changed messages or languages. */
+  private boolean isBundleAffected() {
+    return !disjoint(transactionInformation.getDirtyRepositories(), BUNDLE_ENTITY_TYPE_IDS);
+  }
+
+  private LocalizationBundle getBundle() {
+    return bundle.get(this::loadBundle);
+  }
+
+  private LocalizationBundle loadBundle() {
+    try (Stream<L10nString> l10nStrings = dataService.findAll(L10N_STRING, L10nString.class)) {
+      LocalizationBundle localizationBundle = LocalizationBundle.create(l10nStrings);
+      LOG.debug("Loaded localization bundle");
+      return localizationBundle;
+    }
+  }
 }
@@ -3,15 +3,19 @@ package org.molgenis.data.i18n;
 import static com.google.common.collect.ImmutableMap.of;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.Locale.ENGLISH;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.i18n.model.L10nStringMetadata.L10N_STRING;
@@ -19,6 +23,8 @@ import static org.molgenis.data.i18n.model.L10nStringMetadata.MSGID;
 import static org.molgenis.data.i18n.model.L10nStringMetadata.NAMESPACE;
 
 import com.google.common.collect.ImmutableSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -32,6 +38,10 @@ import org.molgenis.data.DataService;
 import org.molgenis.data.Query;
 import org.molgenis.data.i18n.model.L10nString;
 import org.molgenis.data.i18n.model.L10nStringFactory;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.test.AbstractMockitoTest;
 
 class LocalizationServiceTest extends AbstractMockitoTest {
@@ -42,6 +52,9 @@ class LocalizationServiceTest extends AbstractMockitoTest {
   @Mock private DataService dataService;
 
   @Mock private L10nStringFactory l10nStringFactory;
+  @Mock private TransactionManager transactionManager;
+  @Mock private TransactionInformation transactionInformation;
+  private MeterRegistry meterRegistry;
 
   @Mock private L10nString enPlusNl;
   @Mock private L10nString nlOnly;
@@ -53,11 +66,73 @@ class LocalizationServiceTest extends AbstractMockitoTest {
 
   @BeforeEach
   void setUp() throws Exception {
-    localizationService = new LocalizationService(dataService, l10nStringFactory);
+    meterRegistry = new SimpleMeterRegistry();
+    localizationService =
+        new LocalizationService(
+            dataService,
+            l10nStringFactory,
+            transactionManager,
+            transactionInformation,
+            meterRegistry);
+  }
+
+  @Test
+  void testAddTransactionListener() {
+    verify(transactionManager).addTransactionListener(localizationService);
   }
 
   @Test
   void testGetMessage() {
+    setUpBundle();
+
+    assertEquals(
+        "string 1 - nl", localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+    assertEquals(
+        "string 1 - nl", localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+    assertNull(localizationService.resolveCodeWithoutArguments("NL_ONLY", ENGLISH));
+    assertNull(localizationService.resolveCodeWithoutArguments("UNKNOWN", DUTCH));
+    verify(dataService).findAll(L10N_STRING, L10nString.class);
+    assertEquals(2, getCount("hit"));
+    assertEquals(2, getCount("miss"));
+  }
+
+  @Test
+  void testGetMessageBundleInvalidated() {
+    setUpBundle();
+    assertEquals(
+        "string 1 - nl", localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(L10N_STRING));
+    localizationService.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    localizationService.doCleanupAfterCompletion("transactionId");
+
+    EntityType l10nStringEntityType = enPlusNl.getEntityType();
+    when(nlOnly.getEntityType()).thenReturn(l10nStringEntityType);
+    when(dataService.findAll(L10N_STRING, L10nString.class)).thenReturn(Stream.of(nlOnly));
+    assertNull(localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+    verify(dataService, times(2)).findAll(L10N_STRING, L10nString.class);
+  }
+
+  @Test
+  void testGetMessageBundleNotInvalidated() {
+    setUpBundle();
+    assertEquals(
+        "string 1 - nl", localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton("otherEntityTypeId"));
+    localizationService.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    localizationService.doCleanupAfterCompletion("transactionId");
+
+    assertEquals(
+        "string 1 - nl", localizationService.resolveCodeWithoutArguments("EN_PLUS_NL", DUTCH));
+    verify(dataService).findAll(L10N_STRING, L10nString.class);
+  }
+
+  @Test
+  void testGetMessageDirtyInTransaction() {
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(L10N_STRING));
     doReturn("string 1 - nl").when(enPlusNl).getString(DUTCH);
     @SuppressWarnings("unchecked")
     Query<L10nString> query = mock(Query.class, RETURNS_SELF);
@@ -70,6 +145,18 @@ class LocalizationServiceTest extends AbstractMockitoTest {
 
   @Test
   void testGetMessages() {
+    setUpBundle();
+
+    assertEquals(
+        of("EN_PLUS_NL", "string 1 - nl", "NL_ONLY", "string 2 - nl"),
+        localizationService.getMessages("test", DUTCH));
+    assertEquals(
+        of("EN_PLUS_NL", "string 1 - en"), localizationService.getMessages("test", ENGLISH));
+  }
+
+  @Test
+  void testGetMessagesDirtyInTransaction() {
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(L10N_STRING));
     @SuppressWarnings("unchecked")
     Query<L10nString> query = mock(Query.class, RETURNS_SELF);
     when(dataService.query(L10N_STRING, L10nString.class)).thenReturn(query);
@@ -137,4 +224,28 @@ class LocalizationServiceTest extends AbstractMockitoTest {
     when(nlOnly.getMessageID()).thenReturn("B");
     assertEquals(asList("A", "B"), localizationService.getAllMessageIds());
   }
+
+  private void setUpBundle() {
+    EntityType l10nStringEntityType = mock(EntityType.class);
+    Attribute idAttribute = when(mock(Attribute.class).getName()).thenReturn("id").getMock();
+    Attribute enAttribute = when(mock(Attribute.class).getName()).thenReturn("en").getMock();
+    Attribute nlAttribute = when(mock(Attribute.class).getName()).thenReturn("nl").getMock();
+    when(l10nStringEntityType.getAtomicAttributes())
+        .thenReturn(asList(idAttribute, enAttribute, nlAttribute));
+    when(enPlusNl.getEntityType()).thenReturn(l10nStringEntityType);
+    when(enPlusNl.getNamespace()).thenReturn("test");
+    when(enPlusNl.getMessageID()).thenReturn("EN_PLUS_NL");
+    doReturn("string 1 - en").when(enPlusNl).getString("en");
+    doReturn("string 1 - nl").when(enPlusNl).getString("nl");
+    when(nlOnly.getNamespace()).thenReturn("test");
+    when(nlOnly.getMessageID()).thenReturn("NL_ONLY");
+    doReturn(null).when(nlOnly).getString("en");
+    doReturn("string 2 - nl").when(nlOnly).getString("nl");
+    when(dataService.findAll(L10N_STRING, L10nString.class))
+        .thenReturn(Stream.of(enPlusNl, nlOnly));
+  }
+
+  private double getCount(String result) {
+    return meterRegistry.get("cache.gets").tag("result", result).counter().count();
+  }
 }
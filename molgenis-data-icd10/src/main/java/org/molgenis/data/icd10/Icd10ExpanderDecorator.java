@@ -33,6 +33,12 @@ class Icd10ExpanderDecorator extends AbstractRepositoryDecorator<Entity> {
     return delegate().count(query);
   }
 
+  @Override
+  public long estimateCount(Query<Entity> query) {
+    query = query != null ? transformQuery(query) : null;
+    return delegate().estimateCount(query);
+  }
+
   @Override
   public Entity findOne(Query<Entity> query) {
     query = query != null ? transformQuery(query) : null;
@@ -10,13 +10,23 @@ import static org.molgenis.util.stream.MapCollectors.toLinkedMap;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.EntityManager;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Repository;
 import org.molgenis.data.UnknownEntityTypeException;
@@ -26,22 +36,44 @@ import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.util.UnexpectedEnumException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Persists data in two passes. The first pass persists entity types without mappedBy attributes and
+ * their entities while recording the mappedBy attribute values. The second pass adds the mappedBy
+ * attributes and updates the entities with mappedBy attribute values, so that the data source is
+ * read only once.
+ *
+ * <p>Entities are read and converted ahead on a worker pool while the entities of preceding entity
+ * types are persisted, see {@link EntityPrefetcher}. Each import has its own worker pool, so that
+ * concurrent imports never wait for each other's readers. All data is written by the calling
+ * thread, so that the import runs in a single transaction.
+ */
 @Component
 public class DataPersisterImpl implements DataPersister {
+  private static final int BATCH_SIZE = 1000;
+  /** Maximum time to wait for the next batch of entities before the import fails */
+  private static final Duration MAX_READ_WAIT_TIME = Duration.ofMinutes(10);
+
+  private static final ThreadFactory READ_THREAD_FACTORY =
+      new ThreadFactoryBuilder().setNameFormat("molgenis-import-%d").setDaemon(true).build();
+
   private final MetaDataService metaDataService;
   private final DataService dataService;
   private final EntityTypeDependencyResolver entityTypeDependencyResolver;
+  private final EntityManager entityManager;
 
   DataPersisterImpl(
       MetaDataService metaDataService,
       DataService dataService,
-      EntityTypeDependencyResolver entityTypeDependencyResolver) {
+      EntityTypeDependencyResolver entityTypeDependencyResolver,
+      EntityManager entityManager) {
     this.metaDataService = requireNonNull(metaDataService);
     this.dataService = requireNonNull(dataService);
     this.entityTypeDependencyResolver = requireNonNull(entityTypeDependencyResolver);
+    this.entityManager = requireNonNull(entityManager);
   }
 
   @Transactional
@@ -52,11 +84,12 @@ public class DataPersisterImpl implements DataPersister {
         getTopologicalSortedEntityTypes(dataProvider.getEntityTypes());
 
     preProcessEntityTypes(sortedEntityTypes, metadataMode);
-    PersistResult persistResult =
-        persistFirstPass(dataProvider, metadataMode, dataMode, sortedEntityTypes);
-    persistSecondPass(dataProvider, sortedEntityTypes, metadataMode);
-
-    return persistResult;
+    try (MappedByValues mappedByValues = new MappedByValues()) {
+      PersistResult persistResult =
+          persistFirstPass(dataProvider, metadataMode, dataMode, sortedEntityTypes, mappedByValues);
+      persistSecondPass(dataProvider, sortedEntityTypes, metadataMode, mappedByValues);
+      return persistResult;
+    }
   }
 
   private void preProcessEntityTypes(List<EntityType> entityTypes, MetadataMode metadataMode) {
@@ -78,31 +111,66 @@ public class DataPersisterImpl implements DataPersister {
       DataProvider dataProvider,
       MetadataMode metadataMode,
       DataMode dataMode,
-      List<EntityType> topologicalSortedEntityTypes) {
+      List<EntityType> topologicalSortedEntityTypes,
+      MappedByValues mappedByValues) {
+    List<EntityType> entityTypesWithEntities =
+        topologicalSortedEntityTypes.stream()
+            .filter(entityType -> !entityType.isAbstract() && dataProvider.hasEntities(entityType))
+            .collect(toList());
+
     ImmutableMap.Builder<String, Long> persistResultBuilder = ImmutableMap.builder();
-    topologicalSortedEntityTypes.forEach(
-        entityType -> {
-          EntityType persistedEntityType = persistEntityTypeFirstPass(entityType, metadataMode);
-          if (dataProvider.hasEntities(entityType)) {
-            if (entityType.isAbstract()) {
-              throw new MolgenisDataException(
-                  format(
-                      "Abstract entity type '%s' with id '%s' cannot contain entities",
-                      entityType.getLabel(), entityType.getId()));
+    ExecutorService executorService =
+        createReadExecutorService(dataProvider, entityTypesWithEntities.size());
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            new DelegatingSecurityContextExecutorService(executorService),
+            dataProvider,
+            entityTypesWithEntities,
+            BATCH_SIZE,
+            MAX_READ_WAIT_TIME)) {
+      topologicalSortedEntityTypes.forEach(
+          entityType -> {
+            EntityType persistedEntityType = persistEntityTypeFirstPass(entityType, metadataMode);
+            if (dataProvider.hasEntities(entityType)) {
+              if (entityType.isAbstract()) {
+                throw new MolgenisDataException(
+                    format(
+                        "Abstract entity type '%s' with id '%s' cannot contain entities",
+                        entityType.getLabel(), entityType.getId()));
+              }
+              Stream<Entity> entities = entityPrefetcher.getEntities(entityType);
+              if (entityType.hasMappedByAttributes()) {
+                entities = recordMappedByValues(entityType, entities, mappedByValues);
+              }
+              long nrPersistedEntities =
+                  persistEntitiesFirstPass(persistedEntityType, entities, dataMode);
+              persistResultBuilder.put(entityType.getId(), nrPersistedEntities);
             }
-            Stream<Entity> entities = dataProvider.getEntities(entityType);
-            long nrPersistedEntities =
-                persistEntitiesFirstPass(persistedEntityType, entities, dataMode);
-            persistResultBuilder.put(entityType.getId(), nrPersistedEntities);
-          }
-        });
+          });
+    } finally {
+      executorService.shutdownNow();
+    }
     return PersistResult.create(persistResultBuilder.build());
   }
 
+  /**
+   * Creates the worker pool of one import with at most one thread per processor and no more threads
+   * than there are entity types to read in parallel.
+   */
+  private static ExecutorService createReadExecutorService(
+      DataProvider dataProvider, int nrEntityTypes) {
+    int nrThreads =
+        dataProvider.isConcurrentReadSupported()
+            ? Math.min(nrEntityTypes, Runtime.getRuntime().availableProcessors())
+            : 1;
+    return Executors.newFixedThreadPool(Math.max(nrThreads, 1), READ_THREAD_FACTORY);
+  }
+
   private void persistSecondPass(
       DataProvider dataProvider,
       List<EntityType> topologicalSortedEntityTypes,
-      MetadataMode metadataMode) {
+      MetadataMode metadataMode,
+      MappedByValues mappedByValues) {
     topologicalSortedEntityTypes.forEach(
         entityType -> {
           EntityType persistedEntityType;
@@ -120,8 +188,7 @@ public class DataPersisterImpl implements DataPersister {
           }
 
           if (dataProvider.hasEntities(entityType)) {
-            Stream<Entity> entities = dataProvider.getEntities(entityType);
-            persistEntitiesSecondPass(persistedEntityType, entities);
+            persistEntitiesSecondPass(persistedEntityType, mappedByValues);
           }
         });
   }
@@ -194,16 +261,55 @@ public class DataPersisterImpl implements DataPersister {
   private void upsertEntitiesFirstPass(EntityType entityType, Stream<Entity> entities) {
     String entityTypeId = entityType.getId();
     Repository<Entity> repository = dataService.getRepository(entityTypeId);
-    Iterators.partition(entities.iterator(), 1000).forEachRemaining(repository::upsertBatch);
+    Iterators.partition(entities.iterator(), BATCH_SIZE).forEachRemaining(repository::upsertBatch);
   }
 
-  private void persistEntitiesSecondPass(EntityType entityType, Stream<Entity> entities) {
+  private Stream<Entity> recordMappedByValues(
+      EntityType entityType, Stream<Entity> entities, MappedByValues mappedByValues) {
+    String entityTypeId = entityType.getId();
+    List<Attribute> mappedByAttributes = entityType.getMappedByAttributes().collect(toList());
+    return entities.peek(entity -> mappedByValues.record(entityTypeId, mappedByAttributes, entity));
+  }
+
+  private void persistEntitiesSecondPass(EntityType entityType, MappedByValues mappedByValues) {
     if (entityType.hasMappedByAttributes()) {
       String entityTypeId = entityType.getId();
+      List<Attribute> mappedByAttributes = entityType.getMappedByAttributes().collect(toList());
+      Stream<Entry<Object, HashMap<String, ArrayList<Object>>>> values =
+          mappedByValues.getValues(entityTypeId, mappedByAttributes);
+      Stream<Entity> entities =
+          Streams.stream(Iterators.partition(values.iterator(), BATCH_SIZE))
+              .flatMap(batch -> getUpdatedEntities(entityType, batch));
       dataService.update(entityTypeId, entities);
     }
   }
 
+  /**
+   * Returns the persisted entities of a batch with their mappedBy attribute values set.
+   *
+   * @param batch entity ids and mappedBy attribute values
+   */
+  private Stream<Entity> getUpdatedEntities(
+      EntityType entityType, List<Entry<Object, HashMap<String, ArrayList<Object>>>> batch) {
+    Map<Object, HashMap<String, ArrayList<Object>>> values =
+        batch.stream().collect(toLinkedMap(Entry::getKey, Entry::getValue));
+    return dataService
+        .findAll(entityType.getId(), values.keySet().stream())
+        .map(
+            entity -> {
+              values
+                  .get(entity.getIdValue())
+                  .forEach(
+                      (attributeName, refEntityIds) ->
+                          entity.set(
+                              attributeName,
+                              entityManager.getReferences(
+                                  entityType.getAttribute(attributeName).getRefEntity(),
+                                  refEntityIds)));
+              return entity;
+            });
+  }
+
   private EntityType persistEntityTypeFirstPass(EntityType entityType, MetadataMode metadataMode) {
     EntityType persistedEntityType;
     switch (metadataMode) {
@@ -18,4 +18,12 @@ public interface DataProvider {
 
   /** Returns data for the given metadata. */
   Stream<Entity> getEntities(EntityType entityType);
+
+  /**
+   * Returns whether data for different metadata can be read concurrently by different threads. Data
+   * providers that do not support concurrent reads are read by one thread at a time.
+   */
+  default boolean isConcurrentReadSupported() {
+    return false;
+  }
 }
@@ -0,0 +1,164 @@
+package org.molgenis.data.importer;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.UnknownEntityTypeException;
+import org.molgenis.data.meta.model.EntityType;
+
+/**
+ * Reads and converts the entities of a data provider ahead of persisting them. Entity types are
+ * submitted to the worker pool of the import in topological order, so that entity types of a
+ * dependency level are read in parallel while the entity types of lower levels are persisted. Data
+ * providers that do not support concurrent reads are read by a single task in the same order.
+ *
+ * <p>Entities are handed over in batches through bounded queues and are persisted by the thread
+ * that owns the transaction, read tasks never write data.
+ */
+class EntityPrefetcher implements Closeable {
+  private static final int QUEUE_CAPACITY = 4;
+  /** Marks the end of the entities of an entity type, compared by identity */
+  private static final List<Entity> END_OF_ENTITIES = new ArrayList<>(0);
+
+  private final DataProvider dataProvider;
+  private final int batchSize;
+  private final Duration maxWaitTime;
+  private final Map<String, BlockingQueue<List<Entity>>> queues;
+  private final Map<String, Throwable> failures;
+  private final List<Future<?>> futures;
+
+  /**
+   * Starts reading the entities of the given entity types.
+   *
+   * @param executorService worker pool to read entities on
+   * @param dataProvider data provider to read entities from
+   * @param entityTypes topologically sorted entity types with entities
+   * @param batchSize number of entities per batch
+   * @param maxWaitTime maximum time to wait for the next batch of entities
+   */
+  EntityPrefetcher(
+      ExecutorService executorService,
+      DataProvider dataProvider,
+      List<EntityType> entityTypes,
+      int batchSize,
+      Duration maxWaitTime) {
+    this.dataProvider = requireNonNull(dataProvider);
+    this.batchSize = batchSize;
+    this.maxWaitTime = requireNonNull(maxWaitTime);
+    this.queues = new LinkedHashMap<>();
+    this.failures = new ConcurrentHashMap<>();
+    this.futures = new ArrayList<>();
+
+    entityTypes.forEach(
+        entityType -> queues.put(entityType.getId(), new ArrayBlockingQueue<>(QUEUE_CAPACITY)));
+    if (dataProvider.isConcurrentReadSupported()) {
+      entityTypes.forEach(
+          entityType -> futures.add(executorService.submit(() -> readEntities(entityType))));
+    } else {
+      futures.add(
+          executorService.submit(
+              () -> {
+                for (EntityType entityType : entityTypes) {
+                  if (!readEntities(entityType)) {
+                    break;
+                  }
+                }
+              }));
+    }
+  }
+
+  /**
+   * Returns the entities of the given entity type, blocks until read entities are available.
+   * Exceptions thrown while reading are rethrown by the returned stream, which throws a {@link
+   * MolgenisDataException} if no entities were read within the maximum wait time.
+   */
+  Stream<Entity> getEntities(EntityType entityType) {
+    String entityTypeId = entityType.getId();
+    BlockingQueue<List<Entity>> queue = queues.get(entityTypeId);
+    if (queue == null) {
+      throw new UnknownEntityTypeException(entityTypeId);
+    }
+
+    Iterator<List<Entity>> batches =
+        new AbstractIterator<List<Entity>>() {
+          @Override
+          protected List<Entity> computeNext() {
+            List<Entity> batch = takeBatch(entityTypeId, queue);
+            if (batch == END_OF_ENTITIES) {
+              Throwable failure = failures.get(entityTypeId);
+              if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new IllegalStateException(failure);
+              }
+              return endOfData();
+            }
+            return batch;
+          }
+        };
+    return Streams.stream(batches).flatMap(List::stream);
+  }
+
+  /** Returns whether all entities of the entity type were read. */
+  private boolean readEntities(EntityType entityType) {
+    String entityTypeId = entityType.getId();
+    BlockingQueue<List<Entity>> queue = queues.get(entityTypeId);
+    boolean success = true;
+    try {
+      try (Stream<Entity> entities = dataProvider.getEntities(entityType)) {
+        Iterator<List<Entity>> batches = Iterators.partition(entities.iterator(), batchSize);
+        while (batches.hasNext()) {
+          queue.put(batches.next());
+        }
+      } catch (RuntimeException | Error e) {
+        failures.put(entityTypeId, e);
+        success = false;
+      }
+      queue.put(END_OF_ENTITIES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      success = false;
+    }
+    return success;
+  }
+
+  private List<Entity> takeBatch(String entityTypeId, BlockingQueue<List<Entity>> queue) {
+    List<Entity> batch;
+    try {
+      batch = queue.poll(maxWaitTime.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for entities", e);
+    }
+    if (batch == null) {
+      throw new MolgenisDataException(
+          format("No entities of entity type '%s' were read within %s", entityTypeId, maxWaitTime));
+    }
+    return batch;
+  }
+
+  /** Cancels reading entities that were not persisted. */
+  @Override
+  public void close() {
+    futures.forEach(future -> future.cancel(true));
+  }
+}
@@ -0,0 +1,95 @@
+package org.molgenis.data.importer;
+
+import static com.google.common.collect.Streams.stream;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Stream;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.util.HugeMap;
+
+/**
+ * Values of mappedBy attributes of imported entities. The first import pass persists entities
+ * without their mappedBy attributes and records the values, the second pass only updates the
+ * entities that have mappedBy attribute values. Values are stored as referenced entity ids in huge
+ * maps, so that large imports spill to disk.
+ */
+class MappedByValues implements Closeable {
+  private final Map<String, HugeMap<Object, HashMap<String, ArrayList<Object>>>> values;
+  /** Entities with values of which the id was not yet generated when recorded */
+  private final Map<String, List<Entity>> entitiesWithoutId;
+
+  MappedByValues() {
+    this.values = new HashMap<>();
+    this.entitiesWithoutId = new HashMap<>();
+  }
+
+  /**
+   * Records the values of the mappedBy attributes of an entity.
+   *
+   * @param entityTypeId entity type id
+   * @param mappedByAttributes mappedBy attributes of the entity type
+   * @param entity entity to persist
+   */
+  void record(String entityTypeId, List<Attribute> mappedByAttributes, Entity entity) {
+    HashMap<String, ArrayList<Object>> entityValues = getValues(mappedByAttributes, entity);
+    if (!entityValues.isEmpty()) {
+      Object id = entity.getIdValue();
+      if (id != null) {
+        getEntityTypeValues(entityTypeId).put(id, entityValues);
+      } else {
+        entitiesWithoutId.computeIfAbsent(entityTypeId, key -> new ArrayList<>()).add(entity);
+      }
+    }
+  }
+
+  /**
+   * Returns the recorded entity ids and values for the given entity type. Values are mappedBy
+   * attribute names and referenced entity ids.
+   */
+  Stream<Entry<Object, HashMap<String, ArrayList<Object>>>> getValues(
+      String entityTypeId, List<Attribute> mappedByAttributes) {
+    List<Entity> entities = entitiesWithoutId.remove(entityTypeId);
+    if (entities != null) {
+      HugeMap<Object, HashMap<String, ArrayList<Object>>> entityTypeValues =
+          getEntityTypeValues(entityTypeId);
+      entities.forEach(
+          entity ->
+              entityTypeValues.put(entity.getIdValue(), getValues(mappedByAttributes, entity)));
+    }
+    HugeMap<Object, HashMap<String, ArrayList<Object>>> entityTypeValues = values.get(entityTypeId);
+    return entityTypeValues != null ? entityTypeValues.entrySet().stream() : Stream.empty();
+  }
+
+  private HugeMap<Object, HashMap<String, ArrayList<Object>>> getEntityTypeValues(
+      String entityTypeId) {
+    return values.computeIfAbsent(entityTypeId, key -> new HugeMap<>());
+  }
+
+  private static HashMap<String, ArrayList<Object>> getValues(
+      List<Attribute> mappedByAttributes, Entity entity) {
+    HashMap<String, ArrayList<Object>> entityValues = new HashMap<>();
+    for (Attribute mappedByAttribute : mappedByAttributes) {
+      String attributeName = mappedByAttribute.getName();
+      List<Object> refEntityIds =
+          stream(entity.getEntities(attributeName)).map(Entity::getIdValue).collect(toList());
+      if (!refEntityIds.isEmpty()) {
+        entityValues.put(attributeName, new ArrayList<>(refEntityIds));
+      }
+    }
+    return entityValues;
+  }
+
+  @Override
+  public void close() {
+    values.values().forEach(HugeMap::close);
+    values.clear();
+    entitiesWithoutId.clear();
+  }
+}
@@ -15,7 +15,9 @@ import org.molgenis.data.DataConverter;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
 import org.molgenis.data.Repository;
+import org.molgenis.data.RepositoryCollection;
 import org.molgenis.data.UnknownRepositoryException;
+import org.molgenis.data.file.support.FileRepositoryCollection;
 import org.molgenis.data.importer.DataProvider;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
@@ -74,6 +76,13 @@ class EmxDataProvider implements DataProvider {
     return stream(repository).map(sourceEntity -> toEntity(entityType, sourceEntity));
   }
 
+  @Override
+  public boolean isConcurrentReadSupported() {
+    RepositoryCollection source = job.getSource();
+    return source instanceof FileRepositoryCollection
+        && ((FileRepositoryCollection) source).isConcurrentReadSupported();
+  }
+
   /**
    * Create an entity from the EMX entity
    *
@@ -76,7 +76,7 @@ public class EmxImportService implements ImportService {
   }
 
   @Override
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   public EntityImportReport doImport(
       final RepositoryCollection source,
       MetadataAction metadataAction,
@@ -2,6 +2,7 @@ package org.molgenis.data.importer;
 
 import static com.google.common.collect.ImmutableMap.of;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -15,12 +16,15 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.importer.PersistResult.create;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +34,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.EntityManager;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
@@ -38,6 +43,7 @@ import org.molgenis.data.importer.DataPersister.MetadataMode;
 import org.molgenis.data.meta.EntityTypeDependencyResolver;
 import org.molgenis.data.meta.EntityTypeWithoutMappedByAttributes;
 import org.molgenis.data.meta.MetaDataService;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeMetadata;
 import org.molgenis.test.AbstractMockitoTest;
@@ -47,6 +53,7 @@ class DataPersisterImplTest extends AbstractMockitoTest {
   @Mock private MetaDataService metaDataService;
   private DataService dataService;
   @Mock private EntityTypeDependencyResolver entityTypeDependencyResolver;
+  @Mock private EntityManager entityManager;
 
   private DataPersisterImpl dataPersisterImpl;
 
@@ -60,7 +67,8 @@ class DataPersisterImplTest extends AbstractMockitoTest {
   void setUpBeforeMethod() {
     dataService = mock(DataService.class);
     dataPersisterImpl =
-        new DataPersisterImpl(metaDataService, dataService, entityTypeDependencyResolver);
+        new DataPersisterImpl(
+            metaDataService, dataService, entityTypeDependencyResolver, entityManager);
 
     String entityTypeId0 = "entityTypeId0";
     entityType0 = mock(EntityType.class);
@@ -119,7 +127,7 @@ class DataPersisterImplTest extends AbstractMockitoTest {
 
   @Test
   void testGenericDataPersisterImpl() {
-    assertThrows(NullPointerException.class, () -> new DataPersisterImpl(null, null, null));
+    assertThrows(NullPointerException.class, () -> new DataPersisterImpl(null, null, null, null));
   }
 
   @SuppressWarnings("unchecked")
@@ -138,6 +146,35 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     verifyNoMoreInteractions(metaDataService, dataService);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void testPersistMetaNoneDataAddConcurrentRead() {
+    when(dataProvider.isConcurrentReadSupported()).thenReturn(true);
+
+    PersistResult persistResult =
+        dataPersisterImpl.persist(dataProvider, MetadataMode.NONE, DataMode.ADD);
+    assertEquals(create(of(entityType0.getId(), 2L, entityType1.getId(), 3L)), persistResult);
+
+    InOrder inOrder = inOrder(metaDataService, dataService);
+    // stream consumed, cannot verify content
+    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
+    // stream consumed, cannot verify content
+    inOrder.verify(dataService).add(eq(entityType0.getId()), any(Stream.class));
+
+    verifyNoMoreInteractions(metaDataService, dataService);
+  }
+
+  @Test
+  void testPersistMetaNoneDataAddReadException() {
+    MolgenisDataException readException = new MolgenisDataException("read failed");
+    when(dataProvider.getEntities(entityType1)).thenThrow(readException);
+    Exception exception =
+        assertThrows(
+            MolgenisDataException.class,
+            () -> dataPersisterImpl.persist(dataProvider, MetadataMode.NONE, DataMode.ADD));
+    assertEquals(readException, exception);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testPersistMetaNoneDataAddAbstractEntityType() {
@@ -247,6 +284,57 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     inOrder.verify(metaDataService).updateEntityType(entityType0);
     inOrder.verify(dataService).update(eq(entityType0.getId()), any(Stream.class));
     verifyNoMoreInteractions(metaDataService, dataService);
+    verify(dataProvider).getEntities(entityType0);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testPersistMetaAddDataAddMappedByAttributeValues() {
+    String entityTypeId0 = entityType0.getId();
+    Attribute mappedByAttribute = mock(Attribute.class);
+    when(mappedByAttribute.getName()).thenReturn("children");
+    when(mappedByAttribute.getRefEntity()).thenReturn(entityType1);
+    when(entityType0.hasMappedByAttributes()).thenReturn(true);
+    when(entityType0.getMappedByAttributes())
+        .thenAnswer(invocation -> Stream.of(mappedByAttribute));
+    when(entityType0.getAttribute("children")).thenReturn(mappedByAttribute);
+
+    Entity childEntity = mock(Entity.class);
+    when(childEntity.getIdValue()).thenReturn("child");
+    Entity entity0a = mock(Entity.class);
+    when(entity0a.getIdValue()).thenReturn("0a");
+    when(entity0a.getEntities("children")).thenReturn(singletonList(childEntity));
+    Entity entity0b = mock(Entity.class);
+    when(entity0b.getIdValue()).thenReturn("0b");
+    when(dataProvider.getEntities(entityType0)).thenReturn(Stream.of(entity0a, entity0b));
+
+    Entity persistedEntity0a = mock(Entity.class);
+    when(persistedEntity0a.getIdValue()).thenReturn("0a");
+    when(dataService.findAll(eq(entityTypeId0), any(Stream.class)))
+        .thenAnswer(
+            invocation -> {
+              Stream<Object> ids = invocation.getArgument(1);
+              assertEquals(singletonList("0a"), ids.collect(toList()));
+              return Stream.of(persistedEntity0a);
+            });
+    Iterable<Entity> childReferences = singletonList(mock(Entity.class));
+    when(entityManager.getReferences(entityType1, singletonList("child")))
+        .thenReturn(childReferences);
+    List<Entity> updatedEntities = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              Stream<Entity> entityStream = invocation.getArgument(1);
+              entityStream.forEach(updatedEntities::add);
+              return null;
+            })
+        .when(dataService)
+        .update(eq(entityTypeId0), any(Stream.class));
+
+    dataPersisterImpl.persist(dataProvider, MetadataMode.ADD, DataMode.ADD);
+
+    assertEquals(singletonList(persistedEntity0a), updatedEntities);
+    verify(persistedEntity0a).set("children", childReferences);
+    verify(dataProvider).getEntities(entityType0);
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,142 @@
+package org.molgenis.data.importer;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.UnknownEntityTypeException;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EntityPrefetcherTest extends AbstractMockitoTest {
+  private static final Duration MAX_WAIT_TIME = Duration.ofSeconds(10);
+
+  @Mock private DataProvider dataProvider;
+  @Mock private EntityType entityType0;
+  @Mock private EntityType entityType1;
+  private ExecutorService executorService;
+
+  @BeforeEach
+  void setUpBeforeMethod() {
+    executorService = Executors.newFixedThreadPool(2);
+    when(entityType0.getId()).thenReturn("entityTypeId0");
+    when(entityType1.getId()).thenReturn("entityTypeId1");
+  }
+
+  @AfterEach
+  void tearDownAfterMethod() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void testGetEntities() {
+    List<Entity> entities0 = createEntities(5);
+    List<Entity> entities1 = createEntities(3);
+    when(dataProvider.getEntities(entityType0)).thenReturn(entities0.stream());
+    when(dataProvider.getEntities(entityType1)).thenReturn(entities1.stream());
+
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            executorService, dataProvider, asList(entityType0, entityType1), 2, MAX_WAIT_TIME)) {
+      assertEquals(entities0, entityPrefetcher.getEntities(entityType0).collect(toList()));
+      assertEquals(entities1, entityPrefetcher.getEntities(entityType1).collect(toList()));
+    }
+  }
+
+  @Test
+  void testGetEntitiesConcurrentRead() {
+    when(dataProvider.isConcurrentReadSupported()).thenReturn(true);
+    List<Entity> entities0 = createEntities(5);
+    List<Entity> entities1 = createEntities(3);
+    when(dataProvider.getEntities(entityType0)).thenReturn(entities0.stream());
+    when(dataProvider.getEntities(entityType1)).thenReturn(entities1.stream());
+
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            executorService, dataProvider, asList(entityType0, entityType1), 2, MAX_WAIT_TIME)) {
+      assertEquals(entities0, entityPrefetcher.getEntities(entityType0).collect(toList()));
+      assertEquals(entities1, entityPrefetcher.getEntities(entityType1).collect(toList()));
+    }
+  }
+
+  @Test
+  void testGetEntitiesReadException() {
+    MolgenisDataException readException = new MolgenisDataException("read failed");
+    when(dataProvider.getEntities(entityType0))
+        .thenReturn(
+            Stream.concat(
+                createEntities(3).stream(),
+                Stream.generate(
+                    () -> {
+                      throw readException;
+                    })));
+
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            executorService, dataProvider, asList(entityType0), 2, MAX_WAIT_TIME)) {
+      Stream<Entity> entities = entityPrefetcher.getEntities(entityType0);
+      Exception exception =
+          assertThrows(MolgenisDataException.class, () -> entities.collect(toList()));
+      assertEquals(readException, exception);
+    }
+  }
+
+  @Test
+  void testGetEntitiesReadStalled() {
+    when(dataProvider.getEntities(entityType0))
+        .thenReturn(
+            Stream.generate(
+                () -> {
+                  try {
+                    Thread.sleep(Long.MAX_VALUE);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  return mock(Entity.class);
+                }));
+
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            executorService, dataProvider, asList(entityType0), 2, Duration.ofMillis(100))) {
+      Stream<Entity> entities = entityPrefetcher.getEntities(entityType0);
+      Exception exception =
+          assertThrows(MolgenisDataException.class, () -> entities.collect(toList()));
+      assertEquals(
+          "No entities of entity type 'entityTypeId0' were read within PT0.1S",
+          exception.getMessage());
+    }
+  }
+
+  @Test
+  void testGetEntitiesUnknownEntityType() {
+    when(dataProvider.getEntities(entityType0)).thenReturn(Stream.empty());
+    try (EntityPrefetcher entityPrefetcher =
+        new EntityPrefetcher(
+            executorService, dataProvider, asList(entityType0), 2, MAX_WAIT_TIME)) {
+      assertThrows(
+          UnknownEntityTypeException.class, () -> entityPrefetcher.getEntities(entityType1));
+    }
+  }
+
+  private static List<Entity> createEntities(int nrEntities) {
+    return IntStream.range(0, nrEntities).mapToObj(i -> mock(Entity.class)).collect(toList());
+  }
+}
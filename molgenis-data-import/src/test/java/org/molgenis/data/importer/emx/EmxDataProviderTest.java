@@ -24,6 +24,7 @@ import org.molgenis.data.EntityManager;
 import org.molgenis.data.Repository;
 import org.molgenis.data.RepositoryCollection;
 import org.molgenis.data.UnknownRepositoryException;
+import org.molgenis.data.file.support.FileRepositoryCollection;
 import org.molgenis.data.importer.ParsedMetaData;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.test.AbstractMockitoTest;
@@ -170,4 +171,19 @@ class EmxDataProviderTest extends AbstractMockitoTest {
         UnknownRepositoryException.class,
         () -> emxDataProvider.getEntities(entityType).collect(toList()));
   }
+
+  @Test
+  void testIsConcurrentReadSupported() {
+    FileRepositoryCollection repositoryCollection = mock(FileRepositoryCollection.class);
+    when(repositoryCollection.isConcurrentReadSupported()).thenReturn(true);
+    when(emxImportJob.getSource()).thenReturn(repositoryCollection);
+    assertTrue(emxDataProvider.isConcurrentReadSupported());
+  }
+
+  @Test
+  void testIsConcurrentReadSupportedFalse() {
+    RepositoryCollection repositoryCollection = mock(RepositoryCollection.class);
+    when(emxImportJob.getSource()).thenReturn(repositoryCollection);
+    assertFalse(emxDataProvider.isConcurrentReadSupported());
+  }
 }
@@ -3,7 +3,11 @@ package org.molgenis.data.index;
 import static java.util.Objects.requireNonNull;
 import static org.molgenis.data.index.job.IndexJobExecutionMetadata.INDEX_JOB_EXECUTION;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.molgenis.data.DataService;
 import org.molgenis.data.index.job.IndexJobExecution;
 import org.molgenis.data.index.job.IndexJobExecutionFactory;
@@ -24,6 +28,7 @@ import org.molgenis.jobs.JobExecutor;
 import org.molgenis.jobs.JobFactory;
 import org.molgenis.jobs.model.JobExecutionMetaData;
 import org.molgenis.jobs.model.JobPackage;
+import org.molgenis.util.ExecutorServiceUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -51,6 +56,7 @@ public class IndexConfig {
   private final IndexJobExecutionFactory indexJobExecutionFactory;
   private final EntityTypeFactory entityTypeFactory;
   private final JobExecutor jobExecutor;
+  private ExecutorService indexExecutorService;
 
   public IndexConfig(
       IndexActionRegisterService indexActionRegisterService,
@@ -74,6 +80,13 @@ public class IndexConfig {
     indexActionRegisterService.addExcludedEntity(INDEX_JOB_EXECUTION);
   }
 
+  @PreDestroy
+  void preDestroy() {
+    if (indexExecutorService != null) {
+      ExecutorServiceUtils.shutdownAndAwaitTermination(indexExecutorService);
+    }
+  }
+
   @Bean
   public IndexTransactionListener indexTransactionListener() {
     final IndexTransactionListener indexTransactionListener =
@@ -89,7 +102,11 @@ public class IndexConfig {
 
   @Bean
   public IndexJobService indexJobService() {
-    return new IndexJobService(dataService, indexService, entityTypeFactory);
+    indexExecutorService =
+        Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setNameFormat("molgenis-index-%d").build());
+    return new IndexJobService(dataService, indexService, entityTypeFactory, indexExecutorService);
   }
 
   @Bean
@@ -1,23 +1,34 @@
 package org.molgenis.data.index;
 
+import static com.google.common.collect.Iterators.partition;
+import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.addPermissionFilter;
 import static org.molgenis.data.QueryUtils.containsAnyOperator;
 import static org.molgenis.data.QueryUtils.containsComputedAttribute;
 import static org.molgenis.data.QueryUtils.containsNestedQueryRuleField;
+import static org.molgenis.data.QueryUtils.containsOperator;
+import static org.molgenis.data.QueryUtils.getPermissionFilters;
+import static org.molgenis.data.QueryUtils.removePermissionFilters;
 import static org.molgenis.data.RepositoryCapability.AGGREGATEABLE;
 import static org.molgenis.data.RepositoryCapability.QUERYABLE;
 
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.Repository;
@@ -26,6 +37,7 @@ import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
 import org.molgenis.data.index.exception.UnknownIndexException;
 import org.molgenis.data.index.job.IndexJobScheduler;
+import org.molgenis.data.support.QueryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +49,7 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
   private static final Logger LOG = LoggerFactory.getLogger(IndexedRepositoryDecorator.class);
   private static final String INDEX_REPOSITORY = "Index Repository";
   private static final String DECORATED_REPOSITORY = "Decorated Repository";
+  private static final int BATCH_SIZE = 1000;
 
   private final SearchService searchService;
   private final IndexJobScheduler indexJobScheduler;
@@ -71,7 +84,10 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
           q,
           getEntityType().getId(),
           INDEX_REPOSITORY);
-      Object entityId = tryTwice(() -> searchService.searchOne(getEntityType(), q));
+      Object entityId =
+          containsOperator(q, PERMITTED)
+              ? searchPermitted(q).findFirst().orElse(null)
+              : tryTwice(() -> searchService.searchOne(getEntityType(), q));
       return entityId != null ? delegate().findOneById(entityId, q.getFetch()) : null;
     }
   }
@@ -91,7 +107,10 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
           q,
           getEntityType().getId(),
           INDEX_REPOSITORY);
-      Stream<Object> entityIds = tryTwice(() -> searchService.search(getEntityType(), q));
+      Stream<Object> entityIds =
+          containsOperator(q, PERMITTED)
+              ? searchPermitted(q)
+              : tryTwice(() -> searchService.search(getEntityType(), q));
       return delegate().findAll(entityIds, q.getFetch());
     }
   }
@@ -110,9 +129,17 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
     return unmodifiableSet(capabilities);
   }
 
+  /**
+   * Returns all operators, except for {@link Operator#PERMITTED} if the decorated repository does
+   * not support it because the index cannot check permissions.
+   */
   @Override
   public Set<Operator> getQueryOperators() {
-    return EnumSet.allOf(Operator.class);
+    Set<Operator> operators = EnumSet.allOf(Operator.class);
+    if (!delegate().getQueryOperators().contains(PERMITTED)) {
+      operators.remove(PERMITTED);
+    }
+    return operators;
   }
 
   @Override
@@ -132,10 +159,23 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
           q,
           getEntityType().getId(),
           INDEX_REPOSITORY);
+      if (containsOperator(q, PERMITTED)) {
+        return searchPermitted(new QueryImpl<>(q).setOffset(0).setPageSize(0)).count();
+      }
       return tryTwice(() -> searchService.count(getEntityType(), q));
     }
   }
 
+  /** Estimates are only available from the decorated repository, the index count is exact. */
+  @Override
+  public long estimateCount(Query<Entity> q) {
+    if (querySupported(q)) {
+      return delegate().estimateCount(q);
+    } else {
+      return count(q);
+    }
+  }
+
   @Override
   public AggregateResult aggregate(AggregateQuery aggregateQuery) {
     return tryTwice(() -> searchService.aggregate(getEntityType(), aggregateQuery));
@@ -168,6 +208,42 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
     }
   }
 
+  /**
+   * Searches the index for the ids of the entities that match the query without its permission
+   * filters, and selects the permitted ids in batches in the decorated repository. The index cannot
+   * check permissions, so paging is applied after the permission check.
+   */
+  private Stream<Object> searchPermitted(Query<Entity> q) {
+    List<PermissionFilter> permissionFilters = getPermissionFilters(q);
+    Query<Entity> indexQuery =
+        new QueryImpl<>(removePermissionFilters(q)).setOffset(0).setPageSize(0);
+    Stream<Object> entityIds = tryTwice(() -> searchService.search(getEntityType(), indexQuery));
+
+    Stream<Object> permittedEntityIds =
+        stream(partition(entityIds.iterator(), BATCH_SIZE))
+            .flatMap(batch -> filterPermitted(batch, permissionFilters));
+    if (q.getOffset() > 0) {
+      permittedEntityIds = permittedEntityIds.skip(q.getOffset());
+    }
+    if (q.getPageSize() > 0) {
+      permittedEntityIds = permittedEntityIds.limit(q.getPageSize());
+    }
+    return permittedEntityIds;
+  }
+
+  private Stream<Object> filterPermitted(
+      List<Object> entityIds, List<PermissionFilter> permissionFilters) {
+    String idAttributeName = getEntityType().getIdAttribute().getName();
+    Query<Entity> query = new QueryImpl<>().in(idAttributeName, entityIds);
+    for (PermissionFilter permissionFilter : permissionFilters) {
+      query = addPermissionFilter(query, permissionFilter);
+    }
+    query.setFetch(new Fetch().field(idAttributeName));
+    Set<Object> permittedEntityIds =
+        delegate().findAll(query).map(Entity::getIdValue).collect(toSet());
+    return entityIds.stream().filter(permittedEntityIds::contains);
+  }
+
   /**
    * Checks if the underlying repository can handle this query. Queries with unsupported operators,
    * queries that use attributes with computed values or queries with nested query rule field are
@@ -2,19 +2,32 @@ package org.molgenis.data.index.job;
 
 import static java.text.MessageFormat.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.index.meta.IndexActionGroupMetadata.INDEX_ACTION_GROUP;
 import static org.molgenis.data.index.meta.IndexActionMetadata.ACTION_ORDER;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION_GROUP_ATTR;
+import static org.molgenis.data.util.EntityTypeUtils.createFetchForReindexing;
 import static org.molgenis.data.util.EntityUtils.getTypedValue;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
 import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
-import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.Repository;
@@ -22,27 +35,40 @@ import org.molgenis.data.Sort;
 import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.meta.IndexAction;
 import org.molgenis.data.index.meta.IndexActionGroup;
-import org.molgenis.data.index.meta.IndexActionMetadata;
+import org.molgenis.data.index.meta.IndexActionMetadata.IndexStatus;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeFactory;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.jobs.Progress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 
 /** Executes the {@link IndexAction}s stored in an {@link IndexActionGroup}. */
 public class IndexJobService {
   private static final Logger LOG = LoggerFactory.getLogger(IndexJobService.class);
 
+  private static final int BATCH_SIZE = 1000;
+
   private final DataService dataService;
   private final IndexService indexService;
   private final EntityTypeFactory entityTypeFactory;
+  private final Executor executor;
 
+  /**
+   * @param executor executor that performs the index actions of an entity type, runs with the
+   *     security context of the index job
+   */
   public IndexJobService(
-      DataService dataService, IndexService indexService, EntityTypeFactory entityTypeFactory) {
+      DataService dataService,
+      IndexService indexService,
+      EntityTypeFactory entityTypeFactory,
+      Executor executor) {
     this.dataService = requireNonNull(dataService);
     this.indexService = requireNonNull(indexService);
     this.entityTypeFactory = requireNonNull(entityTypeFactory);
+    this.executor = new DelegatingSecurityContextExecutor(requireNonNull(executor));
   }
 
   @Timed(
@@ -65,7 +91,8 @@ public class IndexJobService {
   }
 
   /**
-   * Performs the IndexActions.
+   * Performs the IndexActions. The actions are grouped by entity type, the actions of different
+   * entity types are performed in parallel.
    *
    * @param progress {@link Progress} instance to log progress information to
    */
@@ -75,11 +102,29 @@ public class IndexJobService {
             .findAll(INDEX_ACTION, createQueryGetAllIndexActions(transactionId), IndexAction.class)
             .collect(toList());
     try {
+      updateIndexActionStatus(indexActions, IndexStatus.STARTED);
+
+      Map<String, List<IndexAction>> indexActionsByEntityType =
+          indexActions.stream()
+              .collect(groupingBy(IndexAction::getEntityTypeId, LinkedHashMap::new, toList()));
+      Map<String, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+      indexActionsByEntityType.forEach(
+          (entityTypeId, entityTypeIndexActions) ->
+              results.put(
+                  entityTypeId,
+                  CompletableFuture.supplyAsync(
+                      () -> performActions(entityTypeId, entityTypeIndexActions), executor)));
+
       boolean success = true;
       int count = 0;
-      for (IndexAction indexAction : indexActions) {
-        success &= performAction(progress, count++, indexAction);
+      for (Entry<String, CompletableFuture<Boolean>> entry : results.entrySet()) {
+        String entityTypeId = entry.getKey();
+        success &= entry.getValue().join();
+        count += indexActionsByEntityType.get(entityTypeId).size();
+        progress.progress(count, format("Indexed {0}", entityTypeId));
       }
+      dataService.update(INDEX_ACTION, indexActions.stream());
+
       if (success) {
         progress.progress(count, "Executed all index actions, cleaning up the actions...");
         dataService.delete(INDEX_ACTION, indexActions.stream());
@@ -97,102 +142,113 @@ public class IndexJobService {
   }
 
   /**
-   * Performs a single IndexAction
+   * Performs the IndexActions of one entity type. The status of the actions is updated but not
+   * stored.
    *
-   * @param progress {@link Progress} to report progress to
-   * @param progressCount the progress count for this IndexAction
-   * @param indexAction Entity of type IndexActionMetaData
+   * @param entityTypeId entity type id of the IndexActions
+   * @param indexActions IndexActions of the entity type
    * @return boolean indicating success or failure
    */
-  private boolean performAction(Progress progress, int progressCount, IndexAction indexAction) {
-    requireNonNull(indexAction);
-    String entityTypeId = indexAction.getEntityTypeId();
-    updateIndexActionStatus(indexAction, IndexActionMetadata.IndexStatus.STARTED);
+  private boolean performActions(String entityTypeId, List<IndexAction> indexActions) {
     try {
       if (dataService.hasEntityType(entityTypeId)) {
         EntityType entityType = dataService.getEntityType(entityTypeId);
-        if (indexAction.getEntityId() != null) {
-          progress.progress(
-              progressCount,
-              format("Indexing {0}.{1}", entityType.getId(), indexAction.getEntityId()));
-          rebuildIndexOneEntity(entityTypeId, indexAction.getEntityId());
-        } else {
-          progress.progress(progressCount, format("Indexing {0}", entityType.getId()));
-          final Repository<Entity> repository = dataService.getRepository(entityType.getId());
+        if (indexActions.stream().anyMatch(IndexAction::isWholeRepository)) {
+          LOG.debug("Index [{}].", entityType.getId());
+          Repository<Entity> repository = dataService.getRepository(entityType.getId());
           indexService.rebuildIndex(repository);
+        } else {
+          rebuildIndexEntities(entityType, indexActions);
         }
       } else {
-        EntityType entityType = getEntityType(indexAction);
+        EntityType entityType = entityTypeFactory.create(entityTypeId);
         if (indexService.hasIndex(entityType)) {
-          progress.progress(
-              progressCount, format("Dropping entityType with id: {0}", entityType.getId()));
+          LOG.debug("Dropping entityType with id: {}", entityType.getId());
           indexService.deleteIndex(entityType);
         } else {
           // Index Job is finished, here we concluded that we don't have enough info to continue the
           // index job
-          progress.progress(
-              progressCount,
-              format("Skip index entity {0}.{1}", entityType.getId(), indexAction.getEntityId()));
+          LOG.debug("Skip index entityType {}", entityType.getId());
         }
       }
-      updateIndexActionStatus(indexAction, IndexActionMetadata.IndexStatus.FINISHED);
+      setIndexActionStatus(indexActions, IndexStatus.FINISHED);
       return true;
     } catch (Exception ex) {
       LOG.error("Index job failed", ex);
-      updateIndexActionStatus(indexAction, IndexActionMetadata.IndexStatus.FAILED);
+      setIndexActionStatus(indexActions, IndexStatus.FAILED);
       return false;
     }
   }
 
   /**
-   * Updates the {@link IndexStatus} of a IndexAction and stores the change.
+   * Updates the {@link IndexStatus} of IndexActions and stores the changes.
    *
-   * @param indexAction the IndexAction of which the status is updated
+   * @param indexActions the IndexActions of which the status is updated
    * @param status the new {@link IndexStatus}
    */
-  private void updateIndexActionStatus(
-      IndexAction indexAction, IndexActionMetadata.IndexStatus status) {
-    indexAction.setIndexStatus(status);
-    dataService.update(INDEX_ACTION, indexAction);
+  private void updateIndexActionStatus(List<IndexAction> indexActions, IndexStatus status) {
+    setIndexActionStatus(indexActions, status);
+    dataService.update(INDEX_ACTION, indexActions.stream());
+  }
+
+  private static void setIndexActionStatus(List<IndexAction> indexActions, IndexStatus status) {
+    indexActions.forEach(indexAction -> indexAction.setIndexStatus(status));
   }
 
   /**
-   * Indexes one single entity instance.
+   * Indexes entity instances in one bulk request. The entities are retrieved in batches, entities
+   * that no longer exist are deleted from the index.
    *
-   * @param entityTypeId the id of the entity's repository
-   * @param untypedEntityId the identifier of the entity to update
+   * @param entityType the entity type of the entities to update
+   * @param indexActions IndexActions containing the identifiers of the entities to update
    */
-  private void rebuildIndexOneEntity(String entityTypeId, String untypedEntityId) {
-    LOG.trace("Indexing [{}].[{}]... ", entityTypeId, untypedEntityId);
-
-    // convert entity id string to typed entity id
-    EntityType entityType = dataService.getEntityType(entityTypeId);
-    if (null != entityType) {
-      Object entityId = getTypedValue(untypedEntityId, entityType.getIdAttribute());
-      String entityFullName = entityType.getId();
-
-      Entity actualEntity = dataService.findOneById(entityFullName, entityId);
-
-      if (null == actualEntity) {
-        // Delete
-        LOG.debug("Index delete [{}].[{}].", entityFullName, entityId);
-        indexService.deleteById(entityType, entityId);
-        return;
-      }
+  private void rebuildIndexEntities(EntityType entityType, List<IndexAction> indexActions) {
+    LOG.trace("Indexing [{}] entities of [{}]... ", indexActions.size(), entityType.getId());
 
-      boolean indexEntityExists = indexService.hasIndex(entityType);
-      if (!indexEntityExists) {
-        LOG.debug("Create mapping of repository [{}] because it was not exist yet", entityTypeId);
-        indexService.createIndex(entityType);
-      }
+    // convert entity id strings to typed entity ids
+    Attribute idAttribute = entityType.getIdAttribute();
+    Stream<Object> entityIds =
+        indexActions.stream()
+            .map(IndexAction::getEntityId)
+            .distinct()
+            .map(untypedEntityId -> getTypedValue(untypedEntityId, idAttribute));
 
-      LOG.debug("Index [{}].[{}].", entityTypeId, entityId);
-      indexService.index(actualEntity.getEntityType(), actualEntity);
-    } else {
-      throw new MolgenisDataException("Unknown EntityType for entityTypeId: " + entityTypeId);
+    boolean indexEntityExists = indexService.hasIndex(entityType);
+    if (!indexEntityExists) {
+      LOG.debug("Create mapping of repository [{}] because it was not exist yet", entityType);
+      indexService.createIndex(entityType);
+    }
+
+    Fetch fetch = createFetchForReindexing(entityType);
+    List<Object> deletedEntityIds = new ArrayList<>();
+    Stream<Entity> entities =
+        Streams.stream(Iterators.partition(entityIds.iterator(), BATCH_SIZE))
+            .flatMap(batch -> findAll(entityType, batch, fetch, deletedEntityIds));
+    long count = indexService.index(entityType, entities);
+    LOG.debug("Indexed [{}] entities of [{}].", count, entityType.getId());
+
+    if (!deletedEntityIds.isEmpty()) {
+      LOG.debug("Index delete [{}] entities of [{}].", deletedEntityIds.size(), entityType.getId());
+      indexService.deleteAll(entityType, deletedEntityIds.stream());
     }
   }
 
+  /**
+   * Retrieves a batch of entities, adding the identifiers of entities that do not exist to the list
+   * of deleted entity ids.
+   */
+  private Stream<Entity> findAll(
+      EntityType entityType, List<Object> entityIds, Fetch fetch, List<Object> deletedEntityIds) {
+    Map<Object, Entity> entities =
+        dataService
+            .findAll(entityType.getId(), entityIds.stream(), fetch)
+            .collect(toMap(Entity::getIdValue, identity(), (e1, e2) -> e1, LinkedHashMap::new));
+    entityIds.stream()
+        .filter(entityId -> !entities.containsKey(entityId))
+        .forEach(deletedEntityIds::add);
+    return entities.values().stream();
+  }
+
   /** Retrieves the query to get all index actions sorted */
   static Query<IndexAction> createQueryGetAllIndexActions(String transactionId) {
     QueryRule rule = new QueryRule(INDEX_ACTION_GROUP_ATTR, EQUALS, transactionId);
@@ -200,8 +256,4 @@ public class IndexJobService {
     q.setSort(new Sort(ACTION_ORDER));
     return q;
   }
-
-  private EntityType getEntityType(IndexAction indexAction) {
-    return entityTypeFactory.create(indexAction.getEntityTypeId());
-  }
 }
@@ -2,8 +2,10 @@ package org.molgenis.data.index;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.EnumSet.allOf;
+import static java.util.EnumSet.complementOf;
 import static java.util.EnumSet.of;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +25,8 @@ import static org.molgenis.data.QueryRule.Operator.FUZZY_MATCH;
 import static org.molgenis.data.QueryRule.Operator.IN;
 import static org.molgenis.data.QueryRule.Operator.LESS;
 import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.addPermissionFilter;
 import static org.molgenis.data.RepositoryCapability.AGGREGATEABLE;
 import static org.molgenis.data.RepositoryCapability.MANAGABLE;
 import static org.molgenis.data.RepositoryCapability.QUERYABLE;
@@ -36,9 +40,11 @@ import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.QueryRule.Operator;
@@ -51,6 +57,7 @@ import org.molgenis.data.index.job.IndexJobScheduler;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.AggregateQueryImpl;
+import org.molgenis.data.support.QueryImpl;
 
 class IndexedRepositoryDecoratorTest {
   private IndexedRepositoryDecorator indexedRepositoryDecorator;
@@ -381,6 +388,30 @@ class IndexedRepositoryDecoratorTest {
     verify(delegateRepository).findAll(any(Stream.class), isNull());
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void findAllQueryPermitted() {
+    when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(IN, AND, PERMITTED));
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-entity", 1, emptyList());
+    Query<Entity> searchQuery = new QueryImpl<>().search("text");
+    Query<Entity> permittedQuery = addPermissionFilter(searchQuery, permissionFilter);
+    when(searchService.search(repositoryEntityType, searchQuery))
+        .thenReturn(Stream.of("0", "1", "2"));
+    Entity entity0 = when(mock(Entity.class).getIdValue()).thenReturn("0").getMock();
+    Entity entity2 = when(mock(Entity.class).getIdValue()).thenReturn("2").getMock();
+    Query<Entity> batchQuery =
+        addPermissionFilter(
+            new QueryImpl<>().in(idAttrName, asList("0", "1", "2")), permissionFilter);
+    batchQuery.setFetch(new Fetch().field(idAttrName));
+    when(delegateRepository.findAll(batchQuery)).thenReturn(Stream.of(entity2, entity0));
+
+    indexedRepositoryDecorator.findAll(permittedQuery);
+
+    ArgumentCaptor<Stream<Object>> entityIdsCaptor = ArgumentCaptor.forClass(Stream.class);
+    verify(delegateRepository).findAll(entityIdsCaptor.capture(), isNull());
+    assertEquals(asList("0", "2"), entityIdsCaptor.getValue().collect(toList()));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void findAllUnknownIndexExceptionRecoverable() {
@@ -431,6 +462,13 @@ class IndexedRepositoryDecoratorTest {
 
   @Test
   void getQueryOperators() {
+    assertEquals(
+        complementOf(EnumSet.of(PERMITTED)), indexedRepositoryDecorator.getQueryOperators());
+  }
+
+  @Test
+  void getQueryOperatorsPermitted() {
+    when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(EQUALS, PERMITTED));
     assertEquals(allOf(Operator.class), indexedRepositoryDecorator.getQueryOperators());
   }
 
@@ -1,13 +1,14 @@
 package org.molgenis.data.index.job;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -21,6 +22,9 @@ import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
 import static org.molgenis.data.index.meta.IndexActionMetadata.IndexStatus.FAILED;
 import static org.molgenis.data.index.meta.IndexActionMetadata.IndexStatus.FINISHED;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +38,7 @@ import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityTestHarness;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Query;
 import org.molgenis.data.TestHarnessConfig;
@@ -59,6 +64,8 @@ import org.springframework.test.context.ContextConfiguration;
 @ContextConfiguration(classes = {IndexJobServiceTest.Config.class})
 class IndexJobServiceTest extends AbstractMolgenisSpringTest {
   @Captor private ArgumentCaptor<Stream<Entity>> streamCaptor;
+  @Captor private ArgumentCaptor<Stream<Object>> entityIdsCaptor;
+  @Captor private ArgumentCaptor<Stream<IndexAction>> indexActionsCaptor;
 
   @Autowired private Progress progress;
   @Autowired private Authentication authentication;
@@ -76,11 +83,15 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
   private IndexActionGroup indexActionGroup;
   private EntityType testEntityType;
   private Entity toIndexEntity;
+  private List<Entity> indexedEntities;
 
+  @SuppressWarnings("unchecked")
   @BeforeEach
   void beforeMethod() {
     config.resetMocks();
-    indexJobService = new IndexJobService(dataService, indexService, entityTypeFactory);
+    indexJobService =
+        new IndexJobService(
+            dataService, indexService, entityTypeFactory, MoreExecutors.directExecutor());
     indexActionGroup = indexActionGroupFactory.create(transactionId).setCount(0);
     when(dataService.findOneById(INDEX_ACTION_GROUP, transactionId, IndexActionGroup.class))
         .thenReturn(indexActionGroup);
@@ -90,9 +101,18 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     toIndexEntity = harness.createTestRefEntities(testEntityType, 1).get(0);
     when(dataService.hasEntityType("TypeTestRefDynamic")).thenReturn(true);
     when(dataService.getEntityType("TypeTestRefDynamic")).thenReturn(testEntityType);
-    when(dataService.findOneById("TypeTestRefDynamic", "entityId")).thenReturn(toIndexEntity);
     when(dataService.hasEntityType("entityType")).thenReturn(true);
     when(dataService.getEntityType("entityType")).thenReturn(testEntityType);
+
+    // consume the lazily retrieved entities like the index service does
+    indexedEntities = new ArrayList<>();
+    when(indexService.index(eq(testEntityType), any(Stream.class)))
+        .thenAnswer(
+            invocation -> {
+              Stream<Entity> entities = invocation.getArgument(1);
+              entities.forEach(indexedEntities::add);
+              return (long) indexedEntities.size();
+            });
   }
 
   @Test
@@ -129,9 +149,11 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
         q.toString());
   }
 
+  @SuppressWarnings("unchecked")
   @Test
   void rebuildIndexDeleteSingleEntityTest() {
-    when(dataService.findOneById("TypeTestRefDynamic", "entityId")).thenReturn(null);
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(empty());
 
     IndexAction indexAction =
         indexActionFactory
@@ -144,53 +166,90 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     mockGetAllIndexActions(of(indexAction));
     indexActionGroup.setCount(1);
 
-    when(dataService.hasRepository("TypeTestRefDynamic")).thenReturn(true);
-
     indexJobService.executeJob(progress, transactionId);
     assertEquals(FINISHED, indexAction.getIndexStatus());
 
-    verify(indexService).deleteById(testEntityType, "entityId");
+    assertEquals(emptyList(), indexedEntities);
+    verify(indexService).deleteAll(eq(testEntityType), entityIdsCaptor.capture());
+    assertEquals(singletonList("entityId"), entityIdsCaptor.getValue().collect(toList()));
 
     // verify progress messages
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+    verify(progress).progress(1, "Indexed entityType");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
     verify(indexService).refreshIndex();
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verifyIndexActionsUpdated(indexAction);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void rebuildIndexMultipleEntitiesTest() {
+    Entity otherEntity = harness.createTestRefEntities(testEntityType, 2).get(1);
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(of(toIndexEntity, otherEntity));
+    when(indexService.hasIndex(testEntityType)).thenReturn(true);
+
+    IndexAction indexAction0 = createIndexAction("entityType", "0", 0);
+    IndexAction indexAction1 = createIndexAction("entityType", "1", 1);
+    IndexAction indexAction2 = createIndexAction("entityType", "0", 2);
+    IndexAction indexAction3 = createIndexAction("entityType", "2", 3);
+    mockGetAllIndexActions(of(indexAction0, indexAction1, indexAction2, indexAction3));
+    indexActionGroup.setCount(4);
+
+    indexJobService.executeJob(progress, transactionId);
+    assertEquals(FINISHED, indexAction0.getIndexStatus());
+    assertEquals(FINISHED, indexAction3.getIndexStatus());
+
+    // all entities are retrieved and indexed at once
+    verify(dataService)
+        .findAll(eq("TypeTestRefDynamic"), entityIdsCaptor.capture(), any(Fetch.class));
+    assertEquals(asList("0", "1", "2"), entityIdsCaptor.getValue().collect(toList()));
+    assertEquals(asList(toIndexEntity, otherEntity), indexedEntities);
+    verify(indexService).deleteAll(eq(testEntityType), entityIdsCaptor.capture());
+    assertEquals(singletonList("2"), entityIdsCaptor.getValue().collect(toList()));
+    verify(indexService, never()).createIndex(any(EntityType.class));
+
+    verify(progress).progress(4, "Indexed entityType");
+    verifyIndexActionsUpdated(indexAction0, indexAction1, indexAction2, indexAction3);
   }
 
+  @SuppressWarnings("unchecked")
   @Test
   void rebuildIndexCreateSingleEntityTest() {
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(of(toIndexEntity));
+
     IndexAction indexAction =
         indexActionFactory
             .create()
             .setIndexActionGroup(indexActionGroup)
             .setEntityTypeId("entityType")
-            .setEntityId("entityId")
+            .setEntityId("0")
             .setActionOrder(0)
             .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
     mockGetAllIndexActions(of(indexAction));
-    when(dataService.hasRepository("TypeTestRefDynamic")).thenReturn(true);
     indexActionGroup.setCount(1);
 
     indexJobService.executeJob(progress, transactionId);
     assertEquals(FINISHED, indexAction.getIndexStatus());
 
-    verify(this.indexService).index(testEntityType, toIndexEntity);
+    verify(indexService).createIndex(testEntityType);
+    assertEquals(singletonList(toIndexEntity), indexedEntities);
+    verify(indexService, never()).deleteAll(any(EntityType.class), any(Stream.class));
 
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+    verify(progress).progress(1, "Indexed entityType");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verifyIndexActionsUpdated(indexAction);
   }
 
   @Test
@@ -215,13 +274,13 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     verify(this.indexService).rebuildIndex(this.dataService.getRepository("any"));
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic");
+    verify(progress).progress(1, "Indexed entityType");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verifyIndexActionsUpdated(indexAction);
 
     // make sure both the actions and the action job got deleted
     verify(dataService).delete(eq(INDEX_ACTION), streamCaptor.capture());
@@ -249,13 +308,13 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     verify(this.indexService).rebuildIndex(this.dataService.getRepository("any"));
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic");
+    verify(progress).progress(1, "Indexed entityType");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verifyIndexActionsUpdated(indexAction);
 
     // make sure both the actions and the action job got deleted
     verify(dataService).delete(eq(INDEX_ACTION), streamCaptor.capture());
@@ -298,70 +357,63 @@ class IndexJobServiceTest extends AbstractMolgenisSpringTest {
 
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Dropping entityType with id: entityTypeId");
+    verify(progress).progress(1, "Indexed entityTypeId");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verifyIndexActionsUpdated(indexAction);
   }
 
+  @SuppressWarnings("unchecked")
   @Test
-  void indexSingleEntityindexServiceThrowsExceptionOnSecondEntityId() {
-    IndexAction indexAction1 =
-        indexActionFactory
-            .create()
-            .setIndexActionGroup(indexActionGroup)
-            .setEntityTypeId("entityType")
-            .setEntityId("entityId1")
-            .setActionOrder(0)
-            .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
-
-    IndexAction indexAction2 =
-        indexActionFactory
-            .create()
-            .setIndexActionGroup(indexActionGroup)
-            .setEntityTypeId("entityType")
-            .setEntityId("entityId2")
-            .setActionOrder(1)
-            .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
-
-    IndexAction indexAction3 =
-        indexActionFactory
-            .create()
-            .setIndexActionGroup(indexActionGroup)
-            .setEntityTypeId("entityType")
-            .setEntityId("entityId3")
-            .setActionOrder(2)
-            .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
+  void indexEntitiesIndexServiceThrowsException() {
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(empty());
+    when(indexService.hasIndex(any(EntityType.class))).thenReturn(true);
 
+    IndexAction indexAction1 = createIndexAction("entityType", "entityId1", 0);
+    IndexAction indexAction2 = createIndexAction("entityTypeId", null, 1);
+    IndexAction indexAction3 = createIndexAction("entityType", "entityId2", 2);
     mockGetAllIndexActions(of(indexAction1, indexAction2, indexAction3));
     indexActionGroup.setCount(3);
 
     MolgenisDataException mde = new MolgenisDataException("Random unrecoverable exception");
-    doThrow(mde).when(indexService).deleteById(testEntityType, "entityId2");
+    doThrow(mde).when(indexService).deleteAll(eq(testEntityType), any(Stream.class));
 
-    when(dataService.hasRepository("TypeTestRefDynamic")).thenReturn(true);
-
-    try {
-      indexJobService.executeJob(progress, transactionId);
-    } catch (Exception expected) {
-      assertSame(expected, mde);
-    }
-
-    verify(indexService).deleteById(testEntityType, "entityId1");
-    verify(indexService).deleteById(testEntityType, "entityId2");
-    verify(indexService).deleteById(testEntityType, "entityId3");
+    indexJobService.executeJob(progress, transactionId);
 
+    verify(indexService).deleteIndex(any(EntityType.class));
     verify(indexService).refreshIndex();
+    verify(progress).progress(2, "Indexed entityType");
+    verify(progress).progress(3, "Indexed entityTypeId");
 
     // Make sure the action status got updated and that the actionJob didn't get deleted
-    assertEquals(FINISHED, indexAction1.getIndexStatus());
-    assertEquals(FAILED, indexAction2.getIndexStatus());
-    verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction1);
-    verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction2);
-    verify(dataService, never()).delete(INDEX_ACTION_GROUP, indexActionGroup);
+    assertEquals(FAILED, indexAction1.getIndexStatus());
+    assertEquals(FINISHED, indexAction2.getIndexStatus());
+    assertEquals(FAILED, indexAction3.getIndexStatus());
+    verifyIndexActionsUpdated(indexAction1, indexAction2, indexAction3);
+    verify(dataService, never()).delete(eq(INDEX_ACTION), any(Stream.class));
+    verify(dataService, never()).deleteById(INDEX_ACTION_GROUP, transactionId);
+  }
+
+  private IndexAction createIndexAction(String entityTypeId, String entityId, int actionOrder) {
+    return indexActionFactory
+        .create()
+        .setIndexActionGroup(indexActionGroup)
+        .setEntityTypeId(entityTypeId)
+        .setEntityId(entityId)
+        .setActionOrder(actionOrder)
+        .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
+  }
+
+  /** Verifies that the index action statuses were stored in two batches: started and done. */
+  private void verifyIndexActionsUpdated(IndexAction... indexActions) {
+    verify(dataService, times(2)).update(eq(INDEX_ACTION), indexActionsCaptor.capture());
+    indexActionsCaptor
+        .getAllValues()
+        .forEach(stream -> assertEquals(asList(indexActions), stream.collect(toList())));
   }
 
   @SuppressWarnings("java:S5979") // mocks are initialized
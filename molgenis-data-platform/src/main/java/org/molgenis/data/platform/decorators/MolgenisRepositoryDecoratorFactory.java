@@ -1,11 +1,22 @@
 package org.molgenis.data.platform.decorators;
 
+import static java.util.Collections.disjoint;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.decorator.meta.DecoratorConfigurationMetadata.DECORATOR_CONFIGURATION;
+import static org.molgenis.data.decorator.meta.DecoratorParametersMetadata.DECORATOR_PARAMETERS;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
 import static org.molgenis.data.index.job.IndexJobExecutionMetadata.INDEX_JOB_EXECUTION;
 import static org.molgenis.data.index.meta.IndexActionGroupMetadata.INDEX_ACTION_GROUP;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
+import static org.molgenis.data.meta.model.PackageMetadata.PACKAGE;
+import static org.molgenis.data.meta.model.TagMetadata.TAG;
 import static org.molgenis.security.audit.AuditSettingsImpl.AUDIT_SETTINGS;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.molgenis.data.CascadeDeleteRepositoryDecorator;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
@@ -22,16 +33,20 @@ import org.molgenis.data.cache.l2.L2CacheRepositoryDecorator;
 import org.molgenis.data.cache.l3.L3Cache;
 import org.molgenis.data.cache.l3.L3CacheRepositoryDecorator;
 import org.molgenis.data.decorator.DynamicRepositoryDecoratorRegistry;
+import org.molgenis.data.event.BootstrappingEvent;
 import org.molgenis.data.index.IndexActionRegisterService;
 import org.molgenis.data.index.IndexActionRepositoryDecorator;
 import org.molgenis.data.index.IndexedRepositoryDecoratorFactory;
 import org.molgenis.data.listeners.EntityListenerRepositoryDecorator;
 import org.molgenis.data.listeners.EntityListenersService;
+import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.security.RepositorySecurityDecorator;
 import org.molgenis.data.security.aggregation.AggregateAnonymizer;
 import org.molgenis.data.security.aggregation.AggregateAnonymizerRepositoryDecorator;
 import org.molgenis.data.security.owned.RowLevelSecurityRepositoryDecoratorFactory;
 import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionListener;
+import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.data.transaction.TransactionalRepositoryDecorator;
 import org.molgenis.data.validation.DefaultValueReferenceValidator;
 import org.molgenis.data.validation.EntityAttributesValidator;
@@ -42,11 +57,29 @@ import org.molgenis.data.validation.RepositoryValidationDecorator;
 import org.molgenis.security.audit.SettingsAuditingRepositoryDecoratorFactory;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.settings.AppSettings;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.PlatformTransactionManager;
 
+/**
+ * Decorates repositories with the MOLGENIS decorator chain. Decorator chains are built once per
+ * entity type after bootstrapping and cached, the decorators resolve the current user and
+ * transaction on each call. Cached decorator chains are discarded after committing a transaction
+ * that changed the entity types or the configuration from which decorators are selected and are not
+ * used by transactions that changed them.
+ */
 @Component
-public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFactory {
+public class MolgenisRepositoryDecoratorFactory
+    implements RepositoryDecoratorFactory, TransactionListener {
+  /** Entity types of which the entities determine which decorators decorate a repository */
+  private static final Set<String> DECORATOR_ENTITY_TYPE_IDS =
+      Set.of(
+          ENTITY_TYPE_META_DATA,
+          ATTRIBUTE_META_DATA,
+          PACKAGE,
+          TAG,
+          DECORATOR_CONFIGURATION,
+          DECORATOR_PARAMETERS,
+          AUDIT_SETTINGS);
 
   private final EntityManager entityManager;
   private final EntityAttributesValidator entityAttributesValidator;
@@ -62,7 +95,7 @@ public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFa
   private final L2Cache l2Cache;
   private final TransactionInformation transactionInformation;
   private final L3Cache l3Cache;
-  private final PlatformTransactionManager transactionManager;
+  private final TransactionManager transactionManager;
   private final QueryValidator queryValidator;
   private final FetchValidator fetchValidator;
   private final DefaultValueReferenceValidator defaultValueReferenceValidator;
@@ -73,6 +106,13 @@ public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFa
   private final AuditingRepositoryDecoratorFactory auditingRepositoryDecoratorFactory;
   private final SettingsAuditingRepositoryDecoratorFactory
       settingsAuditingRepositoryDecoratorFactory;
+  /** maps entity type id to decorated repository */
+  private final Map<String, DecoratedRepository> decoratedRepositories;
+
+  /** incremented on clearing the cache to discard decorator chains that were created before */
+  private long version;
+
+  private volatile boolean bootstrappingDone = false;
 
   public MolgenisRepositoryDecoratorFactory(
       EntityManager entityManager,
@@ -89,7 +129,7 @@ public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFa
       TransactionInformation transactionInformation,
       EntityListenersService entityListenersService,
       L3Cache l3Cache,
-      PlatformTransactionManager transactionManager,
+      TransactionManager transactionManager,
       QueryValidator queryValidator,
       FetchValidator fetchValidator,
       DefaultValueReferenceValidator defaultValueReferenceValidator,
@@ -124,16 +164,76 @@ public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFa
     this.auditingRepositoryDecoratorFactory = requireNonNull(auditingRepositoryDecoratorFactory);
     this.settingsAuditingRepositoryDecoratorFactory =
         requireNonNull(settingsAuditingRepositoryDecoratorFactory);
+    this.decoratedRepositories = new ConcurrentHashMap<>();
 
     dynamicRepositoryDecoratorRegistry.excludeEntityType(AUDIT_SETTINGS);
 
     auditingRepositoryDecoratorFactory.excludeEntityType(INDEX_JOB_EXECUTION);
     auditingRepositoryDecoratorFactory.excludeEntityType(INDEX_ACTION);
     auditingRepositoryDecoratorFactory.excludeEntityType(INDEX_ACTION_GROUP);
+
+    transactionManager.addTransactionListener(this);
   }
 
   @Override
   public Repository<Entity> createDecoratedRepository(Repository<Entity> repository) {
+    if (!isCacheable()) {
+      return decorate(repository);
+    }
+
+    EntityType entityType = repository.getEntityType();
+    boolean rowLevelSecured =
+        rowLevelSecurityRepositoryDecoratorFactory.isRowLevelSecured(entityType);
+    DecoratedRepository decoratedRepository = decoratedRepositories.get(entityType.getId());
+    if (decoratedRepository != null
+        && decoratedRepository.isCreatedFor(repository, rowLevelSecured)) {
+      return decoratedRepository.getRepository();
+    }
+
+    long currentVersion;
+    synchronized (this) {
+      currentVersion = version;
+    }
+    decoratedRepository =
+        new DecoratedRepository(repository, decorate(repository), rowLevelSecured);
+    synchronized (this) {
+      // discard decorator chains created before the cache was cleared
+      if (currentVersion == version) {
+        decoratedRepositories.put(entityType.getId(), decoratedRepository);
+      }
+    }
+    return decoratedRepository.getRepository();
+  }
+
+  /**
+   * Returns whether decorator chains can be cached and read from the cache. Decorators are selected
+   * differently during bootstrapping and decorator chains of the current transaction may be based
+   * on uncommitted changes.
+   */
+  private boolean isCacheable() {
+    return bootstrappingDone
+        && disjoint(transactionInformation.getDirtyRepositories(), DECORATOR_ENTITY_TYPE_IDS);
+  }
+
+  @Override
+  public void afterCommitTransaction(String transactionId) {
+    if (!disjoint(transactionInformation.getDirtyRepositories(), DECORATOR_ENTITY_TYPE_IDS)) {
+      clearDecoratedRepositories();
+    }
+  }
+
+  @EventListener
+  public void onBootstrappingEvent(BootstrappingEvent bootstrappingEvent) {
+    clearDecoratedRepositories();
+    this.bootstrappingDone = bootstrappingEvent.getStatus() == FINISHED;
+  }
+
+  private synchronized void clearDecoratedRepositories() {
+    version++;
+    decoratedRepositories.clear();
+  }
+
+  private Repository<Entity> decorate(Repository<Entity> repository) {
     Repository<Entity> decoratedRepository = repository;
 
     // Query the L2 cache before querying the database
@@ -208,4 +308,41 @@ public class MolgenisRepositoryDecoratorFactory implements RepositoryDecoratorFa
 
     return decoratedRepository;
   }
+
+  /**
+   * Decorator chain of a repository. The row level security decorator depends on the entity type
+   * ACL class, which is not stored as an entity.
+   *
+   * <p>A cached decorator chain keeps wrapping the undecorated repository it was created for. The
+   * repositories that backends create only hold their entity type and shared services, so the chain
+   * can serve callers that passed another repository instance of the same class. Its entity type
+   * can only become stale by committing entity type changes, which clears the cache.
+   */
+  private static class DecoratedRepository {
+    private final Class<?> repositoryClass;
+    private final Repository<Entity> repository;
+    private final boolean rowLevelSecured;
+
+    DecoratedRepository(
+        Repository<Entity> undecoratedRepository,
+        Repository<Entity> repository,
+        boolean rowLevelSecured) {
+      this.repositoryClass = undecoratedRepository.getClass();
+      this.repository = requireNonNull(repository);
+      this.rowLevelSecured = rowLevelSecured;
+    }
+
+    Repository<Entity> getRepository() {
+      return repository;
+    }
+
+    /**
+     * Returns whether this decorator chain can be used for the given undecorated repository: a
+     * repository of the same type with the same row level security.
+     */
+    boolean isCreatedFor(Repository<Entity> undecoratedRepository, boolean rowLevelSecured) {
+      return this.rowLevelSecured == rowLevelSecured
+          && repositoryClass == undecoratedRepository.getClass();
+    }
+  }
 }
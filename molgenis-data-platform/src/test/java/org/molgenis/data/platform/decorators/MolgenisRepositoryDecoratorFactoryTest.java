@@ -0,0 +1,243 @@
+package org.molgenis.data.platform.decorators;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Answers.RETURNS_MOCKS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.decorator.meta.DecoratorConfigurationMetadata.DECORATOR_CONFIGURATION;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.STARTED;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.EntityManager;
+import org.molgenis.data.Repository;
+import org.molgenis.data.SystemRepositoryDecoratorRegistry;
+import org.molgenis.data.cache.l1.L1Cache;
+import org.molgenis.data.cache.l1.L1CacheJanitor;
+import org.molgenis.data.cache.l2.L2Cache;
+import org.molgenis.data.cache.l3.L3Cache;
+import org.molgenis.data.decorator.DynamicRepositoryDecoratorRegistry;
+import org.molgenis.data.event.BootstrappingEvent;
+import org.molgenis.data.index.IndexActionRegisterService;
+import org.molgenis.data.index.IndexedRepositoryDecoratorFactory;
+import org.molgenis.data.listeners.EntityListenersService;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.security.aggregation.AggregateAnonymizer;
+import org.molgenis.data.security.owned.RowLevelSecurityRepositoryDecoratorFactory;
+import org.molgenis.data.support.AbstractRepository;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionManager;
+import org.molgenis.data.validation.DefaultValueReferenceValidator;
+import org.molgenis.data.validation.EntityAttributesValidator;
+import org.molgenis.data.validation.FetchValidator;
+import org.molgenis.data.validation.QueryValidator;
+import org.molgenis.security.audit.SettingsAuditingRepositoryDecoratorFactory;
+import org.molgenis.security.core.UserPermissionEvaluator;
+import org.molgenis.settings.AppSettings;
+import org.molgenis.test.AbstractMockitoTest;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MolgenisRepositoryDecoratorFactoryTest extends AbstractMockitoTest {
+  @Mock private EntityManager entityManager;
+  @Mock private EntityAttributesValidator entityAttributesValidator;
+  @Mock private AggregateAnonymizer aggregateAnonymizer;
+  @Mock private AppSettings appSettings;
+  @Mock private DataService dataService;
+  @Mock private SystemRepositoryDecoratorRegistry systemRepositoryDecoratorRegistry;
+  @Mock private DynamicRepositoryDecoratorRegistry dynamicRepositoryDecoratorRegistry;
+  @Mock private IndexActionRegisterService indexActionRegisterService;
+
+  @Mock(answer = RETURNS_MOCKS)
+  private IndexedRepositoryDecoratorFactory indexedRepositoryDecoratorFactory;
+
+  @Mock private L1Cache l1Cache;
+  @Mock private L2Cache l2Cache;
+  @Mock private TransactionInformation transactionInformation;
+  @Mock private EntityListenersService entityListenersService;
+  @Mock private L3Cache l3Cache;
+  @Mock private TransactionManager transactionManager;
+  @Mock private QueryValidator queryValidator;
+  @Mock private FetchValidator fetchValidator;
+  @Mock private DefaultValueReferenceValidator defaultValueReferenceValidator;
+  @Mock private UserPermissionEvaluator permissionService;
+
+  @Mock
+  private RowLevelSecurityRepositoryDecoratorFactory rowLevelSecurityRepositoryDecoratorFactory;
+
+  @Mock private L1CacheJanitor l1CacheJanitor;
+  @Mock private AuditingRepositoryDecoratorFactory auditingRepositoryDecoratorFactory;
+
+  @Mock
+  private SettingsAuditingRepositoryDecoratorFactory settingsAuditingRepositoryDecoratorFactory;
+
+  @Mock private Repository<Entity> repository;
+  @Mock private EntityType entityType;
+
+  private MolgenisRepositoryDecoratorFactory molgenisRepositoryDecoratorFactory;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    when(systemRepositoryDecoratorRegistry.decorate(any())).thenAnswer(returnsFirstArg());
+    when(rowLevelSecurityRepositoryDecoratorFactory.createDecoratedRepository(any()))
+        .thenAnswer(returnsFirstArg());
+    when(auditingRepositoryDecoratorFactory.create(any())).thenAnswer(returnsFirstArg());
+    when(settingsAuditingRepositoryDecoratorFactory.decorate(any())).thenAnswer(returnsFirstArg());
+    when(dynamicRepositoryDecoratorRegistry.decorate(any())).thenAnswer(returnsFirstArg());
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    when(entityType.getId()).thenReturn("entityTypeId");
+    when(repository.getEntityType()).thenReturn(entityType);
+
+    molgenisRepositoryDecoratorFactory =
+        new MolgenisRepositoryDecoratorFactory(
+            entityManager,
+            entityAttributesValidator,
+            aggregateAnonymizer,
+            appSettings,
+            dataService,
+            systemRepositoryDecoratorRegistry,
+            dynamicRepositoryDecoratorRegistry,
+            indexActionRegisterService,
+            indexedRepositoryDecoratorFactory,
+            l1Cache,
+            l2Cache,
+            transactionInformation,
+            entityListenersService,
+            l3Cache,
+            transactionManager,
+            queryValidator,
+            fetchValidator,
+            defaultValueReferenceValidator,
+            permissionService,
+            rowLevelSecurityRepositoryDecoratorFactory,
+            l1CacheJanitor,
+            auditingRepositoryDecoratorFactory,
+            settingsAuditingRepositoryDecoratorFactory);
+    molgenisRepositoryDecoratorFactory.onBootstrappingEvent(new BootstrappingEvent(FINISHED));
+  }
+
+  @Test
+  void testAddTransactionListener() {
+    verify(transactionManager).addTransactionListener(molgenisRepositoryDecoratorFactory);
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryCached() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    assertSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryDuringBootstrapping() {
+    molgenisRepositoryDecoratorFactory.onBootstrappingEvent(new BootstrappingEvent(STARTED));
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryMetadataDirty() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    when(transactionInformation.getDirtyRepositories())
+        .thenReturn(singleton(ENTITY_TYPE_META_DATA));
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryRowLevelSecurityChanged() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    when(rowLevelSecurityRepositoryDecoratorFactory.isRowLevelSecured(entityType)).thenReturn(true);
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testAfterCommitTransactionDecoratorConfigurationDirty() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    when(transactionInformation.getDirtyRepositories())
+        .thenReturn(singleton(DECORATOR_CONFIGURATION));
+    molgenisRepositoryDecoratorFactory.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testAfterCommitTransactionDataDirty() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton("entityTypeId"));
+    molgenisRepositoryDecoratorFactory.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    assertSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryOtherEntityTypeInstance() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    EntityType otherEntityType = mock(EntityType.class);
+    when(otherEntityType.getId()).thenReturn("entityTypeId");
+    when(repository.getEntityType()).thenReturn(otherEntityType);
+    assertSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryOtherRepositoryType() {
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    @SuppressWarnings("unchecked")
+    Repository<Entity> otherRepository = mock(AbstractRepository.class);
+    when(otherRepository.getEntityType()).thenReturn(entityType);
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(otherRepository));
+  }
+
+  @Test
+  void testCreateDecoratedRepositoryClearedWhileDecorating() {
+    when(systemRepositoryDecoratorRegistry.decorate(any()))
+        .thenAnswer(
+            invocation -> {
+              when(transactionInformation.getDirtyRepositories())
+                  .thenReturn(singleton(ENTITY_TYPE_META_DATA));
+              molgenisRepositoryDecoratorFactory.afterCommitTransaction("transactionId");
+              when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+              return invocation.getArgument(0);
+            })
+        .thenAnswer(returnsFirstArg());
+    Repository<Entity> decoratedRepository =
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository);
+    assertNotSame(
+        decoratedRepository,
+        molgenisRepositoryDecoratorFactory.createDecoratedRepository(repository));
+  }
+}
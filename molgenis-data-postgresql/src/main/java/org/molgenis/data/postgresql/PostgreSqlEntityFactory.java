@@ -14,7 +14,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import javax.annotation.Nonnull;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
@@ -53,90 +55,134 @@ class PostgreSqlEntityFactory {
     private final EntityType entityType;
     private final Fetch fetch;
 
+    /** Names of the attributes to map, compiled once from the fetch */
+    private final String[] attributeNames;
+    /** Column names of the attributes to map */
+    private final String[] columnNames;
+    /** Type specific readers of the attributes to map */
+    private final ColumnReader[] columnReaders;
+
+    /** Result set for which the column indexes were resolved */
+    private ResultSet columnIndexesResultSet;
+    /** Result set column indexes of the attributes to map */
+    private int[] columnIndexes;
+
     private EntityMapper(EntityManager entityManager, EntityType entityType, Fetch fetch) {
       this.entityManager = requireNonNull(entityManager);
       this.entityType = requireNonNull(entityType);
       this.fetch = fetch; // can be null
+
+      List<Attribute> attrs = new ArrayList<>();
+      for (Attribute attr : entityType.getAtomicAttributes()) {
+        if ((fetch == null || fetch.hasField(attr.getName())) && attr.getExpression() == null) {
+          attrs.add(attr);
+        }
+      }
+      this.attributeNames = new String[attrs.size()];
+      this.columnNames = new String[attrs.size()];
+      this.columnReaders = new ColumnReader[attrs.size()];
+      for (int i = 0; i < attrs.size(); i++) {
+        Attribute attr = attrs.get(i);
+        attributeNames[i] = attr.getName();
+        columnNames[i] = getColumnName(attr, false);
+        columnReaders[i] = createColumnReader(attr);
+      }
     }
 
     @Override
     public @Nonnull Entity mapRow(ResultSet resultSet, int i) throws SQLException {
       Entity e = entityManager.createFetch(entityType, fetch);
 
-      // TODO performance, iterate over fetch if available
-      for (Attribute attr : entityType.getAtomicAttributes()) {
-        if (fetch == null || fetch.hasField(attr.getName())) {
-          if (attr.getExpression() != null) {
-            continue;
-          }
-
-          e.set(attr.getName(), mapValue(resultSet, attr));
-        }
+      int[] indexes = getColumnIndexes(resultSet);
+      for (int j = 0; j < attributeNames.length; j++) {
+        e.set(attributeNames[j], columnReaders[j].read(resultSet, indexes[j]));
       }
       return e;
     }
 
     /**
-     * Maps a single results set value to an entity value. See the JDBC 4.0 specification appendix B
-     * titled "Data Type Conversion Tables" for conversion rules.
-     *
-     * @param resultSet result set
-     * @param attr attribute
-     * @return value for the given attribute in the type defined by the attribute type
-     * @throws SQLException if an error occurs reading from the result set
+     * Returns the column indexes of the attributes to map. Column names are only looked up once per
+     * result set.
      */
-    private Object mapValue(ResultSet resultSet, Attribute attr) throws SQLException {
-      return mapValue(resultSet, attr, getColumnName(attr, false));
+    private int[] getColumnIndexes(ResultSet resultSet) throws SQLException {
+      if (resultSet != columnIndexesResultSet) {
+        int[] indexes = new int[columnNames.length];
+        for (int j = 0; j < columnNames.length; j++) {
+          indexes[j] = resultSet.findColumn(columnNames[j]);
+        }
+        columnIndexes = indexes;
+        columnIndexesResultSet = resultSet;
+      }
+      return columnIndexes;
     }
 
     /**
-     * Maps a single results set value to an entity value. See the JDBC 4.0 specification appendix B
-     * titled "Data Type Conversion Tables" for conversion rules.
+     * Creates a reader that maps a single results set value to an entity value. See the JDBC 4.0
+     * specification appendix B titled "Data Type Conversion Tables" for conversion rules.
      *
-     * @param resultSet result set
      * @param attr attribute
-     * @param colName column name in the result set
-     * @return value for the given attribute in the type defined by the attribute type
-     * @throws SQLException if an error occurs reading from the result set
+     * @return reader that returns the value for the given attribute in the type defined by the
+     *     attribute type
      */
-    private Object mapValue(ResultSet resultSet, Attribute attr, String colName)
-        throws SQLException {
-      Object value;
+    private ColumnReader createColumnReader(Attribute attr) {
+      ColumnReader columnReader;
       switch (attr.getDataType()) {
         case BOOL:
-          boolean boolValue = resultSet.getBoolean(colName);
-          value = resultSet.wasNull() ? null : boolValue;
+          columnReader =
+              (resultSet, columnIndex) -> {
+                boolean boolValue = resultSet.getBoolean(columnIndex);
+                return resultSet.wasNull() ? null : boolValue;
+              };
           break;
         case CATEGORICAL:
         case FILE:
         case XREF:
           EntityType xrefEntityType = attr.getRefEntity();
-          Object refIdValue = mapValue(resultSet, xrefEntityType.getIdAttribute(), colName);
-          value =
-              refIdValue != null ? entityManager.getReference(xrefEntityType, refIdValue) : null;
+          ColumnReader refIdReader = createColumnReader(xrefEntityType.getIdAttribute());
+          columnReader =
+              (resultSet, columnIndex) -> {
+                Object refIdValue = refIdReader.read(resultSet, columnIndex);
+                return refIdValue != null
+                    ? entityManager.getReference(xrefEntityType, refIdValue)
+                    : null;
+              };
           break;
         case CATEGORICAL_MREF:
         case MREF:
           EntityType mrefEntityMeta = attr.getRefEntity();
-          Array mrefArrayValue = resultSet.getArray(colName);
-          value = resultSet.wasNull() ? null : mapValueMref(mrefArrayValue, mrefEntityMeta);
+          columnReader =
+              (resultSet, columnIndex) -> {
+                Array mrefArrayValue = resultSet.getArray(columnIndex);
+                return resultSet.wasNull() ? null : mapValueMref(mrefArrayValue, mrefEntityMeta);
+              };
           break;
         case ONE_TO_MANY:
-          Array oneToManyArrayValue = resultSet.getArray(colName);
-          value = resultSet.wasNull() ? null : mapValueOneToMany(oneToManyArrayValue, attr);
+          columnReader =
+              (resultSet, columnIndex) -> {
+                Array oneToManyArrayValue = resultSet.getArray(columnIndex);
+                return resultSet.wasNull() ? null : mapValueOneToMany(oneToManyArrayValue, attr);
+              };
           break;
         case COMPOUND:
           throw new IllegalAttributeTypeException(attr.getDataType());
         case DATE:
-          value = resultSet.getObject(colName, LocalDate.class);
+          columnReader =
+              (resultSet, columnIndex) -> resultSet.getObject(columnIndex, LocalDate.class);
           break;
         case DATE_TIME:
-          OffsetDateTime offsetDateTime = resultSet.getObject(colName, OffsetDateTime.class);
-          value = resultSet.wasNull() ? null : offsetDateTime.toInstant();
+          columnReader =
+              (resultSet, columnIndex) -> {
+                OffsetDateTime offsetDateTime =
+                    resultSet.getObject(columnIndex, OffsetDateTime.class);
+                return resultSet.wasNull() ? null : offsetDateTime.toInstant();
+              };
           break;
         case DECIMAL:
-          BigDecimal bigDecimalValue = resultSet.getBigDecimal(colName);
-          value = bigDecimalValue != null ? bigDecimalValue.doubleValue() : null;
+          columnReader =
+              (resultSet, columnIndex) -> {
+                BigDecimal bigDecimalValue = resultSet.getBigDecimal(columnIndex);
+                return bigDecimalValue != null ? bigDecimalValue.doubleValue() : null;
+              };
           break;
         case EMAIL:
         case ENUM:
@@ -145,20 +191,26 @@ class PostgreSqlEntityFactory {
         case SCRIPT:
         case STRING:
         case TEXT:
-          value = resultSet.getString(colName);
+          columnReader = ResultSet::getString;
           break;
         case INT:
-          int intValue = resultSet.getInt(colName);
-          value = resultSet.wasNull() ? null : intValue;
+          columnReader =
+              (resultSet, columnIndex) -> {
+                int intValue = resultSet.getInt(columnIndex);
+                return resultSet.wasNull() ? null : intValue;
+              };
           break;
         case LONG:
-          long longValue = resultSet.getLong(colName);
-          value = resultSet.wasNull() ? null : longValue;
+          columnReader =
+              (resultSet, columnIndex) -> {
+                long longValue = resultSet.getLong(columnIndex);
+                return resultSet.wasNull() ? null : longValue;
+              };
           break;
         default:
           throw new UnexpectedEnumException(attr.getDataType());
       }
-      return value;
+      return columnReader;
     }
 
     /**
@@ -275,4 +327,10 @@ class PostgreSqlEntityFactory {
       }
     }
   }
+
+  /** Reads a value from the result set column at the given index */
+  @FunctionalInterface
+  private interface ColumnReader {
+    Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+  }
 }
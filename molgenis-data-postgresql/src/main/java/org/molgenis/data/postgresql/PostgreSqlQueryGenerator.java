@@ -53,6 +53,7 @@ import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.QueryRule.Operator;
@@ -66,9 +67,12 @@ import org.molgenis.data.semantic.Vocabulary;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.util.AttributeUtils;
 import org.molgenis.data.util.EntityTypeUtils;
+import org.molgenis.security.core.SidUtils;
 import org.molgenis.util.UnexpectedEnumException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.Sid;
 
 /**
  * Utility class that generates the SQL used by {@link PostgreSqlRepository} and {@link
@@ -453,6 +457,29 @@ class PostgreSqlQueryGenerator {
         + ") VALUES (?,?,?)";
   }
 
+  static String getSqlCopy(EntityType entityType) {
+    return "COPY "
+        + getTableName(entityType)
+        + " ("
+        + getTableAttributes(entityType)
+            .map(PostgreSqlNameGenerator::getColumnName)
+            .collect(joining(", "))
+        + ") FROM STDIN";
+  }
+
+  static String getSqlCopyJunction(EntityType entityType, Attribute attr) {
+    String junctionTableName = getJunctionTableName(entityType, attr);
+    return "COPY "
+        + junctionTableName
+        + " ("
+        + getJunctionTableOrderColumnName()
+        + ','
+        + getColumnName(entityType.getIdAttribute())
+        + ','
+        + getColumnName(attr)
+        + ") FROM STDIN";
+  }
+
   static String getSqlDeleteAll(EntityType entityType) {
     return "DELETE FROM " + getTableName(entityType);
   }
@@ -544,6 +571,24 @@ class PostgreSqlQueryGenerator {
 
   static <E extends Entity> String getSqlSelect(
       EntityType entityType, Query<E> q, List<Object> parameters, boolean includeMrefs) {
+    return getSqlSelect(entityType, q, parameters, includeMrefs, null);
+  }
+
+  /**
+   * Produces SQL to select the entities that match the given query. If seek values are given the
+   * query offset is ignored and only entities positioned after the row with these values in the
+   * query sort order are selected (keyset pagination), see {@link
+   * #isKeysetPaginationSupported(EntityType, Query)}.
+   *
+   * @param seekValues PostgreSQL values of the sort attributes of the last row of the previous
+   *     page, in sort order, or null to page using the query offset
+   */
+  static <E extends Entity> String getSqlSelect(
+      EntityType entityType,
+      Query<E> q,
+      List<Object> parameters,
+      boolean includeMrefs,
+      @Nullable List<Object> seekValues) {
     final StringBuilder select = new StringBuilder("SELECT ");
     if (isDistinctSelectRequired(entityType, q)) {
       select.append("DISTINCT ");
@@ -619,6 +664,10 @@ class PostgreSqlQueryGenerator {
     StringBuilder result = new StringBuilder().append(select).append(getSqlFrom(entityType, q));
     // where
     String where = getSqlWhere(entityType, q, parameters, new AtomicInteger());
+    if (seekValues != null) {
+      String seek = getSqlSeek(entityType, q, parameters, seekValues);
+      where = where.length() > 0 ? '(' + where + ") AND " + seek : seek;
+    }
     if (where.length() > 0) {
       result.append(" WHERE ").append(where);
     }
@@ -629,7 +678,7 @@ class PostgreSqlQueryGenerator {
     if (q.getPageSize() > 0) {
       result.append(" LIMIT ").append(q.getPageSize());
     }
-    if (q.getOffset() > 0) {
+    if (q.getOffset() > 0 && seekValues == null) {
       result.append(" OFFSET ").append(q.getOffset());
     }
 
@@ -690,6 +739,29 @@ class PostgreSqlQueryGenerator {
     return sqlBuilder.toString();
   }
 
+  /**
+   * Returns SQL that explains the plan of a query selecting the ids of entities that match the
+   * given query. The first row of the plan contains the row estimate of the query planner.
+   */
+  static <E extends Entity> String getSqlCountEstimate(
+      EntityType entityType, Query<E> q, List<Object> parameters) {
+    StringBuilder sqlBuilder = new StringBuilder("EXPLAIN SELECT ");
+    String idAttribute = getColumnName(entityType.getIdAttribute());
+
+    List<QueryRule> queryRules = q.getRules();
+    if (queryRules == null || queryRules.isEmpty()) {
+      sqlBuilder.append("this.").append(idAttribute).append(getSqlFrom(entityType, q));
+    } else {
+      if (isDistinctSelectRequired(entityType, q)) {
+        sqlBuilder.append("DISTINCT ");
+      }
+      String from = getSqlFrom(entityType, q);
+      String where = getSqlWhere(entityType, q, parameters, new AtomicInteger());
+      sqlBuilder.append("this.").append(idAttribute).append(from).append(" WHERE ").append(where);
+    }
+    return sqlBuilder.toString();
+  }
+
   private static String getSqlColumn(EntityType entityType, Attribute attr, ColumnMode columnMode) {
     StringBuilder sqlBuilder = new StringBuilder(getColumnName(attr)).append(' ');
 
@@ -1043,6 +1115,17 @@ class PostgreSqlQueryGenerator {
           }
           result.append(predicate);
           break;
+        case PERMITTED:
+          predicate.append(
+              getSqlPermitted(entityType, (PermissionFilter) r.getValue(), parameters));
+          if (result.length() > 0
+              && !result.toString().endsWith(" OR ")
+              && !result.toString().endsWith(" AND ")
+              && !result.toString().endsWith(" NOT ")) {
+            result.append(" AND ");
+          }
+          result.append(predicate);
+          break;
         case DIS_MAX:
         case FUZZY_MATCH:
         case FUZZY_MATCH_NGRAM:
@@ -1062,6 +1145,52 @@ class PostgreSqlQueryGenerator {
     return result.toString().trim();
   }
 
+  /**
+   * Produces SQL that matches the rows for which the first access control entry that matches the
+   * permission mask, of the first security identity that has such an entry, is granting. Rows
+   * without matching access control entries do not match.
+   */
+  private static String getSqlPermitted(
+      EntityType entityType, PermissionFilter permissionFilter, List<Object> parameters) {
+    List<Sid> sids = permissionFilter.getSids();
+    if (sids.isEmpty()) {
+      return "FALSE";
+    }
+
+    StringBuilder sidValues = new StringBuilder();
+    for (int i = 0; i < sids.size(); i++) {
+      Sid sid = sids.get(i);
+      if (i > 0) {
+        sidValues.append(", ");
+      }
+      sidValues
+          .append('(')
+          .append(sid instanceof PrincipalSid ? "TRUE" : "FALSE")
+          .append(", ?, ")
+          .append(i)
+          .append(')');
+      parameters.add(SidUtils.getStringValue(sid));
+    }
+    parameters.add(permissionFilter.getAclClass());
+    parameters.add(permissionFilter.getMask());
+
+    String idColumnName = getColumnName(entityType.getIdAttribute());
+    return "(SELECT acl_entry.granting FROM acl_entry"
+        + " JOIN acl_object_identity ON acl_entry.acl_object_identity = acl_object_identity.id"
+        + " JOIN acl_class ON acl_object_identity.object_id_class = acl_class.id"
+        + " JOIN acl_sid ON acl_entry.sid = acl_sid.id"
+        + " JOIN (VALUES "
+        + sidValues
+        + ") AS sids (principal, sid, priority)"
+        + " ON acl_sid.principal = sids.principal AND acl_sid.sid = sids.sid"
+        + " WHERE acl_class.class = ?"
+        + " AND acl_object_identity.object_id_identity = CAST(this."
+        + idColumnName
+        + " AS VARCHAR)"
+        + " AND (acl_entry.mask & ?) <> 0"
+        + " ORDER BY sids.priority, acl_entry.ace_order LIMIT 1) IS TRUE";
+  }
+
   private static void getSqlWhereForInQueryRule(
       QueryRule r,
       EntityType entityType,
@@ -1113,10 +1242,120 @@ class PostgreSqlQueryGenerator {
     result.append(" IN (").append(in).append(')');
   }
 
+  /**
+   * Produces a row value comparison that selects the rows positioned after the row with the given
+   * sort attribute values, e.g. <code>(this."attr", this."id") &gt; (?, ?)</code>.
+   */
+  private static <E extends Entity> String getSqlSeek(
+      EntityType entityType, Query<E> q, List<Object> parameters, List<Object> seekValues) {
+    Sort sort = getSortWithUniqueAttribute(entityType, q);
+    StringBuilder columns = new StringBuilder();
+    StringBuilder placeholders = new StringBuilder();
+    Sort.Direction direction = null;
+    int nrSortAttrs = 0;
+    for (Sort.Order order : sort) {
+      if (nrSortAttrs++ > 0) {
+        columns.append(", ");
+        placeholders.append(", ");
+      }
+      columns.append("this.").append(getColumnName(entityType.getAttribute(order.getAttr())));
+      placeholders.append('?');
+      direction = order.getDirection();
+    }
+    if (nrSortAttrs != seekValues.size()) {
+      throw new IllegalArgumentException(
+          format(
+              "Number of seek values [%d] does not match number of sort attributes [%d]",
+              seekValues.size(), nrSortAttrs));
+    }
+    parameters.addAll(seekValues);
+
+    boolean descending = direction == Sort.Direction.DESC;
+    return "(" + columns + (descending ? ") < (" : ") > (") + placeholders + ')';
+  }
+
+  /**
+   * Returns whether the rows selected by the given query can be paged by seeking past the sort
+   * values of the last row of the previous page instead of skipping rows with an offset. This
+   * requires that all sort attributes are non-nullable columns of the entity table that are sorted
+   * in the same direction and that no distinct select is required.
+   */
+  static <E extends Entity> boolean isKeysetPaginationSupported(EntityType entityType, Query<E> q) {
+    if (isDistinctSelectRequired(entityType, q)) {
+      return false;
+    }
+
+    Sort sort = getSortWithUniqueAttribute(entityType, q);
+    Sort.Direction direction = null;
+    for (Sort.Order order : sort) {
+      Attribute attr = entityType.getAttribute(order.getAttr());
+      if (attr == null
+          || attr.getExpression() != null
+          || !isKeysetAttributeType(attr.getDataType())
+          || (attr.isNillable() && !attr.equals(entityType.getIdAttribute()))) {
+        return false;
+      }
+      if (direction == null) {
+        direction = order.getDirection();
+      } else if (direction != order.getDirection()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isKeysetAttributeType(AttributeType attrType) {
+    switch (attrType) {
+      case BOOL:
+      case CATEGORICAL:
+      case DATE:
+      case DATE_TIME:
+      case DECIMAL:
+      case EMAIL:
+      case ENUM:
+      case HYPERLINK:
+      case INT:
+      case LONG:
+      case STRING:
+      case XREF:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the attributes that determine the order of the rows selected by the given query, see
+   * {@link #getSqlSort(EntityType, Query)}.
+   */
+  static <E extends Entity> List<Attribute> getSortAttributes(EntityType entityType, Query<E> q) {
+    return stream(getSortWithUniqueAttribute(entityType, q))
+        .map(order -> entityType.getAttribute(order.getAttr()))
+        .collect(toList());
+  }
+
   /** Package-private for testability */
   static <E extends Entity> String getSqlSort(EntityType entityType, Query<E> q) {
     StringBuilder sortSql = new StringBuilder();
+    for (Sort.Order o : getSortWithUniqueAttribute(entityType, q)) {
+      Attribute attr = entityType.getAttribute(o.getAttr());
+      sortSql.append(", ").append(getColumnName(attr));
+      if (o.getDirection().equals(Sort.Direction.DESC)) {
+        sortSql.append(" DESC");
+      } else {
+        sortSql.append(" ASC");
+      }
+    }
+
+    if (sortSql.length() > 0) {
+      sortSql = new StringBuilder("ORDER BY ").append(sortSql.substring(2));
+    }
+
+    return sortSql.toString();
+  }
 
+  private static <E extends Entity> Sort getSortWithUniqueAttribute(
+      EntityType entityType, Query<E> q) {
     // https://www.postgresql.org/docs/9.6/static/queries-limit.html
     // When using LIMIT, it is important to use an ORDER BY clause that constrains the result rows
     // into a unique order.
@@ -1135,22 +1374,7 @@ class PostgreSqlQueryGenerator {
     } else {
       sort = q.getSort();
     }
-
-    for (Sort.Order o : sort) {
-      Attribute attr = entityType.getAttribute(o.getAttr());
-      sortSql.append(", ").append(getColumnName(attr));
-      if (o.getDirection().equals(Sort.Direction.DESC)) {
-        sortSql.append(" DESC");
-      } else {
-        sortSql.append(" ASC");
-      }
-    }
-
-    if (sortSql.length() > 0) {
-      sortSql = new StringBuilder("ORDER BY ").append(sortSql.substring(2));
-    }
-
-    return sortSql.toString();
+    return sort;
   }
 
   private static boolean hasUniqueSortAttribute(EntityType entityType, Sort sort) {
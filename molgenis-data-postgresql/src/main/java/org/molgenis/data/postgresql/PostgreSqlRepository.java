@@ -5,6 +5,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
@@ -22,6 +23,7 @@ import static org.molgenis.data.QueryRule.Operator.LIKE;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
 import static org.molgenis.data.QueryRule.Operator.NOT;
 import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.QueryRule.Operator.RANGE;
 import static org.molgenis.data.RepositoryCapability.CACHEABLE;
 import static org.molgenis.data.RepositoryCapability.MANAGABLE;
@@ -34,7 +36,11 @@ import static org.molgenis.data.RepositoryCapability.WRITABLE;
 import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
 import static org.molgenis.data.postgresql.PostgreSqlExceptionTranslator.VALUE_TOO_LONG_MSG;
 import static org.molgenis.data.postgresql.PostgreSqlNameGenerator.getJunctionTableOrderColumnName;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSortAttributes;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCopy;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCopyJunction;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCount;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCountEstimate;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlDelete;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlDeleteAll;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlInsert;
@@ -42,8 +48,10 @@ import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlInsert
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlJunctionTableSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlUpdate;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.isKeysetPaginationSupported;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getJunctionTableAttributes;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getTableAttributes;
+import static org.molgenis.data.postgresql.PostgreSqlUtils.getPostgreSqlCopyValue;
 import static org.molgenis.data.postgresql.PostgreSqlUtils.getPostgreSqlValue;
 import static org.molgenis.data.util.EntityTypeUtils.isMultipleReferenceType;
 
@@ -54,6 +62,10 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -63,9 +75,12 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.sql.DataSource;
 import org.molgenis.data.Entity;
@@ -83,13 +98,22 @@ import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.validation.MolgenisValidationException;
 import org.molgenis.util.UnexpectedEnumException;
 import org.molgenis.validation.ConstraintViolation;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Repository that persists entities in a PostgreSQL database
@@ -133,7 +157,11 @@ class PostgreSqlRepository extends AbstractRepository {
               NOT,
               AND,
               OR,
-              NESTED));
+              NESTED,
+              PERMITTED));
+
+  /** Row estimate in the first line of a query plan, e.g. "Seq Scan on ... rows=123 width=8" */
+  private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
 
   private final PostgreSqlEntityFactory postgreSqlEntityFactory;
   private final JdbcTemplate jdbcTemplate;
@@ -187,18 +215,49 @@ class PostgreSqlRepository extends AbstractRepository {
         sql, parameters.toArray(new Object[parameters.size()]), Long.class);
   }
 
+  /** Returns the row estimate of the query planner, which avoids scanning the matching rows. */
+  @Override
+  public long estimateCount(Query<Entity> q) {
+    List<Object> parameters = Lists.newArrayList();
+    String sql = getSqlCountEstimate(entityType, q, parameters);
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Estimating [{}] rows for query [{}]", getName(), q);
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("SQL: {}, parameters: {}", sql, parameters);
+      }
+    }
+    List<String> plan =
+        jdbcTemplate.queryForList(
+            sql, parameters.toArray(new Object[parameters.size()]), String.class);
+    if (!plan.isEmpty()) {
+      Matcher matcher = PLAN_ROWS_PATTERN.matcher(plan.get(0));
+      if (matcher.find()) {
+        return Long.parseLong(matcher.group(1));
+      }
+    }
+    LOG.warn("Unable to estimate [{}] rows for query [{}], counting instead", getName(), q);
+    return count(q);
+  }
+
+  /**
+   * Queries without a page size or with a page size exceeding the batch size are read with a
+   * database cursor. Other queries are read in batches.
+   */
   @Override
   public Stream<Entity> findAll(Query<Entity> q) {
+    if (q.getPageSize() == 0 || q.getPageSize() > BATCH_SIZE) {
+      CursorQueryResult queryResult = new CursorQueryResult(q);
+      return stream(queryResult).onClose(queryResult::close);
+    }
     return stream(findAllBatching(q));
   }
 
   @Override
   public Entity findOne(Query<Entity> q) {
-    Iterator<Entity> iterator = findAll(q).iterator();
-    if (iterator.hasNext()) {
-      return iterator.next();
+    try (Stream<Entity> entities = findAll(q)) {
+      return entities.findFirst().orElse(null);
     }
-    return null;
   }
 
   @Override
@@ -275,12 +334,28 @@ class PostgreSqlRepository extends AbstractRepository {
     if (entity == null) {
       throw new NullPointerException("PostgreSqlRepository.add() failed: entity was null");
     }
-    add(Stream.of(entity));
+    addBatching(Iterators.singletonIterator(entity));
   }
 
+  /**
+   * Adds entities with the COPY command, which is considerably faster than batched INSERT
+   * statements for large numbers of entities. Entities are added with INSERT statements if the
+   * connection doesn't support COPY.
+   */
   @Override
   public Integer add(Stream<Entity> entities) {
-    return addBatching(entities.iterator());
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    try {
+      if (!connection.isWrapperFor(PGConnection.class)) {
+        return addBatching(entities.iterator());
+      }
+      CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+      return addCopying(entities.iterator(), copyManager);
+    } catch (SQLException e) {
+      throw translateException("add", e);
+    } finally {
+      DataSourceUtils.releaseConnection(connection, dataSource);
+    }
   }
 
   @Override
@@ -449,26 +524,199 @@ class PostgreSqlRepository extends AbstractRepository {
   }
 
   private BatchingQueryResult<Entity> findAllBatching(Query<Entity> q) {
+    if (isKeysetPaginationSupported(entityType, q) && isSortFetched(q)) {
+      return new KeysetBatchingQueryResult(q);
+    }
     return new BatchingQueryResult<Entity>(BATCH_SIZE, q) {
       @Override
       protected List<Entity> getBatch(Query<Entity> batchQuery) {
-        List<Object> parameters = new ArrayList<>();
-
-        String sql = getSqlSelect(getEntityType(), batchQuery, parameters, true);
-        RowMapper<Entity> entityMapper =
-            postgreSqlEntityFactory.createRowMapper(getEntityType(), batchQuery.getFetch());
-        LOG.debug("Fetching [{}] data for query [{}]", getName(), batchQuery);
-        LOG.trace("SQL: {}, parameters: {}", sql, parameters);
-        Stopwatch sw = createStarted();
-        List<Entity> result =
-            jdbcTemplate.query(
-                sql, parameters.toArray(new Object[parameters.size()]), entityMapper);
-        LOG.trace("That took {}", sw);
-        return result;
+        return findAllBatch(batchQuery, null);
       }
     };
   }
 
+  /** Returns whether the query fetch includes all attributes that determine the sort order */
+  private boolean isSortFetched(Query<Entity> q) {
+    Fetch fetch = q.getFetch();
+    return fetch == null
+        || getSortAttributes(entityType, q).stream()
+            .allMatch(attr -> fetch.hasField(attr.getName()));
+  }
+
+  private List<Entity> findAllBatch(Query<Entity> batchQuery, List<Object> seekValues) {
+    List<Object> parameters = new ArrayList<>();
+
+    String sql = getSqlSelect(getEntityType(), batchQuery, parameters, true, seekValues);
+    RowMapper<Entity> entityMapper =
+        postgreSqlEntityFactory.createRowMapper(getEntityType(), batchQuery.getFetch());
+    LOG.debug("Fetching [{}] data for query [{}]", getName(), batchQuery);
+    LOG.trace("SQL: {}, parameters: {}", sql, parameters);
+    Stopwatch sw = createStarted();
+    List<Entity> result =
+        jdbcTemplate.query(sql, parameters.toArray(new Object[parameters.size()]), entityMapper);
+    LOG.trace("That took {}", sw);
+    return result;
+  }
+
+  /**
+   * Batches a query by seeking past the sort values of the last entity of the previous batch
+   * instead of using an increasing offset, so that the cost of retrieving a batch does not depend
+   * on its position in the result.
+   */
+  private class KeysetBatchingQueryResult extends BatchingQueryResult<Entity> {
+    private final Query<Entity> query;
+    private final List<Attribute> sortAttrs;
+    private List<Object> seekValues;
+
+    KeysetBatchingQueryResult(Query<Entity> query) {
+      super(BATCH_SIZE, query);
+      this.query = query;
+      this.sortAttrs = getSortAttributes(entityType, query);
+    }
+
+    @Override
+    protected List<Entity> getBatch(Query<Entity> batchQuery) {
+      // the first batch of each iteration starts at the query offset
+      if (batchQuery.getOffset() == query.getOffset()) {
+        seekValues = null;
+      }
+      List<Entity> batch = findAllBatch(batchQuery, seekValues);
+      if (!batch.isEmpty()) {
+        Entity lastEntity = batch.get(batch.size() - 1);
+        seekValues =
+            sortAttrs.stream().map(attr -> getPostgreSqlValue(lastEntity, attr)).collect(toList());
+      }
+      return batch;
+    }
+  }
+
+  /**
+   * Iterates over the result of a query with a database cursor, so that the table is scanned once
+   * instead of once per batch. The cursor uses the connection of the transaction that is active
+   * when the iteration starts and is closed when the result is exhausted, when the stream is closed
+   * or when the transaction completes. Entities that were not consumed before the transaction
+   * completed, or all entities if no transaction is active, are retrieved in batches.
+   */
+  private class CursorQueryResult implements Iterator<Entity> {
+    private final Query<Entity> query;
+
+    private boolean cursorOpened;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private EntityMapper rowMapper;
+    private boolean exhausted;
+    private Entity nextEntity;
+    private int nrEntities;
+
+    private Iterator<Entity> batchIterator;
+
+    CursorQueryResult(Query<Entity> query) {
+      this.query = requireNonNull(query);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextEntity != null) {
+        return true;
+      }
+      if (batchIterator != null) {
+        return batchIterator.hasNext();
+      }
+      if (exhausted) {
+        return false;
+      }
+
+      if (!cursorOpened) {
+        cursorOpened = true;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+          openCursor();
+        }
+      }
+      if (resultSet == null) {
+        if (query.getPageSize() != 0 && nrEntities >= query.getPageSize()) {
+          batchIterator = emptyIterator();
+        } else {
+          batchIterator = findAllBatching(getRemainingQuery()).iterator();
+        }
+        return batchIterator.hasNext();
+      }
+
+      try {
+        if (resultSet.next()) {
+          nextEntity = rowMapper.mapRow(resultSet, nrEntities);
+        } else {
+          exhausted = true;
+          close();
+        }
+      } catch (SQLException e) {
+        close();
+        throw translateException("findAll", e);
+      }
+      return nextEntity != null;
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (nextEntity == null) {
+        return batchIterator.next();
+      }
+      Entity entity = nextEntity;
+      nextEntity = null;
+      nrEntities++;
+      return entity;
+    }
+
+    private void openCursor() {
+      List<Object> parameters = new ArrayList<>();
+      String sql = getSqlSelect(entityType, query, parameters, true);
+      rowMapper = postgreSqlEntityFactory.createRowMapper(entityType, query.getFetch());
+
+      LOG.debug("Fetching [{}] data with cursor for query [{}]", getName(), query);
+      LOG.trace("SQL: {}, parameters: {}", sql, parameters);
+      connection = DataSourceUtils.getConnection(dataSource);
+      try {
+        statement = connection.prepareStatement(sql);
+        statement.setFetchSize(BATCH_SIZE);
+        new ArgumentPreparedStatementSetter(parameters.toArray()).setValues(statement);
+        resultSet = statement.executeQuery();
+      } catch (SQLException e) {
+        close();
+        throw translateException("findAll", e);
+      }
+
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void beforeCompletion() {
+              close();
+            }
+          });
+    }
+
+    /** Returns the query for the entities that were not retrieved with the cursor */
+    private Query<Entity> getRemainingQuery() {
+      Query<Entity> remainingQuery = new QueryImpl<>(query);
+      remainingQuery.offset(query.getOffset() + nrEntities);
+      if (query.getPageSize() != 0) {
+        remainingQuery.pageSize(query.getPageSize() - nrEntities);
+      }
+      return remainingQuery;
+    }
+
+    void close() {
+      JdbcUtils.closeResultSet(resultSet);
+      JdbcUtils.closeStatement(statement);
+      DataSourceUtils.releaseConnection(connection, dataSource);
+      resultSet = null;
+      statement = null;
+      connection = null;
+    }
+  }
+
   private Integer addBatching(Iterator<? extends Entity> entities) {
     AtomicInteger count = new AtomicInteger();
 
@@ -511,6 +759,115 @@ class PostgreSqlRepository extends AbstractRepository {
     return count.get();
   }
 
+  private Integer addCopying(Iterator<? extends Entity> entities, CopyManager copyManager) {
+    AtomicInteger count = new AtomicInteger();
+
+    final Attribute idAttr = entityType.getIdAttribute();
+    final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
+    final List<Attribute> junctionTableAttrs =
+        getJunctionTableAttributes(entityType).collect(toList());
+    final String copySql = getSqlCopy(entityType);
+
+    Iterators.partition(entities, BATCH_SIZE)
+        .forEachRemaining(
+            entitiesBatch -> {
+              if (LOG.isDebugEnabled()) {
+                LOG.debug("Copying {} [{}] entities", entitiesBatch.size(), getName());
+                if (LOG.isTraceEnabled()) {
+                  LOG.trace("SQL: {}", copySql);
+                }
+              }
+
+              // persist values in entity table
+              StringBuilder copyData = new StringBuilder();
+              for (Entity entity : entitiesBatch) {
+                appendCopyRow(
+                    copyData,
+                    tableAttrs.stream().map(attr -> getPostgreSqlValue(entity, attr)).toArray());
+              }
+              copyIn(copyManager, copySql, copyData);
+
+              // persist values in entity junction table
+              if (!junctionTableAttrs.isEmpty()) {
+                Map<String, List<Map<String, Object>>> mrefs =
+                    createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
+
+                for (Attribute attr : junctionTableAttrs) {
+                  List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
+                  if (attrMrefs != null && !attrMrefs.isEmpty()) {
+                    copyMrefs(attrMrefs, attr, copyManager);
+                  }
+                }
+              }
+
+              count.addAndGet(entitiesBatch.size());
+            });
+
+    return count.get();
+  }
+
+  private void copyMrefs(List<Map<String, Object>> mrefs, Attribute attr, CopyManager copyManager) {
+    final Attribute idAttr = entityType.getIdAttribute();
+    String copyMrefSql = getSqlCopyJunction(entityType, attr);
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(
+          "Copying junction table entries for entity [{}] attribute [{}]",
+          getName(),
+          attr.getName());
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("SQL: {}", copyMrefSql);
+      }
+    }
+
+    StringBuilder copyData = new StringBuilder();
+    for (Map<String, Object> mref : mrefs) {
+      appendCopyRow(copyData, getJunctionTableRowValues(mref, attr, idAttr));
+    }
+
+    try {
+      copyIn(copyManager, copyMrefSql, copyData);
+    } catch (MolgenisValidationException mve) {
+      if (mve.getMessage().equals(VALUE_TOO_LONG_MSG)) {
+        mve =
+            new MolgenisValidationException(
+                new ConstraintViolation(
+                    format(
+                        "One of the mref values in entity type [%s] attribute [%s] is too long.",
+                        getEntityType().getId(), attr.getName())));
+      }
+      throw mve;
+    }
+  }
+
+  private void copyIn(CopyManager copyManager, String copySql, CharSequence copyData) {
+    try {
+      copyManager.copyIn(copySql, new StringReader(copyData.toString()));
+    } catch (SQLException e) {
+      throw translateException(copySql, e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void appendCopyRow(StringBuilder copyData, Object[] postgreSqlValues) {
+    for (int i = 0; i < postgreSqlValues.length; i++) {
+      if (i > 0) {
+        copyData.append('\t');
+      }
+      copyData.append(getPostgreSqlCopyValue(postgreSqlValues[i]));
+    }
+    copyData.append('\n');
+  }
+
+  private DataAccessException translateException(String task, SQLException e) {
+    DataAccessException dataAccessException =
+        jdbcTemplate.getExceptionTranslator().translate(task, null, e);
+    return dataAccessException != null
+        ? dataAccessException
+        : new UncategorizedSQLException(task, null, e);
+  }
+
   private static Map<String, List<Map<String, Object>>> createMrefMap(
       Attribute idAttr, List<Attribute> junctionTableAttrs, List<? extends Entity> entitiesBatch) {
     Map<String, List<Map<String, Object>>> mrefs =
@@ -555,6 +912,23 @@ class PostgreSqlRepository extends AbstractRepository {
     return mref;
   }
 
+  /** Returns the order, entity id and referenced entity id values of a junction table row */
+  private static Object[] getJunctionTableRowValues(
+      Map<String, Object> mref, Attribute attr, Attribute idAttr) {
+    Object idValue0;
+    Object idValue1;
+    if (attr.isMappedBy()) {
+      Entity mrefEntity = (Entity) mref.get(attr.getName());
+      idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
+      idValue1 = mref.get(idAttr.getName());
+    } else {
+      idValue0 = mref.get(idAttr.getName());
+      Entity mrefEntity = (Entity) mref.get(attr.getName());
+      idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
+    }
+    return new Object[] {mref.get(getJunctionTableOrderColumnName()), idValue0, idValue1};
+  }
+
   private void updateBatching(Iterator<? extends Entity> entities) {
     final Attribute idAttr = entityType.getIdAttribute();
     final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
@@ -772,22 +1146,10 @@ class PostgreSqlRepository extends AbstractRepository {
 
     @Override
     public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
-      Map<String, Object> mref = mrefs.get(i);
-
-      Object idValue0;
-      Object idValue1;
-      if (attr.isMappedBy()) {
-        Entity mrefEntity = (Entity) mref.get(attr.getName());
-        idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
-        idValue1 = mref.get(idAttr.getName());
-      } else {
-        idValue0 = mref.get(idAttr.getName());
-        Entity mrefEntity = (Entity) mref.get(attr.getName());
-        idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
-      }
-      preparedStatement.setInt(1, (int) mref.get(getJunctionTableOrderColumnName()));
-      preparedStatement.setObject(2, idValue0);
-      preparedStatement.setObject(3, idValue1);
+      Object[] values = getJunctionTableRowValues(mrefs.get(i), attr, idAttr);
+      preparedStatement.setInt(1, (int) values[0]);
+      preparedStatement.setObject(2, values[1]);
+      preparedStatement.setObject(3, values[2]);
     }
 
     @Override
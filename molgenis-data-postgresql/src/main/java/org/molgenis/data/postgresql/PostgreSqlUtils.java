@@ -8,6 +8,7 @@ import static java.util.stream.Collectors.toList;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import javax.annotation.Nullable;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.file.model.FileMeta;
@@ -18,6 +19,9 @@ import org.molgenis.util.UnexpectedEnumException;
 
 /** PostgreSQL utilities such as entity value to PostgreSQL value conversion. */
 class PostgreSqlUtils {
+  /** Representation of NULL in the text format of the COPY command */
+  static final String COPY_NULL = "\\N";
+
   private PostgreSqlUtils() {}
 
   /**
@@ -81,6 +85,55 @@ class PostgreSqlUtils {
     }
   }
 
+  /**
+   * Returns the representation of a PostgreSQL value in the text format of the COPY command.
+   *
+   * @param postgreSqlValue PostgreSQL value as returned by {@link #getPostgreSqlValue(Entity,
+   *     Attribute)}
+   * @return COPY text value
+   */
+  static String getPostgreSqlCopyValue(@Nullable Object postgreSqlValue) {
+    if (postgreSqlValue == null) {
+      return COPY_NULL;
+    }
+    if (postgreSqlValue instanceof Boolean) {
+      return Boolean.TRUE.equals(postgreSqlValue) ? "t" : "f";
+    }
+
+    String value = postgreSqlValue.toString();
+    StringBuilder copyValue = null;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String escapedChar;
+      switch (c) {
+        case '\\':
+          escapedChar = "\\\\";
+          break;
+        case '\t':
+          escapedChar = "\\t";
+          break;
+        case '\n':
+          escapedChar = "\\n";
+          break;
+        case '\r':
+          escapedChar = "\\r";
+          break;
+        default:
+          escapedChar = null;
+          break;
+      }
+      if (escapedChar != null) {
+        if (copyValue == null) {
+          copyValue = new StringBuilder(value.length() + 16).append(value, 0, i);
+        }
+        copyValue.append(escapedChar);
+      } else if (copyValue != null) {
+        copyValue.append(c);
+      }
+    }
+    return copyValue != null ? copyValue.toString() : value;
+  }
+
   /**
    * Returns the PostgreSQL query value for the given entity attribute. For query operators
    * requiring a list of values (e.g. IN or RANGE) this method must be called for each individual
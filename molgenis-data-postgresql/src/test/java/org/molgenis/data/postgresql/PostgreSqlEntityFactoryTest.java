@@ -1,10 +1,13 @@
 package org.molgenis.data.postgresql;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
 import static org.molgenis.data.meta.AttributeType.STRING;
@@ -16,9 +19,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.postgresql.PostgreSqlEntityFactory.EntityMapper;
 
 class PostgreSqlEntityFactoryTest {
   private PostgreSqlEntityFactory postgreSqlEntityFactory;
@@ -49,7 +54,8 @@ class PostgreSqlEntityFactoryTest {
     ResultSet rs = mock(ResultSet.class);
     Array oneToManyArray = mock(Array.class);
     when(oneToManyArray.getArray()).thenReturn(new String[] {"id0", "id1"});
-    when(rs.getArray(oneToManyAttrName)).thenReturn(oneToManyArray);
+    when(rs.findColumn(oneToManyAttrName)).thenReturn(1);
+    when(rs.getArray(1)).thenReturn(oneToManyArray);
     int rowNum = 0;
 
     Entity entity = mock(Entity.class);
@@ -82,7 +88,8 @@ class PostgreSqlEntityFactoryTest {
     ResultSet rs = mock(ResultSet.class);
     Array oneToManyArray = mock(Array.class);
     when(oneToManyArray.getArray()).thenReturn(new Integer[] {0, 1});
-    when(rs.getArray(oneToManyAttrName)).thenReturn(oneToManyArray);
+    when(rs.findColumn(oneToManyAttrName)).thenReturn(1);
+    when(rs.getArray(1)).thenReturn(oneToManyArray);
     int rowNum = 0;
 
     Entity entity = mock(Entity.class);
@@ -113,7 +120,8 @@ class PostgreSqlEntityFactoryTest {
     EntityType entityType = mock(EntityType.class);
     when(entityType.getAtomicAttributes()).thenReturn(singleton(oneToManyAttr));
     ResultSet rs = mock(ResultSet.class);
-    when(rs.getString(xrefAttr)).thenReturn("id0");
+    when(rs.findColumn(xrefAttr)).thenReturn(1);
+    when(rs.getString(1)).thenReturn("id0");
     int rowNum = 0;
 
     Entity entity = mock(Entity.class);
@@ -124,4 +132,36 @@ class PostgreSqlEntityFactoryTest {
         entity, postgreSqlEntityFactory.createRowMapper(entityType, null).mapRow(rs, rowNum));
     verify(entity).set(xrefAttr, refEntity);
   }
+
+  @Test
+  void createRowMapperFetch() throws Exception {
+    String stringAttrName = "stringAttr";
+    Attribute stringAttr = mock(Attribute.class);
+    when(stringAttr.getName()).thenReturn(stringAttrName);
+    when(stringAttr.getDataType()).thenReturn(STRING);
+
+    String intAttrName = "intAttr";
+    Attribute intAttr = mock(Attribute.class);
+    when(intAttr.getName()).thenReturn(intAttrName);
+
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(stringAttr, intAttr));
+    Fetch fetch = new Fetch().field(stringAttrName);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.findColumn(stringAttrName)).thenReturn(2);
+    when(rs.getString(2)).thenReturn("str0").thenReturn("str1");
+
+    Entity entity0 = mock(Entity.class);
+    Entity entity1 = mock(Entity.class);
+    when(entityManager.createFetch(entityType, fetch)).thenReturn(entity0).thenReturn(entity1);
+
+    EntityMapper entityMapper = postgreSqlEntityFactory.createRowMapper(entityType, fetch);
+    assertEquals(entity0, entityMapper.mapRow(rs, 0));
+    assertEquals(entity1, entityMapper.mapRow(rs, 1));
+    verify(entity0).set(stringAttrName, "str0");
+    verify(entity1).set(stringAttrName, "str1");
+    verify(rs, times(1)).findColumn(stringAttrName);
+    verifyNoMoreInteractions(entity0, entity1);
+  }
 }
@@ -4,13 +4,16 @@ import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.QueryRule.Operator.AND;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
 import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.Sort.Direction.DESC;
 import static org.molgenis.data.meta.AttributeType.BOOL;
 import static org.molgenis.data.meta.AttributeType.CATEGORICAL;
 import static org.molgenis.data.meta.AttributeType.CATEGORICAL_MREF;
@@ -33,6 +36,7 @@ import static org.molgenis.data.meta.AttributeType.TEXT;
 import static org.molgenis.data.meta.AttributeType.XREF;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.ColumnMode.EXCLUDE_DEFAULT_CONSTRAINT;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.ColumnMode.INCLUDE_DEFAULT_CONSTRAINT;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCount;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlJunctionTableSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSort;
@@ -49,8 +53,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
+import org.molgenis.data.QueryUtils;
 import org.molgenis.data.Sort;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
@@ -59,6 +65,8 @@ import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.Package;
 import org.molgenis.data.postgresql.PostgreSqlQueryGenerator.ColumnMode;
 import org.molgenis.data.support.QueryImpl;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
+import org.springframework.security.acls.domain.PrincipalSid;
 
 class PostgreSqlQueryGeneratorTest {
   @Test
@@ -440,6 +448,32 @@ class PostgreSqlQueryGeneratorTest {
         getSqlJunctionTableSelect(entityType, attr, 3));
   }
 
+  @Test
+  void getSqlCopy() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getDataType()).thenReturn(STRING);
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getDataType()).thenReturn(INT);
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+    when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, attr));
+    assertEquals(
+        "COPY \"entity#6844280e\" (\"idAttr\", \"attr\") FROM STDIN",
+        PostgreSqlQueryGenerator.getSqlCopy(entityType));
+  }
+
+  @Test
+  void getSqlCopyJunction() {
+    EntityType entityType =
+        when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getIdentifier()).thenReturn("attrId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    assertEquals(
+        "COPY \"entityTypeId#c34894ba_attr\" (\"order\",\"idAttr\",\"attr\") FROM STDIN",
+        PostgreSqlQueryGenerator.getSqlCopyJunction(entityType, attr));
+  }
+
   @Test
   void getSqlInsertJunction() {
     EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
@@ -717,6 +751,144 @@ class PostgreSqlQueryGeneratorTest {
     assertEquals("ORDER BY \"attr\" ASC, \"idAttr\" ASC", getSqlSort(entityType, q));
   }
 
+  @Test
+  void getSqlSelectSeek() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getIdentifier()).thenReturn("idAttrId");
+    when(idAttr.getDataType()).thenReturn(STRING);
+    when(idAttr.isUnique()).thenReturn(true);
+
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getIdentifier()).thenReturn("attrId");
+    when(attr.getDataType()).thenReturn(INT);
+
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+    when(entityType.getId()).thenReturn("entityTypeId");
+    when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, attr));
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute("idAttr")).thenReturn(idAttr);
+    when(entityType.getAttribute("attr")).thenReturn(attr);
+
+    QueryImpl<Entity> q = new QueryImpl<>();
+    q.eq("attr", 1).or().eq("attr", 2);
+    q.sort(new Sort("attr", DESC).on("idAttr", DESC));
+    q.offset(2000);
+    q.pageSize(1000);
+
+    List<Object> parameters = Lists.newArrayList();
+    assertEquals(
+        "SELECT this.\"idAttr\", this.\"attr\" FROM \"entityTypeId#c34894ba\" AS this WHERE (this.\"attr\" = ?  OR this.\"attr\" = ?) AND (this.\"attr\", this.\"idAttr\") < (?, ?) ORDER BY \"attr\" DESC, \"idAttr\" DESC LIMIT 1000",
+        getSqlSelect(entityType, q, parameters, true, asList(3, "id3")));
+    assertEquals(asList(1, 2, 3, "id3"), parameters);
+  }
+
+  @Test
+  void getSqlSelectPermitted() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getIdentifier()).thenReturn("idAttrId");
+    when(idAttr.getDataType()).thenReturn(STRING);
+    when(idAttr.isUnique()).thenReturn(true);
+
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getIdentifier()).thenReturn("attrId");
+    when(attr.getDataType()).thenReturn(INT);
+
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+    when(entityType.getId()).thenReturn("entityTypeId");
+    when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, attr));
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute("idAttr")).thenReturn(idAttr);
+    when(entityType.getAttribute("attr")).thenReturn(attr);
+
+    PermissionFilter permissionFilter =
+        PermissionFilter.create(
+            "entity-entityTypeId",
+            6,
+            asList(new PrincipalSid("user"), new GrantedAuthoritySid("ROLE_USER")));
+    Query<Entity> q =
+        QueryUtils.addPermissionFilter(
+            new QueryImpl<>().eq("attr", 1).pageSize(20), permissionFilter);
+
+    List<Object> parameters = Lists.newArrayList();
+    assertEquals(
+        "SELECT this.\"idAttr\", this.\"attr\" FROM \"entityTypeId#c34894ba\" AS this WHERE (this.\"attr\" = ?) AND (SELECT acl_entry.granting FROM acl_entry JOIN acl_object_identity ON acl_entry.acl_object_identity = acl_object_identity.id JOIN acl_class ON acl_object_identity.object_id_class = acl_class.id JOIN acl_sid ON acl_entry.sid = acl_sid.id JOIN (VALUES (TRUE, ?, 0), (FALSE, ?, 1)) AS sids (principal, sid, priority) ON acl_sid.principal = sids.principal AND acl_sid.sid = sids.sid WHERE acl_class.class = ? AND acl_object_identity.object_id_identity = CAST(this.\"idAttr\" AS VARCHAR) AND (acl_entry.mask & ?) <> 0 ORDER BY sids.priority, acl_entry.ace_order LIMIT 1) IS TRUE ORDER BY \"idAttr\" ASC LIMIT 20",
+        getSqlSelect(entityType, q, parameters, true));
+    assertEquals(asList(1, "user", "ROLE_USER", "entity-entityTypeId", 6), parameters);
+  }
+
+  @Test
+  void getSqlCountPermittedNoSids() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getIdentifier()).thenReturn("idAttrId");
+
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+    when(entityType.getId()).thenReturn("entityTypeId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+
+    PermissionFilter permissionFilter =
+        PermissionFilter.create("entity-entityTypeId", 6, emptyList());
+    Query<Entity> q = QueryUtils.addPermissionFilter(new QueryImpl<>(), permissionFilter);
+
+    List<Object> parameters = Lists.newArrayList();
+    assertEquals(
+        "SELECT COUNT(*) FROM \"entityTypeId#c34894ba\" AS this WHERE FALSE",
+        getSqlCount(entityType, q, parameters));
+    assertEquals(emptyList(), parameters);
+  }
+
+  @Test
+  void isKeysetPaginationSupported() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getDataType()).thenReturn(INT);
+
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute("idAttr")).thenReturn(idAttr);
+    when(entityType.getAttribute("attr")).thenReturn(attr);
+
+    assertTrue(
+        PostgreSqlQueryGenerator.isKeysetPaginationSupported(
+            entityType, new QueryImpl<>().sort(new Sort("attr"))));
+  }
+
+  @Test
+  void isKeysetPaginationSupportedMixedDirections() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getDataType()).thenReturn(INT);
+
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute("idAttr")).thenReturn(idAttr);
+    when(entityType.getAttribute("attr")).thenReturn(attr);
+
+    assertFalse(
+        PostgreSqlQueryGenerator.isKeysetPaginationSupported(
+            entityType, new QueryImpl<>().sort(new Sort("attr", DESC))));
+  }
+
+  @Test
+  void isKeysetPaginationSupportedNillableSortAttribute() {
+    Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+
+    Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attr.getDataType()).thenReturn(INT);
+    when(attr.isNillable()).thenReturn(true);
+
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute("attr")).thenReturn(attr);
+
+    assertFalse(
+        PostgreSqlQueryGenerator.isKeysetPaginationSupported(
+            entityType, new QueryImpl<>().sort(new Sort("attr"))));
+  }
+
   @Test
   void getSqlSortOnUnselectedMref() {
     Package package_ = when(mock(Package.class).getId()).thenReturn("org_molgenis").getMock();
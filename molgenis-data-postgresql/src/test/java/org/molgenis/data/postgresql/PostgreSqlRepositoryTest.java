@@ -2,17 +2,22 @@ package org.molgenis.data.postgresql;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockitoSession;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.quality.Strictness.STRICT_STUBS;
@@ -29,9 +34,15 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
+import com.google.common.io.CharStreams;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -41,6 +52,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoSession;
 import org.molgenis.data.Entity;
@@ -50,13 +62,18 @@ import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.postgresql.PostgreSqlEntityFactory.EntityMapper;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.validation.MolgenisValidationException;
 import org.molgenis.util.UnexpectedEnumException;
 import org.molgenis.validation.ConstraintViolation;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 @SuppressWarnings("java:S5979") // mocks are initialized
 class PostgreSqlRepositoryTest {
@@ -126,6 +143,50 @@ class PostgreSqlRepositoryTest {
     assertEquals(count, postgreSqlRepo.count(query));
   }
 
+  @Test
+  void estimateCountQuery() {
+    String idAttrName = "entityId";
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn(idAttrName);
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getId()).thenReturn("entityId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    doReturn(idAttr).when(entityType).getAttribute(idAttrName);
+
+    String queryValue = "id0";
+    QueryRule queryRule = new QueryRule(idAttrName, EQUALS, queryValue);
+    when(query.getRules()).thenReturn(singletonList(queryRule));
+
+    String sql =
+        "EXPLAIN SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this WHERE this.\"entityId\" = ?";
+    when(jdbcTemplate.queryForList(sql, new Object[] {queryValue}, String.class))
+        .thenReturn(
+            singletonList(
+                "Index Only Scan using \"entityId#fc2928f6_pkey\" on \"entityId#fc2928f6\" this  (cost=0.15..8.17 rows=123 width=32)"));
+
+    assertEquals(123L, postgreSqlRepo.estimateCount(query));
+  }
+
+  @Test
+  void estimateCountQueryUnknownPlan() {
+    String idAttrName = "entityId";
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn(idAttrName);
+
+    when(entityType.getId()).thenReturn("entityId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(query.getRules()).thenReturn(emptyList());
+
+    String explainSql = "EXPLAIN SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this";
+    when(jdbcTemplate.queryForList(explainSql, new Object[] {}, String.class))
+        .thenReturn(emptyList());
+    String countSql = "SELECT COUNT(*) FROM \"entityId#fc2928f6\"";
+    when(jdbcTemplate.queryForObject(countSql, new Object[] {}, Long.class)).thenReturn(3L);
+
+    assertEquals(3L, postgreSqlRepo.estimateCount(query));
+  }
+
   @Test
   void findAllQueryOneToManyEquals() throws Exception {
     String oneToManyAttrName = "oneToManyAttr";
@@ -179,6 +240,119 @@ class PostgreSqlRepositoryTest {
     assertEquals(singletonList(entity0), postgreSqlRepo.findAll(query).collect(toList()));
   }
 
+  @Test
+  void findAllKeysetBatching() {
+    String idAttrName = "entityId";
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn(idAttrName);
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getId()).thenReturn("entityId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute(idAttrName)).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(postgreSqlEntityFactory.createRowMapper(entityType, null)).thenReturn(rowMapper);
+
+    Entity entity = mock(Entity.class);
+    when(entity.getString(idAttrName)).thenReturn("id999");
+    List<Entity> firstBatch = nCopies(1000, entity);
+
+    String firstBatchSql =
+        "SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this ORDER BY \"entityId\" ASC LIMIT 1000";
+    when(jdbcTemplate.query(firstBatchSql, new Object[] {}, rowMapper)).thenReturn(firstBatch);
+    String secondBatchSql =
+        "SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this WHERE (this.\"entityId\") > (?) ORDER BY \"entityId\" ASC LIMIT 1000";
+    when(jdbcTemplate.query(secondBatchSql, new Object[] {"id999"}, rowMapper))
+        .thenReturn(emptyList());
+
+    assertEquals(1000L, postgreSqlRepo.findAll(new QueryImpl<>()).count());
+  }
+
+  @Test
+  void findAllCursor() throws SQLException {
+    String idAttrName = "entityId";
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn(idAttrName);
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getId()).thenReturn("entityId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute(idAttrName)).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(postgreSqlEntityFactory.createRowMapper(entityType, null)).thenReturn(rowMapper);
+
+    String sql =
+        "SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this ORDER BY \"entityId\" ASC";
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true, true, false);
+    Entity entity0 = mock(Entity.class);
+    Entity entity1 = mock(Entity.class);
+    when(rowMapper.mapRow(resultSet, 0)).thenReturn(entity0);
+    when(rowMapper.mapRow(resultSet, 1)).thenReturn(entity1);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      assertEquals(
+          asList(entity0, entity1), postgreSqlRepo.findAll(new QueryImpl<>()).collect(toList()));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+      TransactionSynchronizationManager.unbindResourceIfPossible(dataSource);
+    }
+    verify(preparedStatement).setFetchSize(1000);
+    verify(resultSet).close();
+    verify(preparedStatement).close();
+  }
+
+  @Test
+  void findAllCursorTransactionCompleted() throws SQLException {
+    String idAttrName = "entityId";
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn(idAttrName);
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getId()).thenReturn("entityId");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAttribute(idAttrName)).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(postgreSqlEntityFactory.createRowMapper(entityType, null)).thenReturn(rowMapper);
+
+    String sql =
+        "SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this ORDER BY \"entityId\" ASC";
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    Entity entity0 = mock(Entity.class);
+    when(rowMapper.mapRow(resultSet, 0)).thenReturn(entity0);
+
+    Entity entity1 = mock(Entity.class);
+    String batchSql =
+        "SELECT this.\"entityId\" FROM \"entityId#fc2928f6\" AS this ORDER BY \"entityId\" ASC LIMIT 1000 OFFSET 1";
+    when(jdbcTemplate.query(batchSql, new Object[] {}, rowMapper))
+        .thenReturn(singletonList(entity1));
+
+    Iterator<Entity> iterator;
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      iterator = postgreSqlRepo.findAll(new QueryImpl<>()).iterator();
+      assertEquals(entity0, iterator.next());
+      TransactionSynchronizationUtils.triggerBeforeCompletion();
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+      TransactionSynchronizationManager.unbindResourceIfPossible(dataSource);
+    }
+    verify(resultSet).close();
+    assertEquals(singletonList(entity1), newArrayList(iterator));
+  }
+
   @Test
   void testUpdateEntitiesExist() {
     Attribute idAttr = mock(Attribute.class);
@@ -230,6 +404,64 @@ class PostgreSqlRepositoryTest {
         .containsPattern("Cannot update \\[entity\\] with id \\[id1\\] because it does not exist");
   }
 
+  @Test
+  void testAddStreamCopy() throws SQLException, IOException {
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn("id");
+    when(idAttr.getDataType()).thenReturn(STRING);
+    Attribute intAttr = mock(Attribute.class);
+    when(intAttr.getName()).thenReturn("int");
+    when(intAttr.getDataType()).thenReturn(INT);
+
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, intAttr));
+    when(entityType.getId()).thenReturn("entity");
+
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getString("id")).thenReturn("id0");
+    when(entity0.getInt("int")).thenReturn(1);
+    Entity entity1 = mock(Entity.class);
+    when(entity1.getString("id")).thenReturn("id\t1");
+    when(entity1.getInt("int")).thenReturn(null);
+
+    Connection connection = mock(Connection.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+    PGConnection pgConnection = mock(PGConnection.class);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    CopyManager copyManager = mock(CopyManager.class);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    assertEquals(2, postgreSqlRepo.add(Stream.of(entity0, entity1)));
+    ArgumentCaptor<Reader> readerCaptor = ArgumentCaptor.forClass(Reader.class);
+    verify(copyManager)
+        .copyIn(
+            eq("COPY \"entity#6844280e\" (\"id\", \"int\") FROM STDIN"), readerCaptor.capture());
+    assertEquals("id0\t1\nid\\t1\t\\N\n", CharStreams.toString(readerCaptor.getValue()));
+    verify(connection).close();
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void testAddStreamInsert() throws SQLException {
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn("id");
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(entityType.getId()).thenReturn("entity");
+
+    Connection connection = mock(Connection.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+
+    assertEquals(2, postgreSqlRepo.add(Stream.of(mock(Entity.class), mock(Entity.class))));
+    verify(jdbcTemplate)
+        .batchUpdate(
+            eq("INSERT INTO \"entity#6844280e\" (\"id\") VALUES (?)"),
+            any(BatchPreparedStatementSetter.class));
+    verify(connection).close();
+  }
+
   @SuppressWarnings("ConstantConditions")
   @Test
   void testAddEntityNull() {
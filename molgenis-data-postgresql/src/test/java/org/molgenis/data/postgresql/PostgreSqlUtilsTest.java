@@ -390,6 +390,25 @@ class PostgreSqlUtilsTest {
                 mock(Entity.class), createAttr("attrCompound", COMPOUND)));
   }
 
+  static Iterator<Object[]> getPostgreSqlCopyValueProvider() {
+    return asList(
+            new Object[] {null, "\\N"},
+            new Object[] {true, "t"},
+            new Object[] {false, "f"},
+            new Object[] {123, "123"},
+            new Object[] {1.5, "1.5"},
+            new Object[] {LocalDate.of(2020, Month.JANUARY, 31), "2020-01-31"},
+            new Object[] {"str", "str"},
+            new Object[] {"a\\b\tc\nd\re", "a\\\\b\\tc\\nd\\re"})
+        .iterator();
+  }
+
+  @ParameterizedTest
+  @MethodSource("getPostgreSqlCopyValueProvider")
+  void getPostgreSqlCopyValue(Object postgreSqlValue, String copyValue) {
+    assertEquals(copyValue, PostgreSqlUtils.getPostgreSqlCopyValue(postgreSqlValue));
+  }
+
   static Iterator<Object[]> getPostgreSqlValueQueryProvider() {
     return asList(
             new Object[] {boolValue, attrBool, boolValue},
@@ -63,6 +63,13 @@ public class RepositorySecurityDecorator extends AbstractRepositoryDecorator<Ent
     return delegate().count(q);
   }
 
+  @Override
+  public long estimateCount(Query<Entity> q) {
+    EntityType entityType = delegate().getEntityType();
+    validatePermission(entityType, COUNT_DATA);
+    return delegate().estimateCount(q);
+  }
+
   @Override
   public Stream<Entity> findAll(Query<Entity> q) {
     EntityType entityType = delegate().getEntityType();
@@ -98,6 +98,16 @@ public class AuditingRepositoryDecorator extends AbstractRepositoryDecorator<Ent
     return count;
   }
 
+  @Override
+  public long estimateCount(Query<Entity> q) {
+    long count = delegate().estimateCount(q);
+
+    if (currentUserIsUser() && isNonSystemEntityType()) {
+      audit(ENTITIES_COUNTED);
+    }
+    return count;
+  }
+
   @Override
   public Stream<Entity> findAll(Query<Entity> q) {
     if (currentUserIsUser() && isNonSystemEntityType()) {
@@ -68,6 +68,11 @@ public class AttributeRepositorySecurityDecorator extends AbstractRepositoryDeco
     }
   }
 
+  @Override
+  public long estimateCount(Query<Attribute> q) {
+    return count(q);
+  }
+
   @Override
   public Stream<Attribute> findAll(Query<Attribute> q) {
     if (currentUserIsSuOrSystem()) {
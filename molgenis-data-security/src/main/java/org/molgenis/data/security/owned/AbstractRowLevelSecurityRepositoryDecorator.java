@@ -14,6 +14,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
@@ -51,20 +53,14 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
   @Override
   public Iterator<E> iterator() {
     Iterable<E> iterable = () -> delegate().iterator();
-    return stream(iterable).filter(entity -> isActionPermitted(entity, READ)).iterator();
+    return filterPermitted(stream(iterable), READ).iterator();
   }
 
   @Override
   public void forEachBatched(Fetch fetch, Consumer<List<E>> consumer, int batchSize) {
     delegate()
         .forEachBatched(
-            fetch,
-            entities ->
-                consumer.accept(
-                    entities.stream()
-                        .filter(entity -> isActionPermitted(entity, READ))
-                        .collect(toList())),
-            batchSize);
+            fetch, entities -> consumer.accept(filterPermitted(entities, READ)), batchSize);
   }
 
   @Override
@@ -74,9 +70,26 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 
   @Override
   public long count(Query<E> q) {
+    Query<E> permittedQuery = createPermittedQuery(q, COUNT);
+    if (permittedQuery != null) {
+      return delegate().count(permittedQuery);
+    }
     return findAllPermitted(q, COUNT).count();
   }
 
+  /**
+   * Estimates the count in the decorated repository if it applies row level security, otherwise row
+   * level security is applied after retrieval and the count is exact.
+   */
+  @Override
+  public long estimateCount(Query<E> q) {
+    Query<E> permittedQuery = createPermittedQuery(q, COUNT);
+    if (permittedQuery != null) {
+      return delegate().estimateCount(permittedQuery);
+    }
+    return count(q);
+  }
+
   @Override
   public Stream<E> findAll(Query<E> q) {
     return findAllPermitted(q, READ);
@@ -84,6 +97,10 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 
   @Override
   public E findOne(Query<E> q) {
+    Query<E> permittedQuery = createPermittedQuery(q, READ);
+    if (permittedQuery != null) {
+      return delegate().findOne(permittedQuery);
+    }
     return findAllPermitted(q, READ).findFirst().orElse(null);
   }
 
@@ -108,14 +125,12 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 
   @Override
   public Stream<E> findAll(Stream<Object> ids) {
-    Stream<E> entities = delegate().findAll(ids);
-    entities = entities.filter(entity -> isActionPermitted(entity, READ));
-    return entities;
+    return filterPermitted(delegate().findAll(ids), READ);
   }
 
   @Override
   public Stream<E> findAll(Stream<Object> ids, Fetch fetch) {
-    return delegate().findAll(ids, fetch).filter(entity -> isActionPermitted(entity, READ));
+    return filterPermitted(delegate().findAll(ids, fetch), READ);
   }
 
   @Override
@@ -183,8 +198,7 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
     partition(ids.iterator(), BATCH_SIZE)
         .forEachRemaining(
             idsBatch -> {
-              List<Object> filteredIds =
-                  idsBatch.stream().filter(id -> isActionPermitted(id, DELETE)).collect(toList());
+              List<Object> filteredIds = filterPermittedIds(idsBatch, DELETE);
               delegate().deleteAll(filteredIds.stream());
               filteredIds.forEach(this::deleteAcl);
             });
@@ -197,8 +211,7 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
   }
 
   private void deleteBatch(List<E> entities) {
-    List<E> filteredEntities =
-        entities.stream().filter(entity -> isActionPermitted(entity, DELETE)).collect(toList());
+    List<E> filteredEntities = filterPermitted(entities, DELETE);
     delegate().delete(filteredEntities.stream());
     filteredEntities.forEach(this::deleteAcl);
   }
@@ -229,10 +242,15 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
   }
 
   private Stream<E> findAllPermitted(Query<E> query, Action action) {
+    Query<E> permittedQuery = createPermittedQuery(query, action);
+    if (permittedQuery != null) {
+      return delegate().findAll(permittedQuery);
+    }
+
     Query<E> qWithoutLimitOffset = new QueryImpl<>(query);
     qWithoutLimitOffset.offset(0).pageSize(Integer.MAX_VALUE);
     Stream<E> permittedEntityStream =
-        delegate().findAll(qWithoutLimitOffset).filter(entity -> isActionPermitted(entity, action));
+        filterPermitted(delegate().findAll(qWithoutLimitOffset), action);
     if (query.getOffset() > 0) {
       permittedEntityStream = permittedEntityStream.skip(query.getOffset());
     }
@@ -242,10 +260,43 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
     return permittedEntityStream;
   }
 
+  /** Filters the entities in batches, so that permissions can be checked per batch. */
+  private Stream<E> filterPermitted(Stream<E> entities, Action action) {
+    return stream(partition(entities.iterator(), BATCH_SIZE))
+        .flatMap(batch -> filterPermitted(batch, action).stream());
+  }
+
+  /**
+   * Returns the entities on which the action is permitted in their original order. Override to
+   * check the permissions of all entities at once instead of one by one.
+   */
+  protected List<E> filterPermitted(List<E> entities, Action action) {
+    return entities.stream().filter(entity -> isActionPermitted(entity, action)).collect(toList());
+  }
+
+  /**
+   * Returns the entity ids on which the action is permitted in their original order. Override to
+   * check the permissions of all entity ids at once instead of one by one.
+   */
+  protected List<Object> filterPermittedIds(List<Object> entityIds, Action action) {
+    return entityIds.stream().filter(id -> isActionPermitted(id, action)).collect(toList());
+  }
+
   void deleteAcl(ObjectIdentity objectIdentity) {
     mutableAclService.deleteAcl(objectIdentity, true);
   }
 
+  /**
+   * Returns a query that only matches the entities of the given query on which the action is
+   * permitted, so that the decorated repository can apply row level security while paging, sorting
+   * and counting. Returns null if permissions can only be checked after retrieval.
+   */
+  @Nullable
+  @CheckForNull
+  protected Query<E> createPermittedQuery(Query<E> query, Action action) {
+    return null;
+  }
+
   public abstract boolean isActionPermitted(E entity, Action action);
 
   public abstract boolean isActionPermitted(Object id, Action action);
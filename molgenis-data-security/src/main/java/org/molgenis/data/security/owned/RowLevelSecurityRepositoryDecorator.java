@@ -1,21 +1,44 @@
 package org.molgenis.data.security.owned;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.addPermissionFilter;
+import static org.molgenis.security.core.utils.SecurityUtils.currentUserIsSuOrSystem;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityAlreadyExistsException;
+import org.molgenis.data.PermissionFilter;
+import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
 import org.molgenis.data.security.EntityIdentity;
+import org.molgenis.data.security.EntityIdentityUtils;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.SidUtils;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.util.UnexpectedEnumException;
+import org.springframework.security.acls.domain.CumulativePermission;
+import org.springframework.security.acls.model.Acl;
 import org.springframework.security.acls.model.AlreadyExistsException;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Permission;
 import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 /**
  * RepositoryDecorator that works on EntityTypes that are row-level secured. It is reponsible to
@@ -25,14 +48,44 @@ public class RowLevelSecurityRepositoryDecorator
     extends AbstractRowLevelSecurityRepositoryDecorator<Entity> {
   private final UserPermissionEvaluator userPermissionEvaluator;
   private final MutableAclService mutableAclService;
+  private final SidRetrievalStrategy sidRetrievalStrategy;
+  private final PermissionRegistry permissionRegistry;
 
   RowLevelSecurityRepositoryDecorator(
       Repository<Entity> delegateRepository,
       UserPermissionEvaluator userPermissionEvaluator,
-      MutableAclService mutableAclService) {
+      MutableAclService mutableAclService,
+      SidRetrievalStrategy sidRetrievalStrategy,
+      PermissionRegistry permissionRegistry) {
     super(delegateRepository, mutableAclService);
     this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
     this.mutableAclService = requireNonNull(mutableAclService);
+    this.sidRetrievalStrategy = requireNonNull(sidRetrievalStrategy);
+    this.permissionRegistry = requireNonNull(permissionRegistry);
+  }
+
+  /**
+   * Superusers and the system are permitted to do anything. For other users the permission check is
+   * added to the query if the decorated repository supports it.
+   */
+  @Override
+  protected Query<Entity> createPermittedQuery(Query<Entity> query, Action action) {
+    if (currentUserIsSuOrSystem()) {
+      return query;
+    }
+    if (!delegate().getQueryOperators().contains(PERMITTED)) {
+      return null;
+    }
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    List<Sid> sids =
+        authentication != null ? sidRetrievalStrategy.getSids(authentication) : emptyList();
+    PermissionFilter permissionFilter =
+        PermissionFilter.create(
+            EntityIdentityUtils.toType(getEntityType()),
+            getCumulativePermission(action).getMask(),
+            sids);
+    return addPermissionFilter(query, permissionFilter);
   }
 
   @Override
@@ -45,6 +98,76 @@ public class RowLevelSecurityRepositoryDecorator
     return isActionPermitted(toEntityIdentity(id), operation);
   }
 
+  /** Reads the access control lists of all entities at once to check the permissions. */
+  @Override
+  protected List<Entity> filterPermitted(List<Entity> entities, Action action) {
+    List<EntityIdentity> entityIdentities =
+        entities.stream().map(this::toEntityIdentity).collect(toList());
+    Predicate<EntityIdentity> permittedPredicate = getPermittedPredicate(entityIdentities, action);
+    List<Entity> permittedEntities = new ArrayList<>(entities.size());
+    for (int i = 0; i < entities.size(); i++) {
+      if (permittedPredicate.test(entityIdentities.get(i))) {
+        permittedEntities.add(entities.get(i));
+      }
+    }
+    return permittedEntities;
+  }
+
+  /** Reads the access control lists of all entities at once to check the permissions. */
+  @Override
+  protected List<Object> filterPermittedIds(List<Object> entityIds, Action action) {
+    List<EntityIdentity> entityIdentities =
+        entityIds.stream().map(this::toEntityIdentity).collect(toList());
+    Predicate<EntityIdentity> permittedPredicate = getPermittedPredicate(entityIdentities, action);
+    List<Object> permittedEntityIds = new ArrayList<>(entityIds.size());
+    for (int i = 0; i < entityIds.size(); i++) {
+      if (permittedPredicate.test(entityIdentities.get(i))) {
+        permittedEntityIds.add(entityIds.get(i));
+      }
+    }
+    return permittedEntityIds;
+  }
+
+  private Predicate<EntityIdentity> getPermittedPredicate(
+      List<EntityIdentity> entityIdentities, Action action) {
+    if (action == Action.CREATE || currentUserIsSuOrSystem()) {
+      return entityIdentity -> true;
+    }
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || entityIdentities.isEmpty()) {
+      return entityIdentity -> isActionPermitted(entityIdentity, action);
+    }
+
+    List<Sid> sids = sidRetrievalStrategy.getSids(authentication);
+    List<Permission> permissions = singletonList(getCumulativePermission(action));
+    Map<ObjectIdentity, Acl> acls;
+    try {
+      acls = mutableAclService.readAclsById(new ArrayList<>(entityIdentities), sids);
+    } catch (NotFoundException e) {
+      // the access control lists that were found are cached, check the entities one by one
+      return entityIdentity -> isActionPermitted(entityIdentity, action);
+    }
+    return entityIdentity -> isGranted(acls.get(entityIdentity), permissions, sids);
+  }
+
+  private static boolean isGranted(
+      @Nullable Acl acl, List<Permission> permissions, List<Sid> sids) {
+    if (acl == null) {
+      return false;
+    }
+    try {
+      return acl.isGranted(permissions, sids, false);
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  private CumulativePermission getCumulativePermission(Action action) {
+    CumulativePermission permission = new CumulativePermission();
+    permissionRegistry.getPermissions(getPermission(action)).forEach(permission::set);
+    return permission;
+  }
+
   @Override
   public void throwPermissionException(Entity entity, Action action) {
     throw new EntityPermissionDeniedException(getPermission(action), entity);
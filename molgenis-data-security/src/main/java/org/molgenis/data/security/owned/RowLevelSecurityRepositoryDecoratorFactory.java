@@ -4,10 +4,13 @@ import static java.util.Objects.requireNonNull;
 
 import org.molgenis.data.Entity;
 import org.molgenis.data.Repository;
+import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.security.EntityIdentityUtils;
 import org.molgenis.security.acl.MutableAclClassService;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.stereotype.Component;
 
 /** @see RowLevelSecurityRepositoryDecorator */
@@ -16,30 +19,43 @@ public class RowLevelSecurityRepositoryDecoratorFactory {
   private final UserPermissionEvaluator userPermissionEvaluator;
   private final MutableAclService mutableAclService;
   private final MutableAclClassService mutableAclClassService;
+  private final SidRetrievalStrategy sidRetrievalStrategy;
+  private final PermissionRegistry permissionRegistry;
 
   RowLevelSecurityRepositoryDecoratorFactory(
       UserPermissionEvaluator userPermissionEvaluator,
       MutableAclService mutableAclService,
-      MutableAclClassService mutableAclClassService) {
+      MutableAclClassService mutableAclClassService,
+      SidRetrievalStrategy sidRetrievalStrategy,
+      PermissionRegistry permissionRegistry) {
     this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
     this.mutableAclService = requireNonNull(mutableAclService);
     this.mutableAclClassService = requireNonNull(mutableAclClassService);
+    this.sidRetrievalStrategy = requireNonNull(sidRetrievalStrategy);
+    this.permissionRegistry = requireNonNull(permissionRegistry);
   }
 
   public Repository<Entity> createDecoratedRepository(Repository<Entity> repository) {
     Repository<Entity> decoratedRepository;
-    if (isRowLevelSecured(repository)) {
+    if (isRowLevelSecured(repository.getEntityType())) {
       decoratedRepository =
           new RowLevelSecurityRepositoryDecorator(
-              repository, userPermissionEvaluator, mutableAclService);
+              repository,
+              userPermissionEvaluator,
+              mutableAclService,
+              sidRetrievalStrategy,
+              permissionRegistry);
     } else {
       decoratedRepository = repository;
     }
     return decoratedRepository;
   }
 
-  private boolean isRowLevelSecured(Repository<Entity> repository) {
-    String aclClass = EntityIdentityUtils.toType(repository.getEntityType());
+  /**
+   * Returns whether the repository of the given entity type is decorated with row level security
+   */
+  public boolean isRowLevelSecured(EntityType entityType) {
+    String aclClass = EntityIdentityUtils.toType(entityType);
     return mutableAclClassService.hasAclClass(aclClass);
   }
 }
@@ -16,10 +16,18 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.QueryRule.Operator.AND;
+import static org.molgenis.data.QueryRule.Operator.EQUALS;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.addPermissionFilter;
 import static org.molgenis.data.security.EntityPermission.READ;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -30,6 +38,7 @@ import org.mockito.Mock;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityAlreadyExistsException;
 import org.molgenis.data.Fetch;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
 import org.molgenis.data.aggregation.AggregateQuery;
@@ -39,13 +48,19 @@ import org.molgenis.data.security.EntityIdentity;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
 import org.molgenis.data.support.QueryImpl;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.test.AbstractMockitoSpringContextTests;
 import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.Acl;
 import org.springframework.security.acls.model.AlreadyExistsException;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
@@ -58,20 +73,26 @@ class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoSpringConte
   @Mock private Repository<Entity> delegateRepository;
   @Mock private UserPermissionEvaluator userPermissionEvaluator;
   @Mock private MutableAclService mutableAclService;
+  @Mock private SidRetrievalStrategy sidRetrievalStrategy;
+  @Mock private PermissionRegistry permissionRegistry;
   private RowLevelSecurityRepositoryDecorator rowLevelSecurityRepositoryDecorator;
 
   @BeforeEach
   void setUpBeforeMethod() {
     rowLevelSecurityRepositoryDecorator =
         new RowLevelSecurityRepositoryDecorator(
-            delegateRepository, userPermissionEvaluator, mutableAclService);
+            delegateRepository,
+            userPermissionEvaluator,
+            mutableAclService,
+            sidRetrievalStrategy,
+            permissionRegistry);
   }
 
   @Test
   void testRowLevelSecurityRepositoryDecorator() {
     assertThrows(
         NullPointerException.class,
-        () -> new RowLevelSecurityRepositoryDecorator(null, null, null));
+        () -> new RowLevelSecurityRepositoryDecorator(null, null, null, null, null));
   }
 
   @WithMockUser(username = USERNAME)
@@ -417,6 +438,66 @@ class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoSpringConte
     assertEquals(emptyList(), rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()));
   }
 
+  @WithMockUser(username = USERNAME)
+  @Test
+  void testFindAllQueryPermitted() {
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+    EntityType entityType =
+        when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+    when(delegateRepository.getEntityType()).thenReturn(entityType);
+    when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(EQUALS, AND, PERMITTED));
+    List<Sid> sids = singletonList(new PrincipalSid(USERNAME));
+    when(sidRetrievalStrategy.getSids(any(Authentication.class))).thenReturn(sids);
+    when(permissionRegistry.getPermissions(READ))
+        .thenReturn(ImmutableSet.of(PermissionSet.READ, PermissionSet.WRITE));
+    Query<Entity> permittedQuery =
+        addPermissionFilter(
+            query,
+            PermissionFilter.create(
+                "entity-entityTypeId", PermissionSet.READ_MASK | PermissionSet.WRITE_MASK, sids));
+    Entity entity = mock(Entity.class);
+    when(delegateRepository.findAll(permittedQuery)).thenAnswer(invocation -> Stream.of(entity));
+    assertEquals(
+        singletonList(entity),
+        rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()));
+  }
+
+  @WithMockUser(username = USERNAME)
+  @Test
+  void testCountQueryPermitted() {
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+    EntityType entityType =
+        when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+    when(delegateRepository.getEntityType()).thenReturn(entityType);
+    when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(EQUALS, AND, PERMITTED));
+    when(sidRetrievalStrategy.getSids(any(Authentication.class))).thenReturn(emptyList());
+    when(permissionRegistry.getPermissions(READ))
+        .thenReturn(ImmutableSet.of(PermissionSet.READ, PermissionSet.WRITE));
+    Query<Entity> permittedQuery =
+        addPermissionFilter(
+            query,
+            PermissionFilter.create(
+                "entity-entityTypeId",
+                PermissionSet.READ_MASK | PermissionSet.WRITE_MASK,
+                emptyList()));
+    when(delegateRepository.count(permittedQuery)).thenReturn(3L);
+    assertEquals(3L, rowLevelSecurityRepositoryDecorator.count(query));
+  }
+
+  @WithMockUser(
+      username = USERNAME,
+      roles = {"SU"})
+  @Test
+  void testFindAllQuerySuperuser() {
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+    Entity entity = mock(Entity.class);
+    when(delegateRepository.findAll(query)).thenAnswer(invocation -> Stream.of(entity));
+    assertEquals(
+        singletonList(entity),
+        rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()));
+    verifyNoInteractions(userPermissionEvaluator);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testFindAllStream() {
@@ -439,6 +520,65 @@ class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoSpringConte
         emptyList(), rowLevelSecurityRepositoryDecorator.findAll(of(entityId)).collect(toList()));
   }
 
+  @WithMockUser(username = USERNAME)
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllStreamReadAclsInBatch() {
+    EntityType entityType =
+        when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+    Entity permittedEntity =
+        when(mock(Entity.class).getIdValue()).thenReturn("permittedEntityId").getMock();
+    when(permittedEntity.getEntityType()).thenReturn(entityType);
+    Entity notPermittedEntity =
+        when(mock(Entity.class).getIdValue()).thenReturn("notPermittedEntityId").getMock();
+    when(notPermittedEntity.getEntityType()).thenReturn(entityType);
+    when(delegateRepository.findAll(any(Stream.class)))
+        .thenAnswer(invocation -> Stream.of(permittedEntity, notPermittedEntity));
+
+    List<Sid> sids = singletonList(new PrincipalSid(USERNAME));
+    when(sidRetrievalStrategy.getSids(any(Authentication.class))).thenReturn(sids);
+    when(permissionRegistry.getPermissions(READ)).thenReturn(ImmutableSet.of(PermissionSet.READ));
+    EntityIdentity permittedEntityIdentity = new EntityIdentity(permittedEntity);
+    EntityIdentity notPermittedEntityIdentity = new EntityIdentity(notPermittedEntity);
+    Acl permittedAcl = mock(Acl.class);
+    when(permittedAcl.isGranted(any(), eq(sids), eq(false))).thenReturn(true);
+    Acl notPermittedAcl = mock(Acl.class);
+    when(notPermittedAcl.isGranted(any(), eq(sids), eq(false)))
+        .thenThrow(new NotFoundException("no matching ACE"));
+    when(mutableAclService.readAclsById(
+            asList(permittedEntityIdentity, notPermittedEntityIdentity), sids))
+        .thenReturn(
+            ImmutableMap.of(
+                permittedEntityIdentity,
+                permittedAcl,
+                notPermittedEntityIdentity,
+                notPermittedAcl));
+
+    assertEquals(
+        singletonList(permittedEntity),
+        rowLevelSecurityRepositoryDecorator
+            .findAll(of("permittedEntityId", "notPermittedEntityId"))
+            .collect(toList()));
+    verifyNoInteractions(userPermissionEvaluator);
+  }
+
+  @WithMockUser(username = USERNAME)
+  @SuppressWarnings("unchecked")
+  @Test
+  void testFindAllStreamReadAclsInBatchNotFound() {
+    Entity entity = getEntityMock();
+    when(delegateRepository.findAll(any(Stream.class))).thenAnswer(invocation -> Stream.of(entity));
+    when(sidRetrievalStrategy.getSids(any(Authentication.class))).thenReturn(emptyList());
+    when(permissionRegistry.getPermissions(READ)).thenReturn(ImmutableSet.of(PermissionSet.READ));
+    when(mutableAclService.readAclsById(singletonList(new EntityIdentity(entity)), emptyList()))
+        .thenThrow(new NotFoundException("no ACL"));
+    when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+
+    assertEquals(
+        singletonList(entity),
+        rowLevelSecurityRepositoryDecorator.findAll(of("entityId")).collect(toList()));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testFindAllStreamFetch() {
@@ -39,6 +39,12 @@ public class QueryValidationRepositoryDecorator<E extends Entity>
     return super.count(q);
   }
 
+  @Override
+  public long estimateCount(Query<E> q) {
+    queryValidator.validate(q, getEntityType());
+    return super.estimateCount(q);
+  }
+
   @Override
   public Stream<E> findAll(Query<E> q) {
     queryValidator.validate(q, getEntityType());
@@ -1,11 +1,13 @@
 package org.molgenis.data.validation;
 
+import static com.google.common.collect.Iterables.partition;
 import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
@@ -19,13 +21,16 @@ import static org.molgenis.data.util.EntityTypeUtils.isMultipleReferenceType;
 import static org.molgenis.data.util.EntityTypeUtils.isReferenceType;
 import static org.molgenis.data.util.EntityTypeUtils.isSingleReferenceType;
 
+import com.google.common.collect.Iterators;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.DataConverter;
@@ -41,7 +46,18 @@ import org.molgenis.util.HugeMap;
 import org.molgenis.util.HugeSet;
 import org.molgenis.validation.ConstraintViolation;
 
+/**
+ * Validates entities before they are added or updated. Entities are validated in batches: the
+ * referenced entity ids and unique attribute values of a batch are looked up in the database,
+ * unless the number of validated entities exceeds a fraction of the referenced table size in which
+ * case all ids or values of the table are loaded once.
+ */
 public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<Entity> {
+  private static final int BATCH_SIZE = 1000;
+
+  /** Preload all ids or values once the validated entities exceed this fraction of a table */
+  private static final double PRELOAD_TABLE_FRACTION = 0.1;
+
   private enum ValidationMode {
     ADD,
     UPDATE
@@ -137,33 +153,53 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     ValidationProfile validationProfile = new ValidationProfile().invoke();
 
     // add validation operation to stream
-    return entities.filter(
-        entity -> {
-          validate(entity, validationResource, validationMode, validationProfile);
-
-          return true;
-        });
+    return stream(Iterators.partition(entities.iterator(), BATCH_SIZE))
+        .flatMap(
+            batch -> {
+              validate(batch, validationResource, validationMode, validationProfile);
+              return batch.stream();
+            })
+        .onClose(entities::close);
   }
 
   private void validate(
       Entity entity, ValidationResource validationResource, ValidationMode validationMode) {
     initValidation(validationResource, validationMode);
-    validate(entity, validationResource, validationMode, new ValidationProfile().invoke());
+    validate(
+        singletonList(entity),
+        validationResource,
+        validationMode,
+        new ValidationProfile().invoke());
   }
 
   private void validate(
-      Entity entity,
+      List<Entity> entities,
       ValidationResource validationResource,
       ValidationMode validationMode,
       ValidationProfile validationProfile) {
-    validationResource.incrementRow();
-
-    validateEntityValueTypes(entity, validationResource);
-
     // other validation steps might not be able to handle invalid data types, stop here
-    if (validationResource.hasViolations()) {
-      throw new MolgenisValidationException(validationResource.getViolations());
+    entities.forEach(
+        entity -> {
+          validateEntityValueTypes(entity, validationResource);
+          if (validationResource.hasViolations()) {
+            throw new MolgenisValidationException(validationResource.getViolations());
+          }
+        });
+
+    loadReferencedEntityIds(entities, validationResource);
+    if (validationProfile.isValidateUniqueness()) {
+      loadUniqueAttrsValues(entities, validationResource);
     }
+    entities.forEach(
+        entity -> validate(entity, validationResource, validationMode, validationProfile));
+  }
+
+  private void validate(
+      Entity entity,
+      ValidationResource validationResource,
+      ValidationMode validationMode,
+      ValidationProfile validationProfile) {
+    validationResource.incrementRow();
 
     if (validationProfile.isValidateRequired()) {
       validateEntityValueRequired(entity, validationResource);
@@ -229,28 +265,13 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               .collect(toList());
     }
 
-    // get referenced entity ids
+    // referenced entity ids are loaded per batch
     if (!refAttrs.isEmpty()) {
       Map<String, HugeSet<Object>> refEntitiesIds = new HashMap<>();
       refAttrs.forEach(
-          refAttr -> {
-            EntityType refEntityType = refAttr.getRefEntity();
-            String refEntityName = refEntityType.getId();
-            HugeSet<Object> refEntityIds = refEntitiesIds.get(refEntityName);
-            if (refEntityIds == null) {
-              refEntityIds = new HugeSet<>();
-              refEntitiesIds.put(refEntityName, refEntityIds);
-
-              Query<Entity> q =
-                  new QueryImpl<>()
-                      .fetch(new Fetch().field(refEntityType.getIdAttribute().getName()));
-              for (Iterator<Entity> it = dataService.findAll(refEntityName, q).iterator();
-                  it.hasNext(); ) {
-                refEntityIds.add(it.next().getIdValue());
-              }
-            }
-          });
-
+          refAttr ->
+              refEntitiesIds.computeIfAbsent(
+                  refAttr.getRefEntity().getId(), id -> new HugeSet<>()));
       validationResource.setRefEntitiesIds(refEntitiesIds);
     }
 
@@ -260,6 +281,76 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     validationResource.setRefAttrs(refAttrs);
   }
 
+  /** Adds the ids of the existing entities referenced by the given entities to the known ids. */
+  private void loadReferencedEntityIds(
+      List<Entity> entities, ValidationResource validationResource) {
+    Map<String, EntityType> refEntityTypes = new LinkedHashMap<>();
+    validationResource
+        .getRefAttrs()
+        .forEach(
+            refAttr ->
+                refEntityTypes.putIfAbsent(refAttr.getRefEntity().getId(), refAttr.getRefEntity()));
+
+    refEntityTypes.forEach(
+        (refEntityTypeId, refEntityType) -> {
+          if (validationResource.isPreloaded(refEntityTypeId)) {
+            return;
+          }
+
+          HugeSet<Object> refEntityIds =
+              validationResource.getRefEntitiesIds().get(refEntityTypeId);
+          String refIdAttrName = refEntityType.getIdAttribute().getName();
+          if (isPreload(refEntityTypeId, entities.size(), validationResource)) {
+            Query<Entity> q = new QueryImpl<>().fetch(new Fetch().field(refIdAttrName));
+            dataService
+                .findAll(refEntityTypeId, q)
+                .forEach(refEntity -> refEntityIds.add(refEntity.getIdValue()));
+            validationResource.setPreloaded(refEntityTypeId);
+            return;
+          }
+
+          Set<Object> unknownRefEntityIds = new LinkedHashSet<>();
+          validationResource.getRefAttrs().stream()
+              .filter(refAttr -> refAttr.getRefEntity().getId().equals(refEntityTypeId))
+              .forEach(
+                  refAttr ->
+                      entities.forEach(
+                          entity -> {
+                            for (Entity refEntity : getRefEntities(entity, refAttr)) {
+                              Object refEntityId = refEntity.getIdValue();
+                              if (!refEntityIds.contains(refEntityId)) {
+                                unknownRefEntityIds.add(refEntityId);
+                              }
+                            }
+                          }));
+          for (List<Object> refEntityIdsBatch : partition(unknownRefEntityIds, BATCH_SIZE)) {
+            Query<Entity> q =
+                new QueryImpl<>()
+                    .in(refIdAttrName, refEntityIdsBatch)
+                    .fetch(new Fetch().field(refIdAttrName));
+            dataService
+                .findAll(refEntityTypeId, q)
+                .forEach(refEntity -> refEntityIds.add(refEntity.getIdValue()));
+          }
+        });
+  }
+
+  /**
+   * Returns whether all ids or values of a table should be loaded instead of looking them up for
+   * each batch, which is the case when the validated entities exceed a fraction of the table size.
+   */
+  private boolean isPreload(
+      String entityTypeId, int batchSize, ValidationResource validationResource) {
+    long tableSize =
+        validationResource.getTableSize(
+            entityTypeId,
+            id ->
+                id.equals(getEntityType().getId())
+                    ? delegate().estimateCount(new QueryImpl<>())
+                    : dataService.getRepository(id).estimateCount(new QueryImpl<>()));
+    return validationResource.getRow() + batchSize >= PRELOAD_TABLE_FRACTION * tableSize;
+  }
+
   private boolean isDifferentBackend(String backend, Attribute attr) {
     EntityType refEntity = attr.getRefEntity();
     String refEntityBackend = dataService.getMeta().getBackend(refEntity).getName();
@@ -274,35 +365,11 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               .filter(attr -> attr.isUnique() && attr.getExpression() == null)
               .collect(toList());
 
-      // get existing values for each attributes
+      // existing values are loaded per batch
       if (!uniqueAttrs.isEmpty()) {
         Map<String, HugeMap<Object, Object>> uniqueAttrsValues = new HashMap<>();
-
-        Fetch fetch = new Fetch();
         uniqueAttrs.forEach(
-            uniqueAttr -> {
-              uniqueAttrsValues.put(uniqueAttr.getName(), new HugeMap<>());
-              fetch.field(uniqueAttr.getName());
-            });
-
-        Query<Entity> q = new QueryImpl<>().fetch(fetch);
-        delegate()
-            .findAll(q)
-            .forEach(
-                entity ->
-                    uniqueAttrs.forEach(
-                        uniqueAttr -> {
-                          HugeMap<Object, Object> uniqueAttrValues =
-                              uniqueAttrsValues.get(uniqueAttr.getName());
-                          Object attrValue = entity.get(uniqueAttr.getName());
-                          if (attrValue != null) {
-                            if (isSingleReferenceType(uniqueAttr)) {
-                              attrValue = ((Entity) attrValue).getIdValue();
-                            }
-                            uniqueAttrValues.put(attrValue, entity.getIdValue());
-                          }
-                        }));
-
+            uniqueAttr -> uniqueAttrsValues.put(uniqueAttr.getName(), new HugeMap<>()));
         validationResource.setUniqueAttrsValues(uniqueAttrsValues);
       }
 
@@ -310,6 +377,74 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     }
   }
 
+  /**
+   * Adds the existing values of the unique attributes of the given entities to the known values.
+   */
+  private void loadUniqueAttrsValues(List<Entity> entities, ValidationResource validationResource) {
+    List<Attribute> uniqueAttrs = validationResource.getUniqueAttrs();
+    String entityTypeId = getEntityType().getId();
+    if (uniqueAttrs.isEmpty() || validationResource.isUniqueAttrsValuesPreloaded()) {
+      return;
+    }
+
+    String idAttrName = getEntityType().getIdAttribute().getName();
+    if (isPreload(entityTypeId, entities.size(), validationResource)) {
+      Fetch fetch = new Fetch().field(idAttrName);
+      uniqueAttrs.forEach(uniqueAttr -> fetch.field(uniqueAttr.getName()));
+      Query<Entity> q = new QueryImpl<>().fetch(fetch);
+      delegate()
+          .findAll(q)
+          .forEach(
+              entity ->
+                  uniqueAttrs.forEach(
+                      uniqueAttr -> putUniqueAttrValue(entity, uniqueAttr, validationResource)));
+      validationResource.setUniqueAttrsValuesPreloaded();
+      return;
+    }
+
+    uniqueAttrs.forEach(
+        uniqueAttr -> {
+          HugeMap<Object, Object> uniqueAttrValues =
+              validationResource.getUniqueAttrsValues().get(uniqueAttr.getName());
+          Set<Object> unknownValues = new LinkedHashSet<>();
+          entities.forEach(
+              entity -> {
+                Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
+                if (attrValue != null && !uniqueAttrValues.containsKey(attrValue)) {
+                  unknownValues.add(attrValue);
+                }
+              });
+          for (List<Object> valuesBatch : partition(unknownValues, BATCH_SIZE)) {
+            Query<Entity> q =
+                new QueryImpl<>()
+                    .in(uniqueAttr.getName(), valuesBatch)
+                    .fetch(new Fetch().field(idAttrName).field(uniqueAttr.getName()));
+            delegate()
+                .findAll(q)
+                .forEach(entity -> putUniqueAttrValue(entity, uniqueAttr, validationResource));
+          }
+        });
+  }
+
+  private static void putUniqueAttrValue(
+      Entity entity, Attribute uniqueAttr, ValidationResource validationResource) {
+    Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
+    if (attrValue != null) {
+      validationResource
+          .getUniqueAttrsValues()
+          .get(uniqueAttr.getName())
+          .put(attrValue, entity.getIdValue());
+    }
+  }
+
+  private static Object getUniqueAttrValue(Entity entity, Attribute uniqueAttr) {
+    Object attrValue = entity.get(uniqueAttr.getName());
+    if (attrValue != null && isSingleReferenceType(uniqueAttr)) {
+      attrValue = ((Entity) attrValue).getIdValue();
+    }
+    return attrValue;
+  }
+
   private void initReadonlyValidation(ValidationResource validationResource) {
     if (!getCapabilities().contains(VALIDATE_READONLY_CONSTRAINT)) {
       String idAttrName = getEntityType().getIdAttribute().getName();
@@ -362,12 +497,8 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
         .getUniqueAttrs()
         .forEach(
             uniqueAttr -> {
-              Object attrValue = entity.get(uniqueAttr.getName());
+              Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
               if (attrValue != null) {
-                if (isSingleReferenceType(uniqueAttr)) {
-                  attrValue = ((Entity) attrValue).getIdValue();
-                }
-
                 HugeMap<Object, Object> uniqueAttrValues =
                     validationResource.getUniqueAttrsValues().get(uniqueAttr.getName());
                 Object existingEntityId = uniqueAttrValues.get(attrValue);
@@ -397,19 +528,7 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               HugeSet<Object> refEntityIds =
                   validationResource.getRefEntitiesIds().get(refAttr.getRefEntity().getId());
 
-              Iterable<Entity> refEntities;
-              if (isSingleReferenceType(refAttr)) {
-                Entity refEntity = entity.getEntity(refAttr.getName());
-                if (refEntity != null) {
-                  refEntities = singleton(refEntity);
-                } else {
-                  refEntities = emptyList();
-                }
-              } else {
-                refEntities = entity.getEntities(refAttr.getName());
-              }
-
-              for (Entity refEntity : refEntities) {
+              for (Entity refEntity : getRefEntities(entity, refAttr)) {
                 if (!refEntityIds.contains(refEntity.getIdValue())) {
                   boolean selfReference =
                       entity.getEntityType().getId().equals(refAttr.getRefEntity().getId());
@@ -435,6 +554,21 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
             });
   }
 
+  private static Iterable<Entity> getRefEntities(Entity entity, Attribute refAttr) {
+    Iterable<Entity> refEntities;
+    if (isSingleReferenceType(refAttr)) {
+      Entity refEntity = entity.getEntity(refAttr.getName());
+      if (refEntity != null) {
+        refEntities = singleton(refEntity);
+      } else {
+        refEntities = emptyList();
+      }
+    } else {
+      refEntities = entity.getEntities(refAttr.getName());
+    }
+    return refEntities;
+  }
+
   @SuppressWarnings("unchecked")
   private void validateEntityValueReadOnly(Entity entity, ValidationResource validationResource) {
     if (validationResource.getReadonlyAttrs().isEmpty()) {
@@ -491,6 +625,9 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     private List<Attribute> readonlyAttrs;
     private boolean selfReferencing;
     private Set<ConstraintViolation> violations;
+    private final Map<String, Long> tableSizes = new HashMap<>();
+    private final Set<String> preloadedRefEntityTypeIds = new HashSet<>();
+    private boolean uniqueAttrsValuesPreloaded;
 
     ValidationResource() {
       rowNr = new AtomicInteger();
@@ -560,6 +697,26 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
       this.readonlyAttrs = readonlyAttrs;
     }
 
+    long getTableSize(String entityTypeId, ToLongFunction<String> tableSizeFunction) {
+      return tableSizes.computeIfAbsent(entityTypeId, tableSizeFunction::applyAsLong);
+    }
+
+    boolean isPreloaded(String refEntityTypeId) {
+      return preloadedRefEntityTypeIds.contains(refEntityTypeId);
+    }
+
+    void setPreloaded(String refEntityTypeId) {
+      preloadedRefEntityTypeIds.add(refEntityTypeId);
+    }
+
+    boolean isUniqueAttrsValuesPreloaded() {
+      return uniqueAttrsValuesPreloaded;
+    }
+
+    void setUniqueAttrsValuesPreloaded() {
+      uniqueAttrsValuesPreloaded = true;
+    }
+
     void setSelfReferencing(boolean selfReferencing) {
       this.selfReferencing = selfReferencing;
     }
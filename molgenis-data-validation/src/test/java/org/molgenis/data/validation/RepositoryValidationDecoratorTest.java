@@ -7,8 +7,10 @@ import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -1559,6 +1561,102 @@ class RepositoryValidationDecoratorTest {
     }
   }
 
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  @Test
+  void addStreamLookupReferencesAndUniqueValues() {
+    when(refRepo.estimateCount(any())).thenReturn(1000000L);
+    when(delegateRepository.estimateCount(any())).thenReturn(1000000L);
+    when(dataService.findAll(
+            refEntityName, new QueryImpl<>().in(refAttrIdName, singletonList("idref0"))))
+        .thenReturn(Stream.of(refEntity0));
+
+    // entities
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntity(attrNillableXrefName)).thenReturn(null);
+    when(entity0.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.getString(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.getEntity(attrUniqueXrefName)).thenReturn(refEntity0);
+
+    when(entity0.get(attrIdName)).thenReturn("id0");
+    when(entity0.get(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.get(attrNillableXrefName)).thenReturn(null);
+    when(entity0.get(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.get(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.get(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity0);
+
+    // actual tests
+    List<Entity> entities = Arrays.asList(entity0);
+    repositoryValidationDecorator.add(entities.stream());
+
+    ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(delegateRepository, times(1)).add(captor.capture());
+    Stream<Entity> stream = captor.getValue();
+    assertEquals(singletonList(entity0), stream.collect(toList()));
+
+    verify(dataService, never()).findAll(refEntityName, new QueryImpl<>());
+    verify(delegateRepository, never()).findAll(new QueryImpl<>());
+    verify(delegateRepository)
+        .findAll(new QueryImpl<>().in(attrUniqueStringName, singletonList("unique0")));
+    verify(delegateRepository)
+        .findAll(new QueryImpl<>().in(attrUniqueXrefName, singletonList("idref0")));
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  @Test
+  void addStreamLookupUniqueStringValueExistsInBackendValidationError() {
+    when(refRepo.estimateCount(any())).thenReturn(1000000L);
+    when(delegateRepository.estimateCount(any())).thenReturn(1000000L);
+    when(dataService.findAll(
+            refEntityName, new QueryImpl<>().in(refAttrIdName, asList("idref0", "idref1"))))
+        .thenReturn(Stream.of(refEntity0, refEntity1));
+
+    Entity entityInBackend0 = mock(Entity.class);
+    when(entityInBackend0.getIdValue()).thenReturn("idbackend0");
+    when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
+    when(delegateRepository.findAll(
+            new QueryImpl<>().in(attrUniqueStringName, singletonList("unique0"))))
+        .thenReturn(Stream.of(entityInBackend0));
+
+    // entities
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntity(attrNillableXrefName)).thenReturn(null);
+    when(entity0.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.getString(attrUniqueStringName)).thenReturn("unique0"); // duplicate
+    when(entity0.getEntity(attrUniqueXrefName)).thenReturn(refEntity1);
+
+    when(entity0.get(attrIdName)).thenReturn("id0");
+    when(entity0.get(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.get(attrNillableXrefName)).thenReturn(null);
+    when(entity0.get(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.get(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.get(attrUniqueStringName)).thenReturn("unique0"); // duplicate
+    when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity1);
+
+    // actual tests
+    List<Entity> entities = Arrays.asList(entity0);
+    repositoryValidationDecorator.add(entities.stream());
+
+    ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(delegateRepository, times(1)).add(captor.capture());
+    Stream<Entity> stream = captor.getValue();
+    Exception exception =
+        assertThrows(MolgenisValidationException.class, () -> stream.collect(toList()));
+    assertEquals(
+        "Duplicate value 'unique0' for unique attribute 'uniqueStringAttr' from entity 'entity' (entity 1)",
+        exception.getMessage());
+  }
+
   @Test
   void update() {
     // entities
@@ -73,6 +73,11 @@ public abstract class AbstractRepositoryDecorator<E extends Entity> extends Forw
     return delegate().count(q);
   }
 
+  @Override
+  public long estimateCount(Query<E> q) {
+    return delegate().estimateCount(q);
+  }
+
   @Override
   public Stream<E> findAll(Query<E> q) {
     return delegate().findAll(q);
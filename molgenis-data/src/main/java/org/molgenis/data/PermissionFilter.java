@@ -0,0 +1,29 @@
+package org.molgenis.data;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.springframework.security.acls.model.Sid;
+
+/**
+ * Value of a {@link QueryRule.Operator#PERMITTED} query rule. Selects the entities on which the
+ * first access control entry matching the permission mask, for the first security identity that has
+ * such an entry, is granting. This equals the decision of the ACL permission granting strategy for
+ * access control lists without parent.
+ */
+@AutoValue
+@SuppressWarnings("java:S1610") // Abstract classes without fields should be converted to interfaces
+public abstract class PermissionFilter {
+  /** Returns the ACL class of the entities, e.g. 'entity-myEntityTypeId'. */
+  public abstract String getAclClass();
+
+  /** Returns the permission mask, access control entries match if they share a bit with it. */
+  public abstract int getMask();
+
+  /** Returns the security identities of the user in order of precedence. */
+  public abstract List<Sid> getSids();
+
+  public static PermissionFilter create(String aclClass, int mask, List<Sid> sids) {
+    return new AutoValue_PermissionFilter(aclClass, mask, ImmutableList.copyOf(sids));
+  }
+}
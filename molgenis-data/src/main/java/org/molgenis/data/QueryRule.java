@@ -116,7 +116,13 @@ public class QueryRule {
     FUZZY_MATCH("FUZZY_MATCH"),
 
     /** Fuzzy match operator */
-    FUZZY_MATCH_NGRAM("FUZZY_MATCH_NGRAM");
+    FUZZY_MATCH_NGRAM("FUZZY_MATCH_NGRAM"),
+
+    /**
+     * Entities on which the current user has permission, 'value' being a {@link PermissionFilter}.
+     * The parameter 'field' is omitted.
+     */
+    PERMITTED("PERMITTED");
 
     private String label;
 
@@ -164,6 +170,13 @@ public class QueryRule {
     if (operator == Operator.SEARCH || operator == Operator.SEARCH_QUERY) {
       this.operator = operator;
       setValue(value);
+    } else if (operator == Operator.PERMITTED) {
+      if (!(value instanceof PermissionFilter)) {
+        throw new IllegalArgumentException(
+            "QueryRule(PERMITTED, value): value should be PermissionFilter");
+      }
+      this.operator = operator;
+      this.value = value;
     } else if (Operator.NESTED.equals(operator)) {
       boolean okay = true;
       if (value instanceof List) {
@@ -7,6 +7,7 @@ import static org.eclipse.rdf4j.model.vocabulary.RDF.TYPE;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -15,6 +16,7 @@ import org.eclipse.rdf4j.model.IRI;
 import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 
 public class QueryUtils {
   private static final char NESTED_ATTRIBUTE_SEPARATOR = '.';
@@ -211,6 +213,80 @@ public class QueryUtils {
     return expandedAttributePath;
   }
 
+  /**
+   * Returns a copy of the query that only matches the entities that are also permitted by the
+   * permission filter.
+   */
+  public static <E extends Entity> Query<E> addPermissionFilter(
+      Query<E> q, PermissionFilter permissionFilter) {
+    List<QueryRule> rules = new ArrayList<>();
+    if (!q.getRules().isEmpty()) {
+      rules.add(new QueryRule(q.getRules()));
+      rules.add(new QueryRule(Operator.AND));
+    }
+    rules.add(new QueryRule(Operator.PERMITTED, permissionFilter));
+    return copyWithRules(q, rules);
+  }
+
+  /** Returns the permission filters of the {@link Operator#PERMITTED} rules of the query. */
+  public static List<PermissionFilter> getPermissionFilters(Query<Entity> q) {
+    List<PermissionFilter> permissionFilters = new ArrayList<>();
+    for (QueryRule rule : q.getRules()) {
+      if (rule.getOperator() == Operator.PERMITTED) {
+        permissionFilters.add((PermissionFilter) rule.getValue());
+      }
+    }
+    return permissionFilters;
+  }
+
+  /**
+   * Returns a copy of the query without its {@link Operator#PERMITTED} rules. Reverts {@link
+   * #addPermissionFilter(Query, PermissionFilter)}.
+   *
+   * @throws UnsupportedOperationException if a PERMITTED rule is not and-ed to the other rules
+   */
+  public static Query<Entity> removePermissionFilters(Query<Entity> q) {
+    List<QueryRule> rules = q.getRules();
+    List<QueryRule> remainingRules = new ArrayList<>(rules.size());
+    for (int i = 0; i < rules.size(); i++) {
+      QueryRule rule = rules.get(i);
+      if (rule.getOperator() == Operator.PERMITTED) {
+        if (!remainingRules.isEmpty()) {
+          QueryRule previousRule = remainingRules.remove(remainingRules.size() - 1);
+          if (previousRule.getOperator() != Operator.AND) {
+            throw new UnsupportedOperationException(
+                format("Query rule [%s] must be preceded by [AND]", rule));
+          }
+        } else if (i + 1 < rules.size()) {
+          if (rules.get(i + 1).getOperator() != Operator.AND) {
+            throw new UnsupportedOperationException(
+                format("Query rule [%s] must be followed by [AND]", rule));
+          }
+          i++;
+        }
+      } else {
+        remainingRules.add(rule);
+      }
+    }
+    if (containsAnyOperator(remainingRules, EnumSet.of(Operator.PERMITTED))) {
+      throw new UnsupportedOperationException(
+          format("Query operator [%s] is not supported in nested query rules", Operator.PERMITTED));
+    }
+    if (remainingRules.size() == 1 && remainingRules.get(0).getOperator() == Operator.NESTED) {
+      remainingRules = remainingRules.get(0).getNestedRules();
+    }
+    return copyWithRules(q, remainingRules);
+  }
+
+  private static <E extends Entity> Query<E> copyWithRules(Query<E> q, List<QueryRule> rules) {
+    QueryImpl<E> copy = new QueryImpl<>(rules);
+    copy.setOffset(q.getOffset());
+    copy.setPageSize(q.getPageSize());
+    copy.setSort(q.getSort());
+    copy.setFetch(q.getFetch());
+    return copy;
+  }
+
   public static boolean isTaggedType(Attribute attribute, IRI typeIRI) {
     return stream(attribute.getTags()).anyMatch(tag -> tag.equals(TYPE, typeIRI));
   }
@@ -118,6 +118,17 @@ public interface Repository<E extends Entity> extends Iterable<E>, Closeable {
    */
   long count(Query<E> q);
 
+  /**
+   * Returns the number of entities matched by query, allowing repositories to return an estimate
+   * when an exact count is expensive to compute. Defaults to {@link #count(Query)}.
+   *
+   * @param q query
+   * @return exact or estimated number of entities matched by query
+   */
+  default long estimateCount(Query<E> q) {
+    return count(q);
+  }
+
   /**
    * Find entities that match a query. Returns empty stream if no matches.
    *
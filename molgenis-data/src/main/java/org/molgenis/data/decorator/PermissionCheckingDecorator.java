@@ -70,6 +70,11 @@ public class PermissionCheckingDecorator<E extends Entity> extends AbstractRepos
     return permittedEntityStream.count();
   }
 
+  @Override
+  public long estimateCount(Query<E> q) {
+    return count(q);
+  }
+
   @Override
   public Stream<E> findAll(Query<E> q) {
     Query<E> qWithoutLimitOffset = new QueryImpl<>(q);
@@ -47,7 +47,7 @@ public abstract class AbstractRepository implements Repository<Entity> {
     if (!getCapabilities().contains(RepositoryCapability.QUERYABLE)) {
       return Collections.emptySet();
     } else {
-      return EnumSet.allOf(Operator.class);
+      return EnumSet.complementOf(EnumSet.of(Operator.PERMITTED));
     }
   }
 
@@ -1,39 +1,40 @@
 package org.molgenis.data.support;
 
-import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
-import static org.molgenis.data.support.ExpressionEvaluatorFactory.createExpressionEvaluator;
+import static org.molgenis.data.support.ExpressionEvaluatorFactory.getExpressionEvaluators;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
-import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 
-/** Entity decorator that computes computed attributes. */
+/**
+ * Entity decorator that computes computed attributes. Computed values are memoized until an
+ * attribute that they are computed from changes. Changes to referenced entities are not detected.
+ */
 public class EntityWithComputedAttributes implements Entity {
   private final Entity decoratedEntity;
   private final Map<String, ExpressionEvaluator> expressionEvaluators;
+  private final Map<String, Object> computedValues;
 
   public EntityWithComputedAttributes(Entity decoratedEntity) {
     this.decoratedEntity = requireNonNull(decoratedEntity);
-    expressionEvaluators = newHashMap();
-    EntityType entityType = decoratedEntity.getEntityType();
-    for (Attribute attribute : entityType.getAtomicAttributes())
-      if (attribute.getExpression() != null) {
-        expressionEvaluators.put(
-            attribute.getName(), createExpressionEvaluator(attribute, entityType));
-      }
+    expressionEvaluators = getExpressionEvaluators(decoratedEntity.getEntityType());
+    computedValues = newHashMapWithExpectedSize(expressionEvaluators.size());
   }
 
   @Override
   public Object get(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return expressionEvaluator.evaluate(this);
+      return getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.get(attributeName);
   }
@@ -47,7 +48,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Boolean getBoolean(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Boolean) expressionEvaluator.evaluate(this);
+      return (Boolean) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getBoolean(attributeName);
   }
@@ -56,7 +57,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Double getDouble(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Double) expressionEvaluator.evaluate(this);
+      return (Double) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getDouble(attributeName);
   }
@@ -66,7 +67,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Iterable<Entity> getEntities(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Iterable<Entity>) expressionEvaluator.evaluate(this);
+      return (Iterable<Entity>) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getEntities(attributeName);
   }
@@ -76,7 +77,7 @@ public class EntityWithComputedAttributes implements Entity {
   public <E extends Entity> Iterable<E> getEntities(String attributeName, Class<E> clazz) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Iterable<E>) expressionEvaluator.evaluate(this);
+      return (Iterable<E>) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getEntities(attributeName, clazz);
   }
@@ -85,7 +86,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Entity getEntity(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Entity) expressionEvaluator.evaluate(this);
+      return (Entity) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getEntity(attributeName);
   }
@@ -95,7 +96,7 @@ public class EntityWithComputedAttributes implements Entity {
   public <E extends Entity> E getEntity(String attributeName, Class<E> clazz) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (E) expressionEvaluator.evaluate(this);
+      return (E) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getEntity(attributeName, clazz);
   }
@@ -113,7 +114,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Integer getInt(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Integer) expressionEvaluator.evaluate(this);
+      return (Integer) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getInt(attributeName);
   }
@@ -127,7 +128,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Long getLong(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Long) expressionEvaluator.evaluate(this);
+      return (Long) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getLong(attributeName);
   }
@@ -136,7 +137,7 @@ public class EntityWithComputedAttributes implements Entity {
   public String getString(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (String) expressionEvaluator.evaluate(this);
+      return (String) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getString(attributeName);
   }
@@ -145,7 +146,7 @@ public class EntityWithComputedAttributes implements Entity {
   public LocalDate getLocalDate(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (LocalDate) expressionEvaluator.evaluate(this);
+      return (LocalDate) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getLocalDate(attributeName);
   }
@@ -154,7 +155,7 @@ public class EntityWithComputedAttributes implements Entity {
   public Instant getInstant(String attributeName) {
     ExpressionEvaluator expressionEvaluator = expressionEvaluators.get(attributeName);
     if (expressionEvaluator != null) {
-      return (Instant) expressionEvaluator.evaluate(this);
+      return (Instant) getComputedValue(attributeName, expressionEvaluator);
     }
     return decoratedEntity.getInstant(attributeName);
   }
@@ -165,15 +166,50 @@ public class EntityWithComputedAttributes implements Entity {
       throw new MolgenisDataException(format("Attribute [%s] is computed", attributeName));
     }
     decoratedEntity.set(attributeName, value);
+    clearComputedValues(attributeName);
   }
 
   @Override
   public void set(Entity values) {
     decoratedEntity.set(values);
+    computedValues.clear();
   }
 
   @Override
   public void setIdValue(Object id) {
     decoratedEntity.setIdValue(id);
+    computedValues.clear();
+  }
+
+  private Object getComputedValue(String attributeName, ExpressionEvaluator expressionEvaluator) {
+    // no computeIfAbsent: evaluating an expression can retrieve other computed values
+    Object computedValue = computedValues.get(attributeName);
+    if (computedValue == null && !computedValues.containsKey(attributeName)) {
+      computedValue = expressionEvaluator.evaluate(this);
+      computedValues.put(attributeName, computedValue);
+    }
+    return computedValue;
+  }
+
+  /**
+   * Clears the memoized values that are computed from the given attribute, directly or via other
+   * computed attributes.
+   */
+  private void clearComputedValues(String attributeName) {
+    Deque<String> changedAttributeNames = new ArrayDeque<>();
+    changedAttributeNames.add(attributeName);
+    while (!computedValues.isEmpty() && !changedAttributeNames.isEmpty()) {
+      String changedAttributeName = changedAttributeNames.remove();
+      for (Iterator<String> it = computedValues.keySet().iterator(); it.hasNext(); ) {
+        String computedAttributeName = it.next();
+        if (expressionEvaluators
+            .get(computedAttributeName)
+            .getSourceAttributeNames()
+            .contains(changedAttributeName)) {
+          it.remove();
+          changedAttributeNames.add(computedAttributeName);
+        }
+      }
+    }
   }
 }
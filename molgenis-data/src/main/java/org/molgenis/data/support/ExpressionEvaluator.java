@@ -1,7 +1,15 @@
 package org.molgenis.data.support;
 
+import java.util.Set;
 import org.molgenis.data.Entity;
 
 public interface ExpressionEvaluator {
   Object evaluate(Entity entity);
+
+  /**
+   * Returns the names of the entity attributes that the expression references
+   *
+   * @return referenced attribute names
+   */
+  Set<String> getSourceAttributeNames();
 }
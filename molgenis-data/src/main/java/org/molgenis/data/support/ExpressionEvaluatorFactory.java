@@ -1,13 +1,100 @@
 package org.molgenis.data.support;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.util.UnexpectedEnumException;
 
 class ExpressionEvaluatorFactory {
+  private static final int MAX_CACHED_ENTITY_TYPES = 1000;
+
+  /** Expression evaluators per entity type id */
+  private static final Cache<String, ExpressionEvaluators> EXPRESSION_EVALUATORS =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_ENTITY_TYPES).build();
+
   private ExpressionEvaluatorFactory() {}
 
+  /**
+   * Returns the expression evaluators for the computed attributes of an entity type. Evaluators are
+   * created once per entity type and recreated if the attributes of the entity type change.
+   *
+   * @param entityType entity type
+   * @return map of computed attribute names to expression evaluators
+   */
+  static Map<String, ExpressionEvaluator> getExpressionEvaluators(EntityType entityType) {
+    ExpressionEvaluators expressionEvaluators =
+        EXPRESSION_EVALUATORS.getIfPresent(entityType.getId());
+    if (expressionEvaluators != null && expressionEvaluators.isCreatedFor(entityType)) {
+      return expressionEvaluators.evaluators;
+    }
+
+    List<Attribute> attributes = new ArrayList<>();
+    entityType.getAtomicAttributes().forEach(attributes::add);
+    if (attributes.stream().allMatch(attribute -> attribute.getExpression() == null)) {
+      return emptyMap();
+    }
+
+    List<List<Object>> signature = getSignature(attributes);
+    Map<String, ExpressionEvaluator> evaluators;
+    if (expressionEvaluators != null && expressionEvaluators.signature.equals(signature)) {
+      evaluators = expressionEvaluators.evaluators;
+    } else {
+      evaluators = new LinkedHashMap<>();
+      for (Attribute attribute : attributes) {
+        if (attribute.getExpression() != null) {
+          evaluators.put(attribute.getName(), createExpressionEvaluator(attribute, entityType));
+        }
+      }
+      evaluators = unmodifiableMap(evaluators);
+    }
+    EXPRESSION_EVALUATORS.put(
+        entityType.getId(), new ExpressionEvaluators(entityType, signature, evaluators));
+    return evaluators;
+  }
+
+  /**
+   * Returns the attribute properties that expression evaluators depend on, evaluators created for
+   * an entity type with the same signature can be reused. Evaluators of computed reference
+   * attributes also depend on the attributes of the referenced entity type.
+   */
+  private static List<List<Object>> getSignature(List<Attribute> attributes) {
+    List<List<Object>> signature = new ArrayList<>(attributes.size());
+    for (Attribute attribute : attributes) {
+      List<Object> attributeSignature = getAttributeSignature(attribute);
+      if (attribute.getExpression() != null && attribute.hasRefEntity()) {
+        List<List<Object>> refEntitySignature = new ArrayList<>();
+        attribute
+            .getRefEntity()
+            .getAtomicAttributes()
+            .forEach(refAttribute -> refEntitySignature.add(getAttributeSignature(refAttribute)));
+        attributeSignature = new ArrayList<>(attributeSignature);
+        attributeSignature.add(refEntitySignature);
+      }
+      signature.add(attributeSignature);
+    }
+    return signature;
+  }
+
+  private static List<Object> getAttributeSignature(Attribute attribute) {
+    return asList(
+        attribute.getName(),
+        attribute.getDataType(),
+        attribute.isIdAttribute(),
+        attribute.getExpression(),
+        attribute.hasRefEntity() ? attribute.getRefEntity().getId() : null);
+  }
+
   static ExpressionEvaluator createExpressionEvaluator(Attribute attribute, EntityType entityType) {
     ExpressionEvaluator expressionEvaluator;
 
@@ -47,4 +134,25 @@ class ExpressionEvaluatorFactory {
 
     return expressionEvaluator;
   }
+
+  private static class ExpressionEvaluators {
+    /** entity type the evaluators were last returned for, weakly referenced to not retain it */
+    private final WeakReference<EntityType> entityType;
+
+    private final List<List<Object>> signature;
+    private final Map<String, ExpressionEvaluator> evaluators;
+
+    ExpressionEvaluators(
+        EntityType entityType,
+        List<List<Object>> signature,
+        Map<String, ExpressionEvaluator> evaluators) {
+      this.entityType = new WeakReference<>(entityType);
+      this.signature = signature;
+      this.evaluators = evaluators;
+    }
+
+    boolean isCreatedFor(EntityType entityType) {
+      return this.entityType.get() == entityType;
+    }
+  }
 }
@@ -1,5 +1,7 @@
 package org.molgenis.data.support;
 
+import static java.util.stream.Collectors.toSet;
+
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import java.time.Instant;
@@ -7,6 +9,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Range;
 import org.molgenis.data.Sort;
@@ -65,6 +68,13 @@ public class MapOfStringsExpressionEvaluator implements ExpressionEvaluator {
     return result;
   }
 
+  @Override
+  public Set<String> getSourceAttributeNames() {
+    return evaluators.values().stream()
+        .flatMap(evaluator -> evaluator.getSourceAttributeNames().stream())
+        .collect(toSet());
+  }
+
   private static class AttributeWithJsonExpression extends Attribute {
     private final Attribute attr;
     private final String expression;
@@ -1,6 +1,9 @@
 package org.molgenis.data.support;
 
+import static java.util.Collections.singleton;
+
 import com.google.gson.Gson;
+import java.util.Set;
 import org.molgenis.data.DataConverter;
 import org.molgenis.data.Entity;
 import org.molgenis.data.meta.model.Attribute;
@@ -40,4 +43,9 @@ public class StringExpressionEvaluator implements ExpressionEvaluator {
     Object o = entity.get(sourceAttribute.getName());
     return DataConverter.convert(o, targetAttribute);
   }
+
+  @Override
+  public Set<String> getSourceAttributeNames() {
+    return singleton(sourceAttribute.getName());
+  }
 }
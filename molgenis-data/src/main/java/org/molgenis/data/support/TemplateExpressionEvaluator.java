@@ -6,6 +6,7 @@ import static java.util.Collections.singletonMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.Handlebars;
@@ -21,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import org.molgenis.data.Entity;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
@@ -35,7 +37,8 @@ public class TemplateExpressionEvaluator implements ExpressionEvaluator {
   private final Attribute attribute;
   private final EntityType entityType;
   private Template template;
-  private List<List<String>> templateTags;
+  // written after template, evaluators are shared between threads
+  private volatile List<List<String>> templateTags;
 
   TemplateExpressionEvaluator(Attribute attribute, EntityType entityType) {
     this.attribute = requireNonNull(attribute);
@@ -55,6 +58,12 @@ public class TemplateExpressionEvaluator implements ExpressionEvaluator {
     }
   }
 
+  @Override
+  public Set<String> getSourceAttributeNames() {
+    initTemplate();
+    return templateTags.stream().map(tagParts -> tagParts.get(0)).collect(toSet());
+  }
+
   @SuppressWarnings("unchecked")
   private Map<String, Object> getTemplateTagValue(Entity entity) {
     Map<String, Object> tagValues = new HashMap<>();
@@ -143,10 +152,14 @@ public class TemplateExpressionEvaluator implements ExpressionEvaluator {
     return value;
   }
 
-  private synchronized void initTemplate() {
-    if (template == null) {
-      template = getTemplate(attribute);
-      templateTags = getTemplateVariables(template);
+  private void initTemplate() {
+    if (templateTags == null) {
+      synchronized (this) {
+        if (templateTags == null) {
+          template = getTemplate(attribute);
+          templateTags = getTemplateVariables(template);
+        }
+      }
     }
   }
 
@@ -0,0 +1,61 @@
+package org.molgenis.data.transaction;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Value that is loaded on first use and kept until it is invalidated. A value that was loaded while
+ * the snapshot was invalidated is returned to its caller, but not kept.
+ *
+ * <p>Owners that invalidate the snapshot when a transaction changes its source should do so in
+ * {@link TransactionListener#doCleanupAfterCompletion(String)}: caches that are evicted in {@link
+ * TransactionListener#afterCommitTransaction(String)} could otherwise still return the old value to
+ * a concurrent load.
+ *
+ * @param <T> snapshot type
+ */
+public class InvalidatableSnapshot<T> {
+  private final Object loadLock = new Object();
+  /** replaced by a new instance on invalidation, so that loads that started before are discarded */
+  private final AtomicReference<Holder<T>> holder = new AtomicReference<>(new Holder<>(null));
+
+  /**
+   * Returns the snapshot, loads it if it is not available. Loads are not done concurrently.
+   *
+   * @param loader loads the value, a null value is returned but not kept
+   * @return snapshot value or null if the loader returned null
+   */
+  public T get(Supplier<T> loader) {
+    requireNonNull(loader);
+
+    T value = holder.get().value;
+    if (value == null) {
+      synchronized (loadLock) {
+        Holder<T> currentHolder = holder.get();
+        value = currentHolder.value;
+        if (value == null) {
+          value = loader.get();
+          if (value != null) {
+            holder.compareAndSet(currentHolder, new Holder<>(value));
+          }
+        }
+      }
+    }
+    return value;
+  }
+
+  /** Discards the snapshot and any snapshot that is being loaded. */
+  public void invalidate() {
+    holder.set(new Holder<>(null));
+  }
+
+  private static class Holder<T> {
+    private final T value;
+
+    private Holder(T value) {
+      this.value = value;
+    }
+  }
+}
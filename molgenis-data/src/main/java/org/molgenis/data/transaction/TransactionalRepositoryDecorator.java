@@ -83,6 +83,16 @@ public class TransactionalRepositoryDecorator<E extends Entity>
     }
   }
 
+  @SuppressWarnings("ConstantConditions")
+  @Override
+  public long estimateCount(Query<E> q) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      return delegate().estimateCount(q);
+    } else {
+      return createReadonlyTransactionTemplate().execute(status -> delegate().estimateCount(q));
+    }
+  }
+
   @Override
   public Stream<E> findAll(Query<E> q) {
     if (TransactionSynchronizationManager.isSynchronizationActive()) {
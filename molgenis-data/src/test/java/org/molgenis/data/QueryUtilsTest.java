@@ -1,6 +1,7 @@
 package org.molgenis.data;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -9,12 +10,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.QueryRule.Operator.AND;
 import static org.molgenis.data.QueryRule.Operator.DIS_MAX;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.QueryRule.Operator.FUZZY_MATCH;
 import static org.molgenis.data.QueryRule.Operator.GREATER_EQUAL;
 import static org.molgenis.data.QueryRule.Operator.IN;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
+import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.QueryRule.Operator.SHOULD;
 import static org.molgenis.data.QueryUtils.getQueryRuleAttribute;
 
@@ -433,4 +437,66 @@ class QueryUtilsTest extends AbstractMockitoTest {
     assertFalse(QueryUtils.isTaggedType(attribute, FOAF.PERSON));
     verify(tag).equals(RDF.TYPE, FOAF.PERSON);
   }
+
+  @Test
+  void testAddPermissionFilter() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> q = new QueryImpl<>().eq("attr", "value").pageSize(10).offset(20);
+    Query<Entity> permittedQuery = QueryUtils.addPermissionFilter(q, permissionFilter);
+    assertEquals(
+        asList(
+            new QueryRule(q.getRules()),
+            new QueryRule(AND),
+            new QueryRule(PERMITTED, permissionFilter)),
+        permittedQuery.getRules());
+    assertEquals(10, permittedQuery.getPageSize());
+    assertEquals(20, permittedQuery.getOffset());
+  }
+
+  @Test
+  void testAddPermissionFilterNoRules() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> permittedQuery =
+        QueryUtils.addPermissionFilter(new QueryImpl<>(), permissionFilter);
+    assertEquals(
+        singletonList(new QueryRule(PERMITTED, permissionFilter)), permittedQuery.getRules());
+  }
+
+  @Test
+  void testGetPermissionFilters() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> q =
+        QueryUtils.addPermissionFilter(new QueryImpl<>().eq("attr", "value"), permissionFilter);
+    assertEquals(singletonList(permissionFilter), QueryUtils.getPermissionFilters(q));
+  }
+
+  @Test
+  void testRemovePermissionFilters() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> q = new QueryImpl<>().eq("attr", "value").pageSize(10);
+    Query<Entity> permittedQuery = QueryUtils.addPermissionFilter(q, permissionFilter);
+    Query<Entity> unpermittedQuery = QueryUtils.removePermissionFilters(permittedQuery);
+    assertEquals(q.getRules(), unpermittedQuery.getRules());
+    assertEquals(10, unpermittedQuery.getPageSize());
+  }
+
+  @Test
+  void testRemovePermissionFiltersOr() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> q =
+        new QueryImpl<>(
+            asList(
+                new QueryRule("attr", EQUALS, "value"),
+                new QueryRule(OR),
+                new QueryRule(PERMITTED, permissionFilter)));
+    assertThrows(UnsupportedOperationException.class, () -> QueryUtils.removePermissionFilters(q));
+  }
+
+  @Test
+  void testRemovePermissionFiltersNested() {
+    PermissionFilter permissionFilter = PermissionFilter.create("entity-type", 4, emptyList());
+    Query<Entity> q =
+        new QueryImpl<>(new QueryRule(singletonList(new QueryRule(PERMITTED, permissionFilter))));
+    assertThrows(UnsupportedOperationException.class, () -> QueryUtils.removePermissionFilters(q));
+  }
 }
@@ -0,0 +1,92 @@
+package org.molgenis.data.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.STRING;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+
+class EntityWithComputedAttributesTest extends AbstractMockitoTest {
+  private EntityType entityType;
+  private Entity decoratedEntity;
+  private Attribute otherAttr;
+
+  @BeforeEach
+  void setUpBeforeEach(TestInfo testInfo) {
+    Attribute sourceAttr = when(mock(Attribute.class).getName()).thenReturn("source").getMock();
+    when(sourceAttr.getDataType()).thenReturn(STRING);
+    otherAttr = mock(Attribute.class);
+    Attribute computedAttr = when(mock(Attribute.class).getName()).thenReturn("computed").getMock();
+    when(computedAttr.getExpression()).thenReturn("source");
+    when(computedAttr.getDataType()).thenReturn(STRING);
+    Attribute computedComputedAttr =
+        when(mock(Attribute.class).getName()).thenReturn("computedComputed").getMock();
+    when(computedComputedAttr.getExpression()).thenReturn("computed");
+    when(computedComputedAttr.getDataType()).thenReturn(STRING);
+
+    // expression evaluators are cached per entity type id
+    String entityTypeId = testInfo.getDisplayName();
+    entityType = when(mock(EntityType.class).getId()).thenReturn(entityTypeId).getMock();
+    when(entityType.getAtomicAttributes())
+        .thenReturn(asList(sourceAttr, otherAttr, computedAttr, computedComputedAttr));
+    when(entityType.getAttribute("source")).thenReturn(sourceAttr);
+    when(entityType.getAttribute("computed")).thenReturn(computedAttr);
+
+    decoratedEntity = new DynamicEntity(entityType);
+    decoratedEntity.set("source", "value0");
+  }
+
+  @Test
+  void testGetComputedValueMemoized() {
+    Entity entity = new EntityWithComputedAttributes(decoratedEntity);
+    assertEquals("value0", entity.getString("computedComputed"));
+
+    decoratedEntity.set("source", "value1");
+    assertEquals("value0", entity.getString("computed"));
+    assertEquals("value0", entity.getString("computedComputed"));
+  }
+
+  @Test
+  void testSetClearsDependentComputedValues() {
+    Entity entity = new EntityWithComputedAttributes(decoratedEntity);
+    assertEquals("value0", entity.getString("computedComputed"));
+
+    entity.set("source", "value1");
+    assertEquals("value1", entity.getString("computed"));
+    assertEquals("value1", entity.getString("computedComputed"));
+  }
+
+  @Test
+  void testSetKeepsIndependentComputedValues() {
+    when(otherAttr.getDataType()).thenReturn(STRING);
+    when(entityType.getAttribute("other")).thenReturn(otherAttr);
+
+    Entity entity = new EntityWithComputedAttributes(decoratedEntity);
+    assertEquals("value0", entity.getString("computedComputed"));
+
+    decoratedEntity.set("source", "value1");
+    entity.set("other", "otherValue");
+    assertEquals("value0", entity.getString("computed"));
+    assertEquals("value0", entity.getString("computedComputed"));
+  }
+
+  @Test
+  void testExpressionEvaluatorsSharedPerEntityType() {
+    EntityWithComputedAttributes entity0 = new EntityWithComputedAttributes(decoratedEntity);
+    EntityWithComputedAttributes entity1 =
+        new EntityWithComputedAttributes(new DynamicEntity(entityType));
+    assertEquals("value0", entity0.getString("computedComputed"));
+    assertSame(
+        ExpressionEvaluatorFactory.getExpressionEvaluators(entity0.getEntityType()),
+        ExpressionEvaluatorFactory.getExpressionEvaluators(entity1.getEntityType()));
+  }
+}
@@ -1,10 +1,16 @@
 package org.molgenis.data.support;
 
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.molgenis.data.meta.AttributeType.XREF;
+import static org.molgenis.data.support.ExpressionEvaluatorFactory.getExpressionEvaluators;
 
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
@@ -32,4 +38,72 @@ class ExpressionEvaluatorFactoryTest {
         ExpressionEvaluatorFactory.createExpressionEvaluator(attribute, entityType)
             instanceof TemplateExpressionEvaluator);
   }
+
+  @Test
+  void testGetExpressionEvaluatorsReusedForEqualEntityType() {
+    Map<String, ExpressionEvaluator> expressionEvaluators =
+        getExpressionEvaluators(createEntityType("reusedEntityType", "source"));
+    assertSame(
+        expressionEvaluators,
+        getExpressionEvaluators(createEntityType("reusedEntityType", "source")));
+  }
+
+  @Test
+  void testGetExpressionEvaluatorsRecreatedForChangedEntityType() {
+    Map<String, ExpressionEvaluator> expressionEvaluators =
+        getExpressionEvaluators(createEntityType("changedEntityType", "source"));
+    assertNotSame(
+        expressionEvaluators,
+        getExpressionEvaluators(createEntityType("changedEntityType", "otherSource")));
+  }
+
+  @Test
+  void testGetExpressionEvaluatorsRecreatedForChangedRefEntityType() {
+    Map<String, ExpressionEvaluator> expressionEvaluators =
+        getExpressionEvaluators(createEntityTypeWithRefEntity("changedRefEntityType", "label"));
+    assertNotSame(
+        expressionEvaluators,
+        getExpressionEvaluators(
+            createEntityTypeWithRefEntity("changedRefEntityType", "otherLabel")));
+  }
+
+  private static EntityType createEntityTypeWithRefEntity(
+      String entityTypeId, String refLabelAttributeName) {
+    Attribute refIdAttribute = when(mock(Attribute.class).getName()).thenReturn("id").getMock();
+    when(refIdAttribute.getDataType()).thenReturn(STRING);
+    when(refIdAttribute.isIdAttribute()).thenReturn(true);
+    Attribute refLabelAttribute =
+        when(mock(Attribute.class).getName()).thenReturn(refLabelAttributeName).getMock();
+    when(refLabelAttribute.getDataType()).thenReturn(STRING);
+    EntityType refEntityType = when(mock(EntityType.class).getId()).thenReturn("ref").getMock();
+    when(refEntityType.getAtomicAttributes()).thenReturn(asList(refIdAttribute, refLabelAttribute));
+
+    Attribute sourceAttribute =
+        when(mock(Attribute.class).getName()).thenReturn("source").getMock();
+    when(sourceAttribute.getDataType()).thenReturn(STRING);
+    Attribute computedAttribute =
+        when(mock(Attribute.class).getName()).thenReturn("computed").getMock();
+    when(computedAttribute.getDataType()).thenReturn(XREF);
+    when(computedAttribute.getExpression()).thenReturn("source");
+    when(computedAttribute.hasRefEntity()).thenReturn(true);
+    when(computedAttribute.getRefEntity()).thenReturn(refEntityType);
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn(entityTypeId).getMock();
+    when(entityType.getAtomicAttributes()).thenReturn(asList(sourceAttribute, computedAttribute));
+    when(entityType.getAttribute("source")).thenReturn(sourceAttribute);
+    return entityType;
+  }
+
+  private static EntityType createEntityType(String entityTypeId, String sourceAttributeName) {
+    Attribute sourceAttribute =
+        when(mock(Attribute.class).getName()).thenReturn(sourceAttributeName).getMock();
+    when(sourceAttribute.getDataType()).thenReturn(STRING);
+    Attribute computedAttribute =
+        when(mock(Attribute.class).getName()).thenReturn("computed").getMock();
+    when(computedAttribute.getDataType()).thenReturn(STRING);
+    when(computedAttribute.getExpression()).thenReturn(sourceAttributeName);
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn(entityTypeId).getMock();
+    when(entityType.getAtomicAttributes()).thenReturn(asList(sourceAttribute, computedAttribute));
+    when(entityType.getAttribute(sourceAttributeName)).thenReturn(sourceAttribute);
+    return entityType;
+  }
 }
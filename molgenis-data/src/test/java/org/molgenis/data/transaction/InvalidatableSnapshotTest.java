@@ -0,0 +1,56 @@
+package org.molgenis.data.transaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InvalidatableSnapshotTest {
+  private InvalidatableSnapshot<String> invalidatableSnapshot;
+  private AtomicInteger loadCount;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    invalidatableSnapshot = new InvalidatableSnapshot<>();
+    loadCount = new AtomicInteger();
+  }
+
+  @Test
+  void testGet() {
+    assertEquals("value1", invalidatableSnapshot.get(this::load));
+    assertEquals("value1", invalidatableSnapshot.get(this::load));
+    assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  void testGetNull() {
+    assertNull(invalidatableSnapshot.get(() -> null));
+    assertEquals("value1", invalidatableSnapshot.get(this::load));
+  }
+
+  @Test
+  void testInvalidate() {
+    assertEquals("value1", invalidatableSnapshot.get(this::load));
+    invalidatableSnapshot.invalidate();
+    assertEquals("value2", invalidatableSnapshot.get(this::load));
+    assertEquals("value2", invalidatableSnapshot.get(this::load));
+  }
+
+  @Test
+  void testInvalidateWhileLoading() {
+    String value =
+        invalidatableSnapshot.get(
+            () -> {
+              invalidatableSnapshot.invalidate();
+              return load();
+            });
+    assertEquals("value1", value);
+    assertEquals("value2", invalidatableSnapshot.get(this::load));
+  }
+
+  private String load() {
+    return "value" + loadCount.incrementAndGet();
+  }
+}
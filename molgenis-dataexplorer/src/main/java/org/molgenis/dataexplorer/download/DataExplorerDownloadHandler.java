@@ -3,14 +3,20 @@ package org.molgenis.dataexplorer.download;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.util.EntityTypeUtils.isReferenceType;
 
 import com.google.common.collect.Streams;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Query;
 import org.molgenis.data.csv.CsvWriter;
 import org.molgenis.data.excel.ExcelSheetWriter;
 import org.molgenis.data.excel.ExcelWriter;
@@ -28,41 +34,93 @@ public class DataExplorerDownloadHandler {
   private static final long MAX_EXCEL_CELLS = 500000L;
   private final DataService dataService;
   private final AttributeFactory attrMetaFactory;
+  private final long maxExcelCells;
 
   public DataExplorerDownloadHandler(DataService dataService, AttributeFactory attrMetaFactory) {
+    this(dataService, attrMetaFactory, MAX_EXCEL_CELLS);
+  }
+
+  DataExplorerDownloadHandler(
+      DataService dataService, AttributeFactory attrMetaFactory, long maxExcelCells) {
     this.dataService = requireNonNull(dataService);
     this.attrMetaFactory = requireNonNull(attrMetaFactory);
+    this.maxExcelCells = maxExcelCells;
   }
 
+  /**
+   * Writes the requested entities to an .xlsx workbook that keeps a bounded window of rows in
+   * memory. The maximum number of cells is checked while writing, nothing is written to the output
+   * stream if it is exceeded.
+   */
   public void writeToExcel(DataRequest dataRequest, OutputStream outputStream) throws IOException {
     String entityTypeId = dataRequest.getEntityName();
-    List<Attribute> attributes = filterAttributes(dataRequest);
-    checkNumberOfCells(dataRequest, entityTypeId, attributes.size());
+    EntityType entityType = dataService.getEntityType(entityTypeId);
+    List<Attribute> attributes = filterAttributes(entityType, dataRequest);
+    long maxNrRows = getMaxNumberOfRows(attributes.size());
     AttributeWriteMode attributeWriteMode = getAttributeWriteMode(dataRequest.getColNames());
+    EntityWriteMode entityWriteMode = getEntityWriteMode(dataRequest.getEntityValues());
+    Query<Entity> query = createQuery(dataRequest, entityType, attributes, entityWriteMode);
     try (ExcelWriter excelWriter = new ExcelWriter(outputStream, attrMetaFactory, FileFormat.XLSX);
         ExcelSheetWriter excelSheetWriter =
-            excelWriter.createWritable(entityTypeId, attributes, attributeWriteMode)) {
-      excelSheetWriter.setEntityWriteMode(getEntityWriteMode(dataRequest.getEntityValues()));
-      excelSheetWriter.add(dataService.findAll(entityTypeId, dataRequest.getQuery()));
+            excelWriter.createWritable(entityTypeId, attributes, attributeWriteMode);
+        Stream<Entity> entities = dataService.findAll(entityTypeId, query)) {
+      excelSheetWriter.setEntityWriteMode(entityWriteMode);
+      long nrRows = 0;
+      for (Iterator<Entity> it = entities.iterator(); it.hasNext(); ) {
+        if (++nrRows > maxNrRows) {
+          excelWriter.discard();
+          throw new MolgenisDataException(
+              String.format(
+                  "Total number of cells for this download exceeds the maximum of %s for .xlsx downloads, please use .csv instead",
+                  maxExcelCells));
+        }
+        excelSheetWriter.add(it.next());
+      }
     }
   }
 
-  private List<Attribute> filterAttributes(DataRequest dataRequest) {
-    EntityType entityType = dataService.getEntityType(dataRequest.getEntityName());
+  private static List<Attribute> filterAttributes(EntityType entityType, DataRequest dataRequest) {
     final Set<String> attributeNames = newHashSet(dataRequest.getAttributeNames());
     return Streams.stream(entityType.getAtomicAttributes())
         .filter(attribute -> attributeNames.contains(attribute.getName()))
         .collect(toList());
   }
 
-  private void checkNumberOfCells(DataRequest dataRequest, String entityTypeId, int cols) {
-    long rows = dataService.count(entityTypeId, dataRequest.getQuery());
-    if (rows * cols >= MAX_EXCEL_CELLS) {
-      throw new MolgenisDataException(
-          String.format(
-              "Total number of cells for this download exceeds the maximum of %s for .xlsx downloads, please use .csv instead",
-              MAX_EXCEL_CELLS));
+  /** Returns the maximum number of rows for which the number of cells is below the maximum. */
+  private long getMaxNumberOfRows(int cols) {
+    return cols > 0 ? (maxExcelCells - 1) / cols : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the request query with a fetch of the id and requested attributes. For reference
+   * attributes only the id or label of the referenced entities is fetched, which allows the data
+   * service to resolve them in batches.
+   */
+  private static Query<Entity> createQuery(
+      DataRequest dataRequest,
+      EntityType entityType,
+      List<Attribute> attributes,
+      EntityWriteMode entityWriteMode) {
+    Fetch fetch = new Fetch().field(entityType.getIdAttribute().getName());
+    for (Attribute attribute : attributes) {
+      if (isReferenceType(attribute)) {
+        EntityType refEntityType = attribute.getRefEntity();
+        Fetch refFetch = new Fetch().field(refEntityType.getIdAttribute().getName());
+        if (entityWriteMode == EntityWriteMode.ENTITY_LABELS) {
+          Attribute refLabelAttribute = refEntityType.getLabelAttribute();
+          if (refLabelAttribute != null) {
+            refFetch.field(refLabelAttribute.getName());
+          }
+        }
+        fetch.field(attribute.getName(), refFetch);
+      } else {
+        fetch.field(attribute.getName());
+      }
     }
+
+    Query<Entity> query = dataRequest.getQuery();
+    query.setFetch(fetch);
+    return query;
   }
 
   public void writeToCsv(DataRequest request, OutputStream outputStream, char separator)
@@ -73,16 +131,20 @@ public class DataExplorerDownloadHandler {
   public void writeToCsv(
       DataRequest dataRequest, OutputStream outputStream, char separator, boolean noQuotes)
       throws IOException {
+    String entityTypeId = dataRequest.getEntityName();
+    EntityType entityType = dataService.getEntityType(entityTypeId);
+    List<Attribute> attributes = filterAttributes(entityType, dataRequest);
+    EntityWriteMode entityWriteMode = getEntityWriteMode(dataRequest.getEntityValues());
+    Query<Entity> query = createQuery(dataRequest, entityType, attributes, entityWriteMode);
     try (CsvWriter csvWriter = new CsvWriter(outputStream, separator, noQuotes)) {
-      csvWriter.setEntityWriteMode(getEntityWriteMode(dataRequest.getEntityValues()));
-      String entityTypeId = dataRequest.getEntityName();
-      writeCsvHeaders(dataRequest, csvWriter);
-      csvWriter.add(dataService.findAll(entityTypeId, dataRequest.getQuery()));
+      csvWriter.setEntityWriteMode(entityWriteMode);
+      writeCsvHeaders(dataRequest, attributes, csvWriter);
+      csvWriter.add(dataService.findAll(entityTypeId, query));
     }
   }
 
-  private void writeCsvHeaders(DataRequest dataRequest, CsvWriter csvWriter) throws IOException {
-    List<Attribute> attributes = filterAttributes(dataRequest);
+  private void writeCsvHeaders(
+      DataRequest dataRequest, List<Attribute> attributes, CsvWriter csvWriter) throws IOException {
     switch (dataRequest.getColNames()) {
       case ATTRIBUTE_LABELS:
         csvWriter.writeAttributes(attributes);
@@ -10,8 +10,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.molgenis.data.meta.AttributeType.XREF;
 
 import au.com.bytecode.opencsv.CSVReader;
 import com.google.common.collect.ImmutableMap;
@@ -39,6 +43,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
@@ -54,6 +59,10 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
   @Mock private Attribute attribute1;
   @Mock private Attribute attribute2;
   @Mock private Attribute attribute3;
+  @Mock private Attribute idAttribute;
+  @Mock private EntityType refEntityType;
+  @Mock private Attribute refIdAttribute;
+  @Mock private Attribute refLabelAttribute;
   @Mock private QueryImpl<Entity> query;
   @Mock private Entity entity1;
   @Mock private Entity entity2;
@@ -106,37 +115,47 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
       when(refEntity2.getIdValue()).thenReturn("refEntity2Id");
     }
 
+    setUpFetchAttributes(entityValues);
+
     File tmpFile = File.createTempFile("download", ".csv");
     FileOutputStream fos = new FileOutputStream(tmpFile);
     dataExplorerDownloadHandler.writeToCsv(dataRequest, fos, ',');
     assertEquals(readCsv(tmpFile), expected.get(entityTypeId), "entities should get exported");
     assertTrue(tmpFile.delete());
+    verify(query).setFetch(createExpectedFetch(entityValues));
     verifyNoMoreInteractions(refEntity1, refEntity2, attribute1, attribute2);
   }
 
   @Test
   void testWriteToExcelTooManyCells() throws Exception {
-    when(dataService.count("sys_set_thousandgenomes", query)).thenReturn(2500001L);
-    when(dataService.getEntityType("sys_set_thousandgenomes")).thenReturn(entityType);
+    dataExplorerDownloadHandler =
+        new DataExplorerDownloadHandler(dataService, attributeFactory, 4L);
+    String entityTypeId = "sys_set_thousandgenomes";
+    when(dataService.getEntityType(entityTypeId)).thenReturn(entityType);
     when(entityType.getAtomicAttributes()).thenReturn(asList(attribute1, attribute2, attribute3));
     when(attribute1.getName()).thenReturn("attr1");
     when(attribute2.getName()).thenReturn("attr2");
     when(attribute3.getName()).thenReturn("attr3");
+    setUpFetchAttributes(DataRequest.EntityValues.ENTITY_LABELS);
 
     DataRequest dataRequest = new DataRequest();
-    dataRequest.setEntityName("sys_set_thousandgenomes");
+    dataRequest.setEntityName(entityTypeId);
     dataRequest.setQuery(query);
     dataRequest.setAttributeNames(asList("attr1", "attr2"));
     dataRequest.setColNames(DataRequest.ColNames.ATTRIBUTE_NAMES);
     dataRequest.setEntityValues(DataRequest.EntityValues.ENTITY_LABELS);
 
+    when(dataService.findAll(entityTypeId, query)).thenReturn(Stream.of(entity1, entity2));
+
+    OutputStream outputStream = mock(OutputStream.class);
     Exception exception =
         assertThrows(
             MolgenisDataException.class,
-            () -> dataExplorerDownloadHandler.writeToExcel(dataRequest, mock(OutputStream.class)));
+            () -> dataExplorerDownloadHandler.writeToExcel(dataRequest, outputStream));
     assertThat(exception.getMessage())
         .containsPattern(
-            "Total number of cells for this download exceeds the maximum of 500000 for .xlsx downloads, please use .csv instead");
+            "Total number of cells for this download exceeds the maximum of 4 for .xlsx downloads, please use .csv instead");
+    verifyNoInteractions(outputStream);
   }
 
   static Object[][] writeToExcelDataProvider() {
@@ -192,7 +211,6 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
       Map<String, List<List<String>>> expected)
       throws Exception {
     String entityTypeId = "sys_set_thousandgenomes";
-    when(dataService.count(entityTypeId, query)).thenReturn(2L);
     when(dataService.getEntityType(entityTypeId)).thenReturn(entityType);
     when(entityType.getAtomicAttributes()).thenReturn(asList(attribute1, attribute2, attribute3));
     if (colNames == DataRequest.ColNames.ATTRIBUTE_LABELS) {
@@ -224,14 +242,39 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
       when(refEntity2.getIdValue()).thenReturn("refEntity2Id");
     }
 
+    setUpFetchAttributes(entityValues);
+
     File tmpFile = File.createTempFile("download", ".xlsx");
     FileOutputStream fos = new FileOutputStream(tmpFile);
     dataExplorerDownloadHandler.writeToExcel(dataRequest, fos);
     assertEquals(readExcel(tmpFile), expected, "entities should get exported");
     assertTrue(tmpFile.delete());
+    verify(query).setFetch(createExpectedFetch(entityValues));
     verifyNoMoreInteractions(refEntity1, refEntity2, attribute1, attribute2);
   }
 
+  private void setUpFetchAttributes(DataRequest.EntityValues entityValues) {
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(idAttribute.getName()).thenReturn("id");
+    when(attribute1.getDataType()).thenReturn(STRING);
+    when(attribute2.getDataType()).thenReturn(XREF);
+    when(attribute2.getRefEntity()).thenReturn(refEntityType);
+    when(refEntityType.getIdAttribute()).thenReturn(refIdAttribute);
+    when(refIdAttribute.getName()).thenReturn("refId");
+    if (entityValues == DataRequest.EntityValues.ENTITY_LABELS) {
+      when(refEntityType.getLabelAttribute()).thenReturn(refLabelAttribute);
+      when(refLabelAttribute.getName()).thenReturn("refLabel");
+    }
+  }
+
+  private static Fetch createExpectedFetch(DataRequest.EntityValues entityValues) {
+    Fetch refFetch = new Fetch().field("refId");
+    if (entityValues == DataRequest.EntityValues.ENTITY_LABELS) {
+      refFetch.field("refLabel");
+    }
+    return new Fetch().field("id").field("attr1").field("attr2", refFetch);
+  }
+
   private Map<String, List<List<String>>> readExcel(File tmpFile)
       throws IOException, InvalidFormatException {
     Map<String, List<List<String>>> actual = newHashMap();
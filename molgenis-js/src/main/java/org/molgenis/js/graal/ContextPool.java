@@ -0,0 +1,199 @@
+package org.molgenis.js.graal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of script contexts. Creating and preparing a context is expensive, so contexts are
+ * returned to the pool after use and handed out again, most recently used first. At most {@link
+ * #getMaxSize()} contexts are in use at the same time, threads borrowing a context from an
+ * exhausted pool wait until a context is returned or fail after the maximum wait time. Idle
+ * contexts are closed after the maximum idle time, which is checked whenever a context is borrowed
+ * or returned.
+ *
+ * @param <T> context type
+ */
+public class ContextPool<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(ContextPool.class);
+
+  public static final int DEFAULT_MAX_SIZE =
+      Math.max(2, Runtime.getRuntime().availableProcessors());
+  public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofMinutes(5);
+  public static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofSeconds(30);
+
+  private final Supplier<T> contextFactory;
+  private final Consumer<T> contextCloser;
+  private final int maxSize;
+  private final long maxIdleNanos;
+  private final Duration maxWaitTime;
+  private final Semaphore permits;
+  private final Deque<IdleContext<T>> idleContexts;
+  private int activeContexts;
+
+  public ContextPool(Supplier<T> contextFactory, Consumer<T> contextCloser) {
+    this(
+        contextFactory,
+        contextCloser,
+        DEFAULT_MAX_SIZE,
+        DEFAULT_MAX_IDLE_TIME,
+        DEFAULT_MAX_WAIT_TIME);
+  }
+
+  /**
+   * @param contextFactory creates a prepared context
+   * @param contextCloser closes a context that is evicted or invalidated
+   * @param maxSize maximum number of contexts in use at the same time
+   * @param maxIdleTime time after which an idle context is closed
+   * @param maxWaitTime time after which borrowing from an exhausted pool fails
+   */
+  public ContextPool(
+      Supplier<T> contextFactory,
+      Consumer<T> contextCloser,
+      int maxSize,
+      Duration maxIdleTime,
+      Duration maxWaitTime) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be greater than zero");
+    }
+    this.contextFactory = requireNonNull(contextFactory);
+    this.contextCloser = requireNonNull(contextCloser);
+    this.maxSize = maxSize;
+    this.maxIdleNanos = maxIdleTime.toNanos();
+    this.maxWaitTime = requireNonNull(maxWaitTime);
+    this.permits = new Semaphore(maxSize, true);
+    this.idleContexts = new ArrayDeque<>();
+  }
+
+  /**
+   * Borrows a context from the pool, creating one if no idle context is available. The context must
+   * be given back with {@link #release(Object)} or {@link #invalidate(Object)}.
+   *
+   * @return context
+   * @throws IllegalStateException if no context became available within the maximum wait time
+   */
+  public T borrow() {
+    try {
+      if (!permits.tryAcquire(maxWaitTime.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new IllegalStateException(
+            String.format(
+                "No script context available within %s, all %d script contexts are in use",
+                maxWaitTime, maxSize));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a script context", e);
+    }
+
+    IdleContext<T> idleContext;
+    synchronized (this) {
+      closeExpiredContexts();
+      idleContext = idleContexts.pollFirst();
+      activeContexts++;
+    }
+    if (idleContext != null) {
+      return idleContext.context;
+    }
+
+    try {
+      return contextFactory.get();
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        activeContexts--;
+      }
+      permits.release();
+      throw e;
+    }
+  }
+
+  /** Returns a borrowed context to the pool so that it can be reused. */
+  public void release(T context) {
+    synchronized (this) {
+      idleContexts.addFirst(new IdleContext<>(context, System.nanoTime()));
+      activeContexts--;
+      closeExpiredContexts();
+    }
+    permits.release();
+  }
+
+  /** Closes a borrowed context that must not be reused, e.g. because its evaluation failed. */
+  public void invalidate(T context) {
+    try {
+      closeContext(context);
+    } finally {
+      synchronized (this) {
+        activeContexts--;
+      }
+      permits.release();
+    }
+  }
+
+  /** Closes all idle contexts. */
+  public void close() {
+    List<T> contexts = new ArrayList<>();
+    synchronized (this) {
+      idleContexts.forEach(idleContext -> contexts.add(idleContext.context));
+      idleContexts.clear();
+    }
+    contexts.forEach(this::closeContext);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int getActiveSize() {
+    return activeContexts;
+  }
+
+  public synchronized int getIdleSize() {
+    return idleContexts.size();
+  }
+
+  /** Returns the number of threads waiting for a context. */
+  public int getPendingSize() {
+    return permits.getQueueLength();
+  }
+
+  private void closeExpiredContexts() {
+    long now = System.nanoTime();
+    for (Iterator<IdleContext<T>> it = idleContexts.descendingIterator(); it.hasNext(); ) {
+      IdleContext<T> idleContext = it.next();
+      if (now - idleContext.idleSince < maxIdleNanos) {
+        // contexts are ordered from most to least recently used
+        break;
+      }
+      it.remove();
+      closeContext(idleContext.context);
+    }
+  }
+
+  private void closeContext(T context) {
+    try {
+      contextCloser.accept(context);
+    } catch (RuntimeException e) {
+      LOG.warn("Error closing script context", e);
+    }
+  }
+
+  private static class IdleContext<T> {
+    private final T context;
+    private final long idleSince;
+
+    IdleContext(T context, long idleSince) {
+      this.context = context;
+      this.idleSince = idleSince;
+    }
+  }
+}
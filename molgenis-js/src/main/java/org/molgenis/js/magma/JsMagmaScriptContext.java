@@ -5,9 +5,13 @@ import static java.util.stream.Collectors.toList;
 import static org.molgenis.js.graal.GraalScriptEngine.convertGraalValue;
 import static org.molgenis.util.ResourceUtils.getString;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
@@ -27,8 +31,38 @@ public class JsMagmaScriptContext {
   private static final String BIND = "bind";
   public static final String KEY_ID_VALUE = "_idValue";
   private static final List<Source> SOURCES;
+  private static final Source ENTITY_BINDER_SOURCE =
+      Source.create(
+          "js",
+          "(function (dollar) {\n"
+              + "  var entity\n"
+              + "  return {\n"
+              + "    $: function () { return dollar.apply(entity, arguments) },\n"
+              + "    bind: function (value) { entity = value }\n"
+              + "  }\n"
+              + "})");
+  /**
+   * Takes a snapshot of the global object and the objects reachable from it and returns a function
+   * that restores the global object and checks the reachable objects, see the script for details.
+   */
+  private static final Source GLOBAL_SCOPE_GUARD_SOURCE = getSource("/js/global-scope-guard.js");
+
+  private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+  /**
+   * Expression sources shared by all contexts. Contexts are created with the same engine, so an
+   * expression source is parsed once and the parsed code is reused by each context evaluating it.
+   */
+  private static final LoadingCache<String, Source> EXPRESSION_SOURCES =
+      Caffeine.newBuilder()
+          .maximumSize(MAX_CACHED_EXPRESSIONS)
+          .build(expression -> Source.create("js", expression));
 
   private final Context context;
+  private Value entityBinder;
+  private Value globalScopeRestorer;
+  /** names of the global bindings after preparing the context */
+  private Set<String> globalBindingNames;
 
   static {
     SOURCES =
@@ -56,6 +90,13 @@ public class JsMagmaScriptContext {
     Value magmaScript = bindings.getMember(KEY_MAGMA_SCRIPT);
     bindings.putMember(KEY_NEW_VALUE, magmaScript.getMember(KEY_NEW_VALUE));
     bindings.putMember(KEY_IS_NULL, magmaScript.getMember(KEY_IS_NULL));
+
+    Value binder = context.eval(ENTITY_BINDER_SOURCE).execute(magmaScript.getMember(KEY_DOLLAR));
+    bindings.putMember(KEY_DOLLAR, binder.getMember(KEY_DOLLAR));
+    entityBinder = binder.getMember(BIND);
+
+    globalScopeRestorer = context.eval(GLOBAL_SCOPE_GUARD_SOURCE);
+    globalBindingNames = new HashSet<>(bindings.getMemberKeys());
   }
 
   public Object tryEval(String expression) {
@@ -67,7 +108,7 @@ public class JsMagmaScriptContext {
   }
 
   public Object eval(String expression) {
-    return convertGraalValue(context.eval("js", expression));
+    return convertGraalValue(context.eval(EXPRESSION_SOURCES.get(expression)));
   }
 
   /**
@@ -76,11 +117,21 @@ public class JsMagmaScriptContext {
    * @param entity the entity to bind to the magmascript $ function
    */
   public void bind(Entity entity) {
-    var bindings = context.getBindings("js");
-    Value magmaScript = bindings.getMember(KEY_MAGMA_SCRIPT);
-    Value dollarFunction = magmaScript.getMember(KEY_DOLLAR);
-    Value boundDollar = dollarFunction.invokeMember(BIND, new EntityProxy(entity));
-    bindings.putMember(KEY_DOLLAR, boundDollar);
+    entityBinder.executeVoid(new EntityProxy(entity));
+  }
+
+  /**
+   * Unbinds the bound entity and restores the global scope to the state after preparing this
+   * context, so that an evaluation does not see the entity or the globals of a previous one.
+   *
+   * @return false if the global scope could not be restored, e.g. because an expression declared a
+   *     global variable or changed a built-in prototype or a MagmaScript helper, in which case the
+   *     context must not be reused
+   */
+  boolean reset() {
+    entityBinder.executeVoid((Object) null);
+    boolean clean = globalScopeRestorer.execute().asBoolean();
+    return clean && globalBindingNames.containsAll(context.getBindings("js").getMemberKeys());
   }
 
   void enter() {
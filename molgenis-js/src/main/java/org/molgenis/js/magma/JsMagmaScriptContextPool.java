@@ -0,0 +1,62 @@
+package org.molgenis.js.magma;
+
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.PreDestroy;
+import org.molgenis.js.graal.ContextPool;
+import org.molgenis.js.graal.GraalScriptEngine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of prepared {@link JsMagmaScriptContext}s, so that the MagmaScript library is evaluated once
+ * per pooled context instead of once per {@link WithJsMagmaScriptContext} call.
+ *
+ * <p>Released contexts are reset before they are returned to the pool. Contexts of which the global
+ * scope cannot be reset are closed instead.
+ */
+@Component
+public class JsMagmaScriptContextPool {
+  private final GraalScriptEngine engine;
+  private final ContextPool<JsMagmaScriptContext> contextPool;
+
+  public JsMagmaScriptContextPool(GraalScriptEngine engine) {
+    this.engine = requireNonNull(engine);
+    contextPool = new ContextPool<>(this::create, JsMagmaScriptContext::close);
+  }
+
+  JsMagmaScriptContext borrow() {
+    return contextPool.borrow();
+  }
+
+  void release(JsMagmaScriptContext context) {
+    boolean reset;
+    try {
+      reset = context.reset();
+    } catch (RuntimeException e) {
+      reset = false;
+    }
+    if (reset) {
+      contextPool.release(context);
+    } else {
+      contextPool.invalidate(context);
+    }
+  }
+
+  void invalidate(JsMagmaScriptContext context) {
+    contextPool.invalidate(context);
+  }
+
+  /** Creates a context that is not part of the pool and must be closed by the caller. */
+  JsMagmaScriptContext create() {
+    return new JsMagmaScriptContext(engine.createContext());
+  }
+
+  public ContextPool<JsMagmaScriptContext> getContextPool() {
+    return contextPool;
+  }
+
+  @PreDestroy
+  void closeContextPool() {
+    contextPool.close();
+  }
+}
@@ -0,0 +1,38 @@
+package org.molgenis.js.magma;
+
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.annotation.PostConstruct;
+import org.molgenis.js.graal.ContextPool;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JsMagmaScriptContextPoolMetrics {
+  private final JsMagmaScriptContextPool jsMagmaScriptContextPool;
+  private final MeterRegistry meterRegistry;
+
+  JsMagmaScriptContextPoolMetrics(
+      JsMagmaScriptContextPool jsMagmaScriptContextPool, MeterRegistry meterRegistry) {
+    this.jsMagmaScriptContextPool = requireNonNull(jsMagmaScriptContextPool);
+    this.meterRegistry = requireNonNull(meterRegistry);
+  }
+
+  @PostConstruct
+  public void bindToRegistry() {
+    ContextPool<?> contextPool = jsMagmaScriptContextPool.getContextPool();
+    Gauge.builder("magmascript.contexts.active", contextPool, ContextPool::getActiveSize)
+        .description("The number of script contexts in use")
+        .register(meterRegistry);
+    Gauge.builder("magmascript.contexts.idle", contextPool, ContextPool::getIdleSize)
+        .description("The number of idle script contexts")
+        .register(meterRegistry);
+    Gauge.builder("magmascript.contexts.pending", contextPool, ContextPool::getPendingSize)
+        .description("The number of threads waiting for a script context")
+        .register(meterRegistry);
+    Gauge.builder("magmascript.contexts.max", contextPool, ContextPool::getMaxSize)
+        .description("The maximum number of script contexts in use")
+        .register(meterRegistry);
+  }
+}
@@ -8,7 +8,6 @@ import static org.molgenis.js.magma.JsMagmaScriptContextHolder.setContext;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.molgenis.js.graal.GraalScriptEngine;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.stereotype.Component;
 
@@ -18,38 +17,68 @@ import org.springframework.stereotype.Component;
 @Component
 public class WithJsMagmaScriptAspect {
 
-  private final GraalScriptEngine engine;
+  private final JsMagmaScriptContextPool contextPool;
 
-  public WithJsMagmaScriptAspect(GraalScriptEngine engine) {
-    this.engine = requireNonNull(engine);
+  public WithJsMagmaScriptAspect(JsMagmaScriptContextPool contextPool) {
+    this.contextPool = requireNonNull(contextPool);
   }
 
   @SuppressWarnings("java:S00112") // generic exceptions should never be thrown
-  @Around("@annotation(org.molgenis.js.magma.WithJsMagmaScriptContext)")
-  public Object aroundAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
-    return withJsMagmaScriptContext(engine, joinPoint::proceed);
+  @Around("@annotation(withJsMagmaScriptContext)")
+  public Object aroundAdvice(
+      ProceedingJoinPoint joinPoint, WithJsMagmaScriptContext withJsMagmaScriptContext)
+      throws Throwable {
+    return withJsMagmaScriptContext(
+        contextPool, withJsMagmaScriptContext.pooled(), joinPoint::proceed);
   }
 
   public interface RunnableWithJsContext<T, U extends Throwable> {
     T run() throws U;
   }
 
+  /**
+   * Runs with the context of the current thread, or with a context borrowed from the pool if the
+   * current thread has no context. A borrowed context is returned to the pool afterwards, or closed
+   * if running failed.
+   */
   public static <T, U extends Throwable> T withJsMagmaScriptContext(
-      GraalScriptEngine engine, RunnableWithJsContext<T, U> runnable) throws U {
+      JsMagmaScriptContextPool contextPool, RunnableWithJsContext<T, U> runnable) throws U {
+    return withJsMagmaScriptContext(contextPool, true, runnable);
+  }
+
+  /**
+   * Runs with the context of the current thread. If the current thread has no context, runs with a
+   * context borrowed from the pool or, if not pooled, with a new context that is closed afterwards.
+   */
+  public static <T, U extends Throwable> T withJsMagmaScriptContext(
+      JsMagmaScriptContextPool contextPool, boolean pooled, RunnableWithJsContext<T, U> runnable)
+      throws U {
     JsMagmaScriptContext context = getContext();
-    boolean createAndClose = context == null;
-    if (createAndClose) {
-      context = new JsMagmaScriptContext(engine.createContext());
+    boolean ownContext = context == null;
+    if (ownContext) {
+      context = pooled ? contextPool.borrow() : contextPool.create();
       setContext(context);
     }
+    boolean succeeded = false;
     try {
       context.enter();
-      return runnable.run();
+      try {
+        T result = runnable.run();
+        succeeded = true;
+        return result;
+      } finally {
+        context.leave();
+      }
     } finally {
-      context.leave();
-      if (createAndClose) {
-        context.close();
+      if (ownContext) {
         clearContext();
+        if (!pooled) {
+          context.close();
+        } else if (succeeded) {
+          contextPool.release(context);
+        } else {
+          contextPool.invalidate(context);
+        }
       }
     }
   }
@@ -11,4 +11,11 @@ import java.lang.annotation.Target;
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
-public @interface WithJsMagmaScriptContext {}
+public @interface WithJsMagmaScriptContext {
+  /**
+   * Whether the context is borrowed from the {@link JsMagmaScriptContextPool}. Long running jobs
+   * and methods that write data should set this to false, so that they run with their own context
+   * instead of keeping a pooled context from other callers while they wait for I/O or locks.
+   */
+  boolean pooled() default true;
+}
@@ -0,0 +1,127 @@
+/**
+ * Takes a snapshot of the global object and of the objects that are reachable from it, such as the
+ * built-in objects, their prototypes and the MagmaScript helpers. Returns a function that restores
+ * the global object to the snapshot and checks that the reachable objects are unchanged.
+ *
+ * The function returns false if globals could not be removed or restored, or if a reachable object
+ * was changed, e.g. by assigning Array.prototype.x or Math.round.
+ */
+(function (global) {
+  var getOwnPropertyDescriptor = Object.getOwnPropertyDescriptor
+  var defineProperty = Object.defineProperty
+  var getPrototypeOf = Object.getPrototypeOf
+  var isExtensible = Object.isExtensible
+  var ownKeys = Reflect.ownKeys
+  var is = Object.is
+  var hasOwnProperty = Function.prototype.call.bind(Object.prototype.hasOwnProperty)
+  var visited = new Set()
+  var hasVisited = Function.prototype.call.bind(Set.prototype.has)
+  var visit = Function.prototype.call.bind(Set.prototype.add)
+
+  function isObject (value) {
+    return (typeof value === 'object' && value !== null) || typeof value === 'function'
+  }
+
+  function snapshotDescriptors (object, keys) {
+    var descriptors = []
+    for (var i = 0; i < keys.length; i++) {
+      descriptors[i] = getOwnPropertyDescriptor(object, keys[i])
+    }
+    return descriptors
+  }
+
+  function isSameDescriptor (descriptor, current) {
+    return current !== undefined && is(current.value, descriptor.value)
+      && current.get === descriptor.get && current.set === descriptor.set
+      && current.writable === descriptor.writable && current.enumerable === descriptor.enumerable
+      && current.configurable === descriptor.configurable
+  }
+
+  var globalKeys = ownKeys(global)
+  var globalDescriptors = {}
+  for (var i = 0; i < globalKeys.length; i++) {
+    globalDescriptors[globalKeys[i]] = getOwnPropertyDescriptor(global, globalKeys[i])
+  }
+
+  var snapshots = []
+  var pending = [global]
+  visit(visited, global)
+  while (pending.length > 0) {
+    var object = pending.pop()
+    var keys = ownKeys(object)
+    var descriptors = snapshotDescriptors(object, keys)
+    if (object !== global) {
+      snapshots[snapshots.length] = {
+        object: object,
+        prototype: getPrototypeOf(object),
+        extensible: isExtensible(object),
+        keys: keys,
+        descriptors: descriptors
+      }
+    }
+    var references = [getPrototypeOf(object)]
+    for (var j = 0; j < descriptors.length; j++) {
+      references[references.length] = descriptors[j].value
+      references[references.length] = descriptors[j].get
+      references[references.length] = descriptors[j].set
+    }
+    for (var k = 0; k < references.length; k++) {
+      if (isObject(references[k]) && !hasVisited(visited, references[k])) {
+        visit(visited, references[k])
+        pending[pending.length] = references[k]
+      }
+    }
+  }
+  visited = null
+
+  function restoreGlobals () {
+    var clean = true
+    var currentKeys = ownKeys(global)
+    for (var i = 0; i < currentKeys.length; i++) {
+      if (!hasOwnProperty(globalDescriptors, currentKeys[i])) {
+        clean = delete global[currentKeys[i]] && clean
+      }
+    }
+    for (var j = 0; j < globalKeys.length; j++) {
+      var descriptor = globalDescriptors[globalKeys[j]]
+      if (!isSameDescriptor(descriptor, getOwnPropertyDescriptor(global, globalKeys[j]))) {
+        try {
+          defineProperty(global, globalKeys[j], descriptor)
+        } catch (e) {
+          clean = false
+        }
+      }
+    }
+    return clean
+  }
+
+  function isUnchanged (snapshot) {
+    var object = snapshot.object
+    if (getPrototypeOf(object) !== snapshot.prototype || isExtensible(object) !== snapshot.extensible) {
+      return false
+    }
+    var keys = ownKeys(object)
+    if (keys.length !== snapshot.keys.length) {
+      return false
+    }
+    for (var i = 0; i < keys.length; i++) {
+      if (keys[i] !== snapshot.keys[i]
+          || !isSameDescriptor(snapshot.descriptors[i], getOwnPropertyDescriptor(object, keys[i]))) {
+        return false
+      }
+    }
+    return true
+  }
+
+  return function () {
+    if (!restoreGlobals()) {
+      return false
+    }
+    for (var i = 0; i < snapshots.length; i++) {
+      if (!isUnchanged(snapshots[i])) {
+        return false
+      }
+    }
+    return true
+  }
+})(globalThis)
@@ -0,0 +1,102 @@
+package org.molgenis.js.graal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.molgenis.test.AbstractMockitoTest;
+
+class ContextPoolTest extends AbstractMockitoTest {
+  private Consumer<Object> contextCloser;
+
+  @SuppressWarnings("unchecked")
+  @BeforeEach
+  void setUpBeforeEach() {
+    contextCloser = mock(Consumer.class);
+  }
+
+  @Test
+  void testBorrowReusesReleasedContext() {
+    ContextPool<Object> contextPool =
+        new ContextPool<>(
+            Object::new, contextCloser, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    Object context = contextPool.borrow();
+    assertEquals(1, contextPool.getActiveSize());
+    contextPool.release(context);
+    assertEquals(0, contextPool.getActiveSize());
+    assertEquals(1, contextPool.getIdleSize());
+
+    assertSame(context, contextPool.borrow());
+    verifyNoInteractions(contextCloser);
+  }
+
+  @Test
+  void testInvalidate() {
+    ContextPool<Object> contextPool =
+        new ContextPool<>(
+            Object::new, contextCloser, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    Object context = contextPool.borrow();
+    contextPool.invalidate(context);
+    verify(contextCloser).accept(context);
+    assertEquals(0, contextPool.getActiveSize());
+    assertEquals(0, contextPool.getIdleSize());
+
+    assertNotSame(context, contextPool.borrow());
+  }
+
+  @Test
+  void testIdleContextsClosed() {
+    ContextPool<Object> contextPool =
+        new ContextPool<>(Object::new, contextCloser, 2, Duration.ZERO, Duration.ofMinutes(1));
+    Object context = contextPool.borrow();
+    contextPool.release(context);
+    verify(contextCloser).accept(context);
+    assertEquals(0, contextPool.getIdleSize());
+  }
+
+  @Test
+  void testBorrowWaitsForReleasedContext() throws Exception {
+    ContextPool<Object> contextPool =
+        new ContextPool<>(
+            Object::new, contextCloser, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    Object context = contextPool.borrow();
+
+    CompletableFuture<Object> borrowedContext = CompletableFuture.supplyAsync(contextPool::borrow);
+    while (contextPool.getPendingSize() == 0) {
+      Thread.sleep(1);
+    }
+    contextPool.release(context);
+    assertSame(context, borrowedContext.get());
+  }
+
+  @Test
+  void testBorrowTimesOut() {
+    ContextPool<Object> contextPool =
+        new ContextPool<>(Object::new, contextCloser, 1, Duration.ofMinutes(1), Duration.ZERO);
+    contextPool.borrow();
+
+    Exception exception = assertThrows(IllegalStateException.class, contextPool::borrow);
+    assertEquals(
+        "No script context available within PT0S, all 1 script contexts are in use",
+        exception.getMessage());
+    assertEquals(1, contextPool.getActiveSize());
+  }
+
+  @Test
+  void testMaxSizeInvalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new ContextPool<>(
+                Object::new, contextCloser, 0, Duration.ofMinutes(1), Duration.ofMinutes(1)));
+  }
+}
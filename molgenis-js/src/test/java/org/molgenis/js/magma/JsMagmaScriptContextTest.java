@@ -42,6 +42,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.molgenis.data.Entity;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
@@ -186,6 +187,19 @@ class JsMagmaScriptContextTest {
     assertEquals(valueOf(lastUpdate.toEpochMilli()), result);
   }
 
+  @Test
+  void testEvalRebind() {
+    Entity person0 = new DynamicEntity(personWeightEntityType);
+    person0.set("weight", 80);
+    Entity person1 = new DynamicEntity(personWeightEntityType);
+    person1.set("weight", 60);
+
+    magmaContext.bind(person0);
+    assertEquals(80, magmaContext.eval("$('weight').value()"));
+    magmaContext.bind(person1);
+    assertEquals(60, magmaContext.eval("$('weight').value()"));
+  }
+
   @Test
   void testValueForBool() {
     Entity person = new DynamicEntity(personSmokingEntityType);
@@ -872,4 +886,54 @@ class JsMagmaScriptContextTest {
     magmaContext.bind(person0);
     assertThrows(PolyglotException.class, () -> magmaContext.eval("piet"));
   }
+
+  @Test
+  void testReset() {
+    JsMagmaScriptContext context =
+        new JsMagmaScriptContext(new GraalScriptEngine().createContext());
+    try {
+      Entity person = new DynamicEntity(personWeightEntityType);
+      person.set("weight", 82);
+      context.bind(person);
+      context.eval("$('weight').unit('kg').toUnit('lb').value()");
+      context.eval("piet = 3; Math = null; delete newValue");
+
+      assertTrue(context.reset());
+      assertEquals("undefined", context.eval("typeof piet"));
+      assertEquals("function", context.eval("typeof Math.round"));
+      assertEquals("function", context.eval("typeof newValue"));
+      assertThrows(PolyglotException.class, () -> context.eval("$('weight').value()"));
+
+      context.bind(person);
+      assertEquals(82, context.eval("$('weight').value()"));
+    } finally {
+      context.close();
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "const piet = 3",
+        "let piet = 3",
+        "var piet = 3",
+        "Array.prototype.piet = 3",
+        "Math.round = function () { return 3 }",
+        "Object.defineProperty(Object.prototype, 'piet', { get: function () { return 3 } })",
+        "MagmaScript.prototype.value = function () { return 3 }",
+        "MagmaScript.newValue = null",
+        "$.piet = 3",
+        "Object.setPrototypeOf(Math, null)",
+        "Object.freeze(JSON)"
+      })
+  void testResetDeclaration(String expression) {
+    JsMagmaScriptContext context =
+        new JsMagmaScriptContext(new GraalScriptEngine().createContext());
+    try {
+      context.eval(expression);
+      assertFalse(context.reset());
+    } finally {
+      context.close();
+    }
+  }
 }
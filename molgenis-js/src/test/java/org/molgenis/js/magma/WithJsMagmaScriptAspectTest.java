@@ -13,10 +13,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
 @ContextConfiguration(
-    classes = {WithJsMagmaScriptAspect.class, WithJsMagmaScriptAspectTest.Config.class})
+    classes = {
+      WithJsMagmaScriptAspect.class,
+      JsMagmaScriptContextPool.class,
+      WithJsMagmaScriptAspectTest.Config.class
+    })
 class WithJsMagmaScriptAspectTest extends AbstractMockitoSpringContextTests {
 
   @Autowired TestBean testBean;
+  @Autowired JsMagmaScriptContextPool contextPool;
 
   @BeforeEach
   void beforeEach() {
@@ -35,6 +40,33 @@ class WithJsMagmaScriptAspectTest extends AbstractMockitoSpringContextTests {
     assertNull(JsMagmaScriptContextHolder.getContext());
   }
 
+  @Test
+  void testGlobalsDoNotLeakBetweenCalls() {
+    assertEquals("Hello", testBean.execute("greeting = 'Hello'", "greeting"));
+    assertEquals("undefined", testBean.execute("'Hello'", "typeof greeting"));
+    assertEquals(1, contextPool.getContextPool().getIdleSize());
+  }
+
+  @Test
+  void testLexicalDeclarationsDoNotLeakBetweenCalls() {
+    assertEquals("Hello", testBean.execute("let greeting = 'Hello'", "greeting"));
+    assertEquals("Hi", testBean.execute("let greeting = 'Hi'", "greeting"));
+  }
+
+  @Test
+  void testPrototypeChangesDoNotLeakBetweenCalls() {
+    assertEquals(3, testBean.execute("Array.prototype.piet = 3", "[].piet"));
+    assertEquals("undefined", testBean.execute("'Hello'", "typeof [].piet"));
+    assertEquals(0, contextPool.getContextPool().getActiveSize());
+  }
+
+  @Test
+  void testUnpooled() {
+    assertEquals("Hello", testBean.executeUnpooled("const a = 'Hello'", "a"));
+    assertNull(JsMagmaScriptContextHolder.getContext());
+    assertEquals(0, contextPool.getContextPool().getActiveSize());
+  }
+
   @Test
   void testContextIsEntered() {
     assertDoesNotThrow(testBean::checkThatContextIsEntered);
@@ -61,6 +93,13 @@ class WithJsMagmaScriptAspectTest extends AbstractMockitoSpringContextTests {
       return context.eval(expression2);
     }
 
+    @WithJsMagmaScriptContext(pooled = false)
+    public Object executeUnpooled(String expression1, String expression2) {
+      JsMagmaScriptContext context = JsMagmaScriptContextHolder.getContext();
+      context.eval(expression1);
+      return context.eval(expression2);
+    }
+
     @WithJsMagmaScriptContext
     public void checkThatContextIsEntered() {
       JsMagmaScriptContext context = JsMagmaScriptContextHolder.getContext();
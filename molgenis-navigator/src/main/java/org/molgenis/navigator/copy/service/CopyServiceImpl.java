@@ -51,7 +51,7 @@ public class CopyServiceImpl implements CopyService {
   @SuppressWarnings(
       "java:S1193") // Exception types should not be tested using "instanceof" in catch blocks
   @Transactional(isolation = Isolation.SERIALIZABLE)
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   public Void copy(
       List<ResourceIdentifier> resources,
       @Nullable @CheckForNull String targetPackageId,
@@ -3,6 +3,8 @@ package org.molgenis.security.acl;
 import static java.util.Objects.requireNonNull;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import javax.sql.DataSource;
 import org.molgenis.data.config.DataSourceConfig;
 import org.molgenis.data.security.permission.EntityHelper;
@@ -10,6 +12,7 @@ import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.security.NoOpAuditLogger;
 import org.molgenis.security.core.utils.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Bean;
@@ -43,19 +46,28 @@ public class AclConfig {
   private final RoleHierarchy roleHierarchy;
   private final ConversionService conversionService;
   private final EntityHelper entityHelper;
+  private final MeterRegistry meterRegistry;
   @Autowired JdbcTemplate jdbcTemplate;
 
+  @Value("${acl.cache.max.size:10000}")
+  private long aclCacheMaxSize;
+
+  @Value("${acl.lookup.batch.size:500}")
+  private int aclLookupBatchSize;
+
   public AclConfig(
       DataSource dataSource,
       TransactionManager transactionManager,
       RoleHierarchy roleHierarchy,
       ConversionService conversionService,
-      EntityHelper entityHelper) {
+      EntityHelper entityHelper,
+      MeterRegistry meterRegistry) {
     this.dataSource = requireNonNull(dataSource);
     this.transactionManager = requireNonNull(transactionManager);
     this.roleHierarchy = requireNonNull(roleHierarchy);
     this.conversionService = requireNonNull(conversionService);
     this.entityHelper = requireNonNull(entityHelper);
+    this.meterRegistry = requireNonNull(meterRegistry);
   }
 
   @Bean
@@ -89,7 +101,10 @@ public class AclConfig {
 
   @Bean
   public AclCache aclCache() {
-    Cache cache = new CaffeineCache("aclCache", Caffeine.newBuilder().maximumSize(10000).build());
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache =
+        Caffeine.newBuilder().maximumSize(aclCacheMaxSize).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, caffeineCache, "aclCache");
+    Cache cache = new CaffeineCache("aclCache", caffeineCache);
     return new SpringCacheBasedAclCache(
         cache, permissionGrantingStrategy(), aclAuthorizationStrategy());
   }
@@ -123,6 +138,7 @@ public class AclConfig {
         new BasicLookupStrategy(
             dataSource, aclCache(), aclAuthorizationStrategy(), permissionGrantingStrategy());
     basicLookupStrategy.setAclClassIdSupported(true);
+    basicLookupStrategy.setBatchSize(aclLookupBatchSize);
     basicLookupStrategy.setConversionService(conversionService);
     return basicLookupStrategy;
   }
@@ -696,7 +696,7 @@ public class MappingServiceController extends PluginController {
     return VIEW_ATTRIBUTE_MAPPING;
   }
 
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   @PostMapping("/attributemappingfeedback")
   public String attributeMappingFeedback(
       @RequestParam() String mappingProjectId,
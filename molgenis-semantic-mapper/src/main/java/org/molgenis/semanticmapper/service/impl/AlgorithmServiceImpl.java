@@ -129,7 +129,7 @@ public class AlgorithmServiceImpl implements AlgorithmService {
   }
 
   @Override
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   public Iterable<AlgorithmEvaluation> applyAlgorithm(
       Attribute targetAttribute, String algorithm, Iterable<Entity> sourceEntities) {
     var context = JsMagmaScriptContextHolder.getContext();
@@ -154,7 +154,7 @@ public class MappingServiceImpl implements MappingService {
 
   @Override
   @Transactional
-  @WithJsMagmaScriptContext
+  @WithJsMagmaScriptContext(pooled = false)
   public long applyMappings(
       String mappingProjectId,
       String entityTypeId,
@@ -48,6 +48,7 @@ import org.molgenis.data.security.config.UserTestConfig;
 import org.molgenis.data.semantic.Relation;
 import org.molgenis.data.support.DynamicEntity;
 import org.molgenis.js.graal.GraalScriptEngine;
+import org.molgenis.js.magma.JsMagmaScriptContextPool;
 import org.molgenis.js.magma.WithJsMagmaScriptAspect;
 import org.molgenis.ontology.core.model.OntologyTerm;
 import org.molgenis.ontology.core.service.OntologyService;
@@ -89,7 +90,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
   @Autowired private AlgorithmTemplateService algorithmTemplateService;
 
-  @Autowired private GraalScriptEngine engine;
+  @Autowired private JsMagmaScriptContextPool contextPool;
 
   @BeforeEach
   void setUpBeforeMethod() {
@@ -222,7 +223,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
     attributeMapping.setAlgorithm(algorithm);
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(source);
               return algorithmService.apply(attributeMapping);
@@ -247,7 +248,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
         "Math.floor((new Date(2015, 2, 12) - $('dob').value())/(365.2425 * 24 * 60 * 60 * 1000))");
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(source);
               return algorithmService.apply(attributeMapping);
@@ -291,7 +292,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
     Entity result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(source);
               return (Entity) algorithmService.apply(attributeMapping);
@@ -324,7 +325,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(sourceEntity);
               return algorithmService.apply(attributeMapping);
@@ -362,7 +363,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(sourceEntity);
               return algorithmService.apply(attributeMapping);
@@ -423,7 +424,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(source);
               return algorithmService.apply(attributeMapping);
@@ -471,7 +472,7 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
 
     Object result =
         withJsMagmaScriptContext(
-            engine,
+            contextPool,
             () -> {
               algorithmService.bind(source);
               return algorithmService.apply(attributeMapping);
@@ -594,7 +595,12 @@ class AlgorithmServiceImplIT extends AbstractMolgenisSpringTest {
   }
 
   @Configuration
-  @Import({UserTestConfig.class, WithJsMagmaScriptAspect.class, GraalScriptEngine.class})
+  @Import({
+    UserTestConfig.class,
+    WithJsMagmaScriptAspect.class,
+    JsMagmaScriptContextPool.class,
+    GraalScriptEngine.class
+  })
   static class Config {
     @Autowired private DataService dataService;
 
@@ -1,30 +1,52 @@
 package org.molgenis.settings;
 
+import static java.util.Collections.disjoint;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 import static org.molgenis.data.meta.model.Package.PACKAGE_SEPARATOR;
 import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
 import static org.molgenis.settings.SettingsPackage.PACKAGE_SETTINGS;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.InvalidatableSnapshot;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.util.EntityTypeUtils;
 import org.molgenis.data.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Base class for application and plugin settings entities. Settings are read/written from/to data
  * source. TODO: Bring this class up to date with 2.0, see http://www.molgenis.org/ticket/4787
+ *
+ * <p>Once snapshots are enabled by {@link SettingsSnapshotInvalidator} settings are read from a
+ * snapshot of the settings entity that is replaced after committing a transaction that changed it.
+ * Transactions that changed the settings read them from the data source.
  */
 public abstract class DefaultSettingsEntity implements Entity {
   private final String entityId;
   private final String entityTypeId;
   private DataService dataService;
 
+  /** null until snapshots are enabled */
+  private volatile TransactionInformation transactionInformation;
+
+  private final InvalidatableSnapshot<Entity> snapshot;
+  /** ids of the entity types of which changes invalidate the snapshot */
+  private volatile Set<String> snapshotEntityTypeIds;
+
   public DefaultSettingsEntity(String entityId) {
     this.entityId = requireNonNull(entityId);
     this.entityTypeId = PACKAGE_SETTINGS + PACKAGE_SEPARATOR + entityId;
+    this.snapshot = new InvalidatableSnapshot<>();
+    this.snapshotEntityTypeIds = Set.of(entityTypeId, ENTITY_TYPE_META_DATA, ATTRIBUTE_META_DATA);
   }
 
   @Autowired
@@ -118,14 +140,14 @@ public abstract class DefaultSettingsEntity implements Entity {
 
   @Override
   public void set(String attributeName, Object value) {
-    Entity entity = getEntity();
+    Entity entity = readEntity();
     entity.set(attributeName, value);
     updateEntity(entity);
   }
 
   @Override
   public void set(Entity values) {
-    Entity entity = getEntity();
+    Entity entity = readEntity();
     entity.set(values);
     updateEntity(entity);
   }
@@ -147,7 +169,55 @@ public abstract class DefaultSettingsEntity implements Entity {
     return getEntity().toString();
   }
 
+  /**
+   * Enables reading settings from a snapshot, the caller is responsible for invalidating the
+   * snapshot after changes are committed.
+   */
+  void enableSnapshot(TransactionInformation transactionInformation) {
+    this.transactionInformation = requireNonNull(transactionInformation);
+  }
+
+  /** Returns whether changes to the given entity types invalidate the snapshot. */
+  boolean isSnapshotAffected(Set<String> entityTypeIds) {
+    return !disjoint(entityTypeIds, snapshotEntityTypeIds);
+  }
+
+  void invalidateSnapshot() {
+    snapshot.invalidate();
+  }
+
   private Entity getEntity() {
+    TransactionInformation currentTransactionInformation = transactionInformation;
+    if (currentTransactionInformation == null
+        || isSnapshotAffected(currentTransactionInformation.getDirtyRepositories())) {
+      return readEntity();
+    }
+
+    return snapshot.get(this::readSnapshot);
+  }
+
+  private Entity readSnapshot() {
+    Entity entity = readEntity();
+    if (entity != null) {
+      snapshotEntityTypeIds = getSnapshotEntityTypeIds(entity);
+    }
+    return entity;
+  }
+
+  private Set<String> getSnapshotEntityTypeIds(Entity entity) {
+    Set<String> entityTypeIds = new HashSet<>();
+    entityTypeIds.add(entityTypeId);
+    entityTypeIds.add(ENTITY_TYPE_META_DATA);
+    entityTypeIds.add(ATTRIBUTE_META_DATA);
+    for (Attribute attribute : entity.getEntityType().getAtomicAttributes()) {
+      if (EntityTypeUtils.isReferenceType(attribute)) {
+        entityTypeIds.add(attribute.getRefEntity().getId());
+      }
+    }
+    return entityTypeIds;
+  }
+
+  private Entity readEntity() {
     return runAsSystem(() -> dataService.findOneById(entityTypeId, entityId));
   }
 
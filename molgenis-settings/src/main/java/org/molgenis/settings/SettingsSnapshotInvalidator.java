@@ -0,0 +1,61 @@
+package org.molgenis.settings;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionListener;
+import org.molgenis.data.transaction.TransactionManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enables settings snapshots and invalidates the snapshots of settings that were changed by a
+ * committed transaction once that transaction is cleaned up.
+ *
+ * @see DefaultSettingsEntity
+ * @see org.molgenis.data.transaction.InvalidatableSnapshot
+ */
+@Component
+class SettingsSnapshotInvalidator implements TransactionListener {
+  private final TransactionInformation transactionInformation;
+  private final List<DefaultSettingsEntity> settingsEntities;
+  /** maps transaction id to settings that were changed by the committed transaction */
+  private final Map<String, List<DefaultSettingsEntity>> changedSettingsEntities;
+
+  SettingsSnapshotInvalidator(
+      TransactionManager transactionManager,
+      TransactionInformation transactionInformation,
+      List<DefaultSettingsEntity> settingsEntities) {
+    this.transactionInformation = requireNonNull(transactionInformation);
+    this.settingsEntities = requireNonNull(settingsEntities);
+    this.changedSettingsEntities = new ConcurrentHashMap<>();
+
+    requireNonNull(transactionManager).addTransactionListener(this);
+    settingsEntities.forEach(
+        settingsEntity -> settingsEntity.enableSnapshot(transactionInformation));
+  }
+
+  @Override
+  public void afterCommitTransaction(String transactionId) {
+    Set<String> dirtyRepositories = transactionInformation.getDirtyRepositories();
+    List<DefaultSettingsEntity> changedSettings =
+        settingsEntities.stream()
+            .filter(settingsEntity -> settingsEntity.isSnapshotAffected(dirtyRepositories))
+            .collect(toList());
+    if (!changedSettings.isEmpty()) {
+      changedSettingsEntities.put(transactionId, changedSettings);
+    }
+  }
+
+  @Override
+  public void doCleanupAfterCompletion(String transactionId) {
+    List<DefaultSettingsEntity> changedSettings = changedSettingsEntities.remove(transactionId);
+    if (changedSettings != null) {
+      changedSettings.forEach(DefaultSettingsEntity::invalidateSnapshot);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.molgenis.settings;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionManager;
+import org.molgenis.test.AbstractMockitoTest;
+
+class SettingsSnapshotInvalidatorTest extends AbstractMockitoTest {
+  private static final String ENTITY_TYPE_ID = "sys_set_test";
+
+  @Mock private TransactionManager transactionManager;
+  @Mock private TransactionInformation transactionInformation;
+  @Mock private DataService dataService;
+  private TestSettings testSettings;
+  private SettingsSnapshotInvalidator settingsSnapshotInvalidator;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    testSettings = new TestSettings();
+    testSettings.setDataService(dataService);
+    settingsSnapshotInvalidator =
+        new SettingsSnapshotInvalidator(
+            transactionManager, transactionInformation, singletonList(testSettings));
+  }
+
+  @Test
+  void testAddTransactionListener() {
+    verify(transactionManager).addTransactionListener(settingsSnapshotInvalidator);
+  }
+
+  @Test
+  void testSnapshot() {
+    createEntity("value");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+
+    assertEquals("value", testSettings.getString("attr"));
+    assertEquals("value", testSettings.getString("attr"));
+    verify(dataService).findOneById(ENTITY_TYPE_ID, "test");
+  }
+
+  @Test
+  void testSnapshotDirtyInTransaction() {
+    Entity entity = mock(Entity.class);
+    when(entity.getString("attr")).thenReturn("value");
+    when(dataService.findOneById(ENTITY_TYPE_ID, "test")).thenReturn(entity);
+    Set<String> dirtyRepositories = singleton(ENTITY_TYPE_ID);
+    when(transactionInformation.getDirtyRepositories()).thenReturn(dirtyRepositories);
+
+    assertEquals("value", testSettings.getString("attr"));
+    assertEquals("value", testSettings.getString("attr"));
+    verify(dataService, times(2)).findOneById(ENTITY_TYPE_ID, "test");
+  }
+
+  @Test
+  void testSnapshotInvalidatedAfterCommit() {
+    Entity entity = createEntity("value");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    assertEquals("value", testSettings.getString("attr"));
+
+    Set<String> dirtyRepositories = singleton(ENTITY_TYPE_ID);
+    when(transactionInformation.getDirtyRepositories()).thenReturn(dirtyRepositories);
+    settingsSnapshotInvalidator.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    settingsSnapshotInvalidator.doCleanupAfterCompletion("transactionId");
+
+    when(entity.getString("attr")).thenReturn("updatedValue");
+    assertEquals("updatedValue", testSettings.getString("attr"));
+    verify(dataService, times(2)).findOneById(ENTITY_TYPE_ID, "test");
+  }
+
+  @Test
+  void testSnapshotNotInvalidatedAfterOtherCommit() {
+    createEntity("value");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    assertEquals("value", testSettings.getString("attr"));
+
+    Set<String> dirtyRepositories = singleton("otherEntityTypeId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(dirtyRepositories);
+    settingsSnapshotInvalidator.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    settingsSnapshotInvalidator.doCleanupAfterCompletion("transactionId");
+
+    assertEquals("value", testSettings.getString("attr"));
+    verify(dataService).findOneById(ENTITY_TYPE_ID, "test");
+  }
+
+  private Entity createEntity(String value) {
+    EntityType entityType = mock(EntityType.class);
+    Entity entity = mock(Entity.class);
+    when(entity.getEntityType()).thenReturn(entityType);
+    when(entity.getString("attr")).thenReturn(value);
+    when(dataService.findOneById(ENTITY_TYPE_ID, "test")).thenReturn(entity);
+    return entity;
+  }
+
+  private static class TestSettings extends DefaultSettingsEntity {
+    TestSettings() {
+      super("test");
+    }
+  }
+}
@@ -11,11 +11,21 @@ import java.util.Set;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
 
+/**
+ * Map that can contain a huge amount of data by storing it on disk. Beyond {@link #THRESHOLD}
+ * entries the map spills to a {@link LongHugeMap}, {@link IntHugeMap} or {@link StringHugeMap} if
+ * all keys are of the same such type, otherwise to a MapDB map.
+ *
+ * @param <K>
+ * @param <V>
+ */
 public class HugeMap<K, V> implements Map<K, V>, Closeable {
   protected static final int THRESHOLD = 10000;
   private DB mapDB;
   private Map<K, V> map;
   private final Map<K, V> hashMap = new HashMap<>();
+  /** Key class of the specialized map that the map spilled to, null otherwise */
+  private Class<?> keyClass;
 
   @Override
   public int size() {
@@ -50,17 +60,15 @@ public class HugeMap<K, V> implements Map<K, V>, Closeable {
   @Override
   public V put(K key, V value) {
     if (hashMap.size() == THRESHOLD) {
-      File dbFile;
-      try {
-        dbFile = File.createTempFile("mapdb", "temp");
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
-      }
-
-      mapDB = DBMaker.newFileDB(dbFile).deleteFilesAfterClose().transactionDisable().make();
-      map = mapDB.createHashMap("map").make();
+      keyClass = HugeSet.getElementClass(hashMap.keySet(), key);
+      map = keyClass != null ? createSpecializedMap(keyClass) : createMapDbMap();
       map.putAll(hashMap);
       hashMap.clear();
+    } else if (keyClass != null && (key == null || key.getClass() != keyClass)) {
+      Map<K, V> mapDbMap = createMapDbMap();
+      mapDbMap.putAll(map);
+      closeSpecializedMap();
+      map = mapDbMap;
     }
 
     if (map == null) {
@@ -70,6 +78,40 @@ public class HugeMap<K, V> implements Map<K, V>, Closeable {
     return map.put(key, value);
   }
 
+  @SuppressWarnings("unchecked")
+  private Map<K, V> createSpecializedMap(Class<?> specializedKeyClass) {
+    if (specializedKeyClass == Long.class) {
+      return (Map<K, V>) new LongHugeMap<V>();
+    } else if (specializedKeyClass == Integer.class) {
+      return (Map<K, V>) new IntHugeMap<V>();
+    } else {
+      return (Map<K, V>) new StringHugeMap<V>();
+    }
+  }
+
+  private Map<K, V> createMapDbMap() {
+    File dbFile;
+    try {
+      dbFile = File.createTempFile("mapdb", "temp");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    mapDB = DBMaker.newFileDB(dbFile).deleteFilesAfterClose().transactionDisable().make();
+    return mapDB.createHashMap("map").make();
+  }
+
+  private void closeSpecializedMap() {
+    if (keyClass != null) {
+      try {
+        ((Closeable) map).close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      keyClass = null;
+    }
+  }
+
   @Override
   public V remove(Object key) {
     if (map == null) return hashMap.remove(key);
@@ -110,6 +152,7 @@ public class HugeMap<K, V> implements Map<K, V>, Closeable {
 
   @Override
   public void close() {
+    closeSpecializedMap();
     if (mapDB != null) {
       mapDB.close();
     }
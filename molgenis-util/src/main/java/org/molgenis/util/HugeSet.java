@@ -12,7 +12,9 @@ import org.mapdb.DB;
 import org.mapdb.DBMaker;
 
 /**
- * Set that can contain a huge amount of data by storing it on disk.
+ * Set that can contain a huge amount of data by storing it on disk. Beyond {@link #THRESHOLD}
+ * elements the set spills to a {@link LongHugeSet}, {@link IntHugeSet} or {@link StringHugeSet} if
+ * all elements are of the same such type, otherwise to a MapDB set.
  *
  * @param <E>
  */
@@ -21,6 +23,8 @@ public class HugeSet<E> implements Set<E>, Closeable {
   private DB mapDB;
   private Set<E> set;
   private final HashSet<E> hashSet = new HashSet<>();
+  /** Element class of the specialized set that the set spilled to, null otherwise */
+  private Class<?> elementClass;
 
   @Override
   public int size() {
@@ -61,17 +65,15 @@ public class HugeSet<E> implements Set<E>, Closeable {
   @Override
   public boolean add(E obj) {
     if (hashSet.size() == THRESHOLD) {
-      File dbFile;
-      try {
-        dbFile = File.createTempFile("mapdb", "temp");
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
-      }
-
-      mapDB = DBMaker.newFileDB(dbFile).deleteFilesAfterClose().transactionDisable().make();
-      set = mapDB.createHashSet("set").make();
+      elementClass = getElementClass(hashSet, obj);
+      set = elementClass != null ? createSpecializedSet(elementClass) : createMapDbSet();
       set.addAll(hashSet);
       hashSet.clear();
+    } else if (elementClass != null && (obj == null || obj.getClass() != elementClass)) {
+      Set<E> mapDbSet = createMapDbSet();
+      mapDbSet.addAll(set);
+      closeSpecializedSet();
+      set = mapDbSet;
     }
 
     if (set == null) {
@@ -81,6 +83,62 @@ public class HugeSet<E> implements Set<E>, Closeable {
     return set.add(obj);
   }
 
+  @SuppressWarnings("unchecked")
+  private Set<E> createSpecializedSet(Class<?> specializedElementClass) {
+    if (specializedElementClass == Long.class) {
+      return (Set<E>) new LongHugeSet();
+    } else if (specializedElementClass == Integer.class) {
+      return (Set<E>) new IntHugeSet();
+    } else {
+      return (Set<E>) new StringHugeSet();
+    }
+  }
+
+  private Set<E> createMapDbSet() {
+    File dbFile;
+    try {
+      dbFile = File.createTempFile("mapdb", "temp");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    mapDB = DBMaker.newFileDB(dbFile).deleteFilesAfterClose().transactionDisable().make();
+    return mapDB.createHashSet("set").make();
+  }
+
+  private void closeSpecializedSet() {
+    if (elementClass != null) {
+      try {
+        ((Closeable) set).close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      elementClass = null;
+    }
+  }
+
+  /**
+   * Returns the class of the elements if all elements are of the same class that has a specialized
+   * huge set, null otherwise.
+   */
+  static Class<?> getElementClass(Collection<?> elements, Object element) {
+    if (element == null) {
+      return null;
+    }
+    Class<?> elementClass = element.getClass();
+    if (elementClass != Long.class
+        && elementClass != Integer.class
+        && elementClass != String.class) {
+      return null;
+    }
+    for (Object otherElement : elements) {
+      if (otherElement == null || otherElement.getClass() != elementClass) {
+        return null;
+      }
+    }
+    return elementClass;
+  }
+
   @Override
   public boolean remove(Object o) {
     if (set == null) return hashSet.remove(o);
@@ -122,6 +180,7 @@ public class HugeSet<E> implements Set<E>, Closeable {
 
   @Override
   public void close() {
+    closeSpecializedSet();
     if (mapDB != null) {
       mapDB.close();
     }
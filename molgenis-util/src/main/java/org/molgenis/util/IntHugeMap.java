@@ -0,0 +1,48 @@
+package org.molgenis.util;
+
+/**
+ * Map with int keys that can contain a huge amount of entries by storing them in memory-mapped
+ * temporary files. Close the map to delete its files.
+ *
+ * @param <V> value type, values must be {@link java.io.Serializable}
+ */
+public class IntHugeMap<V> extends IntegralHugeMap<Integer, V> {
+  public IntHugeMap() {
+    this(true);
+  }
+
+  IntHugeMap(boolean storeValues) {
+    super(2, storeValues);
+  }
+
+  public boolean containsKey(int key) {
+    return hasKey(key);
+  }
+
+  public V get(int key) {
+    return getValue(key);
+  }
+
+  public V put(int key, V value) {
+    return putValue(key, value);
+  }
+
+  public V remove(int key) {
+    return removeKey(key);
+  }
+
+  @Override
+  boolean isKey(Object key) {
+    return key instanceof Integer;
+  }
+
+  @Override
+  long toLong(Object key) {
+    return (Integer) key;
+  }
+
+  @Override
+  Integer key(long slot) {
+    return (int) slot;
+  }
+}
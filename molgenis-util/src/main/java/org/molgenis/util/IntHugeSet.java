@@ -0,0 +1,65 @@
+package org.molgenis.util;
+
+import java.io.Closeable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Set of ints that can contain a huge amount of elements by storing them in memory-mapped temporary
+ * files. Close the set to delete its files.
+ */
+public class IntHugeSet extends AbstractSet<Integer> implements Closeable {
+  private final IntHugeMap<Void> map = new IntHugeMap<>(false);
+
+  public boolean add(int value) {
+    return map.addKey(value);
+  }
+
+  public boolean contains(int value) {
+    return map.hasKey(value);
+  }
+
+  public boolean remove(int value) {
+    return map.removeKeyIfPresent(value);
+  }
+
+  @Override
+  public boolean add(Integer value) {
+    return add(value.intValue());
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return o instanceof Integer && remove(((Integer) o).intValue());
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public void close() {
+    map.close();
+  }
+}
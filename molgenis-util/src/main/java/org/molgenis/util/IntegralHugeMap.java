@@ -0,0 +1,174 @@
+package org.molgenis.util;
+
+import com.google.common.collect.Iterators;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link MappedHashTable} with integral keys that are stored as is in the slots. Key zero marks an
+ * empty slot, so its presence and value are kept in fields.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+abstract class IntegralHugeMap<K, V> extends MappedHashTable<K, V> {
+  private boolean containsZeroKey;
+  private long zeroKeyValueRef;
+
+  IntegralHugeMap(int slotShift, boolean storeValues) {
+    super(slotShift, storeValues);
+  }
+
+  abstract boolean isKey(Object key);
+
+  abstract long toLong(Object key);
+
+  @Override
+  long hash(long slot) {
+    return mix(slot);
+  }
+
+  /** Returns the index of the key or, if absent, minus one minus the index to insert it at. */
+  private long find(long key) {
+    long index = index(mix(key));
+    long slot;
+    while ((slot = slot(index)) != 0) {
+      if (slot == key) {
+        return index;
+      }
+      index = nextIndex(index);
+    }
+    return -index - 1;
+  }
+
+  final boolean hasKey(long key) {
+    return key == 0 ? containsZeroKey : find(key) >= 0;
+  }
+
+  final V getValue(long key) {
+    if (key == 0) {
+      return containsZeroKey ? readValue(zeroKeyValueRef) : null;
+    }
+    long index = find(key);
+    return index >= 0 ? value(index) : null;
+  }
+
+  final V putValue(long key, V value) {
+    if (key == 0) {
+      V previousValue = getValue(key);
+      containsZeroKey = true;
+      zeroKeyValueRef = writeValue(value);
+      return previousValue;
+    }
+    long index = find(key);
+    if (index >= 0) {
+      return replaceValue(index, value);
+    }
+    insert(-index - 1, key, value);
+    return null;
+  }
+
+  /** Adds the key without a value and returns whether it was absent. */
+  final boolean addKey(long key) {
+    if (key == 0) {
+      boolean added = !containsZeroKey;
+      containsZeroKey = true;
+      return added;
+    }
+    long index = find(key);
+    if (index >= 0) {
+      return false;
+    }
+    insert(-index - 1, key, null);
+    return true;
+  }
+
+  final V removeKey(long key) {
+    if (key == 0) {
+      V previousValue = getValue(key);
+      containsZeroKey = false;
+      zeroKeyValueRef = 0;
+      return previousValue;
+    }
+    long index = find(key);
+    return index >= 0 ? removeAt(index) : null;
+  }
+
+  /** Removes the key and returns whether it was present. */
+  final boolean removeKeyIfPresent(long key) {
+    if (!hasKey(key)) {
+      return false;
+    }
+    removeKey(key);
+    return true;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return isKey(key) && hasKey(toLong(key));
+  }
+
+  @Override
+  public V get(Object key) {
+    return isKey(key) ? getValue(toLong(key)) : null;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    return putValue(toLong(key), value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return isKey(key) ? removeKey(toLong(key)) : null;
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(getTableSize() + (containsZeroKey ? 1 : 0), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return !containsZeroKey && getTableSize() == 0;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    containsZeroKey = false;
+    zeroKeyValueRef = 0;
+  }
+
+  @Override
+  Iterator<Entry<K, V>> entryIterator() {
+    Iterator<Entry<K, V>> tableIterator = super.entryIterator();
+    if (!containsZeroKey) {
+      return tableIterator;
+    }
+    Iterator<Entry<K, V>> zeroKeyIterator =
+        new Iterator<Entry<K, V>>() {
+          private boolean hasNext = true;
+
+          @Override
+          public boolean hasNext() {
+            return hasNext;
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (!hasNext) {
+              throw new NoSuchElementException();
+            }
+            hasNext = false;
+            return new SimpleImmutableEntry<>(key(0), getValue(0));
+          }
+
+          @Override
+          public void remove() {
+            removeKey(0);
+          }
+        };
+    return Iterators.concat(zeroKeyIterator, tableIterator);
+  }
+}
@@ -0,0 +1,48 @@
+package org.molgenis.util;
+
+/**
+ * Map with long keys that can contain a huge amount of entries by storing them in memory-mapped
+ * temporary files. Close the map to delete its files.
+ *
+ * @param <V> value type, values must be {@link java.io.Serializable}
+ */
+public class LongHugeMap<V> extends IntegralHugeMap<Long, V> {
+  public LongHugeMap() {
+    this(true);
+  }
+
+  LongHugeMap(boolean storeValues) {
+    super(3, storeValues);
+  }
+
+  public boolean containsKey(long key) {
+    return hasKey(key);
+  }
+
+  public V get(long key) {
+    return getValue(key);
+  }
+
+  public V put(long key, V value) {
+    return putValue(key, value);
+  }
+
+  public V remove(long key) {
+    return removeKey(key);
+  }
+
+  @Override
+  boolean isKey(Object key) {
+    return key instanceof Long;
+  }
+
+  @Override
+  long toLong(Object key) {
+    return (Long) key;
+  }
+
+  @Override
+  Long key(long slot) {
+    return slot;
+  }
+}
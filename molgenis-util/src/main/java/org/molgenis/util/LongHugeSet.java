@@ -0,0 +1,65 @@
+package org.molgenis.util;
+
+import java.io.Closeable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Set of longs that can contain a huge amount of elements by storing them in memory-mapped
+ * temporary files. Close the set to delete its files.
+ */
+public class LongHugeSet extends AbstractSet<Long> implements Closeable {
+  private final LongHugeMap<Void> map = new LongHugeMap<>(false);
+
+  public boolean add(long value) {
+    return map.addKey(value);
+  }
+
+  public boolean contains(long value) {
+    return map.hasKey(value);
+  }
+
+  public boolean remove(long value) {
+    return map.removeKeyIfPresent(value);
+  }
+
+  @Override
+  public boolean add(Long value) {
+    return add(value.longValue());
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return o instanceof Long && remove(((Long) o).longValue());
+  }
+
+  @Override
+  public Iterator<Long> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public void close() {
+    map.close();
+  }
+}
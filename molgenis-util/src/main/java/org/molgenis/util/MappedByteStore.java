@@ -0,0 +1,131 @@
+package org.molgenis.util;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Bytes stored in a temporary file that is memory-mapped page by page when it is accessed. Pages
+ * that were never written read as zeros. Ints and longs must be stored at positions aligned to
+ * their size so that they never cross a page. Closing the store truncates and deletes the file.
+ *
+ * <p>Like direct buffers, mapped buffers are only unmapped when they are garbage collected. The
+ * file is therefore truncated on close, which releases its disk space and the physical pages that
+ * back the mappings right away, so that a closed store only holds virtual address space until its
+ * buffers are collected.
+ */
+final class MappedByteStore implements Closeable {
+  private final int pageSize;
+  private final int pageShift;
+  private final Path file;
+  private final FileChannel fileChannel;
+  private MappedByteBuffer[] pages;
+
+  /** @param pageShift base 2 logarithm of the page size in bytes, at least 3 */
+  MappedByteStore(int pageShift) {
+    if (pageShift < 3 || pageShift > 30) {
+      throw new IllegalArgumentException("pageShift must be between 3 and 30");
+    }
+    this.pageShift = pageShift;
+    this.pageSize = 1 << pageShift;
+    this.pages = new MappedByteBuffer[0];
+    try {
+      this.file = Files.createTempFile("huge", ".tmp");
+      this.fileChannel = FileChannel.open(file, READ, WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  int getInt(long position) {
+    return page(position).getInt(offset(position));
+  }
+
+  void putInt(long position, int value) {
+    page(position).putInt(offset(position), value);
+  }
+
+  long getLong(long position) {
+    return page(position).getLong(offset(position));
+  }
+
+  void putLong(long position, long value) {
+    page(position).putLong(offset(position), value);
+  }
+
+  void get(long position, byte[] bytes) {
+    int done = 0;
+    while (done < bytes.length) {
+      int offset = offset(position + done);
+      int length = Math.min(bytes.length - done, pageSize - offset);
+      ByteBuffer page = page(position + done).duplicate();
+      page.position(offset);
+      page.get(bytes, done, length);
+      done += length;
+    }
+  }
+
+  void put(long position, byte[] bytes) {
+    int done = 0;
+    while (done < bytes.length) {
+      int offset = offset(position + done);
+      int length = Math.min(bytes.length - done, pageSize - offset);
+      ByteBuffer page = page(position + done).duplicate();
+      page.position(offset);
+      page.put(bytes, done, length);
+      done += length;
+    }
+  }
+
+  private int offset(long position) {
+    return (int) position & (pageSize - 1);
+  }
+
+  private MappedByteBuffer page(long position) {
+    int index = (int) (position >>> pageShift);
+    if (index >= pages.length) {
+      pages = Arrays.copyOf(pages, Math.max(index + 1, pages.length * 2));
+    }
+    MappedByteBuffer page = pages[index];
+    if (page == null) {
+      try {
+        page = fileChannel.map(READ_WRITE, (long) index << pageShift, pageSize);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      pages[index] = page;
+    }
+    return page;
+  }
+
+  /**
+   * Truncates, closes and deletes the file. The mapped pages are no longer backed by the file
+   * afterwards, the store must not be used after it is closed.
+   */
+  @Override
+  public void close() {
+    pages = new MappedByteBuffer[0];
+    try {
+      fileChannel.truncate(0);
+    } catch (IOException e) {
+      // a mapped file cannot be truncated on some operating systems, it is deleted below instead
+    }
+    try {
+      fileChannel.close();
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // a mapped file cannot be deleted on some operating systems
+      file.toFile().deleteOnExit();
+    }
+  }
+}
@@ -0,0 +1,375 @@
+package org.molgenis.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open addressing hash table with linear probing of which the slots are stored in memory-mapped
+ * temporary files instead of on the heap, so that entries have no per-object overhead and the table
+ * can grow beyond the heap size. A slot is four or eight bytes and holds an encoded key, zero marks
+ * an empty slot. Values are encoded in a record log and referenced from a parallel table of slots.
+ * Replacing a value appends the new value to the log.
+ *
+ * <p>Closing the table deletes its files. Tables are not thread-safe.
+ *
+ * @param <K> key type
+ * @param <V> value type, {@link String}, {@link Integer}, {@link Long} values are stored compactly
+ *     and other values must be {@link java.io.Serializable}
+ */
+abstract class MappedHashTable<K, V> extends AbstractMap<K, V> implements Closeable {
+  private static final long INITIAL_CAPACITY = 1L << 10;
+  private static final double LOAD_FACTOR = 0.6;
+  private static final int MAX_PAGE_SHIFT = 24;
+
+  private static final byte STRING_VALUE = 0;
+  private static final byte INTEGER_VALUE = 1;
+  private static final byte LONG_VALUE = 2;
+  private static final byte SERIALIZED_VALUE = 3;
+
+  private final int slotShift;
+  private final boolean storeValues;
+  private MappedByteStore slots;
+  private MappedByteStore valueRefs;
+  private MappedRecordLog valueLog;
+  private long capacity;
+  private long threshold;
+  private long tableSize;
+
+  /**
+   * @param slotShift base 2 logarithm of the slot size in bytes, 2 or 3
+   * @param storeValues whether values are stored or the table is used as a set
+   */
+  MappedHashTable(int slotShift, boolean storeValues) {
+    if (slotShift != 2 && slotShift != 3) {
+      throw new IllegalArgumentException("slotShift must be 2 or 3");
+    }
+    this.slotShift = slotShift;
+    this.storeValues = storeValues;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /** Returns the spread hash of the key stored in the slot. */
+  abstract long hash(long slot);
+
+  /** Returns the key stored in the slot. */
+  abstract K key(long slot);
+
+  /** Returns the number of keys stored in the slots. */
+  final long getTableSize() {
+    return tableSize;
+  }
+
+  /** Returns the index of the first slot to probe for a key with the given spread hash. */
+  final long index(long hash) {
+    return hash & (capacity - 1);
+  }
+
+  final long nextIndex(long index) {
+    return (index + 1) & (capacity - 1);
+  }
+
+  final long slot(long index) {
+    return getSlot(slots, index);
+  }
+
+  /** Stores a key and its value in the empty slot with the given index. */
+  final void insert(long index, long slot, V value) {
+    setSlot(slots, index, slot);
+    if (storeValues) {
+      valueRefs.putLong(index << 3, writeValue(value));
+    }
+    if (++tableSize > threshold) {
+      grow();
+    }
+  }
+
+  final V value(long index) {
+    return storeValues ? readValue(valueRefs.getLong(index << 3)) : null;
+  }
+
+  /** Replaces the value of the slot with the given index and returns the previous value. */
+  final V replaceValue(long index, V value) {
+    V previousValue = value(index);
+    if (storeValues) {
+      valueRefs.putLong(index << 3, writeValue(value));
+    }
+    return previousValue;
+  }
+
+  /**
+   * Removes the key in the slot with the given index and returns its value. Keys further along the
+   * probe sequence are shifted back, so that no tombstones are needed.
+   */
+  final V removeAt(long index) {
+    V value = value(index);
+    long gap = index;
+    long next = nextIndex(gap);
+    long slot;
+    while ((slot = slot(next)) != 0) {
+      long distance = (next - index(hash(slot))) & (capacity - 1);
+      if (distance >= ((next - gap) & (capacity - 1))) {
+        setSlot(slots, gap, slot);
+        if (storeValues) {
+          valueRefs.putLong(gap << 3, valueRefs.getLong(next << 3));
+        }
+        gap = next;
+      }
+      next = nextIndex(next);
+    }
+    setSlot(slots, gap, 0);
+    if (storeValues) {
+      valueRefs.putLong(gap << 3, 0);
+    }
+    tableSize--;
+    return value;
+  }
+
+  /** Returns a reference to the value in the value log, zero for a null value. */
+  final long writeValue(V value) {
+    return value != null ? valueLog.append(encode(value)) + 1 : 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  final V readValue(long valueRef) {
+    return valueRef != 0 ? (V) decode(valueLog.read(valueRef - 1)) : null;
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(tableSize, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void clear() {
+    closeFiles();
+    allocate(INITIAL_CAPACITY);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return entryIterator();
+      }
+
+      @Override
+      public int size() {
+        return MappedHashTable.this.size();
+      }
+
+      @Override
+      public void clear() {
+        MappedHashTable.this.clear();
+      }
+    };
+  }
+
+  Iterator<Entry<K, V>> entryIterator() {
+    return new TableIterator();
+  }
+
+  @Override
+  public void close() {
+    closeFiles();
+  }
+
+  private void allocate(long newCapacity) {
+    capacity = newCapacity;
+    threshold = (long) (newCapacity * LOAD_FACTOR);
+    tableSize = 0;
+    slots = new MappedByteStore(pageShift(newCapacity << slotShift));
+    if (storeValues) {
+      valueRefs = new MappedByteStore(pageShift(newCapacity << 3));
+      if (valueLog == null) {
+        valueLog = new MappedRecordLog();
+      }
+    }
+  }
+
+  private void grow() {
+    MappedByteStore oldSlots = slots;
+    MappedByteStore oldValueRefs = valueRefs;
+    long oldCapacity = capacity;
+    long oldTableSize = tableSize;
+
+    allocate(oldCapacity << 1);
+    for (long oldIndex = 0; oldIndex < oldCapacity; oldIndex++) {
+      long slot = getSlot(oldSlots, oldIndex);
+      if (slot != 0) {
+        long index = index(hash(slot));
+        while (slot(index) != 0) {
+          index = nextIndex(index);
+        }
+        setSlot(slots, index, slot);
+        if (storeValues) {
+          valueRefs.putLong(index << 3, oldValueRefs.getLong(oldIndex << 3));
+        }
+      }
+    }
+    tableSize = oldTableSize;
+
+    oldSlots.close();
+    if (oldValueRefs != null) {
+      oldValueRefs.close();
+    }
+  }
+
+  private void closeFiles() {
+    slots.close();
+    if (valueRefs != null) {
+      valueRefs.close();
+      valueRefs = null;
+    }
+    if (valueLog != null) {
+      valueLog.close();
+      valueLog = null;
+    }
+  }
+
+  private long getSlot(MappedByteStore store, long index) {
+    return slotShift == 3 ? store.getLong(index << 3) : store.getInt(index << 2);
+  }
+
+  private void setSlot(MappedByteStore store, long index, long slot) {
+    if (slotShift == 3) {
+      store.putLong(index << 3, slot);
+    } else {
+      store.putInt(index << 2, (int) slot);
+    }
+  }
+
+  private static int pageShift(long bytes) {
+    return Math.min(MAX_PAGE_SHIFT, 63 - Long.numberOfLeadingZeros(bytes));
+  }
+
+  /** Spreads the bits of a hash code using the finalizer of MurmurHash3. */
+  static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static byte[] encode(Object value) {
+    if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(UTF_8);
+      byte[] encodedValue = new byte[bytes.length + 1];
+      encodedValue[0] = STRING_VALUE;
+      System.arraycopy(bytes, 0, encodedValue, 1, bytes.length);
+      return encodedValue;
+    } else if (value instanceof Integer) {
+      return ByteBuffer.allocate(1 + Integer.BYTES)
+          .put(INTEGER_VALUE)
+          .putInt((Integer) value)
+          .array();
+    } else if (value instanceof Long) {
+      return ByteBuffer.allocate(1 + Long.BYTES).put(LONG_VALUE).putLong((Long) value).array();
+    } else {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      bytes.write(SERIALIZED_VALUE);
+      try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+        objectOutputStream.writeObject(value);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  private static Object decode(byte[] encodedValue) {
+    switch (encodedValue[0]) {
+      case STRING_VALUE:
+        return new String(encodedValue, 1, encodedValue.length - 1, UTF_8);
+      case INTEGER_VALUE:
+        return ByteBuffer.wrap(encodedValue, 1, Integer.BYTES).getInt();
+      case LONG_VALUE:
+        return ByteBuffer.wrap(encodedValue, 1, Long.BYTES).getLong();
+      case SERIALIZED_VALUE:
+        try (ObjectInputStream objectInputStream =
+            new ObjectInputStream(
+                new ByteArrayInputStream(
+                    Arrays.copyOfRange(encodedValue, 1, encodedValue.length)))) {
+          return objectInputStream.readObject();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+          throw new IllegalStateException(e);
+        }
+      default:
+        throw new IllegalStateException("Unknown value encoding " + encodedValue[0]);
+    }
+  }
+
+  /**
+   * Iterates over the slots in descending order, starting below an empty slot. Removing the current
+   * key only shifts keys that were already visited, because shifting stops at an empty slot.
+   */
+  private class TableIterator implements Iterator<Entry<K, V>> {
+    private final long stop;
+    private long position;
+    private long nextIndex = -1;
+    private long currentIndex = -1;
+
+    TableIterator() {
+      long start = 0;
+      while (slot(start) != 0) {
+        start++;
+      }
+      stop = start;
+      position = start + capacity;
+      advance();
+    }
+
+    private void advance() {
+      nextIndex = -1;
+      while (--position > stop) {
+        long index = position & (capacity - 1);
+        if (slot(index) != 0) {
+          nextIndex = index;
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextIndex != -1;
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      if (nextIndex == -1) {
+        throw new NoSuchElementException();
+      }
+      currentIndex = nextIndex;
+      advance();
+      return new SimpleImmutableEntry<>(key(slot(currentIndex)), value(currentIndex));
+    }
+
+    @Override
+    public void remove() {
+      if (currentIndex == -1) {
+        throw new IllegalStateException();
+      }
+      removeAt(currentIndex);
+      currentIndex = -1;
+    }
+  }
+}
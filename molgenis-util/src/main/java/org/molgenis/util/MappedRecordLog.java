@@ -0,0 +1,43 @@
+package org.molgenis.util;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * Append-only log of byte records stored in a {@link MappedByteStore}. Each record is its length
+ * followed by its bytes, records start at positions that are a multiple of four.
+ */
+final class MappedRecordLog implements Closeable {
+  private static final int PAGE_SHIFT = 24;
+
+  private final MappedByteStore store;
+  private long end;
+
+  MappedRecordLog() {
+    this.store = new MappedByteStore(PAGE_SHIFT);
+  }
+
+  /** Returns the position of the appended record. */
+  long append(byte[] bytes) {
+    long position = end;
+    store.putInt(position, bytes.length);
+    store.put(position + Integer.BYTES, bytes);
+    end = (position + Integer.BYTES + bytes.length + 3) & ~3L;
+    return position;
+  }
+
+  byte[] read(long position) {
+    byte[] bytes = new byte[store.getInt(position)];
+    store.get(position + Integer.BYTES, bytes);
+    return bytes;
+  }
+
+  boolean equals(long position, byte[] bytes) {
+    return store.getInt(position) == bytes.length && Arrays.equals(read(position), bytes);
+  }
+
+  @Override
+  public void close() {
+    store.close();
+  }
+}
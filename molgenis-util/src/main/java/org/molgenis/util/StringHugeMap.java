@@ -0,0 +1,148 @@
+package org.molgenis.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Map with string keys that can contain a huge amount of entries by storing them in memory-mapped
+ * temporary files. The UTF-8 encoded keys are appended to a log, each hash table slot holds the
+ * hash code of a key and the position of the key in the log. Close the map to delete its files.
+ *
+ * @param <V> value type, values must be {@link java.io.Serializable}
+ */
+public class StringHugeMap<V> extends MappedHashTable<String, V> {
+  private static final long MAX_KEY_REF = 0xFFFFFFFFL;
+
+  private MappedRecordLog keyLog;
+
+  public StringHugeMap() {
+    this(true);
+  }
+
+  StringHugeMap(boolean storeValues) {
+    super(3, storeValues);
+    keyLog = new MappedRecordLog();
+  }
+
+  @Override
+  long hash(long slot) {
+    return mix(slot >>> 32);
+  }
+
+  @Override
+  String key(long slot) {
+    return new String(keyLog.read(keyPosition(slot)), UTF_8);
+  }
+
+  /**
+   * Returns the index of the key or, if absent, minus one minus the index to insert it at.
+   *
+   * @param hashCode hash code of the key as unsigned int
+   * @param keyBytes UTF-8 encoded key
+   */
+  private long find(long hashCode, byte[] keyBytes) {
+    long index = index(mix(hashCode));
+    long slot;
+    while ((slot = slot(index)) != 0) {
+      if ((slot >>> 32) == hashCode && keyLog.equals(keyPosition(slot), keyBytes)) {
+        return index;
+      }
+      index = nextIndex(index);
+    }
+    return -index - 1;
+  }
+
+  private long find(String key) {
+    return find(hashCode(key), key.getBytes(UTF_8));
+  }
+
+  /** Adds the key without a value and returns whether it was absent. */
+  final boolean addKey(String key) {
+    long hashCode = hashCode(key);
+    byte[] keyBytes = key.getBytes(UTF_8);
+    long index = find(hashCode, keyBytes);
+    if (index >= 0) {
+      return false;
+    }
+    insert(-index - 1, hashCode, keyBytes, null);
+    return true;
+  }
+
+  private void insert(long index, long hashCode, byte[] keyBytes, V value) {
+    long keyRef = (keyLog.append(keyBytes) >>> 2) + 1;
+    if (keyRef > MAX_KEY_REF) {
+      throw new IllegalStateException("Maximum total size of keys exceeded");
+    }
+    insert(index, (hashCode << 32) | keyRef, value);
+  }
+
+  /** Removes the key and returns whether it was present. */
+  final boolean removeKeyIfPresent(String key) {
+    long index = find(key);
+    if (index < 0) {
+      return false;
+    }
+    removeAt(index);
+    return true;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && find((String) key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    long index = find((String) key);
+    return index >= 0 ? value(index) : null;
+  }
+
+  @Override
+  public V put(String key, V value) {
+    long hashCode = hashCode(key);
+    byte[] keyBytes = key.getBytes(UTF_8);
+    long index = find(hashCode, keyBytes);
+    if (index >= 0) {
+      return replaceValue(index, value);
+    }
+    insert(-index - 1, hashCode, keyBytes, value);
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    long index = find((String) key);
+    return index >= 0 ? removeAt(index) : null;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return getTableSize() == 0;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    keyLog.close();
+    keyLog = new MappedRecordLog();
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    keyLog.close();
+  }
+
+  private static long hashCode(String key) {
+    return key.hashCode() & 0xFFFFFFFFL;
+  }
+
+  private static long keyPosition(long slot) {
+    return ((slot & MAX_KEY_REF) - 1) << 2;
+  }
+}
@@ -0,0 +1,53 @@
+package org.molgenis.util;
+
+import java.io.Closeable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Set of strings that can contain a huge amount of elements by storing them in memory-mapped
+ * temporary files. Close the set to delete its files.
+ */
+public class StringHugeSet extends AbstractSet<String> implements Closeable {
+  private final StringHugeMap<Void> map = new StringHugeMap<>(false);
+
+  @Override
+  public boolean add(String value) {
+    return map.addKey(value);
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return o instanceof String && map.removeKeyIfPresent((String) o);
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public void close() {
+    map.close();
+  }
+}
@@ -0,0 +1,161 @@
+package org.molgenis.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the specialized huge collections with the MapDB collections that {@link HugeSet} and
+ * {@link HugeMap} used to spill to. Each benchmark adds all keys and looks up all keys once. Run
+ * with {@link #main(String[])} from the test classpath, the 100M keys runs take long for MapDB.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class HugeCollectionsBenchmark {
+  @Param({"1000000", "10000000", "100000000"})
+  private int size;
+
+  @Benchmark
+  public void mapDbLongSet(Blackhole blackhole) throws IOException {
+    DB mapDB = createMapDB();
+    try {
+      Set<Long> set = mapDB.createHashSet("set").make();
+      for (long key = 0; key < size; key++) {
+        set.add(key);
+      }
+      for (long key = 0; key < size; key++) {
+        blackhole.consume(set.contains(key));
+      }
+    } finally {
+      mapDB.close();
+    }
+  }
+
+  @Benchmark
+  public void longHugeSet(Blackhole blackhole) {
+    try (LongHugeSet set = new LongHugeSet()) {
+      for (long key = 0; key < size; key++) {
+        set.add(key);
+      }
+      for (long key = 0; key < size; key++) {
+        blackhole.consume(set.contains(key));
+      }
+    }
+  }
+
+  @Benchmark
+  public void mapDbIntSet(Blackhole blackhole) throws IOException {
+    DB mapDB = createMapDB();
+    try {
+      Set<Integer> set = mapDB.createHashSet("set").make();
+      for (int key = 0; key < size; key++) {
+        set.add(key);
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(set.contains(key));
+      }
+    } finally {
+      mapDB.close();
+    }
+  }
+
+  @Benchmark
+  public void intHugeSet(Blackhole blackhole) {
+    try (IntHugeSet set = new IntHugeSet()) {
+      for (int key = 0; key < size; key++) {
+        set.add(key);
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(set.contains(key));
+      }
+    }
+  }
+
+  @Benchmark
+  public void mapDbStringSet(Blackhole blackhole) throws IOException {
+    DB mapDB = createMapDB();
+    try {
+      Set<String> set = mapDB.createHashSet("set").make();
+      for (int key = 0; key < size; key++) {
+        set.add(Integer.toString(key));
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(set.contains(Integer.toString(key)));
+      }
+    } finally {
+      mapDB.close();
+    }
+  }
+
+  @Benchmark
+  public void stringHugeSet(Blackhole blackhole) {
+    try (StringHugeSet set = new StringHugeSet()) {
+      for (int key = 0; key < size; key++) {
+        set.add(Integer.toString(key));
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(set.contains(Integer.toString(key)));
+      }
+    }
+  }
+
+  @Benchmark
+  public void mapDbStringMap(Blackhole blackhole) throws IOException {
+    DB mapDB = createMapDB();
+    try {
+      Map<String, Object> map = mapDB.createHashMap("map").make();
+      for (int key = 0; key < size; key++) {
+        map.put(Integer.toString(key), key);
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(map.get(Integer.toString(key)));
+      }
+    } finally {
+      mapDB.close();
+    }
+  }
+
+  @Benchmark
+  public void stringHugeMap(Blackhole blackhole) {
+    try (StringHugeMap<Object> map = new StringHugeMap<>()) {
+      for (int key = 0; key < size; key++) {
+        map.put(Integer.toString(key), key);
+      }
+      for (int key = 0; key < size; key++) {
+        blackhole.consume(map.get(Integer.toString(key)));
+      }
+    }
+  }
+
+  private static DB createMapDB() throws IOException {
+    File dbFile = File.createTempFile("mapdb", "temp");
+    return DBMaker.newFileDB(dbFile).deleteFilesAfterClose().transactionDisable().make();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(HugeCollectionsBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
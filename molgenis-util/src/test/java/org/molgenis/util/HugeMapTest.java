@@ -166,6 +166,39 @@ class HugeMapTest {
     assertEquals(THRESHOLD, hugeMap.values().size());
   }
 
+  @Test
+  void putBeyondThreshold() {
+    IntStream.rangeClosed(0, THRESHOLD).mapToObj(Integer::toString).forEach(s -> hugeMap.put(s, s));
+    assertEquals(THRESHOLD + 1, hugeMap.size());
+    assertEquals("2", hugeMap.get("2"));
+    assertEquals("2", hugeMap.put("2", "two"));
+    assertEquals("two", hugeMap.get("2"));
+    assertTrue(hugeMap.containsValue("two"));
+    assertEquals(THRESHOLD + 1, hugeMap.entrySet().size());
+  }
+
+  @Test
+  void putBeyondThresholdIntegers() throws IOException {
+    try (HugeMap<Integer, Object> integerHugeMap = new HugeMap<>()) {
+      IntStream.rangeClosed(0, THRESHOLD).forEach(i -> integerHugeMap.put(i, (long) i));
+      assertEquals(THRESHOLD + 1, integerHugeMap.size());
+      assertEquals(0L, integerHugeMap.get(0));
+      assertEquals((long) THRESHOLD, integerHugeMap.remove(THRESHOLD));
+      assertNull(integerHugeMap.get(THRESHOLD));
+    }
+  }
+
+  @Test
+  void putBeyondThresholdMixedTypes() throws IOException {
+    try (HugeMap<Object, Object> objectHugeMap = new HugeMap<>()) {
+      IntStream.rangeClosed(0, THRESHOLD).forEach(i -> objectHugeMap.put(i, i));
+      objectHugeMap.put("key", "value");
+      assertEquals(THRESHOLD + 2, objectHugeMap.size());
+      assertEquals(THRESHOLD, objectHugeMap.get(THRESHOLD));
+      assertEquals("value", objectHugeMap.get("key"));
+    }
+  }
+
   private void fillToThreshold() {
     IntStream.range(0, HugeMap.THRESHOLD)
         .mapToObj(Integer::toString)
@@ -13,6 +13,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -177,6 +178,38 @@ class HugeSetTest {
     assertEquals(THRESHOLD, hugeSet.toArray().length);
   }
 
+  @Test
+  void addBeyondThreshold() {
+    IntStream.rangeClosed(0, THRESHOLD).mapToObj(Integer::toString).forEach(hugeSet::add);
+    assertEquals(THRESHOLD + 1, hugeSet.size());
+    assertTrue(hugeSet.contains(Integer.toString(THRESHOLD)));
+    assertFalse(hugeSet.contains("test"));
+    assertEquals(THRESHOLD + 1, size(hugeSet.iterator()));
+  }
+
+  @Test
+  void addBeyondThresholdLongs() throws IOException {
+    try (HugeSet<Long> longHugeSet = new HugeSet<>()) {
+      LongStream.rangeClosed(0, THRESHOLD).forEach(longHugeSet::add);
+      assertEquals(THRESHOLD + 1, longHugeSet.size());
+      assertTrue(longHugeSet.contains((long) THRESHOLD));
+      assertTrue(longHugeSet.remove(0L));
+      assertFalse(longHugeSet.contains(0L));
+    }
+  }
+
+  @Test
+  void addBeyondThresholdMixedTypes() throws IOException {
+    try (HugeSet<Object> objectHugeSet = new HugeSet<>()) {
+      IntStream.rangeClosed(0, THRESHOLD).forEach(objectHugeSet::add);
+      objectHugeSet.add("test");
+      assertEquals(THRESHOLD + 2, objectHugeSet.size());
+      assertTrue(objectHugeSet.contains(THRESHOLD));
+      assertTrue(objectHugeSet.contains("test"));
+      assertFalse(objectHugeSet.contains((long) THRESHOLD));
+    }
+  }
+
   private void fillToThreshold() {
     IntStream.range(0, HugeSet.THRESHOLD).mapToObj(Integer::toString).forEach(hugeSet::add);
   }
@@ -0,0 +1,97 @@
+package org.molgenis.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LongHugeSetTest {
+  private static final int SIZE = 100000;
+
+  private LongHugeSet longHugeSet;
+
+  @BeforeEach
+  void beforeMethod() {
+    longHugeSet = new LongHugeSet();
+  }
+
+  @AfterEach
+  void afterMethod() {
+    longHugeSet.close();
+  }
+
+  @Test
+  void add() {
+    assertTrue(longHugeSet.add(1L));
+    assertFalse(longHugeSet.add(1L));
+    assertEquals(1, longHugeSet.size());
+  }
+
+  @Test
+  void addZero() {
+    assertTrue(longHugeSet.add(0L));
+    assertFalse(longHugeSet.add(0L));
+    assertTrue(longHugeSet.contains(0L));
+    assertEquals(1, longHugeSet.size());
+  }
+
+  @Test
+  void addLarge() {
+    fill();
+    assertEquals(SIZE, longHugeSet.size());
+    LongStream.range(-SIZE / 2, SIZE / 2).forEach(value -> assertTrue(longHugeSet.contains(value)));
+    assertFalse(longHugeSet.contains(SIZE));
+    assertFalse(longHugeSet.contains("1"));
+  }
+
+  @Test
+  void removeLarge() {
+    fill();
+    LongStream.range(0, SIZE / 2).forEach(value -> assertTrue(longHugeSet.remove(value)));
+    assertFalse(longHugeSet.remove(0L));
+    assertEquals(SIZE / 2, longHugeSet.size());
+    LongStream.range(-SIZE / 2, 0).forEach(value -> assertTrue(longHugeSet.contains(value)));
+    LongStream.range(0, SIZE / 2).forEach(value -> assertFalse(longHugeSet.contains(value)));
+  }
+
+  @Test
+  void iteratorLarge() {
+    fill();
+    Set<Long> values = new HashSet<>();
+    longHugeSet.forEach(values::add);
+    assertEquals(SIZE, values.size());
+  }
+
+  @Test
+  void iteratorRemoveLarge() {
+    fill();
+    for (Iterator<Long> it = longHugeSet.iterator(); it.hasNext(); ) {
+      if (it.next() % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertEquals(SIZE / 2, longHugeSet.size());
+    LongStream.range(-SIZE / 2, SIZE / 2)
+        .forEach(value -> assertEquals(value % 2 != 0, longHugeSet.contains(value)));
+  }
+
+  @Test
+  void clear() {
+    fill();
+    longHugeSet.clear();
+    assertTrue(longHugeSet.isEmpty());
+    assertFalse(longHugeSet.contains(0L));
+    assertTrue(longHugeSet.add(1L));
+  }
+
+  private void fill() {
+    LongStream.range(-SIZE / 2, SIZE / 2).forEach(longHugeSet::add);
+  }
+}
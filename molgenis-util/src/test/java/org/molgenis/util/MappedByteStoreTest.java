@@ -0,0 +1,53 @@
+package org.molgenis.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.UncheckedIOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedByteStoreTest {
+  private MappedByteStore mappedByteStore;
+
+  @BeforeEach
+  void beforeMethod() {
+    mappedByteStore = new MappedByteStore(4);
+  }
+
+  @AfterEach
+  void afterMethod() {
+    mappedByteStore.close();
+  }
+
+  @Test
+  void putLong() {
+    mappedByteStore.putLong(8, 123L);
+    mappedByteStore.putLong(1024, 456L);
+    assertEquals(123L, mappedByteStore.getLong(8));
+    assertEquals(456L, mappedByteStore.getLong(1024));
+  }
+
+  @Test
+  void getIntNotWritten() {
+    assertEquals(0, mappedByteStore.getInt(64));
+  }
+
+  @Test
+  void putAcrossPages() {
+    byte[] bytes = "bytes that cross several pages".getBytes();
+    mappedByteStore.put(13, bytes);
+    byte[] readBytes = new byte[bytes.length];
+    mappedByteStore.get(13, readBytes);
+    assertArrayEquals(bytes, readBytes);
+  }
+
+  @Test
+  void closeReleasesMappings() {
+    mappedByteStore.putLong(0, 123L);
+    mappedByteStore.close();
+    assertThrows(UncheckedIOException.class, () -> mappedByteStore.getLong(0));
+  }
+}
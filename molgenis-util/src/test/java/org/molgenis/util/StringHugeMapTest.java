@@ -0,0 +1,95 @@
+package org.molgenis.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StringHugeMapTest {
+  private static final int SIZE = 100000;
+
+  private StringHugeMap<Object> stringHugeMap;
+
+  @BeforeEach
+  void beforeMethod() {
+    stringHugeMap = new StringHugeMap<>();
+  }
+
+  @AfterEach
+  void afterMethod() {
+    stringHugeMap.close();
+  }
+
+  @Test
+  void put() {
+    assertNull(stringHugeMap.put("key", "value"));
+    assertEquals("value", stringHugeMap.put("key", "otherValue"));
+    assertEquals("otherValue", stringHugeMap.get("key"));
+    assertEquals(1, stringHugeMap.size());
+  }
+
+  @Test
+  void putValueTypes() {
+    stringHugeMap.put("string", "é€");
+    stringHugeMap.put("int", 1);
+    stringHugeMap.put("long", 2L);
+    stringHugeMap.put("date", LocalDate.of(2020, 1, 2));
+    stringHugeMap.put("null", null);
+
+    assertEquals("é€", stringHugeMap.get("string"));
+    assertEquals(1, stringHugeMap.get("int"));
+    assertEquals(2L, stringHugeMap.get("long"));
+    assertEquals(LocalDate.of(2020, 1, 2), stringHugeMap.get("date"));
+    assertNull(stringHugeMap.get("null"));
+    assertTrue(stringHugeMap.containsKey("null"));
+  }
+
+  @Test
+  void putLarge() {
+    fill();
+    assertEquals(SIZE, stringHugeMap.size());
+    IntStream.range(0, SIZE).forEach(i -> assertEquals(i, stringHugeMap.get("key" + i)));
+    assertFalse(stringHugeMap.containsKey("key" + SIZE));
+    assertFalse(stringHugeMap.containsKey(1));
+  }
+
+  @Test
+  void removeLarge() {
+    fill();
+    IntStream.range(0, SIZE / 2).forEach(i -> assertEquals(i, stringHugeMap.remove("key" + i)));
+    assertNull(stringHugeMap.remove("key0"));
+    assertEquals(SIZE / 2, stringHugeMap.size());
+    IntStream.range(SIZE / 2, SIZE).forEach(i -> assertEquals(i, stringHugeMap.get("key" + i)));
+  }
+
+  @Test
+  void entrySetLarge() {
+    fill();
+    Map<String, Object> map = new HashMap<>();
+    stringHugeMap.forEach(map::put);
+    assertEquals(SIZE, map.size());
+    assertEquals(7, map.get("key7"));
+  }
+
+  @Test
+  void clear() {
+    fill();
+    stringHugeMap.clear();
+    assertTrue(stringHugeMap.isEmpty());
+    assertNull(stringHugeMap.get("key1"));
+    stringHugeMap.put("key1", "value");
+    assertEquals("value", stringHugeMap.get("key1"));
+  }
+
+  private void fill() {
+    IntStream.range(0, SIZE).forEach(i -> stringHugeMap.put("key" + i, i));
+  }
+}